@@ -290,6 +290,9 @@ public interface AsteriskChannel extends LiveObject
     /**
      * Returns the channel variables as received by
      * {@link org.asteriskjava.manager.event.VarSetEvent VarSetEvents}.<p>
+     * If tracked variables have been configured with
+     * {@link DefaultAsteriskServer#setTrackedChannelVariables(java.util.Collection)}
+     * only those are included.<p>
      * Available since Asterisk 1.6.
      *
      * @return the channel variables.
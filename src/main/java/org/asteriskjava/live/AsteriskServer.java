@@ -253,6 +253,9 @@ public interface AsteriskServer
 
     /**
      * Returns the active channels of the Asterisk server.
+     * <p>
+     * The collection is an unmodifiable snapshot, it does not change when
+     * channels are added or hung up later on.
      * 
      * @return a Collection of active channels.
      * @throws ManagerCommunicationException if there is a problem communication
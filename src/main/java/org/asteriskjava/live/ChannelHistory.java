@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.live;
+
+/**
+ * The histories kept for each {@link AsteriskChannel}.
+ *
+ * @author srt
+ * @version $Id$
+ * @see AsteriskChannel
+ * @see HistoryPolicy
+ * @since 2.0.0
+ */
+public enum ChannelHistory
+{
+    /**
+     * The dialplan entries visited, see {@link AsteriskChannel#getExtensionHistory()}.
+     */
+    EXTENSION,
+
+    /**
+     * The states the channel has been in. {@link AsteriskChannel#wasInState(ChannelState)}
+     * does not depend on this history.
+     */
+    STATE,
+
+    /**
+     * The channels bridged with the channel, see
+     * {@link AsteriskChannel#getLinkedChannelHistory()}.
+     */
+    LINKED_CHANNEL,
+
+    /**
+     * The channels dialed by the channel, see
+     * {@link AsteriskChannel#getDialedChannelHistory()}.
+     */
+    DIALED_CHANNEL
+}
@@ -27,6 +27,7 @@ import org.asteriskjava.manager.DefaultManagerConnection;
 import org.asteriskjava.manager.ManagerConnection;
 import org.asteriskjava.manager.ManagerEventListener;
 import org.asteriskjava.manager.action.OriginateAction;
+import org.asteriskjava.util.AsteriskRuntime;
 
 /**
  * Default implementation of the AsteriskServer interface.
@@ -116,6 +117,86 @@ public class DefaultAsteriskServer implements AsteriskServer
         this.impl.setSkipQueues(skipQueues);
     }
 
+    /**
+     * Sets the runtime whose threads are shared with other servers and
+     * connections for asynchronous event handling and scheduled tasks. Set
+     * the runtime before initializing the server. The state is
+     * re-initialized after a reconnect on the reconnect executor of the
+     * runtime, events received meanwhile are handled afterwards.<br>
+     * Default is <code>null</code>, i.e. the server uses threads of its own.
+     *
+     * @param runtime the runtime to use or <code>null</code> to use threads
+     *            of this server.
+     * @since 2.0.0
+     */
+    public void setRuntime(AsteriskRuntime runtime)
+    {
+        this.impl.setRuntime(runtime);
+    }
+
+    /**
+     * Sets how many entries of the given history are kept for each channel.
+     * Channels that loop through the dialplan or live for a long time can
+     * accumulate a large number of entries, they are kept until the channel
+     * is removed from memory some time after hangup.<br>
+     * The policy applies to histories started afterwards. Default is
+     * {@link HistoryPolicy#FULL} for all histories.
+     *
+     * @param history the history to configure.
+     * @param policy  the policy for that history.
+     * @since 2.0.0
+     */
+    public void setChannelHistoryPolicy(ChannelHistory history, HistoryPolicy policy)
+    {
+        this.impl.setChannelHistoryPolicy(history, policy);
+    }
+
+    /**
+     * Sets the channel variables that are kept with each channel and returned
+     * by {@link AsteriskChannel#getVariables()}. Other variables reported by
+     * Asterisk are ignored, which saves memory and processing time for
+     * dialplans that set lots of variables.<p>
+     * Names are case insensitive and match the variable with and without the
+     * underscores that make it inherited. A name ending with "*" matches all
+     * variables starting with the part before it. The names are also
+     * requested with the StatusAction that initializes the channels.<br>
+     * Default is <code>null</code> to keep all variables.
+     *
+     * @param variables the names of the variables to keep, <code>null</code>
+     *            to keep all variables.
+     * @throws IllegalArgumentException if a name is <code>null</code> or empty.
+     * @since 2.0.0
+     */
+    public void setTrackedChannelVariables(Collection<String> variables)
+    {
+        this.impl.setTrackedChannelVariables(variables);
+    }
+
+    /**
+     * Sets how long hung up channels are kept in memory, so they can still be
+     * looked up by events that arrive after the hangup, like CdrEvents.
+     * Set it to 0 to remove channels as soon as they are hung up.<br>
+     * Default is 15 minutes.
+     *
+     * @param channelRetention the time in milliseconds.
+     * @since 2.0.0
+     */
+    public void setChannelRetention(long channelRetention)
+    {
+        this.impl.setChannelRetention(channelRetention);
+    }
+
+    /**
+     * Returns the number of hung up channels that are still kept in memory.
+     *
+     * @return the number of hung up channels that are still kept in memory.
+     * @since 2.0.0
+     */
+    public int getRetainedChannelCount()
+    {
+        return this.impl.getRetainedChannelCount();
+    }
+
     public void setManagerConnection(ManagerConnection eventConnection)
     {
         this.impl.setManagerConnection(eventConnection);
@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.live;
+
+/**
+ * Determines how many entries of a {@link ChannelHistory} are kept for each
+ * channel.<p>
+ * Channels are kept in memory for a while after they have been hung up, so
+ * channels that loop through the dialplan or live for a long time can
+ * accumulate a large number of history entries. Keeping only the last
+ * entries bounds the memory used per channel.
+ *
+ * @author srt
+ * @version $Id$
+ * @see AsteriskServer
+ * @since 2.0.0
+ */
+public final class HistoryPolicy
+{
+    /**
+     * Keeps all entries. This is the default.
+     */
+    public static final HistoryPolicy FULL = new HistoryPolicy(-1);
+
+    /**
+     * Keeps no entries.
+     */
+    public static final HistoryPolicy DISABLED = new HistoryPolicy(0);
+
+    private final int maxEntries;
+
+    private HistoryPolicy(int maxEntries)
+    {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns a policy that keeps the given number of most recent entries,
+     * older entries are discarded.
+     *
+     * @param maxEntries the number of entries to keep.
+     * @return the policy.
+     * @throws IllegalArgumentException if maxEntries is not positive.
+     */
+    public static HistoryPolicy lastEntries(int maxEntries)
+    {
+        if (maxEntries < 1)
+        {
+            throw new IllegalArgumentException("Number of entries must be positive");
+        }
+        return new HistoryPolicy(maxEntries);
+    }
+
+    /**
+     * Returns the maximum number of entries kept.
+     *
+     * @return the maximum number of entries kept, -1 if all entries are
+     *         kept.
+     */
+    public int getMaxEntries()
+    {
+        return maxEntries;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        return o instanceof HistoryPolicy && ((HistoryPolicy) o).maxEntries == maxEntries;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return maxEntries;
+    }
+
+    @Override
+    public String toString()
+    {
+        if (maxEntries < 0)
+        {
+            return "HistoryPolicy[full]";
+        }
+        if (maxEntries == 0)
+        {
+            return "HistoryPolicy[disabled]";
+        }
+        return "HistoryPolicy[last " + maxEntries + "]";
+    }
+}
@@ -32,8 +32,13 @@ import java.beans.PropertyChangeSupport;
  */
 abstract class AbstractLiveObject implements LiveObject
 {
-    private final Log logger = LogFactory.getLog(this.getClass());
-    private final PropertyChangeSupport changes;
+    private static final Log logger = LogFactory.getLog(AbstractLiveObject.class);
+
+    /**
+     * Created when the first listener is added, most live objects never have
+     * any.
+     */
+    private volatile PropertyChangeSupport changes;
     protected final AsteriskServerImpl server;
 
     // last time this object was updated
@@ -42,10 +47,27 @@ abstract class AbstractLiveObject implements LiveObject
     AbstractLiveObject(AsteriskServerImpl server)
     {
         this.server = server;
-        this.changes = new PropertyChangeSupport(this);
         stampLastUpdate();
     }
 
+    private PropertyChangeSupport getChanges()
+    {
+        PropertyChangeSupport result = changes;
+        if (result == null)
+        {
+            synchronized (this)
+            {
+                result = changes;
+                if (result == null)
+                {
+                    result = new PropertyChangeSupport(this);
+                    changes = result;
+                }
+            }
+        }
+        return result;
+    }
+
     public AsteriskServer getServer()
     {
         return server;
@@ -53,11 +75,12 @@ abstract class AbstractLiveObject implements LiveObject
 
     public void addPropertyChangeListener(PropertyChangeListener listener)
     {
-        changes.addPropertyChangeListener(listener);
+        getChanges().addPropertyChangeListener(listener);
     }
 
     public void addPropertyChangeListener(String propertyName, PropertyChangeListener listener)
     {
+        final PropertyChangeSupport changes = getChanges();
         boolean haveToAdd = true;
         for (PropertyChangeListener l : changes.getPropertyChangeListeners())
         {
@@ -75,12 +98,20 @@ abstract class AbstractLiveObject implements LiveObject
 
     public void removePropertyChangeListener(PropertyChangeListener listener)
     {
-        changes.removePropertyChangeListener(listener);
+        final PropertyChangeSupport changes = this.changes;
+        if (changes != null)
+        {
+            changes.removePropertyChangeListener(listener);
+        }
     }
 
     public void removePropertyChangeListener(String propertyName, PropertyChangeListener listener)
     {
-        changes.removePropertyChangeListener(propertyName, listener);
+        final PropertyChangeSupport changes = this.changes;
+        if (changes != null)
+        {
+            changes.removePropertyChangeListener(propertyName, listener);
+        }
     }
 
     protected void firePropertyChange(String propertyName, Object oldValue, Object newValue)
@@ -88,6 +119,11 @@ abstract class AbstractLiveObject implements LiveObject
         if (oldValue != null || newValue != null)
         {
             stampLastUpdate();
+            final PropertyChangeSupport changes = this.changes;
+            if (changes == null)
+            {
+                return;
+            }
             try
             {
                 changes.firePropertyChange(propertyName, oldValue, newValue);
@@ -49,6 +49,7 @@ import org.asteriskjava.util.LogFactory;
  */
 public class AgentManager
 {
+    private static final String ROUTE_TARGET = "AgentManager";
 
     private final Log logger = LogFactory.getLog(this.getClass());
 
@@ -95,6 +96,71 @@ public class AgentManager
         }
     }
 
+    /**
+     * Registers the handlers for the events this manager keeps track of.
+     *
+     * @param router the router of the AsteriskServer.
+     */
+    void registerEventRoutes(EventRouter router)
+    {
+        router.addRoute(ROUTE_TARGET, AgentsEvent.class, new EventRouter.EventHandler<AgentsEvent>()
+        {
+            public void handle(AgentsEvent event)
+            {
+                handleAgentsEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, AgentCalledEvent.class, new EventRouter.EventHandler<AgentCalledEvent>()
+        {
+            public void handle(AgentCalledEvent event)
+            {
+                handleAgentCalledEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, AgentConnectEvent.class, new EventRouter.EventHandler<AgentConnectEvent>()
+        {
+            public void handle(AgentConnectEvent event)
+            {
+                handleAgentConnectEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, AgentCompleteEvent.class, new EventRouter.EventHandler<AgentCompleteEvent>()
+        {
+            public void handle(AgentCompleteEvent event)
+            {
+                handleAgentCompleteEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, AgentCallbackLoginEvent.class, new EventRouter.EventHandler<AgentCallbackLoginEvent>()
+        {
+            public void handle(AgentCallbackLoginEvent event)
+            {
+                handleAgentCallbackLoginEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, AgentCallbackLogoffEvent.class, new EventRouter.EventHandler<AgentCallbackLogoffEvent>()
+        {
+            public void handle(AgentCallbackLogoffEvent event)
+            {
+                handleAgentCallbackLogoffEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, AgentLoginEvent.class, new EventRouter.EventHandler<AgentLoginEvent>()
+        {
+            public void handle(AgentLoginEvent event)
+            {
+                handleAgentLoginEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, AgentLogoffEvent.class, new EventRouter.EventHandler<AgentLogoffEvent>()
+        {
+            public void handle(AgentLogoffEvent event)
+            {
+                handleAgentLogoffEvent(event);
+            }
+        });
+    }
+
     void disconnected()
     {
         synchronized (agents)
@@ -22,6 +22,7 @@ import org.asteriskjava.live.AsteriskChannel;
 import org.asteriskjava.live.AsteriskQueueEntry;
 import org.asteriskjava.live.CallDetailRecord;
 import org.asteriskjava.live.CallerId;
+import org.asteriskjava.live.ChannelHistory;
 import org.asteriskjava.live.ChannelState;
 import org.asteriskjava.live.ChannelStateHistoryEntry;
 import org.asteriskjava.live.DialedChannelHistoryEntry;
@@ -57,22 +58,50 @@ import org.asteriskjava.util.MixMonitorDirection;
 class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
 {
     private static final String CAUSE_VARIABLE_NAME = "PRI_CAUSE";
+    private static final AsteriskChannel[] NO_CHANNELS = new AsteriskChannel[0];
     /**
-     * Date this channel has been created.
+     * Value of dateOfRemoval while this channel has not been hung up.
      */
-    private final Date dateOfCreation;
-    private final List<ExtensionHistoryEntry> extensionHistory;
-    private final List<ChannelStateHistoryEntry> stateHistory;
-    private final List<LinkedChannelHistoryEntry> linkedChannelHistory;
-    private final List<DialedChannelHistoryEntry> dialedChannelHistory;
-    private final List<AsteriskChannel> dialedChannels;
-    private final List<AsteriskChannel> dialingChannels;
+    private static final long NOT_REMOVED = Long.MIN_VALUE;
     /**
-     * If this channel is bridged to another channel, the linkedChannels contains
-     * the channel this channel is bridged with.
+     * Date this channel has been created in milliseconds.
      */
-    private final List<AsteriskChannel> linkedChannels;
-    private final Map<String, String> variables;
+    private final long dateOfCreation;
+
+    /*
+     * The collections below are only allocated when the first element is
+     * added, most channels never dial, link or store variables. They are
+     * guarded by this channel. The histories are created with the policy in
+     * effect when their first entry is added.
+     */
+    private History<ExtensionHistoryEntry> extensionHistory;
+    private History<ChannelStateHistoryEntry> stateHistory;
+    private History<LinkedChannelHistoryEntry> linkedChannelHistory;
+    private History<DialedChannelHistoryEntry> dialedChannelHistory;
+    /**
+     * The first and the current dialplan entry, kept independent of the
+     * history policy.
+     */
+    private boolean extensionVisited;
+    private Extension firstExtension;
+    private Extension currentExtension;
+    /**
+     * Bit mask of the ordinals of the states this channel has been in, kept
+     * independent of the history policy.
+     */
+    private int statesEntered;
+    /**
+     * The channels dialed by this channel in the order they have been dialed,
+     * replaced on every change so readers can iterate without locking.
+     */
+    private volatile AsteriskChannel[] dialedChannels = NO_CHANNELS;
+    private volatile AsteriskChannel dialingChannel;
+    /**
+     * If this channel is bridged to another channel, the channel this channel
+     * is bridged with.
+     */
+    private volatile AsteriskChannel linkedChannel;
+    private Map<String, String> variables;
     /**
      * Unique id of this channel.
      */
@@ -82,9 +111,10 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
      */
     private String traceId;
     /**
-     * Date this channel has left the Asterisk server.
+     * Date this channel has left the Asterisk server in milliseconds,
+     * {@link #NOT_REMOVED} while it is active.
      */
-    private Date dateOfRemoval;
+    private volatile long dateOfRemoval = NOT_REMOVED;
     /**
      * Name of this channel.
      */
@@ -171,15 +201,17 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
 
         this.name = name;
         this.id = id;
-        this.dateOfCreation = dateOfCreation;
-        this.extensionHistory = new ArrayList<ExtensionHistoryEntry>();
-        this.stateHistory = new ArrayList<ChannelStateHistoryEntry>();
-        this.linkedChannelHistory = new ArrayList<LinkedChannelHistoryEntry>();
-        this.dialedChannelHistory = new ArrayList<DialedChannelHistoryEntry>();
-        this.variables = new HashMap<String, String>();
-        this.dialedChannels = new ArrayList<AsteriskChannel>();
-        this.dialingChannels = new ArrayList<AsteriskChannel>();
-        this.linkedChannels = new ArrayList<AsteriskChannel>();
+        this.dateOfCreation = dateOfCreation.getTime();
+    }
+
+    private <E> History<E> createHistory(ChannelHistory history)
+    {
+        return new History<E>(server.getChannelHistoryPolicy(history));
+    }
+
+    private static <E> List<E> toList(History<E> history)
+    {
+        return history == null ? new ArrayList<E>() : history.toList();
     }
 
     public String getId()
@@ -263,20 +295,9 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
         return state;
     }
 
-    public boolean wasInState(ChannelState state)
+    public synchronized boolean wasInState(ChannelState state)
     {
-        synchronized (stateHistory)
-        {
-            for (ChannelStateHistoryEntry historyEntry : stateHistory)
-            {
-                if (historyEntry.getState() == state)
-                {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+        return state != null && (statesEntered & (1 << state.ordinal())) != 0;
     }
 
     public boolean wasBusy()
@@ -293,7 +314,6 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
      */
     synchronized void stateChanged(Date date, ChannelState state)
     {
-        final ChannelStateHistoryEntry historyEntry;
         final ChannelState oldState = this.state;
 
         if (oldState == state)
@@ -303,10 +323,17 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
 
         // System.err.println(id + " state change: " + oldState + " => " + state
         // + " (" + name + ")");
-        historyEntry = new ChannelStateHistoryEntry(date, state);
-        synchronized (stateHistory)
+        if (state != null)
+        {
+            statesEntered |= 1 << state.ordinal();
+        }
+        if (stateHistory == null)
+        {
+            stateHistory = createHistory(ChannelHistory.STATE);
+        }
+        if (stateHistory.isEnabled())
         {
-            stateHistory.add(historyEntry);
+            stateHistory.add(new ChannelStateHistoryEntry(date, state));
         }
 
         this.state = state;
@@ -331,54 +358,19 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
         firePropertyChange(PROPERTY_ACCOUNT, oldAccount, account);
     }
 
-    public Extension getCurrentExtension()
+    public synchronized Extension getCurrentExtension()
     {
-        final Extension extension;
-
-        synchronized (extensionHistory)
-        {
-            if (extensionHistory.isEmpty())
-            {
-                extension = null;
-            }
-            else
-            {
-                extension = extensionHistory.get(extensionHistory.size() - 1).getExtension();
-            }
-        }
-
-        return extension;
+        return currentExtension;
     }
 
-    public Extension getFirstExtension()
+    public synchronized Extension getFirstExtension()
     {
-        final Extension extension;
-
-        synchronized (extensionHistory)
-        {
-            if (extensionHistory.isEmpty())
-            {
-                extension = null;
-            }
-            else
-            {
-                extension = extensionHistory.get(0).getExtension();
-            }
-        }
-
-        return extension;
+        return firstExtension;
     }
 
-    public List<ExtensionHistoryEntry> getExtensionHistory()
+    public synchronized List<ExtensionHistoryEntry> getExtensionHistory()
     {
-        final List<ExtensionHistoryEntry> copy;
-
-        synchronized (extensionHistory)
-        {
-            copy = new ArrayList<ExtensionHistoryEntry>(extensionHistory);
-        }
-
-        return copy;
+        return toList(extensionHistory);
     }
 
     /**
@@ -389,25 +381,53 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
      */
     void extensionVisited(Date date, Extension extension)
     {
-        final Extension oldCurrentExtension = getCurrentExtension();
-        final ExtensionHistoryEntry historyEntry;
+        final Extension oldCurrentExtension;
 
-        historyEntry = new ExtensionHistoryEntry(date, extension);
-
-        synchronized (extensionHistory)
+        synchronized (this)
         {
-            extensionHistory.add(historyEntry);
+            oldCurrentExtension = currentExtension;
+            if (!extensionVisited)
+            {
+                extensionVisited = true;
+                firstExtension = extension;
+            }
+            currentExtension = extension;
+            if (extensionHistory == null)
+            {
+                extensionHistory = createHistory(ChannelHistory.EXTENSION);
+            }
+            if (extensionHistory.isEnabled())
+            {
+                extensionHistory.add(new ExtensionHistoryEntry(date, extension));
+            }
         }
 
         firePropertyChange(PROPERTY_CURRENT_EXTENSION, oldCurrentExtension, extension);
     }
 
     public Date getDateOfCreation()
+    {
+        return new Date(dateOfCreation);
+    }
+
+    long getDateOfCreationMillis()
     {
         return dateOfCreation;
     }
 
     public Date getDateOfRemoval()
+    {
+        final long date = dateOfRemoval;
+        return date == NOT_REMOVED ? null : new Date(date);
+    }
+
+    /**
+     * Returns the date this channel has been hung up in milliseconds.
+     *
+     * @return the date this channel has been hung up or
+     *         <code>Long.MIN_VALUE</code> if it is still active.
+     */
+    long getDateOfRemovalMillis()
     {
         return dateOfRemoval;
     }
@@ -445,7 +465,7 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
      */
     synchronized void hungup(Date dateOfRemoval, HangupCause hangupCause, String hangupCauseText)
     {
-        this.dateOfRemoval = dateOfRemoval;
+        this.dateOfRemoval = dateOfRemoval == null ? NOT_REMOVED : dateOfRemoval.getTime();
         this.hangupCause = hangupCause;
         this.hangupCauseText = hangupCauseText;
         // update state and fire PropertyChangeEvent
@@ -459,60 +479,45 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
      */
     public List<AsteriskChannel> getDialedChannels()
     {
-        final List<AsteriskChannel> copy;
-
-        synchronized (dialedChannels)
-        {
-            copy = new ArrayList<AsteriskChannel>(dialedChannels);
-        }
-
-        return copy;
+        return new ArrayList<AsteriskChannel>(Arrays.asList(dialedChannels));
     }
 
     /* dialed channels */
 
     public AsteriskChannel getDialedChannel()
     {
-        synchronized (dialedChannels)
+        for (AsteriskChannel channel : dialedChannels)
         {
-            for (AsteriskChannel channel : dialedChannels)
-            {
-                if (channel != null)
-                    return channel;
-            }
+            if (channel != null)
+                return channel;
         }
         return null;
     }
 
-    public List<DialedChannelHistoryEntry> getDialedChannelHistory()
+    public synchronized List<DialedChannelHistoryEntry> getDialedChannelHistory()
     {
-        final List<DialedChannelHistoryEntry> copy;
-
-        synchronized (linkedChannelHistory)
-        {
-            copy = new ArrayList<DialedChannelHistoryEntry>(dialedChannelHistory);
-        }
-
-        return copy;
+        return toList(dialedChannelHistory);
     }
 
     synchronized void channelDialed(Date date, AsteriskChannel dialedChannel)
     {
+        final AsteriskChannel[] oldDialedChannels = dialedChannels;
         final AsteriskChannel oldDialedChannel;
-        synchronized (dialedChannels)
+        final AsteriskChannel[] newDialedChannels;
+
+        oldDialedChannel = oldDialedChannels.length == 0 ? null : oldDialedChannels[oldDialedChannels.length - 1];
+        newDialedChannels = new AsteriskChannel[oldDialedChannels.length + 1];
+        System.arraycopy(oldDialedChannels, 0, newDialedChannels, 0, oldDialedChannels.length);
+        newDialedChannels[oldDialedChannels.length] = dialedChannel;
+        dialedChannels = newDialedChannels;
+
+        if (dialedChannelHistory == null)
         {
-            if (dialedChannels.isEmpty())
-                oldDialedChannel = null;
-            else
-                oldDialedChannel = dialedChannels.get(dialedChannels.size() - 1);
-            dialedChannels.add(dialedChannel);
+            dialedChannelHistory = createHistory(ChannelHistory.DIALED_CHANNEL);
         }
-        final DialedChannelHistoryEntry historyEntry;
-
-        historyEntry = new DialedChannelHistoryEntry(date, dialedChannel);
-        synchronized (dialedChannelHistory)
+        if (dialedChannelHistory.isEnabled())
         {
-            dialedChannelHistory.add(historyEntry);
+            dialedChannelHistory.add(new DialedChannelHistoryEntry(date, dialedChannel));
         }
 
         firePropertyChange(PROPERTY_DIALED_CHANNEL, oldDialedChannel, dialedChannel);
@@ -522,30 +527,14 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
 
     public AsteriskChannel getDialingChannel()
     {
-        synchronized (dialingChannels)
-        {
-            if (dialingChannels.isEmpty())
-                return null;
-            return dialingChannels.get(0);
-        }
+        return dialingChannel;
     }
 
     synchronized void channelDialing(Date date, AsteriskChannel dialingChannel)
     {
-        final AsteriskChannel oldDialingChannel;
-        synchronized (this.dialingChannels)
-        {
-            if (this.dialingChannels.isEmpty())
-            {
-                oldDialingChannel = null;
-                this.dialingChannels.add(dialingChannel);
-            }
-            else
-            {
-                oldDialingChannel = this.dialingChannels.get(0);
-                this.dialingChannels.set(0, dialingChannel);
-            }
-        }
+        final AsteriskChannel oldDialingChannel = this.dialingChannel;
+
+        this.dialingChannel = dialingChannel;
 
         firePropertyChange(PROPERTY_DIALING_CHANNEL, oldDialingChannel, dialingChannel);
     }
@@ -554,24 +543,12 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
 
     public AsteriskChannel getLinkedChannel()
     {
-        synchronized (linkedChannels)
-        {
-            if (linkedChannels.isEmpty())
-                return null;
-            return linkedChannels.get(0);
-        }
+        return linkedChannel;
     }
 
-    public List<LinkedChannelHistoryEntry> getLinkedChannelHistory()
+    public synchronized List<LinkedChannelHistoryEntry> getLinkedChannelHistory()
     {
-        final List<LinkedChannelHistoryEntry> copy;
-
-        synchronized (linkedChannelHistory)
-        {
-            copy = new ArrayList<LinkedChannelHistoryEntry>(linkedChannelHistory);
-        }
-
-        return copy;
+        return toList(linkedChannelHistory);
     }
 
     public boolean wasLinked()
@@ -587,27 +564,16 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
      */
     synchronized void channelLinked(Date date, AsteriskChannel linkedChannel)
     {
-        final AsteriskChannel oldLinkedChannel;
-        synchronized (this.linkedChannels)
+        final AsteriskChannel oldLinkedChannel = this.linkedChannel;
+
+        this.linkedChannel = linkedChannel;
+        if (linkedChannelHistory == null)
         {
-            if (this.linkedChannels.isEmpty())
-            {
-                oldLinkedChannel = null;
-                this.linkedChannels.add(linkedChannel);
-            }
-            else
-            {
-                oldLinkedChannel = this.linkedChannels.get(0);
-                this.linkedChannels.set(0, linkedChannel);
-            }
+            linkedChannelHistory = createHistory(ChannelHistory.LINKED_CHANNEL);
         }
-
-        final LinkedChannelHistoryEntry historyEntry;
-
-        historyEntry = new LinkedChannelHistoryEntry(date, linkedChannel);
-        synchronized (linkedChannelHistory)
+        if (linkedChannelHistory.isEnabled())
         {
-            linkedChannelHistory.add(historyEntry);
+            linkedChannelHistory.add(new LinkedChannelHistoryEntry(date, linkedChannel));
         }
         this.wasLinked = true;
         firePropertyChange(PROPERTY_LINKED_CHANNEL, oldLinkedChannel, linkedChannel);
@@ -615,38 +581,16 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
 
     synchronized void channelUnlinked(Date date)
     {
-        final AsteriskChannel oldLinkedChannel;
+        final AsteriskChannel oldLinkedChannel = this.linkedChannel;
 
-        synchronized (this.linkedChannels)
+        this.linkedChannel = null;
+        if (linkedChannelHistory != null)
         {
-            if (this.linkedChannels.isEmpty())
-            {
-                oldLinkedChannel = null;
-            }
-            else
+            final LinkedChannelHistoryEntry historyEntry = linkedChannelHistory.getLast();
+            if (historyEntry != null)
             {
-                oldLinkedChannel = this.linkedChannels.get(0);
+                historyEntry.setDateUnlinked(date);
             }
-            linkedChannels.clear();
-        }
-
-        final LinkedChannelHistoryEntry historyEntry;
-
-        synchronized (linkedChannelHistory)
-        {
-            if (linkedChannelHistory.isEmpty())
-            {
-                historyEntry = null;
-            }
-            else
-            {
-                historyEntry = linkedChannelHistory.get(linkedChannelHistory.size() - 1);
-            }
-        }
-
-        if (historyEntry != null)
-        {
-            historyEntry.setDateUnlinked(date);
         }
 
         firePropertyChange(PROPERTY_LINKED_CHANNEL, oldLinkedChannel, null);
@@ -721,20 +665,17 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
     public void redirectBothLegs(String context, String exten, int priority) throws ManagerCommunicationException,
             NoSuchChannelException
     {
+        final AsteriskChannel linkedChannel = this.linkedChannel;
         ManagerResponse response;
 
-        synchronized (linkedChannels)
+        if (linkedChannel == null)
         {
-            if (linkedChannels.isEmpty())
-            {
-                response = server.sendAction(new RedirectAction(name, context, exten, priority));
-            }
-            else
-            {
-                response = server
-                        .sendAction(new RedirectAction(name, linkedChannels.get(0).getName(), context, exten, priority,
-                                context, exten, priority));
-            }
+            response = server.sendAction(new RedirectAction(name, context, exten, priority));
+        }
+        else
+        {
+            response = server.sendAction(new RedirectAction(name, linkedChannel.getName(), context, exten, priority,
+                    context, exten, priority));
         }
 
         if (response instanceof ManagerError)
@@ -748,28 +689,28 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
         ManagerResponse response;
         String value;
 
-        synchronized (variables)
+        synchronized (this)
         {
+            value = variables == null ? null : variables.get(variable);
+        }
+        if (value != null)
+        {
+            return value;
+        }
 
-            value = variables.get(variable);
-            if (value != null)
-            {
-                return value;
-            }
-
-            response = server.sendAction(new GetVarAction(name, variable));
-            if (response instanceof ManagerError)
-            {
-                throw new NoSuchChannelException("Channel '" + name + "' is not available: " + response.getMessage());
-            }
-            value = response.getAttribute("Value");
-            if (value == null)
-            {
-                value = response.getAttribute(variable); // for Asterisk 1.0.x
-            }
-
-            variables.put(variable, value);
+        // don't block event handling for this channel while waiting for the response
+        response = server.sendAction(new GetVarAction(name, variable));
+        if (response instanceof ManagerError)
+        {
+            throw new NoSuchChannelException("Channel '" + name + "' is not available: " + response.getMessage());
+        }
+        value = response.getAttribute("Value");
+        if (value == null)
+        {
+            value = response.getAttribute(variable); // for Asterisk 1.0.x
         }
+
+        updateVariable(variable, value);
         return value;
     }
 
@@ -782,10 +723,7 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
         {
             throw new NoSuchChannelException("Channel '" + name + "' is not available: " + response.getMessage());
         }
-        synchronized (variables)
-        {
-            variables.put(variable, value);
-        }
+        updateVariable(variable, value);
     }
 
     public void playDtmf(String digit) throws ManagerCommunicationException, NoSuchChannelException,
@@ -929,22 +867,20 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
         firePropertyChange(PROPERTY_PARKED_AT, oldParkedAt, parkedAt);
     }
 
-    void updateVariable(String name, String value)
+    synchronized void updateVariable(String name, String value)
     {
-        synchronized (variables)
+        if (variables == null)
         {
-            // final String oldValue = variables.get(name);
-            variables.put(name, value);
-            // TODO add notification for updated channel variables
+            variables = new HashMap<String, String>(4);
         }
+        // final String oldValue = variables.get(name);
+        variables.put(name, value);
+        // TODO add notification for updated channel variables
     }
 
-    public Map<String, String> getVariables()
+    public synchronized Map<String, String> getVariables()
     {
-        synchronized (variables)
-        {
-            return new HashMap<String, String>(variables);
-        }
+        return variables == null ? new HashMap<String, String>() : new HashMap<String, String>(variables);
     }
 
     public Character getDtmfReceived()
@@ -1003,9 +939,9 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
     public String toString()
     {
         final StringBuffer sb;
-        final List<AsteriskChannel> dialedChannels;
-        final List<AsteriskChannel> dialingChannel;
-        final List<AsteriskChannel> linkedChannel;
+        final AsteriskChannel[] dialedChannels;
+        final AsteriskChannel dialingChannel;
+        final AsteriskChannel linkedChannel;
 
         sb = new StringBuffer("AsteriskChannel[");
 
@@ -1017,51 +953,43 @@ class AsteriskChannelImpl extends AbstractLiveObject implements AsteriskChannel
             sb.append("state='").append(getState()).append("',");
             sb.append("account='").append(getAccount()).append("',");
             sb.append("dateOfCreation=").append(getDateOfCreation()).append(",");
-            dialedChannels = getDialedChannels();
-            dialingChannel = this.dialingChannels;
-            linkedChannel = this.linkedChannels;
+            dialedChannels = this.dialedChannels;
+            dialingChannel = this.dialingChannel;
+            linkedChannel = this.linkedChannel;
         }
-        if (dialedChannels.isEmpty())
+        if (dialedChannels.length == 0)
         {
             sb.append("dialedChannel=null,");
         }
         else
         {
             sb.append("dialedChannel=AsteriskChannel[");
-            synchronized (dialedChannels)
+            for (AsteriskChannel dialedChannel : dialedChannels)
             {
-                for (AsteriskChannel dialedChannel : dialedChannels)
-                {
-                    sb.append("[id='").append(dialedChannel.getId()).append("',");
-                    sb.append("name='").append(dialedChannel.getName()).append("'],");
-                }
-                sb.append("],");
+                sb.append("[id='").append(dialedChannel.getId()).append("',");
+                sb.append("name='").append(dialedChannel.getName()).append("'],");
             }
+            sb.append("],");
         }
-        if (dialingChannel.isEmpty())
+        if (dialingChannel == null)
         {
             sb.append("dialingChannel=null,");
         }
         else
         {
             sb.append("dialingChannel=AsteriskChannel[");
-            sb.append("id='").append(dialingChannel.get(0).getId()).append("',");
-            sb.append("name='").append(dialingChannel.get(0).getName()).append("'],");
+            sb.append("id='").append(dialingChannel.getId()).append("',");
+            sb.append("name='").append(dialingChannel.getName()).append("'],");
         }
-        synchronized (linkedChannel)
+        if (linkedChannel == null)
         {
-            if (linkedChannel.isEmpty())
-            {
-                sb.append("linkedChannel=null");
-            }
-            else
-            {
-                sb.append("linkedChannel=AsteriskChannel[");
-                {
-                    sb.append("id='").append(linkedChannel.get(0).getId()).append("',");
-                    sb.append("name='").append(linkedChannel.get(0).getName()).append("']");
-                }
-            }
+            sb.append("linkedChannel=null");
+        }
+        else
+        {
+            sb.append("linkedChannel=AsteriskChannel[");
+            sb.append("id='").append(linkedChannel.getId()).append("',");
+            sb.append("name='").append(linkedChannel.getName()).append("']");
         }
         sb.append("]");
 
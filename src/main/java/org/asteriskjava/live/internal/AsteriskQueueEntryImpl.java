@@ -4,6 +4,7 @@ import java.util.Date;
 
 import org.asteriskjava.live.AsteriskQueueEntry;
 import org.asteriskjava.live.QueueEntryState;
+import org.asteriskjava.util.HashedWheelTimer;
 
 /**
  * Default implementation of the AsteriskQueueEntry interface.
@@ -27,6 +28,9 @@ class AsteriskQueueEntryImpl extends AbstractLiveObject implements AsteriskQueue
     // and maintained by the respective queue when the entry is added/removed/shifted
     private int position = POSITION_UNDETERMINED;
 
+    // fires the service level exceeded event unless the entry leaves the queue before
+    private volatile HashedWheelTimer.Timeout serviceLevelTimeout;
+
     AsteriskQueueEntryImpl(AsteriskServerImpl server, AsteriskQueueImpl queue,
                            AsteriskChannelImpl channel, int reportedPosition, Date dateJoined)
     {
@@ -80,6 +84,25 @@ class AsteriskQueueEntryImpl extends AbstractLiveObject implements AsteriskQueue
         firePropertyChange(PROPERTY_STATE, oldState, state);
     }
 
+    void setServiceLevelTimeout(HashedWheelTimer.Timeout serviceLevelTimeout)
+    {
+        this.serviceLevelTimeout = serviceLevelTimeout;
+    }
+
+    /**
+     * Cancels the service level timeout of this entry, if any. The timeout
+     * releases its reference to this entry right away.
+     */
+    void cancelServiceLevelTimeout()
+    {
+        final HashedWheelTimer.Timeout timeout = serviceLevelTimeout;
+        if (timeout != null)
+        {
+            timeout.cancel();
+            serviceLevelTimeout = null;
+        }
+    }
+
     public QueueEntryState getState()
     {
         return state;
@@ -21,14 +21,16 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.asteriskjava.live.AsteriskQueue;
 import org.asteriskjava.live.AsteriskQueueEntry;
 import org.asteriskjava.live.AsteriskQueueListener;
 import org.asteriskjava.live.AsteriskQueueMember;
 import org.asteriskjava.util.AstUtil;
+import org.asteriskjava.util.AsteriskRuntime;
+import org.asteriskjava.util.HashedWheelTimer;
 import org.asteriskjava.util.Log;
 import org.asteriskjava.util.LogFactory;
 
@@ -41,11 +43,13 @@ import org.asteriskjava.util.LogFactory;
 class AsteriskQueueImpl extends AbstractLiveObject implements AsteriskQueue
 {
     /**
-     * TimerTask that monitors exceeding service levels.
+     * Task that monitors exceeding service levels. The timer only hands the
+     * notification off to the dispatch threads of the runtime, as a slow
+     * listener would otherwise delay the timeouts of all queues.
      *
      * @author Patrick Breucking
      */
-    private class ServiceLevelTimerTask extends TimerTask
+    private class ServiceLevelTimerTask implements Runnable
     {
         private final AsteriskQueueEntry entry;
 
@@ -54,10 +58,22 @@ class AsteriskQueueImpl extends AbstractLiveObject implements AsteriskQueue
             this.entry = entry;
         }
 
-        @Override
         public void run()
         {
-            fireServiceLevelExceeded(entry);
+            try
+            {
+                getRuntime().getDispatchExecutor().execute(new Runnable()
+                {
+                    public void run()
+                    {
+                        fireServiceLevelExceeded(entry);
+                    }
+                });
+            }
+            catch (RejectedExecutionException e)
+            {
+                logger.warn("Unable to notify listeners of exceeded service level, runtime has been shut down");
+            }
         }
     }
 
@@ -78,10 +94,8 @@ class AsteriskQueueImpl extends AbstractLiveObject implements AsteriskQueue
 
     private Integer weight;
     private final ArrayList<AsteriskQueueEntryImpl> entries;
-    private final Timer timer;
     private final HashMap<String, AsteriskQueueMemberImpl> members;
     private final List<AsteriskQueueListener> listeners;
-    private final HashMap<AsteriskQueueEntry, ServiceLevelTimerTask> serviceLevelTimerTasks;
 
     AsteriskQueueImpl(AsteriskServerImpl server, String name, Integer max,
                       String strategy, Integer serviceLevel, Integer weight,
@@ -97,8 +111,6 @@ class AsteriskQueueImpl extends AbstractLiveObject implements AsteriskQueue
         entries = new ArrayList<AsteriskQueueEntryImpl>(25);
         listeners = new ArrayList<AsteriskQueueListener>();
         members = new HashMap<String, AsteriskQueueMemberImpl>();
-        timer = new Timer("ServiceLevelTimer-" + name, true);
-        serviceLevelTimerTasks = new HashMap<AsteriskQueueEntry, ServiceLevelTimerTask>();
         this.calls = calls;
         this.holdTime = holdTime;
         this.talkTime = talkTime;
@@ -109,9 +121,38 @@ class AsteriskQueueImpl extends AbstractLiveObject implements AsteriskQueue
         stampLastUpdate();
     }
 
+    /**
+     * Cancels the service level timeouts of all entries of this queue.
+     */
     void cancelServiceLevelTimer()
     {
-        timer.cancel();
+        synchronized (entries)
+        {
+            for (AsteriskQueueEntryImpl entry : entries)
+            {
+                entry.cancelServiceLevelTimeout();
+            }
+        }
+    }
+
+    /**
+     * Returns the timer for the service level timeouts. All queues share the
+     * timer of the runtime, so the number of waiting callers does not affect
+     * the number of threads.
+     */
+    private HashedWheelTimer getServiceLevelTimer()
+    {
+        return getRuntime().getTimer();
+    }
+
+    /**
+     * Returns the runtime of the server, or the default runtime if none has
+     * been set.
+     */
+    private AsteriskRuntime getRuntime()
+    {
+        final AsteriskRuntime runtime = server.getRuntime();
+        return runtime == null ? AsteriskRuntime.getDefault() : runtime;
     }
 
     public String getName()
@@ -356,12 +397,8 @@ class AsteriskQueueImpl extends AbstractLiveObject implements AsteriskQueue
         long delay = serviceLevel * 1000L;
         if (delay > 0)
         {
-            ServiceLevelTimerTask timerTask = new ServiceLevelTimerTask(qe);
-            timer.schedule(timerTask, delay);
-            synchronized (serviceLevelTimerTasks)
-            {
-                serviceLevelTimerTasks.put(qe, timerTask);
-            }
+            qe.setServiceLevelTimeout(getServiceLevelTimer().newTimeout(new ServiceLevelTimerTask(qe), delay,
+                    TimeUnit.MILLISECONDS));
         }
 
         synchronized (entries)
@@ -397,15 +434,7 @@ class AsteriskQueueImpl extends AbstractLiveObject implements AsteriskQueue
      */
     void removeEntry(AsteriskQueueEntryImpl entry, Date dateReceived)
     {
-        synchronized (serviceLevelTimerTasks)
-        {
-            if (serviceLevelTimerTasks.containsKey(entry))
-            {
-                ServiceLevelTimerTask timerTask = serviceLevelTimerTasks.get(entry);
-                timerTask.cancel();
-                serviceLevelTimerTasks.remove(entry);
-            }
-        }
+        entry.cancelServiceLevelTimeout();
 
         boolean changed;
         synchronized (entries)
@@ -17,6 +17,7 @@
 package org.asteriskjava.live.internal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -26,6 +27,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -39,7 +41,9 @@ import org.asteriskjava.live.AsteriskQueueEntry;
 import org.asteriskjava.live.AsteriskServer;
 import org.asteriskjava.live.AsteriskServerListener;
 import org.asteriskjava.live.CallerId;
+import org.asteriskjava.live.ChannelHistory;
 import org.asteriskjava.live.ChannelState;
+import org.asteriskjava.live.HistoryPolicy;
 import org.asteriskjava.live.LiveException;
 import org.asteriskjava.live.ManagerCommunicationException;
 import org.asteriskjava.live.MeetMeRoom;
@@ -47,6 +51,7 @@ import org.asteriskjava.live.MeetMeUser;
 import org.asteriskjava.live.NoSuchChannelException;
 import org.asteriskjava.live.OriginateCallback;
 import org.asteriskjava.live.Voicemailbox;
+import org.asteriskjava.manager.EventOverflowPolicy;
 import org.asteriskjava.manager.ManagerConnection;
 import org.asteriskjava.manager.ManagerConnectionState;
 import org.asteriskjava.manager.ManagerEventListener;
@@ -65,52 +70,20 @@ import org.asteriskjava.manager.action.ModuleLoadAction;
 import org.asteriskjava.manager.action.OriginateAction;
 import org.asteriskjava.manager.action.SetVarAction;
 import org.asteriskjava.manager.action.SipPeersAction;
-import org.asteriskjava.manager.event.AbstractMeetMeEvent;
-import org.asteriskjava.manager.event.AgentCallbackLoginEvent;
-import org.asteriskjava.manager.event.AgentCallbackLogoffEvent;
-import org.asteriskjava.manager.event.AgentCalledEvent;
-import org.asteriskjava.manager.event.AgentCompleteEvent;
-import org.asteriskjava.manager.event.AgentConnectEvent;
-import org.asteriskjava.manager.event.AgentLoginEvent;
-import org.asteriskjava.manager.event.AgentLogoffEvent;
-import org.asteriskjava.manager.event.AgentsEvent;
-import org.asteriskjava.manager.event.BridgeEvent;
-import org.asteriskjava.manager.event.CdrEvent;
 import org.asteriskjava.manager.event.ConnectEvent;
 import org.asteriskjava.manager.event.DbGetResponseEvent;
-import org.asteriskjava.manager.event.DialEvent;
 import org.asteriskjava.manager.event.DisconnectEvent;
-import org.asteriskjava.manager.event.DtmfEvent;
-import org.asteriskjava.manager.event.HangupEvent;
-import org.asteriskjava.manager.event.JoinEvent;
-import org.asteriskjava.manager.event.LeaveEvent;
 import org.asteriskjava.manager.event.ManagerEvent;
-import org.asteriskjava.manager.event.MonitorStartEvent;
-import org.asteriskjava.manager.event.MonitorStopEvent;
-import org.asteriskjava.manager.event.NewCallerIdEvent;
-import org.asteriskjava.manager.event.NewChannelEvent;
-import org.asteriskjava.manager.event.NewExtenEvent;
-import org.asteriskjava.manager.event.NewStateEvent;
 import org.asteriskjava.manager.event.OriginateResponseEvent;
-import org.asteriskjava.manager.event.ParkedCallEvent;
-import org.asteriskjava.manager.event.ParkedCallGiveUpEvent;
-import org.asteriskjava.manager.event.ParkedCallTimeOutEvent;
 import org.asteriskjava.manager.event.PeerEntryEvent;
-import org.asteriskjava.manager.event.QueueMemberAddedEvent;
-import org.asteriskjava.manager.event.QueueMemberPausedEvent;
-import org.asteriskjava.manager.event.QueueMemberPenaltyEvent;
-import org.asteriskjava.manager.event.QueueMemberRemovedEvent;
-import org.asteriskjava.manager.event.QueueMemberStatusEvent;
-import org.asteriskjava.manager.event.RenameEvent;
 import org.asteriskjava.manager.event.ResponseEvent;
-import org.asteriskjava.manager.event.UnparkedCallEvent;
-import org.asteriskjava.manager.event.VarSetEvent;
 import org.asteriskjava.manager.response.CommandResponse;
 import org.asteriskjava.manager.response.GetConfigResponse;
 import org.asteriskjava.manager.response.MailboxCountResponse;
 import org.asteriskjava.manager.response.ManagerError;
 import org.asteriskjava.manager.response.ManagerResponse;
 import org.asteriskjava.manager.response.ModuleCheckResponse;
+import org.asteriskjava.util.AsteriskRuntime;
 import org.asteriskjava.util.AstUtil;
 import org.asteriskjava.util.DateUtil;
 import org.asteriskjava.util.Log;
@@ -124,6 +97,7 @@ import org.asteriskjava.util.LogFactory;
  */
 public class AsteriskServerImpl implements AsteriskServer, ManagerEventListener
 {
+    private static final String ROUTE_TARGET = "AsteriskServer";
     private static final String ACTION_ID_PREFIX_ORIGINATE = "AJ_ORIGINATE_";
     private static final String SHOW_VERSION_COMMAND = "show version";
     private static final String SHOW_VERSION_1_6_COMMAND = "core show version";
@@ -146,6 +120,19 @@ public class AsteriskServerImpl implements AsteriskServer, ManagerEventListener
     private boolean initialized = false;
     private boolean initializing = false;
 
+    /**
+     * Events received while a ConnectEvent is handled on the reconnect
+     * executor of the runtime, they are handled in order afterwards. Guarded
+     * by itself.
+     */
+    private final List<ManagerEvent> deferredEvents = new ArrayList<ManagerEvent>();
+
+    /**
+     * Whether a ConnectEvent is being handled on the reconnect executor of
+     * the runtime. Guarded by deferredEvents.
+     */
+    private boolean reinitializing = false;
+
     final Set<AsteriskServerListener> listeners;
 
     final ChannelManager channelManager;
@@ -153,6 +140,8 @@ public class AsteriskServerImpl implements AsteriskServer, ManagerEventListener
     final QueueManager queueManager;
     final AgentManager agentManager;
 
+    private final EventRouter eventRouter;
+
     /**
      * The exact version string of the Asterisk server we are connected to.
      * <p/>
@@ -185,6 +174,17 @@ public class AsteriskServerImpl implements AsteriskServer, ManagerEventListener
      */
     private boolean skipQueues;
 
+    /**
+     * The runtime whose threads are used for event handling and scheduled
+     * tasks or <code>null</code> to use threads of this server.
+     */
+    private volatile AsteriskRuntime runtime;
+
+    /**
+     * The history policies by ordinal of ChannelHistory, replaced on change.
+     */
+    private volatile HistoryPolicy[] channelHistoryPolicies;
+
     /**
      * Set to <code>true</code> to not handle ManagerEvents in the reader tread
      * but process them asynchronously. This is a good idea :)
@@ -213,10 +213,44 @@ public class AsteriskServerImpl implements AsteriskServer, ManagerEventListener
         idCounter = new AtomicLong();
         listeners = new LinkedHashSet<AsteriskServerListener>();
         originateCallbacks = new HashMap<String, OriginateCallbackData>();
+        channelHistoryPolicies = new HistoryPolicy[ChannelHistory.values().length];
+        Arrays.fill(channelHistoryPolicies, HistoryPolicy.FULL);
         channelManager = new ChannelManager(this);
         agentManager = new AgentManager(this);
         meetMeManager = new MeetMeManager(this, channelManager);
         queueManager = new QueueManager(this, channelManager);
+        eventRouter = new EventRouter();
+        registerEventRoutes();
+    }
+
+    private void registerEventRoutes()
+    {
+        eventRouter.addRoute(ROUTE_TARGET, ConnectEvent.class, new EventRouter.EventHandler<ConnectEvent>()
+        {
+            public void handle(ConnectEvent event)
+            {
+                handleConnectEvent(event);
+            }
+        });
+        eventRouter.addRoute(ROUTE_TARGET, DisconnectEvent.class, new EventRouter.EventHandler<DisconnectEvent>()
+        {
+            public void handle(DisconnectEvent event)
+            {
+                handleDisconnectEvent(event);
+            }
+        });
+        eventRouter.addRoute(ROUTE_TARGET, OriginateResponseEvent.class,
+                new EventRouter.EventHandler<OriginateResponseEvent>()
+                {
+                    public void handle(OriginateResponseEvent event)
+                    {
+                        handleOriginateEvent(event);
+                    }
+                });
+        channelManager.registerEventRoutes(eventRouter);
+        queueManager.registerEventRoutes(eventRouter);
+        meetMeManager.registerEventRoutes(eventRouter);
+        agentManager.registerEventRoutes(eventRouter);
     }
 
     /**
@@ -249,6 +283,103 @@ public class AsteriskServerImpl implements AsteriskServer, ManagerEventListener
         this.skipQueues = skipQueues;
     }
 
+    /**
+     * Sets the runtime whose threads are shared with other servers and
+     * connections for asynchronous event handling and scheduled tasks. Set
+     * the runtime before initializing the server. The state is
+     * re-initialized after a reconnect on the reconnect executor of the
+     * runtime, events received meanwhile are handled afterwards.<br>
+     * Default is <code>null</code>, i.e. the server uses threads of its own.
+     *
+     * @param runtime the runtime to use or <code>null</code> to use threads
+     *            of this server.
+     * @since 2.0.0
+     */
+    public void setRuntime(AsteriskRuntime runtime)
+    {
+        this.runtime = runtime;
+    }
+
+    AsteriskRuntime getRuntime()
+    {
+        return runtime;
+    }
+
+    /**
+     * Sets how many entries of the given history are kept for each channel.
+     * Channels that loop through the dialplan or live for a long time can
+     * accumulate a large number of entries, they are kept until the channel
+     * is removed from memory some time after hangup.<br>
+     * The policy applies to histories started afterwards. Default is
+     * {@link HistoryPolicy#FULL} for all histories.
+     *
+     * @param history the history to configure.
+     * @param policy  the policy for that history.
+     * @since 2.0.0
+     */
+    public synchronized void setChannelHistoryPolicy(ChannelHistory history, HistoryPolicy policy)
+    {
+        if (history == null || policy == null)
+        {
+            throw new IllegalArgumentException("History and policy must not be null");
+        }
+
+        final HistoryPolicy[] policies = channelHistoryPolicies.clone();
+        policies[history.ordinal()] = policy;
+        channelHistoryPolicies = policies;
+    }
+
+    HistoryPolicy getChannelHistoryPolicy(ChannelHistory history)
+    {
+        return channelHistoryPolicies[history.ordinal()];
+    }
+
+    /**
+     * Sets the channel variables that are kept with each channel and returned
+     * by {@link AsteriskChannel#getVariables()}. Other variables reported by
+     * Asterisk are ignored, which saves memory and processing time for
+     * dialplans that set lots of variables.<p>
+     * Names are case insensitive and match the variable with and without the
+     * underscores that make it inherited. A name ending with "*" matches all
+     * variables starting with the part before it. The names are also
+     * requested with the StatusAction that initializes the channels.<br>
+     * Default is <code>null</code> to keep all variables.
+     *
+     * @param variables the names of the variables to keep, <code>null</code>
+     *            to keep all variables.
+     * @throws IllegalArgumentException if a name is <code>null</code> or empty.
+     * @since 2.0.0
+     */
+    public void setTrackedChannelVariables(Collection<String> variables)
+    {
+        channelManager.setVariableFilter(variables == null ? null : new ChannelVariableFilter(variables));
+    }
+
+    /**
+     * Sets how long hung up channels are kept in memory, so they can still be
+     * looked up by events that arrive after the hangup, like CdrEvents.
+     * Set it to 0 to remove channels as soon as they are hung up.<br>
+     * Default is 15 minutes.
+     *
+     * @param channelRetention the time in milliseconds.
+     * @since 2.0.0
+     */
+    public void setChannelRetention(long channelRetention)
+    {
+        channelManager.setRemovalThreshold(channelRetention);
+    }
+
+    /**
+     * Returns the number of hung up channels that are still kept in memory.
+     *
+     * @return the number of hung up channels that are still kept in memory.
+     * @since 2.0.0
+     */
+    public int getRetainedChannelCount()
+    {
+        return channelManager.getHungupChannelCount();
+    }
+
     public void setManagerConnection(ManagerConnection eventConnection)
     {
         if (this.eventConnection != null)
@@ -277,7 +408,16 @@ public class AsteriskServerImpl implements AsteriskServer, ManagerEventListener
         }
         if (asyncEventHandling && managerEventListenerProxy == null)
         {
-            managerEventListenerProxy = new ManagerEventListenerProxy(this);
+            if (runtime == null)
+            {
+                managerEventListenerProxy = new ManagerEventListenerProxy(this);
+            }
+            else
+            {
+                // unbounded as the dispatch threads must never wait for each other
+                managerEventListenerProxy = new ManagerEventListenerProxy(this, ManagerEventListenerProxy.UNBOUNDED,
+                        EventOverflowPolicy.BLOCK, runtime.getDispatchExecutor());
+            }
             eventConnection.addEventListener(managerEventListenerProxy);
         }
         else if (!asyncEventHandling && eventListener == null)
@@ -474,11 +614,7 @@ public class AsteriskServerImpl implements AsteriskServer, ManagerEventListener
             final OriginateCallbackData callbackData;
 
             callbackData = new OriginateCallbackData(originateAction, DateUtil.getDate(), cb);
-            // register callback
-            synchronized (originateCallbacks)
-            {
-                originateCallbacks.put(traceId, callbackData);
-            }
+            addOriginateCallbackData(traceId, callbackData);
         }
 
         initializeIfNeeded();
@@ -992,6 +1128,14 @@ public class AsteriskServerImpl implements AsteriskServer, ManagerEventListener
         }
     }
 
+    void addOriginateCallbackData(String traceId, OriginateCallbackData callbackData)
+    {
+        synchronized (originateCallbacks)
+        {
+            originateCallbacks.put(traceId, callbackData);
+        }
+    }
+
     OriginateCallbackData getOriginateCallbackDataByTraceId(String traceId)
     {
         synchronized (originateCallbacks)
@@ -1009,162 +1153,113 @@ public class AsteriskServerImpl implements AsteriskServer, ManagerEventListener
      */
     public void onManagerEvent(ManagerEvent event)
     {
-        // Handle Channel related events
-        if (event instanceof ConnectEvent)
-        {
-            handleConnectEvent((ConnectEvent) event);
-        }
-        else if (event instanceof DisconnectEvent)
-        {
-            handleDisconnectEvent((DisconnectEvent) event);
-        }
-        else if (event instanceof NewChannelEvent)
-        {
-            channelManager.handleNewChannelEvent((NewChannelEvent) event);
-        }
-        else if (event instanceof NewExtenEvent)
-        {
-            channelManager.handleNewExtenEvent((NewExtenEvent) event);
-        }
-        else if (event instanceof NewStateEvent)
-        {
-            channelManager.handleNewStateEvent((NewStateEvent) event);
-        }
-        else if (event instanceof NewCallerIdEvent)
-        {
-            channelManager.handleNewCallerIdEvent((NewCallerIdEvent) event);
-        }
-        else if (event instanceof DialEvent)
-        {
-            channelManager.handleDialEvent((DialEvent) event);
-        }
-        else if (event instanceof BridgeEvent)
-        {
-            channelManager.handleBridgeEvent((BridgeEvent) event);
-        }
-        else if (event instanceof RenameEvent)
-        {
-            channelManager.handleRenameEvent((RenameEvent) event);
-        }
-        else if (event instanceof HangupEvent)
-        {
-            channelManager.handleHangupEvent((HangupEvent) event);
-        }
-        else if (event instanceof CdrEvent)
-        {
-            channelManager.handleCdrEvent((CdrEvent) event);
-        }
-        else if (event instanceof VarSetEvent)
-        {
-            channelManager.handleVarSetEvent((VarSetEvent) event);
-        }
-        else if (event instanceof DtmfEvent)
-        {
-            channelManager.handleDtmfEvent((DtmfEvent) event);
-        }
-        else if (event instanceof MonitorStartEvent)
-        {
-            channelManager.handleMonitorStartEvent((MonitorStartEvent) event);
-        }
-        else if (event instanceof MonitorStopEvent)
-        {
-            channelManager.handleMonitorStopEvent((MonitorStopEvent) event);
-        }
-        // End of channel related events
-        // Handle parking related event
-        else if (event instanceof ParkedCallEvent)
-        {
-            channelManager.handleParkedCallEvent((ParkedCallEvent) event);
-        }
-        else if (event instanceof ParkedCallGiveUpEvent)
-        {
-            channelManager.handleParkedCallGiveUpEvent((ParkedCallGiveUpEvent) event);
-        }
-        else if (event instanceof ParkedCallTimeOutEvent)
-        {
-            channelManager.handleParkedCallTimeOutEvent((ParkedCallTimeOutEvent) event);
-        }
-        else if (event instanceof UnparkedCallEvent)
-        {
-            channelManager.handleUnparkedCallEvent((UnparkedCallEvent) event);
-        }
-        // End of parking related events
-        // Handle queue related event
-        else if (event instanceof JoinEvent)
-        {
-            queueManager.handleJoinEvent((JoinEvent) event);
-        }
-        else if (event instanceof LeaveEvent)
-        {
-            queueManager.handleLeaveEvent((LeaveEvent) event);
-        }
-        else if (event instanceof QueueMemberStatusEvent)
-        {
-            queueManager.handleQueueMemberStatusEvent((QueueMemberStatusEvent) event);
-        }
-        else if (event instanceof QueueMemberPenaltyEvent)
-        {
-            queueManager.handleQueueMemberPenaltyEvent((QueueMemberPenaltyEvent) event);
-        }
-        else if (event instanceof QueueMemberAddedEvent)
-        {
-            queueManager.handleQueueMemberAddedEvent((QueueMemberAddedEvent) event);
-        }
-        else if (event instanceof QueueMemberRemovedEvent)
-        {
-            queueManager.handleQueueMemberRemovedEvent((QueueMemberRemovedEvent) event);
-        }
-        else if (event instanceof QueueMemberPausedEvent)
-        {
-            queueManager.handleQueueMemberPausedEvent((QueueMemberPausedEvent) event);
-        }
-        // >>>>>> AJ 94
-        // Handle meetMeEvents
-        else if (event instanceof AbstractMeetMeEvent)
-        {
-            meetMeManager.handleMeetMeEvent((AbstractMeetMeEvent) event);
-        }
-        else if (event instanceof OriginateResponseEvent)
-        {
-            handleOriginateEvent((OriginateResponseEvent) event);
-        }
-        // Handle agents-related events
-        else if (event instanceof AgentsEvent)
-        {
-            agentManager.handleAgentsEvent((AgentsEvent) event);
-        }
-        else if (event instanceof AgentCalledEvent)
+        final boolean reinitialize;
+
+        synchronized (deferredEvents)
         {
-            agentManager.handleAgentCalledEvent((AgentCalledEvent) event);
+            if (reinitializing)
+            {
+                deferredEvents.add(event);
+                return;
+            }
+            reinitialize = event instanceof ConnectEvent && runtime != null;
+            reinitializing = reinitialize;
         }
-        else if (event instanceof AgentConnectEvent)
+
+        if (reinitialize)
         {
-            agentManager.handleAgentConnectEvent((AgentConnectEvent) event);
+            handleConnectEventOnRuntime(event);
         }
-        else if (event instanceof AgentCompleteEvent)
+        else
         {
-            agentManager.handleAgentCompleteEvent((AgentCompleteEvent) event);
+            handleEvent(event);
         }
-        else if (event instanceof AgentCallbackLoginEvent)
+    }
+
+    private void handleEvent(ManagerEvent event)
+    {
+        eventRouter.route(event);
+
+        // dispatch the events to the chainListener if they exist.
+        fireChainListeners(event);
+    }
+
+    /**
+     * Handles a ConnectEvent on the reconnect executor of the runtime.
+     * Re-initializing sends actions and waits for their responses, which must
+     * not tie up a shared dispatch thread. Events received meanwhile are
+     * deferred and handled in order afterwards.
+     */
+    private void handleConnectEventOnRuntime(final ManagerEvent connectEvent)
+    {
+        final Runnable task = new Runnable()
         {
-            agentManager.handleAgentCallbackLoginEvent((AgentCallbackLoginEvent) event);
-        }
-        else if (event instanceof AgentCallbackLogoffEvent)
+            public void run()
+            {
+                try
+                {
+                    handleEvent(connectEvent);
+                }
+                catch (RuntimeException e)
+                {
+                    logger.error("Unexpected exception while handling " + connectEvent, e);
+                }
+                handleDeferredEvents();
+            }
+        };
+
+        try
         {
-            agentManager.handleAgentCallbackLogoffEvent((AgentCallbackLogoffEvent) event);
+            runtime.getReconnectExecutor().execute(task);
         }
-        else if (event instanceof AgentLoginEvent)
+        catch (RejectedExecutionException e)
         {
-            agentManager.handleAgentLoginEvent((AgentLoginEvent) event);
+            logger.warn("Reconnect executor of runtime has been shut down, reinitializing on dispatch thread");
+            task.run();
         }
-        else if (event instanceof AgentLogoffEvent)
+    }
+
+    private void handleDeferredEvents()
+    {
+        while (true)
         {
-            agentManager.handleAgentLogoffEvent((AgentLogoffEvent) event);
+            final List<ManagerEvent> events;
+            synchronized (deferredEvents)
+            {
+                if (deferredEvents.isEmpty())
+                {
+                    reinitializing = false;
+                    return;
+                }
+                events = new ArrayList<ManagerEvent>(deferredEvents);
+                deferredEvents.clear();
+            }
+
+            for (ManagerEvent event : events)
+            {
+                try
+                {
+                    handleEvent(event);
+                }
+                catch (RuntimeException e)
+                {
+                    logger.error("Unexpected exception while handling " + event, e);
+                }
+            }
         }
-        // End of agent-related events
+    }
 
-        // dispatch the events to the chainListener if they exist.
-        fireChainListeners(event);
+    /**
+     * Returns the counters of the routes that pass events to the channel,
+     * queue, agent and MeetMe managers. Events without a route are only passed
+     * to the chain listeners.
+     *
+     * @return the counters of all event routes.
+     * @since 2.0.0
+     */
+    public List<EventRouteStatistics> getEventRouteStatistics()
+    {
+        return eventRouter.getStatistics();
     }
 
     /**
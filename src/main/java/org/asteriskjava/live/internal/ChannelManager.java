@@ -20,14 +20,13 @@ import org.asteriskjava.live.*;
 import org.asteriskjava.manager.ResponseEvents;
 import org.asteriskjava.manager.action.StatusAction;
 import org.asteriskjava.manager.event.*;
-import org.asteriskjava.util.DaemonThreadFactory;
 import org.asteriskjava.util.DateUtil;
 import org.asteriskjava.util.Log;
 import org.asteriskjava.util.LogFactory;
 
 import java.util.*;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Manages channel events on behalf of an AsteriskServer.
@@ -37,23 +36,58 @@ import java.util.concurrent.TimeUnit;
  */
 class ChannelManager
 {
+    private static final String ROUTE_TARGET = "ChannelManager";
+
     private final Log logger = LogFactory.getLog(getClass());
 
     /**
-     * How long we wait before we remove hung up channels from memory (in milliseconds).
+     * How long we wait by default before we remove hung up channels from memory (in milliseconds).
      */
-    private static final long REMOVAL_THRESHOLD = 15 * 60 * 1000L; // 15 minutes
-    private static final long SLEEP_TIME_BEFORE_GET_VAR = 50L;
+    static final long REMOVAL_THRESHOLD = 15 * 60 * 1000L; // 15 minutes
 
     private final AsteriskServerImpl server;
 
     /**
-     * A map of all active channel by their unique id.
+     * A map of all active channel by their unique id.<p>
+     * Lookups do not lock, changes to the channels, the name index and the
+     * hung up channels are made holding the lock of this map.
+     */
+    final ConcurrentMap<String,AsteriskChannelImpl> channels = new ConcurrentHashMap<String,AsteriskChannelImpl>();
+
+    /**
+     * The channels of {@link #channels} by their name, newest first. Usually
+     * only a few hung up channels share the name of an active one. The
+     * arrays are replaced, never modified, so they can be read without lock.
+     */
+    private final ConcurrentMap<String, AsteriskChannelImpl[]> channelsByName = new ConcurrentHashMap<String, AsteriskChannelImpl[]>();
+
+    /**
+     * Incremented when a channel is added, hung up or removed. Guarded by
+     * channels.
+     */
+    private volatile int channelsVersion;
+
+    /**
+     * The last result of {@link #getChannels()}, reused until the channels
+     * change.
      */
-    final LinkedHashMap<String,AsteriskChannelImpl> channels = new LinkedHashMap<String,AsteriskChannelImpl>();
+    private volatile ChannelsSnapshot channelsSnapshot;
 
+    /**
+     * The hung up channels still in {@link #channels} in the order they have
+     * been hung up, i.e. the next one to remove first. Guarded by channels.
+     */
+    private final LinkedList<AsteriskChannelImpl> hungupChannels = new LinkedList<AsteriskChannelImpl>();
 
-		ScheduledThreadPoolExecutor traceScheduledExecutorService;
+    /**
+     * How long hung up channels are kept (in milliseconds).
+     */
+    private volatile long removalThreshold = REMOVAL_THRESHOLD;
+
+    /**
+     * The channel variables to store, <code>null</code> to store all.
+     */
+    private volatile ChannelVariableFilter variableFilter;
 
     /**
      * Creates a new instance.
@@ -67,7 +101,8 @@ class ChannelManager
 
     void initialize() throws ManagerCommunicationException
     {
-        initialize(null);
+        final ChannelVariableFilter filter = variableFilter;
+        initialize(filter == null ? null : filter.getStatusVariables());
     }
 
     void initialize(List<String> variables) throws ManagerCommunicationException
@@ -76,8 +111,6 @@ class ChannelManager
 
         disconnected();
 
-	      traceScheduledExecutorService = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory());//Executors.newSingleThreadScheduledExecutor
-
         StatusAction sa = new StatusAction();
         sa.setVariables(variables);
         re = server.sendEventGeneratingAction(sa);
@@ -90,75 +123,394 @@ class ChannelManager
         }
     }
 
+    /**
+     * Registers the handlers for the events this manager keeps track of.
+     *
+     * @param router the router of the AsteriskServer.
+     */
+    void registerEventRoutes(EventRouter router)
+    {
+        router.addRoute(ROUTE_TARGET, NewChannelEvent.class, new EventRouter.EventHandler<NewChannelEvent>()
+        {
+            public void handle(NewChannelEvent event)
+            {
+                handleNewChannelEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, NewExtenEvent.class, new EventRouter.EventHandler<NewExtenEvent>()
+        {
+            public void handle(NewExtenEvent event)
+            {
+                handleNewExtenEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, NewStateEvent.class, new EventRouter.EventHandler<NewStateEvent>()
+        {
+            public void handle(NewStateEvent event)
+            {
+                handleNewStateEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, NewCallerIdEvent.class, new EventRouter.EventHandler<NewCallerIdEvent>()
+        {
+            public void handle(NewCallerIdEvent event)
+            {
+                handleNewCallerIdEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, DialEvent.class, new EventRouter.EventHandler<DialEvent>()
+        {
+            public void handle(DialEvent event)
+            {
+                handleDialEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, BridgeEvent.class, new EventRouter.EventHandler<BridgeEvent>()
+        {
+            public void handle(BridgeEvent event)
+            {
+                handleBridgeEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, RenameEvent.class, new EventRouter.EventHandler<RenameEvent>()
+        {
+            public void handle(RenameEvent event)
+            {
+                handleRenameEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, HangupEvent.class, new EventRouter.EventHandler<HangupEvent>()
+        {
+            public void handle(HangupEvent event)
+            {
+                handleHangupEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, CdrEvent.class, new EventRouter.EventHandler<CdrEvent>()
+        {
+            public void handle(CdrEvent event)
+            {
+                handleCdrEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, VarSetEvent.class, new EventRouter.EventHandler<VarSetEvent>()
+        {
+            public void handle(VarSetEvent event)
+            {
+                handleVarSetEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, DtmfEvent.class, new EventRouter.EventHandler<DtmfEvent>()
+        {
+            public void handle(DtmfEvent event)
+            {
+                handleDtmfEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, MonitorStartEvent.class, new EventRouter.EventHandler<MonitorStartEvent>()
+        {
+            public void handle(MonitorStartEvent event)
+            {
+                handleMonitorStartEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, MonitorStopEvent.class, new EventRouter.EventHandler<MonitorStopEvent>()
+        {
+            public void handle(MonitorStopEvent event)
+            {
+                handleMonitorStopEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, ParkedCallEvent.class, new EventRouter.EventHandler<ParkedCallEvent>()
+        {
+            public void handle(ParkedCallEvent event)
+            {
+                handleParkedCallEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, ParkedCallGiveUpEvent.class, new EventRouter.EventHandler<ParkedCallGiveUpEvent>()
+        {
+            public void handle(ParkedCallGiveUpEvent event)
+            {
+                handleParkedCallGiveUpEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, ParkedCallTimeOutEvent.class, new EventRouter.EventHandler<ParkedCallTimeOutEvent>()
+        {
+            public void handle(ParkedCallTimeOutEvent event)
+            {
+                handleParkedCallTimeOutEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, UnparkedCallEvent.class, new EventRouter.EventHandler<UnparkedCallEvent>()
+        {
+            public void handle(UnparkedCallEvent event)
+            {
+                handleUnparkedCallEvent(event);
+            }
+        });
+    }
+
     void disconnected()
     {
-	      if (traceScheduledExecutorService != null) {
-	        traceScheduledExecutorService.shutdown();
-	      }
         synchronized (channels)
         {
             channels.clear();
+            channelsByName.clear();
+            hungupChannels.clear();
+            channelsVersion++;
         }
     }
 
     /**
-     * Returns a collection of all active AsteriskChannels.
+     * Returns a collection of all active AsteriskChannels ordered by their
+     * date of creation.<p>
+     * The collection is an unmodifiable snapshot that is shared by all
+     * callers until a channel is added, hung up or removed. It is built
+     * without taking the lock of the channels, so readers never block event
+     * handling.
      *
      * @return a collection of all active AsteriskChannels.
      */
     Collection<AsteriskChannel> getChannels()
     {
-        Collection<AsteriskChannel> copy;
+        final int version = channelsVersion;
+        final ChannelsSnapshot snapshot = channelsSnapshot;
+        if (snapshot != null && snapshot.version == version)
+        {
+            return snapshot.channels;
+        }
+
+        final List<AsteriskChannel> copy = new ArrayList<AsteriskChannel>(channels.size() + 2);
+        for (AsteriskChannel channel : channels.values())
+        {
+            if (channel.getState() != ChannelState.HUNGUP)
+            {
+                copy.add(channel);
+            }
+        }
+        Collections.sort(copy, CHANNEL_CREATION_ORDER);
+
+        // a change while copying makes the version outdated, so the next call copies again
+        final Collection<AsteriskChannel> result = Collections.unmodifiableList(copy);
+        channelsSnapshot = new ChannelsSnapshot(version, result);
+        return result;
+    }
+
+    private static final Comparator<AsteriskChannel> CHANNEL_CREATION_ORDER = new Comparator<AsteriskChannel>()
+    {
+        public int compare(AsteriskChannel c1, AsteriskChannel c2)
+        {
+            final long d1 = ((AsteriskChannelImpl) c1).getDateOfCreationMillis();
+            final long d2 = ((AsteriskChannelImpl) c2).getDateOfCreationMillis();
+            return d1 < d2 ? -1 : (d1 == d2 ? 0 : 1);
+        }
+    };
 
+    private static final class ChannelsSnapshot
+    {
+        private final int version;
+        private final Collection<AsteriskChannel> channels;
+
+        ChannelsSnapshot(int version, Collection<AsteriskChannel> channels)
+        {
+            this.version = version;
+            this.channels = channels;
+        }
+    }
+
+    private void addChannel(AsteriskChannelImpl channel)
+    {
         synchronized (channels)
         {
-            copy = new ArrayList<AsteriskChannel>(channels.size() + 2);
-            for (AsteriskChannel channel : channels.values())
+            final AsteriskChannelImpl replaced = channels.put(channel.getId(), channel);
+            if (replaced != null)
             {
-                if (channel.getState() != ChannelState.HUNGUP)
+                removeFromNameIndex(replaced, replaced.getName());
+                if (replaced.getState() == ChannelState.HUNGUP)
                 {
-                    copy.add(channel);
+                    hungupChannels.remove(replaced);
                 }
             }
+            addToNameIndex(channel);
+            channelsVersion++;
         }
-        return copy;
     }
 
-    private void addChannel(AsteriskChannelImpl channel)
+    /**
+     * Renames the given channel and updates the name index.
+     */
+    private void renameChannel(AsteriskChannelImpl channel, Date date, String name)
     {
+        final String oldName;
+        synchronized (channel)
+        {
+            oldName = channel.getName();
+            channel.nameChanged(date, name);
+        }
+
+        if (oldName == null ? name == null : oldName.equals(name))
+        {
+            return;
+        }
         synchronized (channels)
         {
-            channels.put(channel.getId(), channel);
+            if (removeFromNameIndex(channel, oldName))
+            {
+                addToNameIndex(channel);
+            }
+        }
+    }
+
+    /* must hold the lock of channels */
+    private void addToNameIndex(AsteriskChannelImpl channel)
+    {
+        final String name = channel.getName();
+        if (name == null)
+        {
+            return;
+        }
+
+        final AsteriskChannelImpl[] channelsWithName = channelsByName.get(name);
+        if (channelsWithName == null)
+        {
+            channelsByName.put(name, new AsteriskChannelImpl[]{channel});
+            return;
+        }
+
+        final AsteriskChannelImpl[] newChannelsWithName = new AsteriskChannelImpl[channelsWithName.length + 1];
+        newChannelsWithName[0] = channel;
+        System.arraycopy(channelsWithName, 0, newChannelsWithName, 1, channelsWithName.length);
+        channelsByName.put(name, newChannelsWithName);
+    }
+
+    /* must hold the lock of channels */
+    private boolean removeFromNameIndex(AsteriskChannelImpl channel, String name)
+    {
+        if (name == null)
+        {
+            return false;
+        }
+
+        final AsteriskChannelImpl[] channelsWithName = channelsByName.get(name);
+        if (channelsWithName == null)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < channelsWithName.length; i++)
+        {
+            if (channelsWithName[i] == channel)
+            {
+                if (channelsWithName.length == 1)
+                {
+                    channelsByName.remove(name);
+                    return true;
+                }
+
+                final AsteriskChannelImpl[] newChannelsWithName = new AsteriskChannelImpl[channelsWithName.length - 1];
+                System.arraycopy(channelsWithName, 0, newChannelsWithName, 0, i);
+                System.arraycopy(channelsWithName, i + 1, newChannelsWithName, i, newChannelsWithName.length - i);
+                channelsByName.put(name, newChannelsWithName);
+                return true;
+            }
         }
+        return false;
     }
 
     /**
-     * Removes channels that have been hung more than {@link #REMOVAL_THRESHOLD} milliseconds.
+     * Sets how long hung up channels are kept before they are removed from
+     * memory. Default is {@link #REMOVAL_THRESHOLD}.
+     *
+     * @param removalThreshold the time in milliseconds, 0 to remove channels
+     *            as soon as they are hung up.
+     */
+    void setRemovalThreshold(long removalThreshold)
+    {
+        if (removalThreshold < 0)
+        {
+            throw new IllegalArgumentException("Removal threshold must not be negative");
+        }
+        this.removalThreshold = removalThreshold;
+    }
+
+    /**
+     * Sets the channel variables that are stored with the channels.
+     *
+     * @param variableFilter the variables to store, <code>null</code> to
+     *            store all variables.
+     */
+    void setVariableFilter(ChannelVariableFilter variableFilter)
+    {
+        this.variableFilter = variableFilter;
+    }
+
+    private boolean isTrackedVariable(String variable)
+    {
+        final ChannelVariableFilter filter = variableFilter;
+        return filter == null || filter.isTracked(variable);
+    }
+
+    /**
+     * Returns the number of hung up channels that are still kept.
+     *
+     * @return the number of hung up channels that are still kept.
+     */
+    int getHungupChannelCount()
+    {
+        synchronized (channels)
+        {
+            return hungupChannels.size();
+        }
+    }
+
+    /**
+     * Adds a channel that has just been hung up to the channels to remove
+     * once the removal threshold has passed.
+     */
+    private void channelHungup(AsteriskChannelImpl channel)
+    {
+        synchronized (channels)
+        {
+            if (channels.get(channel.getId()) == channel)
+            {
+                hungupChannels.addLast(channel);
+            }
+            channelsVersion++;
+        }
+    }
+
+    /**
+     * Removes channels that have been hung more than the removal threshold.
+     * Channels are hung up in order of their removal date, so only the
+     * channels that are removed and the next one are looked at.
      */
     private void removeOldChannels()
     {
-        Iterator<AsteriskChannelImpl> i;
+        final long now = DateUtil.getDate().getTime();
 
         synchronized (channels)
         {
-            i = channels.values().iterator();
-            while (i.hasNext())
+            while (!hungupChannels.isEmpty())
             {
-                final AsteriskChannel channel = i.next();
-                final Date dateOfRemoval = channel.getDateOfRemoval();
-                if (channel.getState() == ChannelState.HUNGUP && dateOfRemoval != null)
+                final AsteriskChannelImpl channel = hungupChannels.getFirst();
+                final long dateOfRemoval = channel.getDateOfRemovalMillis();
+                if (removalThreshold > 0 && dateOfRemoval != Long.MIN_VALUE && now - dateOfRemoval < removalThreshold)
                 {
-                    final long diff = DateUtil.getDate().getTime() - dateOfRemoval.getTime();
-                    if (diff >= REMOVAL_THRESHOLD)
-                    {
-                        i.remove();
-                    }
+                    break;
+                }
+
+                hungupChannels.removeFirst();
+                if (channels.remove(channel.getId(), channel))
+                {
+                    removeFromNameIndex(channel, channel.getName());
+                    channelsVersion++;
                 }
             }
         }
     }
 
-    private AsteriskChannelImpl addNewChannel(String uniqueId, final String name,
+    private AsteriskChannelImpl addNewChannel(String uniqueId, String name,
                                               Date dateOfCreation, String callerIdNumber, String callerIdName,
                                               ChannelState state, String account)
     {
@@ -169,30 +521,84 @@ class ChannelManager
         logger.info("Adding channel " + channel.getName() + "(" + channel.getId() + ")");
         addChannel(channel);
 
-	    //todo getChannelImplById -> LinkedHashMap, callbacks order
-	    traceScheduledExecutorService.schedule(new Runnable(){
-		    @Override public void run () {
-			    final String traceId = getTraceId(channel);
-	        channel.setTraceId(traceId);
+        server.fireNewAsteriskChannel(channel);
+        return channel;
+    }//addNewChannel
+
+    /**
+     * Updates a variable of the given channel. If the variable is the trace
+     * id set by {@link AsteriskServerImpl#originateAsync} the channel is
+     * attached to the pending originate.
+     */
+    private void variableSet(AsteriskChannelImpl channel, String variable, String value)
+    {
+        if (isTrackedVariable(variable))
+        {
+            synchronized (channel)
+            {
+                channel.updateVariable(variable, value);
+            }
+        }
 
-	        if (traceId != null && (!name.toLowerCase(Locale.ENGLISH).startsWith("local/") || name.endsWith(",1") || name.endsWith(";1"))) {
-            final OriginateCallbackData callbackData = server.getOriginateCallbackDataByTraceId(traceId);
+        if (value != null && isTraceIdVariable(variable))
+        {
+            traceIdReceived(channel, value);
+        }
+    }
 
-            if (callbackData != null && callbackData.getChannel() == null) {
-              callbackData.setChannel(channel);
-              try {
-                callbackData.getCallback().onDialing(channel);
-              } catch (Throwable t) {
-                logger.warn("Exception dispatching originate progress. "+ channel, t);
-              }//t
-            }//i
-          }//i
-		    }}, SLEEP_TIME_BEFORE_GET_VAR, TimeUnit.MILLISECONDS);
+    /**
+     * Returns whether the given variable is the trace id, the name may have
+     * the prefix used to make it inherited by channels created later on.
+     */
+    private static boolean isTraceIdVariable(String variable)
+    {
+        if (variable == null)
+        {
+            return false;
+        }
 
+        int start = 0;
+        while (start < variable.length() && variable.charAt(start) == '_')
+        {
+            start++;
+        }
+        return variable.regionMatches(true, start, Constants.VARIABLE_TRACE_ID, 0, Constants.VARIABLE_TRACE_ID.length())
+                && variable.length() - start == Constants.VARIABLE_TRACE_ID.length();
+    }
 
-        server.fireNewAsteriskChannel(channel);
-        return channel;
-    }//addNewChannel
+    /**
+     * Stores the trace id of the given channel and notifies the callback of
+     * the originate with that trace id, unless the channel is the second
+     * side of a local channel.
+     */
+    private void traceIdReceived(AsteriskChannelImpl channel, String traceId)
+    {
+        if (traceId.equals(channel.getTraceId()))
+        {
+            return;
+        }
+        channel.setTraceId(traceId);
+
+        final String name = channel.getName();
+        if (name == null || (name.toLowerCase(Locale.ENGLISH).startsWith("local/") && !name.endsWith(",1") && !name.endsWith(";1")))
+        {
+            return;
+        }
+
+        final OriginateCallbackData callbackData = server.getOriginateCallbackDataByTraceId(traceId);
+        if (callbackData != null && callbackData.getChannel() == null)
+        {
+            callbackData.setChannel(channel);
+            try
+            {
+                callbackData.getCallback().onDialing(channel);
+            }
+            catch (Throwable t)
+            {
+                logger.warn("Exception dispatching originate progress. " + channel, t);
+            }
+        }
+    }
 
 
     void handleStatusEvent(StatusEvent event)
@@ -221,7 +627,14 @@ class ChannelManager
             {
                 for (String variable : variables.keySet())
                 {
-                    channel.updateVariable(variable, variables.get(variable));
+                    if (isTrackedVariable(variable))
+                    {
+                        channel.updateVariable(variable, variables.get(variable));
+                    }
+                    if (isTraceIdVariable(variable))
+                    {
+                        channel.setTraceId(variables.get(variable));
+                    }
                 }
             }
         }
@@ -279,7 +692,7 @@ class ChannelManager
      */
     AsteriskChannelImpl getChannelImplByName(String name)
     {
-        Date dateOfCreation = null;
+        long dateOfCreation = 0;
         AsteriskChannelImpl channel = null;
 
         if (name == null)
@@ -287,21 +700,24 @@ class ChannelManager
             return null;
         }
 
-        synchronized (channels)
+        final AsteriskChannelImpl[] channelsWithName = channelsByName.get(name);
+        if (channelsWithName == null)
         {
-            for (AsteriskChannelImpl tmp : channels.values())
+            return null;
+        }
+
+        // visit the channels oldest first like they have been added
+        for (int i = channelsWithName.length - 1; i >= 0; i--)
+        {
+            final AsteriskChannelImpl tmp = channelsWithName[i];
+
+            // return the most recent channel or when dates are similar, the active one
+            if (channel == null ||
+                    tmp.getDateOfCreationMillis() > dateOfCreation ||
+                    (tmp.getDateOfCreationMillis() == dateOfCreation && tmp.getState() != ChannelState.HUNGUP))
             {
-                if (name.equals(tmp.getName()))
-                {
-                    // return the most recent channel or when dates are similar, the active one
-                    if (dateOfCreation == null ||
-                            tmp.getDateOfCreation().after(dateOfCreation) ||
-                            (tmp.getDateOfCreation().equals(dateOfCreation) && tmp.getState() != ChannelState.HUNGUP))
-                    {
-                        channel = tmp;
-                        dateOfCreation = channel.getDateOfCreation();
-                    }
-                }
+                channel = tmp;
+                dateOfCreation = channel.getDateOfCreationMillis();
             }
         }
         return channel;
@@ -322,32 +738,29 @@ class ChannelManager
         // But asterisk-java keeps Hungup channels for a while.
         // We don't want to retrieve hungup channels.
 
-        AsteriskChannelImpl channel = null;
-
         if (name == null)
         {
             return null;
         }
 
-        synchronized (channels)
+        final AsteriskChannelImpl[] channelsWithName = channelsByName.get(name);
+        if (channelsWithName != null)
         {
-            for (AsteriskChannelImpl tmp : channels.values())
+            for (AsteriskChannelImpl tmp : channelsWithName)
             {
-                if (name.equals(tmp.getName()) && tmp.getState() != ChannelState.HUNGUP)
+                if (tmp.getState() != ChannelState.HUNGUP)
                 {
-                    channel = tmp;
+                    return tmp;
                 }
             }
         }
-        return channel;
+        return null;
     }
 
     AsteriskChannelImpl getChannelImplById(String uniqueId) {
       if (uniqueId == null) { return null;}
 
-      synchronized (channels) {
-	      return channels.get(uniqueId);
-      }
+      return channels.get(uniqueId);
     }//getChannelImplById
 
     /**
@@ -396,32 +809,41 @@ class ChannelManager
 
     void handleNewChannelEvent(NewChannelEvent event)
     {
-        final AsteriskChannelImpl channel = getChannelImplById(event.getUniqueId());
+        AsteriskChannelImpl channel = getChannelImplById(event.getUniqueId());
 
         if (channel == null)
         {
             if (event.getChannel() == null)
             {
                 logger.info("Ignored NewChannelEvent with empty channel name (uniqueId=" + event.getUniqueId() + ")");
+                return;
             }
-            else
-            {
-                addNewChannel(
-                        event.getUniqueId(), event.getChannel(), event.getDateReceived(),
-                        event.getCallerIdNum(), event.getCallerIdName(),
-                        ChannelState.valueOf(event.getChannelState()), event.getAccountCode());
-            }
+
+            channel = addNewChannel(
+                    event.getUniqueId(), event.getChannel(), event.getDateReceived(),
+                    event.getCallerIdNum(), event.getCallerIdName(),
+                    ChannelState.valueOf(event.getChannelState()), event.getAccountCode());
         }
         else
         {
             // channel had already been created probably by a NewCallerIdEvent
+            renameChannel(channel, event.getDateReceived(), event.getChannel());
             synchronized (channel)
             {
-                channel.nameChanged(event.getDateReceived(), event.getChannel());
                 channel.setCallerId(new CallerId(event.getCallerIdName(), event.getCallerIdNum()));
                 channel.stateChanged(event.getDateReceived(), ChannelState.valueOf(event.getChannelState()));
             }
         }
+
+        // sent by Asterisk 12 and later if configured in manager.conf, includes the trace id of originated channels
+        final Map<String, String> chanVariables = event.getChanVariables();
+        if (chanVariables != null)
+        {
+            for (Map.Entry<String, String> variable : chanVariables.entrySet())
+            {
+                variableSet(channel, variable.getKey(), variable.getValue());
+            }
+        }
     }
 
     void handleNewExtenEvent(NewExtenEvent event)
@@ -518,10 +940,7 @@ class ChannelManager
             if (event.getChannel() != null && !event.getChannel().equals(channel.getName()))
             {
                 logger.info("Renaming channel (following NewStateEvent) '" + channel.getName() + "' to '" + event.getChannel() + "'");
-                synchronized (channel)
-                {
-                    channel.nameChanged(event.getDateReceived(), event.getChannel());
-                }
+                renameChannel(channel, event.getDateReceived(), event.getChannel());
             }
         }
 
@@ -576,10 +995,16 @@ class ChannelManager
             cause = HangupCause.getByCode(event.getCause());
         }
 
+        final boolean wasHungup;
         synchronized (channel)
         {
+            wasHungup = channel.getState() == ChannelState.HUNGUP;
             channel.hungup(event.getDateReceived(), cause, event.getCauseTxt());
         }
+        if (!wasHungup)
+        {
+            channelHungup(channel);
+        }
 
         logger.info("Removing channel " + channel.getName() + " due to hangup (" + cause + ")");
         removeOldChannels();
@@ -606,8 +1031,6 @@ class ChannelManager
         }//i
 
         logger.info(sourceChannel.getName() + " dialed " + destinationChannel.getName());
-        getTraceId(sourceChannel);
-        getTraceId(destinationChannel);
         synchronized (sourceChannel)
         {
             sourceChannel.channelDialed(event.getDateReceived(), destinationChannel);
@@ -674,10 +1097,7 @@ class ChannelManager
         }
 
         logger.info("Renaming channel '" + channel.getName() + "' to '" + event.getNewname() + "', uniqueId is " + event.getUniqueId());
-        synchronized (channel)
-        {
-            channel.nameChanged(event.getDateReceived(), event.getNewname());
-        }
+        renameChannel(channel, event.getDateReceived(), event.getNewname());
     }
 
     void handleCdrEvent(CdrEvent event)
@@ -700,22 +1120,6 @@ class ChannelManager
         }
     }
 
-    private String getTraceId(AsteriskChannel channel)
-    {
-        String traceId;
-
-        try
-        {
-            traceId = channel.getVariable(Constants.VARIABLE_TRACE_ID);
-        }
-        catch (Exception e)
-        {
-            traceId = null;
-        }
-        //logger.info("TraceId for channel " + channel.getName() + " is " + traceId);
-        return traceId;
-    }
-
     void handleParkedCallEvent(ParkedCallEvent event)
     {
         // Only bristuffed versions: AsteriskChannelImpl channel = getChannelImplById(event.getUniqueId());
@@ -831,10 +1235,7 @@ class ChannelManager
             return;
         }
 
-        synchronized (channel)
-        {
-            channel.updateVariable(event.getVariable(), event.getValue());
-        }
+        variableSet(channel, event.getVariable(), event.getValue());
     }
 
     void handleDtmfEvent(DtmfEvent event)
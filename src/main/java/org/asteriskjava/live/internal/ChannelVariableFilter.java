@@ -0,0 +1,154 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.live.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decides which channel variables are stored with a channel.<p>
+ * Names are compared case insensitive and without the leading underscores
+ * that make a variable inherited. A name ending with "*" matches all
+ * variables starting with the part before it. Checking a variable does not
+ * allocate, it is done for every VarSetEvent.<p>
+ * Instances are immutable.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+final class ChannelVariableFilter
+{
+    private static final String WILDCARD = "*";
+
+    private final String[] names;
+    private final String[] prefixes;
+    private final List<String> statusVariables;
+
+    /**
+     * Creates a new filter.
+     *
+     * @param variables the names or patterns of the variables to track.
+     * @throws IllegalArgumentException if variables is <code>null</code> or
+     *             contains <code>null</code> or an empty name.
+     */
+    ChannelVariableFilter(Collection<String> variables)
+    {
+        if (variables == null)
+        {
+            throw new IllegalArgumentException("Variables must not be null");
+        }
+
+        final List<String> nameList = new ArrayList<String>();
+        final List<String> prefixList = new ArrayList<String>();
+        for (String variable : variables)
+        {
+            final String name = variable == null ? null : stripInheritance(variable.trim());
+            if (name == null || name.length() == 0 || WILDCARD.equals(name))
+            {
+                throw new IllegalArgumentException("Invalid variable name '" + variable + "'");
+            }
+
+            if (name.endsWith(WILDCARD))
+            {
+                prefixList.add(name.substring(0, name.length() - 1));
+            }
+            else
+            {
+                nameList.add(name);
+            }
+        }
+
+        this.names = nameList.toArray(new String[nameList.size()]);
+        this.prefixes = prefixList.toArray(new String[prefixList.size()]);
+
+        // the trace id is needed to correlate originated channels after a reconnect
+        final List<String> status = new ArrayList<String>(nameList);
+        boolean hasTraceId = false;
+        for (String name : nameList)
+        {
+            hasTraceId |= name.equalsIgnoreCase(Constants.VARIABLE_TRACE_ID);
+        }
+        if (!hasTraceId)
+        {
+            status.add(Constants.VARIABLE_TRACE_ID);
+        }
+        this.statusVariables = Collections.unmodifiableList(status);
+    }
+
+    private static String stripInheritance(String variable)
+    {
+        int start = 0;
+        while (start < variable.length() && variable.charAt(start) == '_')
+        {
+            start++;
+        }
+        return variable.substring(start);
+    }
+
+    /**
+     * Returns whether the given variable is stored with the channel.
+     *
+     * @param variable the name of the variable, it may be prefixed with
+     *            underscores.
+     * @return <code>true</code> if the variable is tracked.
+     */
+    boolean isTracked(String variable)
+    {
+        if (variable == null)
+        {
+            return false;
+        }
+
+        int start = 0;
+        while (start < variable.length() && variable.charAt(start) == '_')
+        {
+            start++;
+        }
+        final int length = variable.length() - start;
+
+        for (String name : names)
+        {
+            if (name.length() == length && variable.regionMatches(true, start, name, 0, length))
+            {
+                return true;
+            }
+        }
+        for (String prefix : prefixes)
+        {
+            if (prefix.length() <= length && variable.regionMatches(true, start, prefix, 0, prefix.length()))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the variables to request with the StatusAction that
+     * initializes the channels. Patterns can't be requested and are left
+     * out, the trace id is always included.
+     *
+     * @return the names of the variables to request.
+     */
+    List<String> getStatusVariables()
+    {
+        return statusVariables;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.live.internal;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import org.asteriskjava.manager.event.ManagerEvent;
+
+/**
+ * Snapshot of the counters of one event route of the AsteriskServer, i.e.
+ * how many events of a class have been passed to a manager and how long it
+ * took to handle them.
+ *
+ * @author srt
+ * @version $Id$
+ * @see AsteriskServerImpl#getEventRouteStatistics()
+ * @since 2.0.0
+ */
+public final class EventRouteStatistics implements Serializable
+{
+    /**
+     * Serial version identifier.
+     */
+    private static final long serialVersionUID = 1L;
+
+    private final String target;
+    private final Class<? extends ManagerEvent> eventClass;
+    private final long count;
+    private final long totalNanos;
+
+    EventRouteStatistics(String target, Class<? extends ManagerEvent> eventClass, long count, long totalNanos)
+    {
+        this.target = target;
+        this.eventClass = eventClass;
+        this.count = count;
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * Returns the name of the component handling the events, for example
+     * "ChannelManager".
+     *
+     * @return the name of the component handling the events.
+     */
+    public String getTarget()
+    {
+        return target;
+    }
+
+    /**
+     * Returns the class of events routed, this includes its subclasses.
+     *
+     * @return the class of events routed.
+     */
+    public Class<? extends ManagerEvent> getEventClass()
+    {
+        return eventClass;
+    }
+
+    /**
+     * Returns the number of events handled.
+     *
+     * @return the number of events handled.
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Returns the total time spent handling the events.
+     *
+     * @param unit the unit of the returned value.
+     * @return the total time spent handling the events.
+     */
+    public long getTotalTime(TimeUnit unit)
+    {
+        return unit.convert(totalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("EventRouteStatistics[");
+        sb.append("target='").append(target).append("',");
+        sb.append("eventClass=").append(eventClass.getSimpleName()).append(",");
+        sb.append("count=").append(count).append(",");
+        sb.append("totalTimeMicros=").append(TimeUnit.NANOSECONDS.toMicros(totalNanos)).append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.live.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.asteriskjava.manager.event.ManagerEvent;
+
+/**
+ * Routes the events received by the AsteriskServer to the managers that
+ * handle them.<p>
+ * Each manager registers a handler for the event classes it is interested
+ * in. An event is routed to the handler registered for its class or the
+ * nearest superclass, the route is resolved once per event class. Events
+ * without a route are not touched at all.<p>
+ * Each route counts the events it handled and the time spent handling them.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+class EventRouter
+{
+    private static final Route<?> NO_ROUTE = new Route<ManagerEvent>(null, ManagerEvent.class, null);
+
+    private final Map<Class<?>, Route<?>> routes;
+    private final ConcurrentMap<Class<?>, Route<?>> routesByEventClass;
+
+    EventRouter()
+    {
+        this.routes = new LinkedHashMap<Class<?>, Route<?>>();
+        this.routesByEventClass = new ConcurrentHashMap<Class<?>, Route<?>>();
+    }
+
+    /**
+     * Registers a handler for the given event class and its subclasses.
+     *
+     * @param target     the name of the component handling the events, for
+     *            example "ChannelManager".
+     * @param eventClass the class of events to handle.
+     * @param handler    the handler.
+     * @throws IllegalArgumentException if a handler for the given class has
+     *             already been registered.
+     */
+    synchronized <T extends ManagerEvent> void addRoute(String target, Class<T> eventClass, EventHandler<T> handler)
+    {
+        if (routes.containsKey(eventClass))
+        {
+            throw new IllegalArgumentException("Route for " + eventClass.getName() + " already registered by "
+                    + routes.get(eventClass).getTarget());
+        }
+        routes.put(eventClass, new Route<T>(target, eventClass, handler));
+        routesByEventClass.clear();
+    }
+
+    /**
+     * Passes the event to the handler registered for its class.
+     *
+     * @param event the event to route.
+     * @return <code>true</code> if the event has been handled,
+     *         <code>false</code> if there is no route for it.
+     */
+    boolean route(ManagerEvent event)
+    {
+        final Route<?> route = getRoute(event.getClass());
+        if (route == NO_ROUTE)
+        {
+            return false;
+        }
+        route.handle(event);
+        return true;
+    }
+
+    /**
+     * Returns a snapshot of the counters of all routes in the order they have
+     * been registered.
+     *
+     * @return the counters of all routes.
+     */
+    synchronized List<EventRouteStatistics> getStatistics()
+    {
+        final List<EventRouteStatistics> statistics = new ArrayList<EventRouteStatistics>(routes.size());
+        for (Route<?> route : routes.values())
+        {
+            statistics.add(route.getStatistics());
+        }
+        return statistics;
+    }
+
+    private Route<?> getRoute(Class<?> eventClass)
+    {
+        Route<?> route = routesByEventClass.get(eventClass);
+        if (route == null)
+        {
+            route = resolveRoute(eventClass);
+            routesByEventClass.put(eventClass, route);
+        }
+        return route;
+    }
+
+    private synchronized Route<?> resolveRoute(Class<?> eventClass)
+    {
+        Class<?> c = eventClass;
+        while (c != null && ManagerEvent.class.isAssignableFrom(c))
+        {
+            final Route<?> route = routes.get(c);
+            if (route != null)
+            {
+                return route;
+            }
+            c = c.getSuperclass();
+        }
+        return NO_ROUTE;
+    }
+
+    /**
+     * Handles events of one class.
+     *
+     * @param <T> the class of events handled.
+     */
+    interface EventHandler<T extends ManagerEvent>
+    {
+        void handle(T event);
+    }
+
+    private static final class Route<T extends ManagerEvent>
+    {
+        private final String target;
+        private final Class<T> eventClass;
+        private final EventHandler<T> handler;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
+        Route(String target, Class<T> eventClass, EventHandler<T> handler)
+        {
+            this.target = target;
+            this.eventClass = eventClass;
+            this.handler = handler;
+        }
+
+        String getTarget()
+        {
+            return target;
+        }
+
+        void handle(ManagerEvent event)
+        {
+            final long start = System.nanoTime();
+            try
+            {
+                handler.handle(eventClass.cast(event));
+            }
+            finally
+            {
+                nanos.addAndGet(System.nanoTime() - start);
+                count.incrementAndGet();
+            }
+        }
+
+        EventRouteStatistics getStatistics()
+        {
+            return new EventRouteStatistics(target, eventClass, count.get(), nanos.get());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.live.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.asteriskjava.live.HistoryPolicy;
+
+/**
+ * A history of a channel that keeps entries according to a
+ * {@link HistoryPolicy}.<p>
+ * Bounded histories are ring buffers: once full, adding an entry overwrites
+ * the oldest one without allocating. The array is only allocated when the
+ * first entry is added.<p>
+ * This class is not thread safe, callers synchronize on the owning channel.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+final class History<E>
+{
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Maximum number of entries, -1 for no limit, 0 if disabled.
+     */
+    private final int maxEntries;
+    private Object[] entries;
+
+    /**
+     * Index of the oldest entry.
+     */
+    private int head;
+    private int size;
+
+    History(HistoryPolicy policy)
+    {
+        this.maxEntries = policy.getMaxEntries();
+    }
+
+    /**
+     * Returns whether entries are kept, so callers can avoid creating
+     * entries that are discarded anyway.
+     *
+     * @return <code>true</code> if entries are kept.
+     */
+    boolean isEnabled()
+    {
+        return maxEntries != 0;
+    }
+
+    void add(E entry)
+    {
+        if (maxEntries == 0)
+        {
+            return;
+        }
+
+        if (entries == null)
+        {
+            entries = new Object[maxEntries > 0 ? Math.min(maxEntries, INITIAL_CAPACITY) : INITIAL_CAPACITY];
+        }
+        else if (size == entries.length)
+        {
+            if (size == maxEntries)
+            {
+                entries[head] = entry;
+                head = (head + 1) % entries.length;
+                return;
+            }
+            grow();
+        }
+
+        entries[(head + size) % entries.length] = entry;
+        size++;
+    }
+
+    private void grow()
+    {
+        int capacity = entries.length * 2;
+        if (maxEntries > 0 && capacity > maxEntries)
+        {
+            capacity = maxEntries;
+        }
+
+        final Object[] newEntries = new Object[capacity];
+        for (int i = 0; i < size; i++)
+        {
+            newEntries[i] = entries[(head + i) % entries.length];
+        }
+        entries = newEntries;
+        head = 0;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Returns the entry at the given index, the oldest entry kept has index 0.
+     */
+    @SuppressWarnings("unchecked")
+    E get(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (E) entries[(head + index) % entries.length];
+    }
+
+    /**
+     * Returns the most recent entry.
+     *
+     * @return the most recent entry or <code>null</code> if empty.
+     */
+    E getLast()
+    {
+        return size == 0 ? null : get(size - 1);
+    }
+
+    /**
+     * Returns a copy of the entries, oldest first.
+     */
+    List<E> toList()
+    {
+        final List<E> copy = new ArrayList<E>(size);
+        for (int i = 0; i < size; i++)
+        {
+            copy.add(get(i));
+        }
+        return copy;
+    }
+}
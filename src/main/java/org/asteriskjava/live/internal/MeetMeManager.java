@@ -41,6 +41,8 @@ import java.util.regex.Pattern;
  */
 class MeetMeManager
 {
+    private static final String ROUTE_TARGET = "MeetMeManager";
+
     private static final String MEETME_LIST_COMMAND = "meetme list";
     private static final Pattern MEETME_LIST_PATTERN = Pattern.compile("^User #: ([0-9]+).*Channel: (\\S+).*$");
 
@@ -71,6 +73,22 @@ class MeetMeManager
         }
     }
 
+    /**
+     * Registers the handlers for the events this manager keeps track of.
+     *
+     * @param router the router of the AsteriskServer.
+     */
+    void registerEventRoutes(EventRouter router)
+    {
+        router.addRoute(ROUTE_TARGET, AbstractMeetMeEvent.class, new EventRouter.EventHandler<AbstractMeetMeEvent>()
+        {
+            public void handle(AbstractMeetMeEvent event)
+            {
+                handleMeetMeEvent(event);
+            }
+        });
+    }
+
     void disconnected()
     {
         /*
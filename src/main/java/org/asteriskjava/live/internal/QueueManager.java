@@ -52,6 +52,8 @@ import org.asteriskjava.util.LogFactory;
  */
 class QueueManager
 {
+    private static final String ROUTE_TARGET = "QueueManager";
+
     private final Log logger = LogFactory.getLog(this.getClass());
 
     private final AsteriskServerImpl server;
@@ -167,6 +169,64 @@ class QueueManager
         }
     }
 
+    /**
+     * Registers the handlers for the events this manager keeps track of.
+     *
+     * @param router the router of the AsteriskServer.
+     */
+    void registerEventRoutes(EventRouter router)
+    {
+        router.addRoute(ROUTE_TARGET, JoinEvent.class, new EventRouter.EventHandler<JoinEvent>()
+        {
+            public void handle(JoinEvent event)
+            {
+                handleJoinEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, LeaveEvent.class, new EventRouter.EventHandler<LeaveEvent>()
+        {
+            public void handle(LeaveEvent event)
+            {
+                handleLeaveEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, QueueMemberStatusEvent.class, new EventRouter.EventHandler<QueueMemberStatusEvent>()
+        {
+            public void handle(QueueMemberStatusEvent event)
+            {
+                handleQueueMemberStatusEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, QueueMemberPenaltyEvent.class, new EventRouter.EventHandler<QueueMemberPenaltyEvent>()
+        {
+            public void handle(QueueMemberPenaltyEvent event)
+            {
+                handleQueueMemberPenaltyEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, QueueMemberAddedEvent.class, new EventRouter.EventHandler<QueueMemberAddedEvent>()
+        {
+            public void handle(QueueMemberAddedEvent event)
+            {
+                handleQueueMemberAddedEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, QueueMemberRemovedEvent.class, new EventRouter.EventHandler<QueueMemberRemovedEvent>()
+        {
+            public void handle(QueueMemberRemovedEvent event)
+            {
+                handleQueueMemberRemovedEvent(event);
+            }
+        });
+        router.addRoute(ROUTE_TARGET, QueueMemberPausedEvent.class, new EventRouter.EventHandler<QueueMemberPausedEvent>()
+        {
+            public void handle(QueueMemberPausedEvent event)
+            {
+                handleQueueMemberPausedEvent(event);
+            }
+        });
+    }
+
     void disconnected()
     {
         synchronized (queuesLRU)
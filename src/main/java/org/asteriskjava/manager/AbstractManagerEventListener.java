@@ -1,5 +1,8 @@
 package org.asteriskjava.manager;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.asteriskjava.manager.event.*;
 
 /**
@@ -377,331 +380,720 @@ public abstract class AbstractManagerEventListener implements ManagerEventListen
 
     /**
      * Dispatches to the appropriate handleEvent(...) method.
+     * <p>
+     * The handler is looked up once per event class and cached, so the cost
+     * does not depend on the number of event types handled. If an event
+     * matches several handleEvent(...) methods because of the class
+     * hierarchy, only the first one in the order of the dispatch table is
+     * called.
      * 
      * @param event the event to handle
      */
     @Override
     public void onManagerEvent(ManagerEvent event)
     {
-        if (event instanceof AgentCallbackLoginEvent)
-        {
-            handleEvent((AgentCallbackLoginEvent) event);
-        }
-        else if (event instanceof AgentCallbackLogoffEvent)
-        {
-            handleEvent((AgentCallbackLogoffEvent) event);
-        }
-        else if (event instanceof AgentCalledEvent)
-        {
-            handleEvent((AgentCalledEvent) event);
-        }
-        else if (event instanceof AgentLoginEvent)
-        {
-            handleEvent((AgentLoginEvent) event);
-        }
-        else if (event instanceof AgentLogoffEvent)
-        {
-            handleEvent((AgentLogoffEvent) event);
-        }
-        else if (event instanceof AlarmClearEvent)
-        {
-            handleEvent((AlarmClearEvent) event);
-        }
-        else if (event instanceof AlarmEvent)
-        {
-            handleEvent((AlarmEvent) event);
-        }
-        else if (event instanceof CdrEvent)
-        {
-            handleEvent((CdrEvent) event);
-        }
-        else if (event instanceof ConnectEvent)
-        {
-            handleEvent((ConnectEvent) event);
-        }
-         else if (event instanceof DAHDIChannelEvent)
-        {
-            handleEvent((DAHDIChannelEvent) event);
-        }
-        else if (event instanceof SoftHangupRequestEvent)
-        {
-            handleEvent((SoftHangupRequestEvent) event);
-        }
-        else if (event instanceof DialEvent)
-        {
-            handleEvent((DialEvent) event);
-        }
-        else if (event instanceof HangupRequestEvent)
-        {
-            handleEvent((HangupRequestEvent) event);
-        }
-        else if (event instanceof DisconnectEvent)
-        {
-            handleEvent((DisconnectEvent) event);
-        }
-        else if (event instanceof DndStateEvent)
-        {
-            handleEvent((DndStateEvent) event);
-        }
-        else if (event instanceof ExtensionStatusEvent)
-        {
-            handleEvent((ExtensionStatusEvent) event);
-        }
-        else if (event instanceof HoldedCallEvent)
-        {
-            handleEvent((HoldedCallEvent) event);
-        }
-        else if (event instanceof HoldEvent)
-        {
-            handleEvent((HoldEvent) event);
-        }
-        else if (event instanceof LogChannelEvent)
-        {
-            handleEvent((LogChannelEvent) event);
-        }
-        else if (event instanceof MessageWaitingEvent)
-        {
-            handleEvent((MessageWaitingEvent) event);
-        }
-        else if (event instanceof NewExtenEvent)
-        {
-            handleEvent((NewExtenEvent) event);
-        }
-        else if (event instanceof PeerStatusEvent)
-        {
-            handleEvent((PeerStatusEvent) event);
-        }
-        else if (event instanceof ProtocolIdentifierReceivedEvent)
-        {
-            handleEvent((ProtocolIdentifierReceivedEvent) event);
-        }
-        else if (event instanceof JoinEvent)
-        {
-            handleEvent((JoinEvent) event);
-        }
-        else if (event instanceof LeaveEvent)
-        {
-            handleEvent((LeaveEvent) event);
-        }
-        else if (event instanceof QueueEvent)
-        {
-            handleEvent((QueueEvent) event);
-        }
-        else if (event instanceof RegistrationsCompleteEvent)
-        {
-            handleEvent((RegistrationsCompleteEvent) event);
-        }
-        else if (event instanceof RegistryEntryEvent)
-        {
-            handleEvent((RegistryEntryEvent) event);
-        }
-        else if (event instanceof RegistryEvent)
-        {
-            handleEvent((RegistryEvent) event);
-        }
-        else if (event instanceof ReloadEvent)
-        {
-            handleEvent((ReloadEvent) event);
-        }
-        else if (event instanceof RenameEvent)
-        {
-            handleEvent((RenameEvent) event);
-        }
-        else if (event instanceof ShutdownEvent)
-        {
-            handleEvent((ShutdownEvent) event);
-        }
-        else if (event instanceof UserEvent)
-        {
-            handleEvent((UserEvent) event);
-        }
-        else if (event instanceof AgentCompleteEvent)
-        {
-            handleEvent((AgentCompleteEvent) event);
-        }
-        else if (event instanceof AgentConnectEvent)
-        {
-            handleEvent((AgentConnectEvent) event);
-        }
-        else if (event instanceof AgentDumpEvent)
-        {
-            handleEvent((AgentDumpEvent) event);
-        }
-        else if (event instanceof FaxReceivedEvent)
-        {
-            handleEvent((FaxReceivedEvent) event);
-        }
-        else if (event instanceof NewCallerIdEvent)
-        {
-            handleEvent((NewCallerIdEvent) event);
-        }
-        else if (event instanceof HangupEvent)
+        if (event == null)
         {
-            handleEvent((HangupEvent) event);
+            return;
         }
-        else if (event instanceof NewChannelEvent)
-        {
-            handleEvent((NewChannelEvent) event);
-        }
-        else if (event instanceof NewStateEvent)
-        {
-            handleEvent((NewStateEvent) event);
-        }
-        else if (event instanceof MeetMeJoinEvent)
-        {
-            handleEvent((MeetMeJoinEvent) event);
-        }
-        else if (event instanceof DongleNewSMSBase64Event)
-        {
-            handleEvent((DongleNewSMSBase64Event) event);
-        }
-         else if (event instanceof DongleCENDEvent)
-        {
-            handleEvent((DongleCENDEvent) event);
-        }
-          else if (event instanceof DongleCallStateChangeEvent)
-        {
-            handleEvent((DongleCallStateChangeEvent) event);
-        }
-           else if (event instanceof DongleNewSMSEvent)
-        {
-            handleEvent((DongleNewSMSEvent) event);
-        }
-            else if (event instanceof DongleNewCMGREvent)
-        {
-            handleEvent((DongleNewCMGREvent) event);
-        }
-        else if (event instanceof DongleStatusEvent)
-        {
-            handleEvent((DongleStatusEvent) event);
-        }
-        else if (event instanceof DongleDeviceEntryEvent)
-        {
-            handleEvent((DongleDeviceEntryEvent) event);
-        }
-        else if (event instanceof MeetMeLeaveEvent)
-        {
-            handleEvent((MeetMeLeaveEvent) event);
-        }
-        else if (event instanceof MeetMeMuteEvent)
-        {
-            handleEvent((MeetMeMuteEvent) event);
-        }
-        else if (event instanceof MeetMeTalkingEvent)
-        {
-            handleEvent((MeetMeTalkingEvent) event);
-        }
-        else if (event instanceof ParkedCallGiveUpEvent)
-        {
-            handleEvent((ParkedCallGiveUpEvent) event);
-        }
-        else if (event instanceof ParkedCallTimeOutEvent)
-        {
-            handleEvent((ParkedCallTimeOutEvent) event);
-        }
-        else if (event instanceof UnparkedCallEvent)
-        {
-            handleEvent((UnparkedCallEvent) event);
-        }
-        else if (event instanceof QueueMemberAddedEvent)
-        {
-            handleEvent((QueueMemberAddedEvent) event);
-        }
-        else if (event instanceof QueueMemberPausedEvent)
-        {
-            handleEvent((QueueMemberPausedEvent) event);
-        }
-        else if (event instanceof QueueMemberRemovedEvent)
-        {
-            handleEvent((QueueMemberRemovedEvent) event);
-        }
-        else if (event instanceof AgentsCompleteEvent)
-        {
-            handleEvent((AgentsCompleteEvent) event);
-        }
-        else if (event instanceof AgentsEvent)
-        {
-            handleEvent((AgentsEvent) event);
-        }
-        else if (event instanceof DbGetResponseEvent)
-        {
-            handleEvent((DbGetResponseEvent) event);
-        }
-        else if (event instanceof BridgeEvent)
-        {
-            handleEvent((BridgeEvent) event);
-        }
-        else if (event instanceof OriginateResponseEvent)
-        {
-            handleEvent((OriginateResponseEvent) event);
-        }
-        else if (event instanceof ParkedCallEvent)
-        {
-            handleEvent((ParkedCallEvent) event);
-        }
-        else if (event instanceof ParkedCallsCompleteEvent)
-        {
-            handleEvent((ParkedCallsCompleteEvent) event);
-        }
-        else if (event instanceof PeerEntryEvent)
-        {
-            handleEvent((PeerEntryEvent) event);
-        }
-        else if (event instanceof PeerlistCompleteEvent)
-        {
-            handleEvent((PeerlistCompleteEvent) event);
-        }
-        else if (event instanceof QueueEntryEvent)
-        {
-            handleEvent((QueueEntryEvent) event);
-        }
-        else if (event instanceof QueueMemberEvent)
-        {
-            handleEvent((QueueMemberEvent) event);
-        }
-        else if (event instanceof QueueMemberStatusEvent)
-        {
-            handleEvent((QueueMemberStatusEvent) event);
-        }
-        else if (event instanceof QueueParamsEvent)
-        {
-            handleEvent((QueueParamsEvent) event);
-        }
-        else if (event instanceof QueueStatusCompleteEvent)
-        {
-            handleEvent((QueueStatusCompleteEvent) event);
-        }
-        else if (event instanceof StatusCompleteEvent)
-        {
-            handleEvent((StatusCompleteEvent) event);
-        }
-        else if (event instanceof StatusEvent)
-        {
-            handleEvent((StatusEvent) event);
-        }
-        else if (event instanceof ZapShowChannelsCompleteEvent)
-        {
-            handleEvent((ZapShowChannelsCompleteEvent) event);
-        }
-        else if (event instanceof DahdiShowChannelsCompleteEvent)
-        {
-            handleEvent((DahdiShowChannelsCompleteEvent) event);
-        }
-        else if (event instanceof ZapShowChannelsEvent)
-        {
-            handleEvent((ZapShowChannelsEvent) event);
-        }
-        else if (event instanceof DahdiShowChannelsEvent)
+        getEventHandler(event.getClass()).handle(this, event);
+    }
+
+    private static EventHandler getEventHandler(Class<?> eventClass)
+    {
+        EventHandler handler = eventHandlersByClass.get(eventClass);
+        if (handler == null)
         {
-            handleEvent((DahdiShowChannelsEvent) event);
+            handler = NO_EVENT_HANDLER;
+            for (EventHandler candidate : EVENT_HANDLERS)
+            {
+                if (candidate.eventClass.isAssignableFrom(eventClass))
+                {
+                    handler = candidate;
+                    break;
+                }
+            }
+            eventHandlersByClass.put(eventClass, handler);
         }
-        else if (event instanceof CoreShowChannelEvent)
+        return handler;
+    }
+
+    /**
+     * Calls the handleEvent(...) method for one event class.
+     */
+    private abstract static class EventHandler
+    {
+        private final Class<?> eventClass;
+
+        EventHandler(Class<?> eventClass)
         {
-            handleEvent((CoreShowChannelEvent) event);
+            this.eventClass = eventClass;
         }
-        else if (event instanceof CoreShowChannelsCompleteEvent)
+
+        abstract void handle(AbstractManagerEventListener listener, ManagerEvent event);
+    }
+
+    /**
+     * Used for events without a handleEvent(...) method.
+     */
+    private static final EventHandler NO_EVENT_HANDLER = new EventHandler(ManagerEvent.class)
+    {
+        @Override
+        void handle(AbstractManagerEventListener listener, ManagerEvent event)
         {
-            handleEvent((CoreShowChannelsCompleteEvent) event);
         }
-    }
+    };
+
+    /**
+     * The handlers for all event classes. An event is passed to the first
+     * handler its class is assignable to.
+     */
+    private static final EventHandler[] EVENT_HANDLERS = new EventHandler[]{
+            new EventHandler(AgentCallbackLoginEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((AgentCallbackLoginEvent) event);
+                }
+            },
+            new EventHandler(AgentCallbackLogoffEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((AgentCallbackLogoffEvent) event);
+                }
+            },
+            new EventHandler(AgentCalledEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((AgentCalledEvent) event);
+                }
+            },
+            new EventHandler(AgentLoginEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((AgentLoginEvent) event);
+                }
+            },
+            new EventHandler(AgentLogoffEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((AgentLogoffEvent) event);
+                }
+            },
+            new EventHandler(AlarmClearEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((AlarmClearEvent) event);
+                }
+            },
+            new EventHandler(AlarmEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((AlarmEvent) event);
+                }
+            },
+            new EventHandler(CdrEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((CdrEvent) event);
+                }
+            },
+            new EventHandler(ConnectEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((ConnectEvent) event);
+                }
+            },
+            new EventHandler(DAHDIChannelEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((DAHDIChannelEvent) event);
+                }
+            },
+            new EventHandler(SoftHangupRequestEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((SoftHangupRequestEvent) event);
+                }
+            },
+            new EventHandler(DialEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((DialEvent) event);
+                }
+            },
+            new EventHandler(HangupRequestEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((HangupRequestEvent) event);
+                }
+            },
+            new EventHandler(DisconnectEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((DisconnectEvent) event);
+                }
+            },
+            new EventHandler(DndStateEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((DndStateEvent) event);
+                }
+            },
+            new EventHandler(ExtensionStatusEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((ExtensionStatusEvent) event);
+                }
+            },
+            new EventHandler(HoldedCallEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((HoldedCallEvent) event);
+                }
+            },
+            new EventHandler(HoldEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((HoldEvent) event);
+                }
+            },
+            new EventHandler(LogChannelEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((LogChannelEvent) event);
+                }
+            },
+            new EventHandler(MessageWaitingEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((MessageWaitingEvent) event);
+                }
+            },
+            new EventHandler(NewExtenEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((NewExtenEvent) event);
+                }
+            },
+            new EventHandler(PeerStatusEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((PeerStatusEvent) event);
+                }
+            },
+            new EventHandler(ProtocolIdentifierReceivedEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((ProtocolIdentifierReceivedEvent) event);
+                }
+            },
+            new EventHandler(JoinEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((JoinEvent) event);
+                }
+            },
+            new EventHandler(LeaveEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((LeaveEvent) event);
+                }
+            },
+            new EventHandler(QueueEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((QueueEvent) event);
+                }
+            },
+            new EventHandler(RegistrationsCompleteEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((RegistrationsCompleteEvent) event);
+                }
+            },
+            new EventHandler(RegistryEntryEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((RegistryEntryEvent) event);
+                }
+            },
+            new EventHandler(RegistryEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((RegistryEvent) event);
+                }
+            },
+            new EventHandler(ReloadEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((ReloadEvent) event);
+                }
+            },
+            new EventHandler(RenameEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((RenameEvent) event);
+                }
+            },
+            new EventHandler(ShutdownEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((ShutdownEvent) event);
+                }
+            },
+            new EventHandler(UserEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((UserEvent) event);
+                }
+            },
+            new EventHandler(AgentCompleteEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((AgentCompleteEvent) event);
+                }
+            },
+            new EventHandler(AgentConnectEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((AgentConnectEvent) event);
+                }
+            },
+            new EventHandler(AgentDumpEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((AgentDumpEvent) event);
+                }
+            },
+            new EventHandler(FaxReceivedEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((FaxReceivedEvent) event);
+                }
+            },
+            new EventHandler(NewCallerIdEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((NewCallerIdEvent) event);
+                }
+            },
+            new EventHandler(HangupEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((HangupEvent) event);
+                }
+            },
+            new EventHandler(NewChannelEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((NewChannelEvent) event);
+                }
+            },
+            new EventHandler(NewStateEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((NewStateEvent) event);
+                }
+            },
+            new EventHandler(MeetMeJoinEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((MeetMeJoinEvent) event);
+                }
+            },
+            new EventHandler(DongleNewSMSBase64Event.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((DongleNewSMSBase64Event) event);
+                }
+            },
+            new EventHandler(DongleCENDEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((DongleCENDEvent) event);
+                }
+            },
+            new EventHandler(DongleCallStateChangeEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((DongleCallStateChangeEvent) event);
+                }
+            },
+            new EventHandler(DongleNewSMSEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((DongleNewSMSEvent) event);
+                }
+            },
+            new EventHandler(DongleNewCMGREvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((DongleNewCMGREvent) event);
+                }
+            },
+            new EventHandler(DongleStatusEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((DongleStatusEvent) event);
+                }
+            },
+            new EventHandler(DongleDeviceEntryEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((DongleDeviceEntryEvent) event);
+                }
+            },
+            new EventHandler(MeetMeLeaveEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((MeetMeLeaveEvent) event);
+                }
+            },
+            new EventHandler(MeetMeMuteEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((MeetMeMuteEvent) event);
+                }
+            },
+            new EventHandler(MeetMeTalkingEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((MeetMeTalkingEvent) event);
+                }
+            },
+            new EventHandler(ParkedCallGiveUpEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((ParkedCallGiveUpEvent) event);
+                }
+            },
+            new EventHandler(ParkedCallTimeOutEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((ParkedCallTimeOutEvent) event);
+                }
+            },
+            new EventHandler(UnparkedCallEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((UnparkedCallEvent) event);
+                }
+            },
+            new EventHandler(QueueMemberAddedEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((QueueMemberAddedEvent) event);
+                }
+            },
+            new EventHandler(QueueMemberPausedEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((QueueMemberPausedEvent) event);
+                }
+            },
+            new EventHandler(QueueMemberRemovedEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((QueueMemberRemovedEvent) event);
+                }
+            },
+            new EventHandler(AgentsCompleteEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((AgentsCompleteEvent) event);
+                }
+            },
+            new EventHandler(AgentsEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((AgentsEvent) event);
+                }
+            },
+            new EventHandler(DbGetResponseEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((DbGetResponseEvent) event);
+                }
+            },
+            new EventHandler(BridgeEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((BridgeEvent) event);
+                }
+            },
+            new EventHandler(OriginateResponseEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((OriginateResponseEvent) event);
+                }
+            },
+            new EventHandler(ParkedCallEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((ParkedCallEvent) event);
+                }
+            },
+            new EventHandler(ParkedCallsCompleteEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((ParkedCallsCompleteEvent) event);
+                }
+            },
+            new EventHandler(PeerEntryEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((PeerEntryEvent) event);
+                }
+            },
+            new EventHandler(PeerlistCompleteEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((PeerlistCompleteEvent) event);
+                }
+            },
+            new EventHandler(QueueEntryEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((QueueEntryEvent) event);
+                }
+            },
+            new EventHandler(QueueMemberEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((QueueMemberEvent) event);
+                }
+            },
+            new EventHandler(QueueMemberStatusEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((QueueMemberStatusEvent) event);
+                }
+            },
+            new EventHandler(QueueParamsEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((QueueParamsEvent) event);
+                }
+            },
+            new EventHandler(QueueStatusCompleteEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((QueueStatusCompleteEvent) event);
+                }
+            },
+            new EventHandler(StatusCompleteEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((StatusCompleteEvent) event);
+                }
+            },
+            new EventHandler(StatusEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((StatusEvent) event);
+                }
+            },
+            new EventHandler(ZapShowChannelsCompleteEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((ZapShowChannelsCompleteEvent) event);
+                }
+            },
+            new EventHandler(DahdiShowChannelsCompleteEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((DahdiShowChannelsCompleteEvent) event);
+                }
+            },
+            new EventHandler(ZapShowChannelsEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((ZapShowChannelsEvent) event);
+                }
+            },
+            new EventHandler(DahdiShowChannelsEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((DahdiShowChannelsEvent) event);
+                }
+            },
+            new EventHandler(CoreShowChannelEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((CoreShowChannelEvent) event);
+                }
+            },
+            new EventHandler(CoreShowChannelsCompleteEvent.class)
+            {
+                @Override
+                void handle(AbstractManagerEventListener listener, ManagerEvent event)
+                {
+                    listener.handleEvent((CoreShowChannelsCompleteEvent) event);
+                }
+            }
+    };
+
+    /**
+     * Caches the handler resolved for each concrete event class.
+     */
+    private static final ConcurrentMap<Class<?>, EventHandler> eventHandlersByClass =
+            new ConcurrentHashMap<Class<?>, EventHandler>();
 }
@@ -0,0 +1,48 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager;
+
+/**
+ * The priority class of an action, determines the order in which actions that
+ * are waiting to be written to Asterisk are sent.<p>
+ * The priority of an action class is set with the {@link Priority}
+ * annotation and can be overridden per connection. Actions without priority
+ * are sent with {@link #NORMAL} priority.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+public enum ActionPriority
+{
+    /**
+     * Call control actions like hanging up or redirecting a channel. Written
+     * ahead of all other waiting actions.
+     */
+    URGENT,
+
+    /**
+     * The default priority.
+     */
+    NORMAL,
+
+    /**
+     * Actions that return large results like status and list actions. Written
+     * only when no other actions are waiting.
+     */
+    BULK
+}
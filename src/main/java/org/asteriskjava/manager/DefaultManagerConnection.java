@@ -26,6 +26,7 @@ import org.asteriskjava.manager.action.ManagerAction;
 import org.asteriskjava.manager.internal.ManagerConnectionImpl;
 import org.asteriskjava.manager.response.ManagerResponse;
 import org.asteriskjava.manager.event.ManagerEvent;
+import org.asteriskjava.util.AsteriskRuntime;
 
 /**
  * Default implemention of the
@@ -229,6 +230,137 @@ public class DefaultManagerConnection implements ManagerConnection
         impl.setKeepAliveAfterAuthenticationFailure(keepAliveAfterAuthenticationFailure);
     }
 
+    /**
+     * Set to <code>true</code> to decode events and responses directly from
+     * the bytes received instead of reading them line by line.
+     * <p>
+     * Default is <code>false</code>.
+     *
+     * @param frameDecoderEnabled <code>true</code> to use the byte level frame
+     *            decoder, <code>false</code> to read line by line.
+     * @since 2.0.0
+     */
+    public void setFrameDecoderEnabled(boolean frameDecoderEnabled)
+    {
+        impl.setFrameDecoderEnabled(frameDecoderEnabled);
+    }
+
+    /**
+     * Set to <code>true</code> to decode properties of events only when they
+     * are first accessed.
+     * <p>
+     * High volume events like VarSetEvent, NewExtenEvent and
+     * RtcpReceivedEvent keep the attributes received and bind all of their
+     * properties on the first call to one of their getters. For other events
+     * only map properties (like channel variables) are parsed on first
+     * access.
+     * <p>
+     * Default is <code>false</code>.
+     *
+     * @param lazyProperties <code>true</code> to decode properties on first
+     *            access, <code>false</code> to decode them when the event is
+     *            built.
+     * @since 2.0.0
+     */
+    public void setLazyProperties(boolean lazyProperties)
+    {
+        impl.setLazyProperties(lazyProperties);
+    }
+
+    /**
+     * Set to <code>true</code> to deliver events to the registered event
+     * listeners on a separate thread. Responses to actions are then no longer
+     * delayed by slow event listeners.
+     * <p>
+     * Default is <code>false</code>.
+     *
+     * @param asyncEventDelivery <code>true</code> to deliver events on a
+     *            separate thread, <code>false</code> to deliver them on the
+     *            reader thread.
+     * @since 2.0.0
+     */
+    public void setAsyncEventDelivery(boolean asyncEventDelivery)
+    {
+        impl.setAsyncEventDelivery(asyncEventDelivery);
+    }
+
+    /**
+     * Sets the runtime whose threads are shared with other connections for
+     * asynchronous event delivery, reconnects and pings.
+     * <p>
+     * Set the runtime before enabling asynchronous event delivery or adding
+     * event listeners. Default is <code>null</code>, i.e. the connection uses
+     * threads of its own.
+     *
+     * @param runtime the runtime to use or <code>null</code> to use threads
+     *            of this connection.
+     * @since 2.0.0
+     */
+    public void setRuntime(AsteriskRuntime runtime)
+    {
+        impl.setRuntime(runtime);
+    }
+
+    /**
+     * Sets the interval at which a PingAction is sent while logged in.
+     * <p>
+     * Default is 0, i.e. no pings are sent.
+     *
+     * @param pingInterval the interval in milliseconds, 0 to not send pings.
+     * @since 2.0.0
+     */
+    public void setPingInterval(long pingInterval)
+    {
+        impl.setPingInterval(pingInterval);
+    }
+
+    /**
+     * Sets the reactor that reads from Asterisk in place of a reader thread
+     * of this connection.
+     * <p>
+     * Default is <code>null</code>, i.e. a reader thread is used.
+     *
+     * @param reactor the reactor to use or <code>null</code> to use a reader
+     *            thread.
+     * @see ManagerReactor
+     * @since 2.0.0
+     */
+    public void setReactor(ManagerReactor reactor)
+    {
+        impl.setReactor(reactor == null ? null : reactor.getImpl());
+    }
+
+    /**
+     * Sets the priority of the given action class. Waiting actions of higher
+     * priority are sent before those of lower priority.
+     * <p>
+     * By default call control actions like HangupAction are urgent, status
+     * and list actions like StatusAction are bulk actions.
+     *
+     * @param actionClass the action class.
+     * @param priority the priority of actions of that class.
+     * @since 2.0.0
+     */
+    public void setActionPriority(Class<? extends ManagerAction> actionClass, ActionPriority priority)
+    {
+        impl.setActionPriority(actionClass, priority);
+    }
+
+    /**
+     * Limits the rate at which actions of the given priority are sent.
+     * <p>
+     * Default is no limit.
+     *
+     * @param priority the priority to limit.
+     * @param actionsPerSecond the maximum number of actions per second, 0 to
+     *            remove the limit.
+     * @since 2.0.0
+     */
+    public void setActionRateLimit(ActionPriority priority, double actionsPerSecond)
+    {
+        impl.setActionRateLimit(priority, actionsPerSecond);
+    }
+
     /* Implementation of ManagerConnection interface */
 
     public String getHostname()
@@ -336,6 +468,12 @@ public class DefaultManagerConnection implements ManagerConnection
         impl.sendAction(action, callbackHandler);
     }
 
+    public ManagerResponseFuture sendActionAsync(ManagerAction action, long timeout) throws IOException,
+            IllegalArgumentException, IllegalStateException
+    {
+        return impl.sendActionAsync(action, timeout);
+    }
+
     public ResponseEvents sendEventGeneratingAction(EventGeneratingAction action) throws IOException, EventTimeoutException,
             IllegalArgumentException, IllegalStateException
     {
@@ -353,11 +491,21 @@ public class DefaultManagerConnection implements ManagerConnection
         impl.addEventListener(listener);
     }
 
+    public void addEventListener(ManagerEventListener eventListener, int lanes, EventKeyExtractor keyExtractor)
+    {
+        impl.addEventListener(eventListener, lanes, keyExtractor);
+    }
+
     public void removeEventListener(final ManagerEventListener listener)
     {
         impl.removeEventListener(listener);
     }
 
+    public void addEventFilter(String filter)
+    {
+        impl.addEventFilter(filter);
+    }
+
     public String getProtocolIdentifier()
     {
         return impl.getProtocolIdentifier();
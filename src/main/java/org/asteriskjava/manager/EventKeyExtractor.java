@@ -0,0 +1,44 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager;
+
+import org.asteriskjava.manager.event.ManagerEvent;
+
+/**
+ * Determines which events supersede each other when events are coalesced by
+ * a {@link ManagerEventListenerProxy}.<p>
+ * Example: to only deliver the latest state of each queue member return the
+ * class, queue and location of QueueMemberStatusEvents and <code>null</code>
+ * for all other events.
+ *
+ * @author srt
+ * @version $Id$
+ * @see EventOverflowPolicy#COALESCE
+ * @since 2.0.0
+ */
+public interface EventKeyExtractor
+{
+    /**
+     * Returns the key of the given event. A queued event is replaced by a new
+     * event with an equal key.
+     *
+     * @param event the event.
+     * @return the key of the event or <code>null</code> if the event must
+     *         never be replaced.
+     */
+    Object getKey(ManagerEvent event);
+}
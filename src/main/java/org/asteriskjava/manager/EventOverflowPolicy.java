@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager;
+
+/**
+ * What a {@link ManagerEventListenerProxy} does with a new event when its
+ * queue is full.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+public enum EventOverflowPolicy
+{
+    /**
+     * Blocks the thread delivering the event, usually the reader thread of the
+     * connection, until there is room in the queue. No events are lost, Asterisk
+     * is slowed down by TCP backpressure instead.<p>
+     * Note that the listener must not wait for the response to an action while
+     * the queue is full as the response cannot be read until then.
+     */
+    BLOCK,
+
+    /**
+     * Drops the oldest queued event to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Drops the new event.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Replaces a queued event with the same key by the new one, the new event
+     * takes the place of the replaced event in the queue. Events without a
+     * matching queued event are added, dropping the oldest queued event if the
+     * queue is full.
+     *
+     * @see EventKeyExtractor
+     */
+    COALESCE
+}
@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager;
+
+import java.util.Set;
+
+import org.asteriskjava.manager.event.ManagerEvent;
+
+/**
+ * A {@link ManagerEventListener} that is only interested in some kinds of
+ * events.<p>
+ * The listener only receives events that are instances of one of the
+ * subscribed classes, this includes the events generated by the connection
+ * itself like ConnectEvent and DisconnectEvent. If all listeners registered
+ * with a connection are filterable the connection does not even build events
+ * none of them has subscribed to.
+ *
+ * @author srt
+ * @version $Id$
+ * @see ManagerConnection#addEventListener(ManagerEventListener)
+ * @since 2.0.0
+ */
+public interface FilterableManagerEventListener extends ManagerEventListener
+{
+    /**
+     * Returns the event classes this listener is interested in. Subclasses of
+     * the returned classes are included, so returning ManagerEvent subscribes
+     * to all events.<p>
+     * This method is called when the listener is added to a connection, later
+     * changes to the returned set have no effect.
+     *
+     * @return the event classes this listener is interested in.
+     */
+    Set<Class<? extends ManagerEvent>> getSubscribedEvents();
+}
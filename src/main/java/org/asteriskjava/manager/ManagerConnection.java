@@ -326,6 +326,29 @@ public interface ManagerConnection
     void sendAction(ManagerAction action, SendActionCallback callback) throws IOException, IllegalArgumentException,
             IllegalStateException;
 
+    /**
+     * Sends a ManagerAction to the Asterisk server and returns a future for
+     * the corresponding {@link ManagerResponse} without waiting for it.
+     * <p>
+     * If the response is not received within the given timeout the future
+     * fails with a {@link TimeoutException}. Either way the connection does
+     * not keep any reference to the action once the future is done, so this
+     * is the preferred way to keep a large number of actions in flight.
+     *
+     * @param action the action to send to the Asterisk server
+     * @param timeout milliseconds to wait for the response before the future
+     *            fails with a {@link TimeoutException}
+     * @return the future response.
+     * @throws IOException if the network connection is disrupted.
+     * @throws IllegalArgumentException if the action is <code>null</code>.
+     * @throws IllegalStateException if you are not connected to the Asterisk
+     *             server.
+     * @see #sendAction(ManagerAction, long)
+     * @since 2.0.0
+     */
+    ManagerResponseFuture sendActionAsync(ManagerAction action, long timeout) throws IOException,
+            IllegalArgumentException, IllegalStateException;
+
     /**
      * Sends an {@link EventGeneratingAction} to the Asterisk server and waits
      * for the corresponding {@link ManagerResponse} and the
@@ -410,6 +433,10 @@ public interface ManagerConnection
      * <p>
      * Event listeners are notified about new events in the same order as they
      * were registered.
+     * <p>
+     * A {@link FilterableManagerEventListener} only receives the events it
+     * has subscribed to. If all registered listeners are filterable, events
+     * none of them has subscribed to are not built at all.
      *
      * @param eventListener the listener to call whenever a manager event is
      *            received
@@ -417,6 +444,41 @@ public interface ManagerConnection
      */
     void addEventListener(ManagerEventListener eventListener);
 
+    /**
+     * Registers an event listener that is called on several threads to make
+     * use of multiple cores while keeping the order of related events.
+     * <p>
+     * Events are partitioned by the key returned by the given key extractor
+     * and distributed on the given number of lanes, each lane has its own
+     * thread. Events with the same key are delivered in the order they were
+     * received, events with different keys may be delivered concurrently or
+     * out of order. Events without a key are delivered in order on a separate
+     * lane. By default the linked id is used as key, falling back to the
+     * unique id of the channel for events without linked id, so events of
+     * the same call are delivered in order. Asterisk sends the linked id with
+     * channel events since version 12, with older versions events are only
+     * ordered per channel.
+     * <p>
+     * The lanes queue events without a limit, so the reader never waits for
+     * the listener and the listener may send actions and wait for their
+     * responses.
+     * <p>
+     * The listener must be thread safe. It is removed by
+     * {@link #removeEventListener(ManagerEventListener)} like any other
+     * listener.
+     *
+     * @param eventListener the listener to call whenever a manager event is
+     *            received
+     * @param lanes the number of threads events with a key are distributed
+     *            on
+     * @param keyExtractor determines the key of an event, <code>null</code>
+     *            to use the linked id or unique id.
+     * @throws IllegalArgumentException if lanes is not positive.
+     * @see #addEventListener(ManagerEventListener)
+     * @since 2.0.0
+     */
+    void addEventListener(ManagerEventListener eventListener, int lanes, EventKeyExtractor keyExtractor);
+
     /**
      * Unregisters a previously registered event listener.
      * <p>
@@ -426,4 +488,26 @@ public interface ManagerConnection
      * @see #addEventListener(ManagerEventListener)
      */
     void removeEventListener(ManagerEventListener eventListener);
+
+    /**
+     * Adds a filter that Asterisk applies to the events sent to this
+     * connection.
+     * <p>
+     * Filters are regular expressions matched against the lines of an event,
+     * they work like the <code>eventfilter</code> setting in manager.conf. A
+     * filter that starts with "!" excludes matching events, other filters
+     * include them: if there is at least one include filter only events
+     * matching an include filter are sent. For example "Event: Newchannel"
+     * or "!Event: VarSet".
+     * <p>
+     * The filter is sent immediately if connected and again after each
+     * (re-)connect. Filters cannot be removed from an active session.
+     * <p>
+     * Available since Asterisk 13, ignored with a warning for older versions.
+     *
+     * @param filter the filter to add.
+     * @see org.asteriskjava.manager.action.FilterAction
+     * @since 2.0.0
+     */
+    void addEventFilter(String filter);
 }
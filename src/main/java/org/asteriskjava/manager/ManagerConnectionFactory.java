@@ -51,6 +51,7 @@ public class ManagerConnectionFactory
     private final int port;
     private final String username;
     private final String password;
+    private ManagerReactor reactor;
 
     /**
      * Creates a new ManagerConnectionFactory with the given connection data and
@@ -87,6 +88,21 @@ public class ManagerConnectionFactory
         this.password = password;
     }
 
+    /**
+     * Sets the reactor to read the connections created by this factory. The
+     * connections then share the threads of the reactor instead of running
+     * a reader thread each.
+     * 
+     * @param reactor the reactor to use or <code>null</code> to run a reader
+     *            thread per connection.
+     * @see ManagerReactor
+     * @since 2.0.0
+     */
+    public void setReactor(ManagerReactor reactor)
+    {
+        this.reactor = reactor;
+    }
+
     /**
      * Returns a new ManagerConnection in state {@link ManagerConnectionState#CONNECTED}.
      * 
@@ -95,11 +111,15 @@ public class ManagerConnectionFactory
      */
     public ManagerConnection createManagerConnection()
     {
-        return new DefaultManagerConnection(hostname, port, username, password);
+        DefaultManagerConnection dmc;
+        dmc = new DefaultManagerConnection(hostname, port, username, password);
+        dmc.setReactor(reactor);
+        return dmc;
     }
 
     /**
-     * Returns a new SSL secured ManagerConnection in state {@link ManagerConnectionState#CONNECTED}.
+     * Returns a new SSL secured ManagerConnection in state {@link ManagerConnectionState#CONNECTED}.<p>
+     * SSL secured connections are not read by the reactor.
      * 
      * @return the created connection to the Asterisk server.
      * @since 0.3
@@ -1,17 +1,21 @@
 package org.asteriskjava.manager;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.asteriskjava.manager.event.ManagerEvent;
 import org.asteriskjava.util.DaemonThreadFactory;
-
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import org.asteriskjava.util.Log;
+import org.asteriskjava.util.LogFactory;
 
 /**
  * Proxies a ManagerEventListener and dispatches events asynchronously by using
- * a single threaded executor.<p>
+ * a queue and a dedicated thread.<p>
  * Use this proxy to prevent the reader thread from being blocked while your
  * application processes {@link org.asteriskjava.manager.event.ManagerEvent}s.
  * If you want to use the {@link org.asteriskjava.manager.ManagerConnection} for
@@ -20,6 +24,15 @@ import java.util.concurrent.TimeUnit;
  * a timeout because the reader thread that is supposed to read the response to
  * your action is still blocked processing the event.<p>
  * If in doubt use the proxy as it won't hurt.<p>
+ * The queue of a proxy created with {@link #ManagerEventListenerProxy(ManagerEventListener)}
+ * is unbounded, so the reader thread is never blocked. Other proxies hold at
+ * most <code>capacity</code> events, the {@link EventOverflowPolicy}
+ * determines what happens if the listener cannot keep up. The depth of the queue, the age of the oldest queued event and the
+ * number of dropped events are available to monitor the listener.<p>
+ * By default each proxy delivers its events on a thread of its own. A proxy
+ * created with an Executor instead delivers them in tasks run by the
+ * executor, so many proxies can share a small pool of threads. Events are
+ * still delivered one after the other in the order they were received.<p>
  * Example:
  * <pre>
  * ManagerConnection connection;
@@ -27,48 +40,561 @@ import java.util.concurrent.TimeUnit;
  * ...
  * connection.addEventListener(new ManagerEventListenerProxy(myListener));
  * </pre>
- * 
+ *
  * @author srt
  * @author fink
  * @since 0.3
  */
-public class ManagerEventListenerProxy implements ManagerEventListener {
-		private final ThreadPoolExecutor executor;
+public class ManagerEventListenerProxy implements ManagerEventListener
+{
+    /**
+     * Default number of events queued.
+     *
+     * @since 2.0.0
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    /**
+     * Capacity of a queue that grows as needed and never overflows.
+     *
+     * @since 2.0.0
+     */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    /**
+     * Initial size of the ring buffer, it is doubled as needed up to the
+     * capacity.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 64;
+
+    /**
+     * Maximum number of events delivered by one task when using an executor
+     * before the task is resubmitted to let other proxies run.
+     */
+    private static final int DRAIN_BATCH_SIZE = 256;
+
+    private final Log logger = LogFactory.getLog(getClass());
     private final ManagerEventListener target;
+    private final EventOverflowPolicy overflowPolicy;
+    private final EventKeyExtractor keyExtractor;
+    private final Executor executor;
+    private final Runnable drainTask;
 
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private final int capacity;
+
+    /**
+     * Ring buffer of queued events, the event with sequence number n is
+     * stored at index n % events.length. Guarded by lock.
+     */
+    private ManagerEvent[] events;
+    private Object[] keys;
+    private long[] enqueueTimes;
+
+    /**
+     * Maps the key of queued events to their sequence number, only used for
+     * {@link EventOverflowPolicy#COALESCE}.
+     */
+    private final Map<Object, Long> sequencesByKey;
+
+    /* guarded by lock */
+    private long head;
+    private long tail;
+    private Thread dispatcher;
+    private boolean drainScheduled;
+    private boolean shutdown;
+
+    private volatile long droppedCount;
+    private volatile long coalescedCount;
 
     /**
      * Creates a new ManagerEventListenerProxy that notifies the given target
-     * asynchronously when new events are received.
-     * 
+     * asynchronously when new events are received. The queue is unbounded,
+     * so the reader thread is never blocked, even while the target waits for
+     * the events of an action it has sent.
+     *
      * @param target the target listener to invoke.
-     * @see Executors#newSingleThreadExecutor(ThreadFactory)
      */
-    public ManagerEventListenerProxy(ManagerEventListener target) {
-	    executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory());
-	    this.target = target;
-	    if (target == null) {
-		    throw new NullPointerException("ManagerEventListener target is null!");
-	    }
-    }//new
+    public ManagerEventListenerProxy(ManagerEventListener target)
+    {
+        this(target, UNBOUNDED, EventOverflowPolicy.BLOCK);
+    }
 
+    /**
+     * Creates a new ManagerEventListenerProxy with a queue of the given
+     * capacity.
+     *
+     * @param target         the target listener to invoke.
+     * @param capacity       the maximum number of events queued or
+     *            {@link #UNBOUNDED}.
+     * @param overflowPolicy what to do if the queue is full, use
+     *            {@link #ManagerEventListenerProxy(ManagerEventListener, int, EventKeyExtractor)}
+     *            to coalesce events.
+     * @throws IllegalArgumentException if capacity is not positive or the
+     *             policy is {@link EventOverflowPolicy#COALESCE}.
+     * @since 2.0.0
+     */
+    public ManagerEventListenerProxy(ManagerEventListener target, int capacity, EventOverflowPolicy overflowPolicy)
+    {
+        this(target, capacity, overflowPolicy, null, null);
+    }
+
+    /**
+     * Creates a new ManagerEventListenerProxy that delivers events in tasks
+     * run by the given executor instead of a thread of its own.
+     *
+     * @param target         the target listener to invoke.
+     * @param capacity       the maximum number of events queued or
+     *            {@link #UNBOUNDED}.
+     * @param overflowPolicy what to do if the queue is full, must not be
+     *            {@link EventOverflowPolicy#COALESCE}.
+     * @param executor       the executor to deliver the events,
+     *            <code>null</code> to use a thread of its own.
+     * @throws IllegalArgumentException if capacity is not positive or the
+     *             policy is {@link EventOverflowPolicy#COALESCE}.
+     * @see org.asteriskjava.util.AsteriskRuntime#getDispatchExecutor()
+     * @since 2.0.0
+     */
+    public ManagerEventListenerProxy(ManagerEventListener target, int capacity, EventOverflowPolicy overflowPolicy,
+            Executor executor)
+    {
+        this(target, capacity, overflowPolicy, null, executor);
+    }
+
+    /**
+     * Creates a new ManagerEventListenerProxy that coalesces events with the
+     * same key.
+     *
+     * @param target       the target listener to invoke.
+     * @param capacity     the maximum number of events queued.
+     * @param keyExtractor determines the key of the events.
+     * @throws IllegalArgumentException if capacity is not positive.
+     * @see EventOverflowPolicy#COALESCE
+     * @since 2.0.0
+     */
+    public ManagerEventListenerProxy(ManagerEventListener target, int capacity, EventKeyExtractor keyExtractor)
+    {
+        this(target, capacity, EventOverflowPolicy.COALESCE, keyExtractor, null);
+    }
+
+    private ManagerEventListenerProxy(ManagerEventListener target, int capacity, EventOverflowPolicy overflowPolicy,
+            EventKeyExtractor keyExtractor, Executor executor)
+    {
+        if (target == null)
+        {
+            throw new NullPointerException("ManagerEventListener target is null!");
+        }
+        if (overflowPolicy == null)
+        {
+            throw new NullPointerException("EventOverflowPolicy is null!");
+        }
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if (overflowPolicy == EventOverflowPolicy.COALESCE && keyExtractor == null)
+        {
+            throw new IllegalArgumentException("Coalescing events requires an EventKeyExtractor");
+        }
+
+        this.target = target;
+        this.overflowPolicy = overflowPolicy;
+        this.keyExtractor = keyExtractor;
+        this.capacity = capacity;
+        final int bufferSize = Math.min(capacity, INITIAL_BUFFER_SIZE);
+        this.events = new ManagerEvent[bufferSize];
+        this.keys = keyExtractor == null ? null : new Object[bufferSize];
+        this.enqueueTimes = new long[bufferSize];
+        this.sequencesByKey = keyExtractor == null ? null : new HashMap<Object, Long>();
+        this.executor = executor;
+        this.drainTask = executor == null ? null : new Runnable()
+        {
+            public void run()
+            {
+                drain();
+            }
+        };
+    }
 
-    @Override public void onManagerEvent(final ManagerEvent event) {
-			executor.execute(new Runnable() {
-					@Override public void run() {
-							target.onManagerEvent(event);
-					}
-			});
-    }//onManagerEvent
+    public void onManagerEvent(ManagerEvent event)
+    {
+        final Object key = keyExtractor == null ? null : keyExtractor.getKey(event);
 
+        lock.lock();
+        try
+        {
+            if (key != null && replace(key, event))
+            {
+                return;
+            }
 
-    public void shutdown() {
-        executor.shutdown();
+            if (tail - head == events.length && events.length < capacity)
+            {
+                grow();
+            }
+
+            while (tail - head == capacity && !shutdown)
+            {
+                if (overflowPolicy == EventOverflowPolicy.BLOCK)
+                {
+                    try
+                    {
+                        notFull.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        droppedCount++;
+                        return;
+                    }
+                }
+                else if (overflowPolicy == EventOverflowPolicy.DROP_NEWEST)
+                {
+                    droppedCount++;
+                    return;
+                }
+                else
+                {
+                    removeHead();
+                    droppedCount++;
+                }
+            }
+
+            if (shutdown)
+            {
+                droppedCount++;
+                return;
+            }
+
+            final int index = index(tail);
+            events[index] = event;
+            enqueueTimes[index] = System.nanoTime();
+            if (key != null)
+            {
+                keys[index] = key;
+                sequencesByKey.put(key, tail);
+            }
+            tail++;
+
+            startDispatcherIfNeeded();
+            notEmpty.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
     }
 
-		public static class Access {
-			public static int getThreadQueueSize (ManagerEventListenerProxy proxy) {
-				return proxy.executor.getQueue().size();
-			}
-		}//Access
+    /**
+     * Stops dispatching events. Events already queued are still delivered,
+     * events received later are dropped.
+     */
+    public void shutdown()
+    {
+        lock.lock();
+        try
+        {
+            shutdown = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum number of events queued.
+     *
+     * @return the maximum number of events queued.
+     * @since 2.0.0
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Returns what is done with new events if the queue is full.
+     *
+     * @return what is done with new events if the queue is full.
+     * @since 2.0.0
+     */
+    public EventOverflowPolicy getOverflowPolicy()
+    {
+        return overflowPolicy;
+    }
+
+    /**
+     * Returns the number of events waiting to be delivered.
+     *
+     * @return the number of events waiting to be delivered.
+     * @since 2.0.0
+     */
+    public int getQueueDepth()
+    {
+        lock.lock();
+        try
+        {
+            return (int) (tail - head);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how long the oldest queued event has been waiting, i.e. how far
+     * the listener lags behind.
+     *
+     * @param unit the unit of the returned value.
+     * @return the time the oldest queued event has been waiting or 0 if the
+     *         queue is empty.
+     * @since 2.0.0
+     */
+    public long getLag(TimeUnit unit)
+    {
+        lock.lock();
+        try
+        {
+            if (head == tail)
+            {
+                return 0L;
+            }
+            return unit.convert(System.nanoTime() - enqueueTimes[index(head)], TimeUnit.NANOSECONDS);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of events that have been dropped because the queue
+     * was full or the proxy has been shut down.
+     *
+     * @return the number of events dropped.
+     * @since 2.0.0
+     */
+    public long getDroppedCount()
+    {
+        return droppedCount;
+    }
+
+    /**
+     * Returns the number of queued events that have been replaced by a newer
+     * event with the same key.
+     *
+     * @return the number of events replaced.
+     * @since 2.0.0
+     */
+    public long getCoalescedCount()
+    {
+        return coalescedCount;
+    }
+
+    private boolean replace(Object key, ManagerEvent event)
+    {
+        final Long sequence = sequencesByKey.get(key);
+        if (sequence == null)
+        {
+            return false;
+        }
+
+        // the replacing event keeps the enqueue time so the lag is not hidden
+        events[index(sequence)] = event;
+        coalescedCount++;
+        return true;
+    }
+
+    private ManagerEvent removeHead()
+    {
+        final int index = index(head);
+        final ManagerEvent event = events[index];
+        events[index] = null;
+        if (keys != null && keys[index] != null)
+        {
+            final Long sequence = sequencesByKey.get(keys[index]);
+            if (sequence != null && sequence == head)
+            {
+                sequencesByKey.remove(keys[index]);
+            }
+            keys[index] = null;
+        }
+        head++;
+        return event;
+    }
+
+    /**
+     * Doubles the size of the ring buffer, limited by the capacity. Must be
+     * called with the lock held.
+     */
+    private void grow()
+    {
+        final int newSize = (int) Math.min((long) capacity, 2L * events.length);
+        final ManagerEvent[] newEvents = new ManagerEvent[newSize];
+        final Object[] newKeys = keys == null ? null : new Object[newSize];
+        final long[] newEnqueueTimes = new long[newSize];
+
+        // sequence numbers stay the same, only their index changes
+        for (long sequence = head; sequence < tail; sequence++)
+        {
+            final int oldIndex = index(sequence);
+            final int newIndex = (int) (sequence % newSize);
+            newEvents[newIndex] = events[oldIndex];
+            newEnqueueTimes[newIndex] = enqueueTimes[oldIndex];
+            if (newKeys != null)
+            {
+                newKeys[newIndex] = keys[oldIndex];
+            }
+        }
+
+        events = newEvents;
+        keys = newKeys;
+        enqueueTimes = newEnqueueTimes;
+    }
+
+    private int index(long sequence)
+    {
+        return (int) (sequence % events.length);
+    }
+
+    private void startDispatcherIfNeeded()
+    {
+        if (executor != null)
+        {
+            if (!drainScheduled)
+            {
+                scheduleDrain();
+            }
+        }
+        else if (dispatcher == null)
+        {
+            dispatcher = new DaemonThreadFactory().newThread(new Runnable()
+            {
+                public void run()
+                {
+                    dispatch();
+                }
+            });
+            dispatcher.start();
+        }
+    }
+
+    private void dispatch()
+    {
+        while (true)
+        {
+            final ManagerEvent event;
+
+            lock.lock();
+            try
+            {
+                while (head == tail)
+                {
+                    if (shutdown)
+                    {
+                        return;
+                    }
+                    notEmpty.await();
+                }
+                event = removeHead();
+                notFull.signal();
+            }
+            catch (InterruptedException e)
+            {
+                return;
+            }
+            finally
+            {
+                lock.unlock();
+            }
+
+            deliver(event);
+        }
+    }
+
+    /**
+     * Submits the drain task to the executor. Must be called with the lock
+     * held.
+     */
+    private void scheduleDrain()
+    {
+        try
+        {
+            executor.execute(drainTask);
+            drainScheduled = true;
+        }
+        catch (RejectedExecutionException e)
+        {
+            drainScheduled = false;
+            logger.warn("Unable to deliver events to " + target.getClass().getName() + ", executor rejected task");
+        }
+    }
+
+    /**
+     * Delivers queued events when using an executor. At most one drain task
+     * is scheduled at a time, so events are still delivered in order.
+     */
+    private void drain()
+    {
+        for (int i = 0; i < DRAIN_BATCH_SIZE; i++)
+        {
+            final ManagerEvent event;
+
+            lock.lock();
+            try
+            {
+                if (head == tail)
+                {
+                    drainScheduled = false;
+                    return;
+                }
+                event = removeHead();
+                notFull.signal();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+
+            deliver(event);
+        }
+
+        // give other proxies sharing the executor a turn
+        lock.lock();
+        try
+        {
+            scheduleDrain();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void deliver(ManagerEvent event)
+    {
+        try
+        {
+            target.onManagerEvent(event);
+        }
+        catch (RuntimeException e)
+        {
+            logger.warn("Unexpected exception in event listener " + target.getClass().getName(), e);
+        }
+    }
+
+    public static class Access
+    {
+        public static int getThreadQueueSize(ManagerEventListenerProxy proxy)
+        {
+            return proxy.getQueueDepth();
+        }
+    }
 }
@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager;
+
+import org.asteriskjava.manager.internal.ManagerReactorImpl;
+
+/**
+ * Reads the connections of many ManagerConnections with a small pool of
+ * threads.<p>
+ * By default each ManagerConnection runs a reader thread of its own and
+ * starts a new thread to reconnect when the connection is lost. When
+ * connecting to many Asterisk servers from one JVM most of these threads are
+ * idle. Connections created by a {@link ManagerConnectionFactory} that uses a
+ * reactor share its selector threads for reading and its scheduler for
+ * reconnects instead.<p>
+ * Events are dispatched on the selector threads. A slow event listener
+ * delays the events of all connections served by the same thread, so
+ * listeners should return quickly or use a {@link ManagerEventListenerProxy}.
+ * SSL connections are not supported and always use a reader thread.<p>
+ * Example:
+ * <pre>
+ * ManagerReactor reactor = new ManagerReactor(4);
+ * for (String hostname : hostnames)
+ * {
+ *     ManagerConnectionFactory factory = new ManagerConnectionFactory(hostname, "manager", "secret");
+ *     factory.setReactor(reactor);
+ *     connections.add(factory.createManagerConnection());
+ * }
+ * </pre>
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+public class ManagerReactor
+{
+    private final ManagerReactorImpl impl;
+
+    /**
+     * Creates a new reactor and starts its selector threads.
+     *
+     * @param selectorThreads the number of threads reading the connections.
+     * @throws IllegalArgumentException if selectorThreads is not positive.
+     */
+    public ManagerReactor(int selectorThreads)
+    {
+        this.impl = new ManagerReactorImpl(selectorThreads);
+    }
+
+    ManagerReactorImpl getImpl()
+    {
+        return impl;
+    }
+
+    /**
+     * Closes all connections read by this reactor and stops its threads. The
+     * connections are not reconnected.
+     */
+    public void shutdown()
+    {
+        impl.shutdown();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager;
+
+import java.util.concurrent.Future;
+
+import org.asteriskjava.manager.response.ManagerResponse;
+
+/**
+ * The pending response to an action sent with
+ * {@link ManagerConnection#sendActionAsync(org.asteriskjava.manager.action.ManagerAction, long)}.<p>
+ * The future completes when the response is received. If no response is
+ * received within the timeout it fails with a {@link TimeoutException} as the
+ * cause of the ExecutionException thrown by {@link #get()}. Cancelling the
+ * future stops waiting for the response, the action has already been sent
+ * though.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+public interface ManagerResponseFuture extends Future<ManagerResponse>
+{
+    /**
+     * Adds a listener that is run once the future is done, i.e. when the
+     * response has been received, the timeout expired or the future has been
+     * cancelled. If the future is already done the listener is run
+     * immediately.<p>
+     * Listeners are run on the thread completing the future, usually the
+     * reader thread of the connection or the timer thread. They must be short
+     * and must not wait for the response to another action.
+     *
+     * @param listener the listener to run.
+     */
+    void addListener(Runnable listener);
+}
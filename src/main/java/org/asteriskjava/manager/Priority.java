@@ -0,0 +1,19 @@
+package org.asteriskjava.manager;
+
+import static java.lang.annotation.ElementType.TYPE;
+import java.lang.annotation.Retention;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the {@link ActionPriority} of an annotated
+ * {@link org.asteriskjava.manager.action.ManagerAction}.
+ *
+ * @since 2.0.0
+ */
+@Target(TYPE)
+@Retention(RUNTIME)
+public @interface Priority
+{
+    ActionPriority value();
+}
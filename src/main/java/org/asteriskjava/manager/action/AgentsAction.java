@@ -16,6 +16,8 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
 import org.asteriskjava.manager.event.AgentsCompleteEvent;
 import org.asteriskjava.manager.event.ResponseEvent;
 
@@ -32,6 +34,7 @@ import org.asteriskjava.manager.event.ResponseEvent;
  * @version $Id$
  * @since 0.2
  */
+@Priority(ActionPriority.BULK)
 public class AgentsAction extends AbstractManagerAction implements EventGeneratingAction
 {
     /**
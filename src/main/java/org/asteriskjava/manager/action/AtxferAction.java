@@ -16,6 +16,9 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
+
 /**
  * Starts an attended transfer. This action seems to be a bit of a hack. See
  * <a href="http://bugs.digium.com/view.php?id=12158">http://bugs.digium.com/view.php?id=12158</a>
@@ -26,6 +29,7 @@ package org.asteriskjava.manager.action;
  * @version $Id$
  * @since 1.0.0
  */
+@Priority(ActionPriority.URGENT)
 public class AtxferAction extends AbstractManagerAction
 {
     static final long serialVersionUID = 1L;
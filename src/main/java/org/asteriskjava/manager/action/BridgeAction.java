@@ -16,6 +16,9 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
+
 /**
  * The BridgeAction bridges two channels that are currently active on the system.<p>
  * It is definied in <code>res/res_features.c</code>.<p>
@@ -25,6 +28,7 @@ package org.asteriskjava.manager.action;
  * @version $Id$
  * @since 1.0.0
  */
+@Priority(ActionPriority.URGENT)
 public class BridgeAction extends AbstractManagerAction
 {
     /**
@@ -16,7 +16,9 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
 import org.asteriskjava.manager.ExpectedResponse;
+import org.asteriskjava.manager.Priority;
 import org.asteriskjava.manager.response.CommandResponse;
 
 /**
@@ -42,6 +44,7 @@ import org.asteriskjava.manager.response.CommandResponse;
  * @version $Id$
  * @see org.asteriskjava.manager.response.CommandResponse
  */
+@Priority(ActionPriority.BULK)
 @ExpectedResponse(CommandResponse.class)
 public class CommandAction extends AbstractManagerAction
 {
@@ -1,5 +1,7 @@
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
 import org.asteriskjava.manager.event.ConfbridgeListCompleteEvent;
 import org.asteriskjava.manager.event.ResponseEvent;
 
@@ -9,6 +11,7 @@ import org.asteriskjava.manager.event.ResponseEvent;
  *
  * @since 1.0.0
  */
+@Priority(ActionPriority.BULK)
 public class ConfbridgeListAction extends AbstractManagerAction implements EventGeneratingAction
 {
     private static final long serialVersionUID = 1L;
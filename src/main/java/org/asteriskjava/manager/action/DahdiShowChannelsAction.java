@@ -16,6 +16,8 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
 import org.asteriskjava.manager.event.DahdiShowChannelsCompleteEvent;
 import org.asteriskjava.manager.event.ResponseEvent;
 
@@ -29,6 +31,7 @@ import org.asteriskjava.manager.event.ResponseEvent;
  * @author srt
  * @version $Id$
  */
+@Priority(ActionPriority.BULK)
 public class DahdiShowChannelsAction extends AbstractManagerAction
         implements
             EventGeneratingAction
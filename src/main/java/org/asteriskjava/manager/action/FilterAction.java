@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.action;
+
+/**
+ * The FilterAction adds an event filter to the current manager session.<p>
+ * Filters work like the <code>eventfilter</code> setting in manager.conf: a
+ * filter is a regular expression that is matched against the lines of an
+ * event. If a filter does not start with "!" it is an include filter, only
+ * events matching one of the include filters are sent. Filters starting with
+ * "!" are exclude filters, events matching them are not sent. Filters cannot
+ * be removed, they remain active until the session is closed.<p>
+ * Example: "Event: Newchannel" to receive only Newchannel events or
+ * "!Event: VarSet" to receive all events but VarSet.<p>
+ * Available since Asterisk 13.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+public class FilterAction extends AbstractManagerAction
+{
+    /**
+     * Serializable version identifier.
+     */
+    static final long serialVersionUID = 1L;
+
+    public static final String OPERATION_ADD = "Add";
+
+    private String operation;
+    private String filter;
+
+    /**
+     * Creates a new empty FilterAction.
+     */
+    public FilterAction()
+    {
+
+    }
+
+    /**
+     * Creates a new FilterAction that adds the given filter.
+     *
+     * @param filter the filter to add, prefix it with "!" for an exclude
+     *            filter.
+     */
+    public FilterAction(String filter)
+    {
+        this(OPERATION_ADD, filter);
+    }
+
+    /**
+     * Creates a new FilterAction with the given operation and filter.
+     *
+     * @param operation the operation to perform, currently only "Add" is
+     *            supported.
+     * @param filter    the filter, prefix it with "!" for an exclude filter.
+     */
+    public FilterAction(String operation, String filter)
+    {
+        this.operation = operation;
+        this.filter = filter;
+    }
+
+    /**
+     * Returns the name of this action, i.e. "Filter".
+     */
+    @Override
+    public String getAction()
+    {
+        return "Filter";
+    }
+
+    /**
+     * Returns the operation to perform.
+     *
+     * @return the operation to perform.
+     */
+    public String getOperation()
+    {
+        return operation;
+    }
+
+    /**
+     * Sets the operation to perform, currently only "Add" is supported.
+     *
+     * @param operation the operation to perform.
+     */
+    public void setOperation(String operation)
+    {
+        this.operation = operation;
+    }
+
+    /**
+     * Returns the filter.
+     *
+     * @return the filter.
+     */
+    public String getFilter()
+    {
+        return filter;
+    }
+
+    /**
+     * Sets the filter.<p>
+     * The filter is a regular expression matched against the lines of an
+     * event, prefix it with "!" for an exclude filter.
+     *
+     * @param filter the filter.
+     */
+    public void setFilter(String filter)
+    {
+        this.filter = filter;
+    }
+}
@@ -16,7 +16,9 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
 import org.asteriskjava.manager.ExpectedResponse;
+import org.asteriskjava.manager.Priority;
 import org.asteriskjava.manager.response.GetConfigResponse;
 
 /**
@@ -27,6 +29,7 @@ import org.asteriskjava.manager.response.GetConfigResponse;
  * @see org.asteriskjava.manager.response.GetConfigResponse
  * @since 0.3
  */
+@Priority(ActionPriority.BULK)
 @ExpectedResponse(GetConfigResponse.class)
 public class GetConfigAction extends AbstractManagerAction
 {
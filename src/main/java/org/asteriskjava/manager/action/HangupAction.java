@@ -16,6 +16,9 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
+
 /**
  * The HangupAction causes Asterisk to hang up a given channel.<p>
  * Hangup with a cause code is only supported by Asterisk versions later than 1.6.2.
@@ -23,6 +26,7 @@ package org.asteriskjava.manager.action;
  * @author srt
  * @version $Id$
  */
+@Priority(ActionPriority.URGENT)
 public class HangupAction extends AbstractManagerAction
 {
     /**
@@ -16,6 +16,8 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
 import org.asteriskjava.manager.event.PeerlistCompleteEvent;
 import org.asteriskjava.manager.event.ResponseEvent;
 
@@ -32,6 +34,7 @@ import org.asteriskjava.manager.event.ResponseEvent;
  * @see org.asteriskjava.manager.event.PeerlistCompleteEvent
  * @since 1.0.0
  */
+@Priority(ActionPriority.BULK)
 public class IaxPeerListAction extends AbstractManagerAction implements EventGeneratingAction
 {
     /**
@@ -16,6 +16,9 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
+
 /**
  * The ListCommandsAction returns possible commands in the Manager interface.
  * <p>
@@ -25,6 +28,7 @@ package org.asteriskjava.manager.action;
  * @author martins
  * @since 0.3
  */
+@Priority(ActionPriority.BULK)
 public class ListCommandsAction extends AbstractManagerAction
 {
     /**
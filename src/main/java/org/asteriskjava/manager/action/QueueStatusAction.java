@@ -16,6 +16,8 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
 import org.asteriskjava.manager.event.QueueStatusCompleteEvent;
 import org.asteriskjava.manager.event.ResponseEvent;
 
@@ -36,6 +38,7 @@ import org.asteriskjava.manager.event.ResponseEvent;
  * @author srt
  * @version $Id$
  */
+@Priority(ActionPriority.BULK)
 public class QueueStatusAction extends AbstractManagerAction
         implements
             EventGeneratingAction
@@ -1,5 +1,7 @@
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
 import org.asteriskjava.manager.event.QueueSummaryCompleteEvent;
 import org.asteriskjava.manager.event.QueueSummaryEvent;
 import org.asteriskjava.manager.event.ResponseEvent;
@@ -18,6 +20,7 @@ import org.asteriskjava.manager.event.ResponseEvent;
  * @version $Id$
  * @since 0.3
  */
+@Priority(ActionPriority.BULK)
 public class QueueSummaryAction extends AbstractManagerAction implements EventGeneratingAction
 {
     /**
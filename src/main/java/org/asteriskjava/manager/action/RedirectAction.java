@@ -16,6 +16,9 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
+
 /**
  * Redirects a given channel (and an optional additional channel) to a new
  * extension.<p>
@@ -31,6 +34,7 @@ package org.asteriskjava.manager.action;
  * @author srt
  * @version $Id$
  */
+@Priority(ActionPriority.URGENT)
 public class RedirectAction extends AbstractManagerAction
 {
     /**
@@ -16,6 +16,8 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
 import org.asteriskjava.manager.event.ResponseEvent;
 import org.asteriskjava.manager.event.ShowDialplanCompleteEvent;
 
@@ -32,6 +34,7 @@ import org.asteriskjava.manager.event.ShowDialplanCompleteEvent;
  * @see org.asteriskjava.manager.event.ShowDialplanCompleteEvent
  * @since 1.0.0
  */
+@Priority(ActionPriority.BULK)
 public class ShowDialplanAction extends AbstractManagerAction implements EventGeneratingAction
 {
     private static final long serialVersionUID = 1L;
@@ -16,6 +16,8 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
 import org.asteriskjava.manager.event.PeerlistCompleteEvent;
 import org.asteriskjava.manager.event.ResponseEvent;
 
@@ -34,6 +36,7 @@ import org.asteriskjava.manager.event.ResponseEvent;
  * @see org.asteriskjava.manager.event.PeerlistCompleteEvent
  * @since 0.2
  */
+@Priority(ActionPriority.BULK)
 public class SipPeersAction extends AbstractManagerAction implements EventGeneratingAction
 {
     /**
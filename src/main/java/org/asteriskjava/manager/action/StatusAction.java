@@ -16,6 +16,8 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
 import org.asteriskjava.manager.event.StatusCompleteEvent;
 import org.asteriskjava.manager.event.ResponseEvent;
 
@@ -33,6 +35,7 @@ import java.util.Iterator;
  * @see org.asteriskjava.manager.event.StatusEvent
  * @see org.asteriskjava.manager.event.StatusCompleteEvent
  */
+@Priority(ActionPriority.BULK)
 public class StatusAction extends AbstractManagerAction implements EventGeneratingAction
 {
     /**
@@ -16,6 +16,8 @@
  */
 package org.asteriskjava.manager.action;
 
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.Priority;
 import org.asteriskjava.manager.event.VoicemailUserEntryCompleteEvent;
 import org.asteriskjava.manager.event.ResponseEvent;
 
@@ -34,6 +36,7 @@ import org.asteriskjava.manager.event.ResponseEvent;
  * @see org.asteriskjava.manager.event.VoicemailUserEntryCompleteEvent
  * @since 1.0.0
  */
+@Priority(ActionPriority.BULK)
 public class VoicemailUsersListAction extends AbstractManagerAction implements EventGeneratingAction
 {
     /**
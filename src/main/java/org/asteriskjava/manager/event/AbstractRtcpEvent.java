@@ -47,11 +47,13 @@ public abstract class AbstractRtcpEvent extends ManagerEvent
      */
     public Long getFractionLost()
     {
+        bindDeferredAttributes();
         return fractionLost;
     }
 
     public void setFractionLost(Long fractionLost)
     {
+        bindDeferredAttributes();
         this.fractionLost = fractionLost;
     }
 
@@ -62,11 +64,13 @@ public abstract class AbstractRtcpEvent extends ManagerEvent
      */
     public Double getIaJitter()
     {
+        bindDeferredAttributes();
         return iaJitter;
     }
 
     public void setIaJitter(Double iaJitter)
     {
+        bindDeferredAttributes();
         this.iaJitter = iaJitter;
     }
 
@@ -77,11 +81,13 @@ public abstract class AbstractRtcpEvent extends ManagerEvent
      */
     public Double getDlSr()
     {
+        bindDeferredAttributes();
         return dlSr;
     }
 
     public void setDlSr(String dlSrString)
     {
+        bindDeferredAttributes();
         this.dlSr = secStringToDouble(dlSrString);
     }
 
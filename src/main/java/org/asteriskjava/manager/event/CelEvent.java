@@ -38,7 +38,6 @@ public class CelEvent extends ManagerEvent
     private String eventTime;
     private String amaFlags;
     private String uniqueID;
-    private String linkedID;
     private String userField;
     private String peer;
     private String peerAccount;
@@ -190,14 +189,15 @@ public class CelEvent extends ManagerEvent
         this.uniqueID = uniqueID;
     }
 
+    // same property as getLinkedId(), both spellings set the linked id of ManagerEvent
     public String getLinkedID()
     {
-        return linkedID;
+        return getLinkedId();
     }
 
     public void setLinkedID(String linkedID)
     {
-        this.linkedID = linkedID;
+        setLinkedId(linkedID);
     }
 
     public String getUserField()
@@ -16,6 +16,8 @@
  */
 package org.asteriskjava.manager.event;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.lang.reflect.Method;
 import java.util.*;
 
@@ -58,91 +60,109 @@ public abstract class ManagerEvent extends EventObject
 
     public String getCallerIdName()
     {
+        bindDeferredAttributes();
         return callerIdName;
     }
 
     public void setCallerIdName(String callerIdName)
     {
+        bindDeferredAttributes();
         this.callerIdName = callerIdName;
     }
 
     public String getConnectedLineNum()
     {
+        bindDeferredAttributes();
         return connectedLineNum;
     }
 
     public void setConnectedLineNum(String connectedLineNum)
     {
+        bindDeferredAttributes();
         this.connectedLineNum = connectedLineNum;
     }
 
     public String getConnectedLineName()
     {
+        bindDeferredAttributes();
         return connectedLineName;
     }
 
     public void setConnectedLineName(String connectedLineName)
     {
+        bindDeferredAttributes();
         this.connectedLineName = connectedLineName;
     }
 
     public Integer getPriority()
     {
+        bindDeferredAttributes();
         return priority;
     }
 
     public void setPriority(Integer priority)
     {
+        bindDeferredAttributes();
         this.priority = priority;
     }
 
     public Integer getChannelState()
     {
+        bindDeferredAttributes();
         return channelState == null ? AstState.str2state(channelStateDesc) : channelState;
     }
 
     public void setChannelState(Integer channelState)
     {
+        bindDeferredAttributes();
         this.channelState = channelState;
     }
 
     public String getChannelStateDesc()
     {
+        bindDeferredAttributes();
         return channelStateDesc;
     }
 
     public void setChannelStateDesc(String channelStateDesc)
     {
+        bindDeferredAttributes();
         this.channelStateDesc = channelStateDesc;
     }
 
     public String getExten()
     {
+        bindDeferredAttributes();
         return exten;
     }
 
     public void setExten(String exten)
     {
+        bindDeferredAttributes();
         this.exten = exten;
     }
 
     public String getCallerIdNum()
     {
+        bindDeferredAttributes();
         return callerIdNum;
     }
 
     public void setCallerIdNum(String callerIdNum)
     {
+        bindDeferredAttributes();
         this.callerIdNum = callerIdNum;
     }
 
     public String getContext()
     {
+        bindDeferredAttributes();
         return context;
     }
 
     public void setContext(String context)
     {
+        bindDeferredAttributes();
         this.context = context;
     }
 
@@ -168,12 +188,31 @@ public abstract class ManagerEvent extends EventObject
 
     private String systemName;
 
+    /**
+     * The unique id of the oldest channel of the call, sent with channel
+     * related events.
+     */
+    private String linkedId;
+
     // AJ-213 only used when debugging is turned on
     private String file;
     private Integer line;
     private String func;
     private Integer sequenceNumber;
 
+    /**
+     * Sets the attributes received from Asterisk on this event if binding has
+     * been deferred until a property is first accessed, <code>null</code>
+     * once they have been bound.
+     */
+    private transient volatile Runnable deferredBinding;
+
+    /**
+     * Whether the deferred attributes are currently being bound. Guarded by
+     * this.
+     */
+    private transient boolean bindingDeferredAttributes;
+
     public ManagerEvent(Object source)
     {
         super(source);
@@ -210,6 +249,7 @@ public abstract class ManagerEvent extends EventObject
      */
     public String getPrivilege()
     {
+        bindDeferredAttributes();
         return privilege;
     }
 
@@ -220,6 +260,7 @@ public abstract class ManagerEvent extends EventObject
      */
     public void setPrivilege(String privilege)
     {
+        bindDeferredAttributes();
         this.privilege = privilege;
     }
 
@@ -235,6 +276,7 @@ public abstract class ManagerEvent extends EventObject
      */
     public final Double getTimestamp()
     {
+        bindDeferredAttributes();
         return timestamp;
     }
 
@@ -246,6 +288,7 @@ public abstract class ManagerEvent extends EventObject
      */
     public final void setTimestamp(Double timestamp)
     {
+        bindDeferredAttributes();
         this.timestamp = timestamp;
     }
 
@@ -261,6 +304,7 @@ public abstract class ManagerEvent extends EventObject
      */
     public final String getServer()
     {
+        bindDeferredAttributes();
         return server;
     }
 
@@ -274,19 +318,50 @@ public abstract class ManagerEvent extends EventObject
      */
     public final void setServer(String server)
     {
+        bindDeferredAttributes();
         this.server = server;
     }
 
     public String getSystemName()
     {
+        bindDeferredAttributes();
         return systemName;
     }
 
     public void setSystemName(String systemName)
     {
+        bindDeferredAttributes();
         this.systemName = systemName;
     }
 
+    /**
+     * Returns the linked id of the channel this event belongs to, i.e. the
+     * unique id of the oldest channel of the call. All channels of a call
+     * share the same linked id.<p>
+     * Available for channel related events since Asterisk 12, for some
+     * events (like StatusEvent and CelEvent) since Asterisk 1.8.
+     *
+     * @return the linked id or <code>null</code> if not available.
+     * @since 2.0.0
+     */
+    public String getLinkedId()
+    {
+        bindDeferredAttributes();
+        return linkedId;
+    }
+
+    /**
+     * Sets the linked id of the channel this event belongs to.
+     *
+     * @param linkedId the linked id.
+     * @since 2.0.0
+     */
+    public void setLinkedId(String linkedId)
+    {
+        bindDeferredAttributes();
+        this.linkedId = linkedId;
+    }
+
     /**
      * Returns the name of the file in Asterisk's source code that triggered
      * this event. For example <code>pbx.c</code>.
@@ -305,11 +380,13 @@ public abstract class ManagerEvent extends EventObject
      */
     public String getFile()
     {
+        bindDeferredAttributes();
         return file;
     }
 
     public void setFile(String file)
     {
+        bindDeferredAttributes();
         this.file = file;
     }
 
@@ -331,11 +408,13 @@ public abstract class ManagerEvent extends EventObject
      */
     public Integer getLine()
     {
+        bindDeferredAttributes();
         return line;
     }
 
     public void setLine(Integer line)
     {
+        bindDeferredAttributes();
         this.line = line;
     }
 
@@ -357,11 +436,13 @@ public abstract class ManagerEvent extends EventObject
      */
     public String getFunc()
     {
+        bindDeferredAttributes();
         return func;
     }
 
     public void setFunc(String func)
     {
+        bindDeferredAttributes();
         this.func = func;
     }
 
@@ -383,14 +464,96 @@ public abstract class ManagerEvent extends EventObject
      */
     public Integer getSequenceNumber()
     {
+        bindDeferredAttributes();
         return sequenceNumber;
     }
 
     public void setSequenceNumber(Integer sequenceNumber)
     {
+        bindDeferredAttributes();
         this.sequenceNumber = sequenceNumber;
     }
 
+    /**
+     * Returns whether the event builder may defer binding the attributes
+     * received from Asterisk until a property of this event is first
+     * accessed. Subclasses that return <code>true</code> must call
+     * {@link #bindDeferredAttributes()} at the beginning of each of their
+     * getters and setters.<p>
+     * This method is used internally by Asterisk-Java, there is no need to
+     * call it from your code.
+     *
+     * @return <code>true</code> if binding may be deferred,
+     *         <code>false</code> by default.
+     * @since 2.0.0
+     */
+    public boolean supportsDeferredBinding()
+    {
+        return false;
+    }
+
+    /**
+     * Defers binding the attributes received from Asterisk until a property
+     * of this event is first accessed.<p>
+     * This method is used internally by Asterisk-Java, there is no need to
+     * call it from your code.
+     *
+     * @param binding sets the attributes on this event when run.
+     * @throws IllegalStateException if this event does not support deferred
+     *             binding.
+     * @see #supportsDeferredBinding()
+     * @since 2.0.0
+     */
+    public final void deferBinding(Runnable binding)
+    {
+        if (!supportsDeferredBinding())
+        {
+            throw new IllegalStateException(getClass().getName() + " does not support deferred binding");
+        }
+        this.deferredBinding = binding;
+    }
+
+    /**
+     * Binds the attributes whose binding has been deferred, if any. Calls
+     * from the setters while binding are ignored, concurrent callers wait
+     * until binding is complete.
+     *
+     * @since 2.0.0
+     */
+    protected final void bindDeferredAttributes()
+    {
+        if (deferredBinding == null)
+        {
+            return;
+        }
+
+        synchronized (this)
+        {
+            final Runnable binding = deferredBinding;
+            if (binding == null || bindingDeferredAttributes)
+            {
+                return;
+            }
+
+            bindingDeferredAttributes = true;
+            try
+            {
+                binding.run();
+            }
+            finally
+            {
+                deferredBinding = null;
+                bindingDeferredAttributes = false;
+            }
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException
+    {
+        bindDeferredAttributes();
+        out.defaultWriteObject();
+    }
+
     @Override
     public String toString()
     {
@@ -16,6 +16,8 @@
  */
 package org.asteriskjava.manager.event;
 
+import java.util.Map;
+
 /**
  * A NewChannelEvent is triggered when a new channel is created.
  * <p>
@@ -33,6 +35,7 @@ public class NewChannelEvent extends AbstractChannelStateEvent
 
     private String accountCode;
     private String language;
+    private Map<String, String> chanVariables;
 
     public NewChannelEvent(Object source)
     {
@@ -72,4 +75,30 @@ public class NewChannelEvent extends AbstractChannelStateEvent
     {
         this.accountCode = accountCode;
     }
+
+    /**
+     * Returns the channel variables sent with this event.
+     * <p>
+     * This property is available since Asterisk 12 for the variables listed
+     * in the <code>channelvars</code> setting of <code>manager.conf</code>.
+     *
+     * @return a Map with the channel variables, <code>null</code> if none
+     *         have been sent.
+     * @since 2.0.0
+     */
+    public Map<String, String> getChanVariables()
+    {
+        return chanVariables;
+    }
+
+    /**
+     * Sets the channel variables sent with this event.
+     *
+     * @param chanVariables a Map with the channel variables.
+     * @since 2.0.0
+     */
+    public void setChanVariables(Map<String, String> chanVariables)
+    {
+        this.chanVariables = chanVariables;
+    }
 }
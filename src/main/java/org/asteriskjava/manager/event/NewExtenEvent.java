@@ -45,13 +45,27 @@ public class NewExtenEvent extends ManagerEvent
         super(source);
     }
 
+    /**
+     * Returns <code>true</code> as this high volume event binds its
+     * properties on first access if lazy properties are enabled.
+     *
+     * @since 2.0.0
+     */
+    @Override
+    public boolean supportsDeferredBinding()
+    {
+        return true;
+    }
+
     public String getLanguage()
     {
+        bindDeferredAttributes();
     	return language;
     }
     
     public void setLanguage(String language)
     {
+        bindDeferredAttributes();
     	this.language = language;
     }   
     
@@ -60,6 +74,7 @@ public class NewExtenEvent extends ManagerEvent
      */
     public String getUniqueId()
     {
+        bindDeferredAttributes();
         return uniqueId;
     }
 
@@ -68,6 +83,7 @@ public class NewExtenEvent extends ManagerEvent
      */
     public void setUniqueId(String uniqueId)
     {
+        bindDeferredAttributes();
         this.uniqueId = uniqueId;
     }
 
@@ -76,6 +92,7 @@ public class NewExtenEvent extends ManagerEvent
      */
     public String getApplication()
     {
+        bindDeferredAttributes();
         return application;
     }
 
@@ -84,6 +101,7 @@ public class NewExtenEvent extends ManagerEvent
      */
     public void setApplication(String application)
     {
+        bindDeferredAttributes();
         this.application = application;
     }
 
@@ -93,6 +111,7 @@ public class NewExtenEvent extends ManagerEvent
      */
     public String getAppData()
     {
+        bindDeferredAttributes();
         return appData;
     }
 
@@ -101,6 +120,7 @@ public class NewExtenEvent extends ManagerEvent
      */
     public void setAppData(String appData)
     {
+        bindDeferredAttributes();
         this.appData = appData;
     }
 
@@ -109,6 +129,7 @@ public class NewExtenEvent extends ManagerEvent
      */
     public String getChannel()
     {
+        bindDeferredAttributes();
         return channel;
     }
 
@@ -117,6 +138,7 @@ public class NewExtenEvent extends ManagerEvent
      */
     public void setChannel(String channel)
     {
+        bindDeferredAttributes();
         this.channel = channel;
     }
 
@@ -125,6 +147,7 @@ public class NewExtenEvent extends ManagerEvent
      */
     public String getExtension()
     {
+        bindDeferredAttributes();
         return extension;
     }
 
@@ -133,6 +156,7 @@ public class NewExtenEvent extends ManagerEvent
      */
     public void setExtension(String extension)
     {
+        bindDeferredAttributes();
         this.extension = extension;
     }
 }
@@ -58,6 +58,18 @@ public class RtcpReceivedEvent extends AbstractRtcpEvent
         super(source);
     }
 
+    /**
+     * Returns <code>true</code> as this high volume event binds its
+     * properties on first access if lazy properties are enabled.
+     *
+     * @since 2.0.0
+     */
+    @Override
+    public boolean supportsDeferredBinding()
+    {
+        return true;
+    }
+
     /**
      * Returns the IP address the RTCP message has been received from.
      *
@@ -65,6 +77,7 @@ public class RtcpReceivedEvent extends AbstractRtcpEvent
      */
     public InetAddress getFromAddress()
     {
+        bindDeferredAttributes();
         return fromAddress;
     }
 
@@ -75,11 +88,13 @@ public class RtcpReceivedEvent extends AbstractRtcpEvent
      */
     public Integer getFromPort()
     {
+        bindDeferredAttributes();
         return fromPort;
     }
 
     public void setFrom(String from)
     {
+        bindDeferredAttributes();
         // Format is "%s:%d"
         this.fromAddress = stringToAddress(from);
         this.fromPort = stringToPort(from);
@@ -95,11 +110,13 @@ public class RtcpReceivedEvent extends AbstractRtcpEvent
      */
     public Long getPt()
     {
+        bindDeferredAttributes();
         return pt;
     }
 
     public void setPt(String ptString)
     {
+        bindDeferredAttributes();
         // Format is "PT: %d(%s)"
         if (ptString == null || ptString.length() == 0)
         {
@@ -119,11 +136,13 @@ public class RtcpReceivedEvent extends AbstractRtcpEvent
 
     public Long getReceptionReports()
     {
+        bindDeferredAttributes();
         return receptionReports;
     }
 
     public void setReceptionReports(Long receptionReports)
     {
+        bindDeferredAttributes();
         this.receptionReports = receptionReports;
     }
 
@@ -134,11 +153,13 @@ public class RtcpReceivedEvent extends AbstractRtcpEvent
      */
     public Long getSenderSsrc()
     {
+        bindDeferredAttributes();
         return senderSsrc;
     }
 
     public void setSenderSsrc(Long senderSsrc)
     {
+        bindDeferredAttributes();
         this.senderSsrc = senderSsrc;
     }
 
@@ -149,41 +170,49 @@ public class RtcpReceivedEvent extends AbstractRtcpEvent
      */
     public Long getPacketsLost()
     {
+        bindDeferredAttributes();
         return packetsLost;
     }
 
     public void setPacketsLost(Long packetsLost)
     {
+        bindDeferredAttributes();
         this.packetsLost = packetsLost;
     }
 
     public Long getHighestSequence()
     {
+        bindDeferredAttributes();
         return highestSequence;
     }
 
     public void setHighestSequence(Long highestSequence)
     {
+        bindDeferredAttributes();
         this.highestSequence = highestSequence;
     }
 
     public Long getSequenceNumberCycles()
     {
+        bindDeferredAttributes();
         return sequenceNumberCycles;
     }
 
     public void setSequenceNumberCycles(Long sequenceNumberCycles)
     {
+        bindDeferredAttributes();
         this.sequenceNumberCycles = sequenceNumberCycles;
     }
 
     public Double getLastSr()
     {
+        bindDeferredAttributes();
         return lastSr;
     }
 
     public void setLastSr(Double lastSr)
     {
+        bindDeferredAttributes();
         this.lastSr = lastSr;
     }
 
@@ -194,16 +223,19 @@ public class RtcpReceivedEvent extends AbstractRtcpEvent
      */
     public Double getRtt()
     {
+        bindDeferredAttributes();
         return rtt;
     }
 
     public void setRtt(String rttString)
     {
+        bindDeferredAttributes();
         this.rtt = secStringToDouble(rttString);
     }
     
     public Long getRttAsMillseconds()
     {
+        bindDeferredAttributes();
     	return (long) (rtt * 1000);
     }
 }
@@ -38,7 +38,6 @@ public class StatusEvent extends ResponseEvent
     private String bridgedChannel;
     private String bridgedUniqueId;
     private String uniqueId;
-    private String linkedId;
     private String data;
     private String readFormat;
     private String writeFormat;
@@ -321,16 +320,6 @@ public class StatusEvent extends ResponseEvent
         this.variables = variables;
     }
 
-    public String getLinkedId()
-    {
-        return linkedId;
-    }
-
-    public void setLinkedId(String linkedId)
-    {
-        this.linkedId = linkedId;
-    }
-
     public String getData()
     {
         return data;
@@ -40,11 +40,13 @@ public class VarSetEvent extends ManagerEvent
 
     public String getLanguage()
     {
+        bindDeferredAttributes();
         return language;
     }
 
     public void setLanguage(String language)
     {
+        bindDeferredAttributes();
         this.language = language;
     }
 
@@ -53,6 +55,18 @@ public class VarSetEvent extends ManagerEvent
         super(source);
     }
 
+    /**
+     * Returns <code>true</code> as this high volume event binds its
+     * properties on first access if lazy properties are enabled.
+     *
+     * @since 2.0.0
+     */
+    @Override
+    public boolean supportsDeferredBinding()
+    {
+        return true;
+    }
+
     /**
      * Returns the name of the channel or <code>null</code> for global
      * variables.
@@ -62,11 +76,13 @@ public class VarSetEvent extends ManagerEvent
      */
     public String getChannel()
     {
+        bindDeferredAttributes();
         return channel;
     }
 
     public void setChannel(String channel)
     {
+        bindDeferredAttributes();
         this.channel = channel;
     }
 
@@ -79,11 +95,13 @@ public class VarSetEvent extends ManagerEvent
      */
     public String getUniqueId()
     {
+        bindDeferredAttributes();
         return uniqueId;
     }
 
     public void setUniqueId(String uniqueId)
     {
+        bindDeferredAttributes();
         this.uniqueId = uniqueId;
     }
 
@@ -94,11 +112,13 @@ public class VarSetEvent extends ManagerEvent
      */
     public String getVariable()
     {
+        bindDeferredAttributes();
         return variable;
     }
 
     public void setVariable(String variable)
     {
+        bindDeferredAttributes();
         this.variable = variable;
     }
 
@@ -109,11 +129,13 @@ public class VarSetEvent extends ManagerEvent
      */
     public String getValue()
     {
+        bindDeferredAttributes();
         return value;
     }
 
     public void setValue(String value)
     {
+        bindDeferredAttributes();
         this.value = value;
     }
 }
@@ -1,15 +1,9 @@
 package org.asteriskjava.manager.internal;
 
 import org.asteriskjava.manager.event.UserEvent;
-import org.asteriskjava.util.AstUtil;
 import org.asteriskjava.util.Log;
 import org.asteriskjava.util.LogFactory;
-import org.asteriskjava.util.ReflectionUtil;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
-import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -20,151 +14,125 @@ abstract class AbstractBuilder
 {
     protected final Log logger = LogFactory.getLog(getClass());
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Whether to defer decoding properties until first access.
+     */
+    protected volatile boolean lazyProperties = false;
+
     protected void setAttributes(Object target, Map<String, Object> attributes, Set<String> ignoredAttributes)
     {
-        Map<String, Method> setters;
+        final BindingPlan plan = BindingPlan.forClass(target.getClass());
 
-        setters = ReflectionUtil.getSetters(target.getClass());
-        for (Map.Entry<String, Object> entry : attributes.entrySet())
+        // the reader passes an AttributeMap, iterate it without creating entries
+        if (attributes instanceof AttributeMap)
         {
-            Object value;
-            final Class<?> dataType;
-            Method setter;
-            String setterName;
-
-            if (ignoredAttributes != null && ignoredAttributes.contains(entry.getKey()))
-            {
-                continue;
-            }
-
-            setterName = ReflectionUtil.stripIllegalCharacters(entry.getKey());
-
-            /*
-             * The source property needs special handling as it is already
-             * defined in java.util.EventObject (the base class of
-             * ManagerEvent), so we have to translate it.
-             */
-            if ("source".equals(setterName))
+            final AttributeMap attributeMap = (AttributeMap) attributes;
+            for (int i = 0; i < attributeMap.size(); i++)
             {
-                setterName = "src";
-            } 
-            else if ("class".equals(setterName))
-            {
-            	setterName = "clazz";
-            }
-
-            /*
-             * The class property needs to be renamed. It is used in MusicOnHoldEvent.
-             */
-            if ("class".equals(setterName))
-            {
-                setterName = "classname";
-            }
-
-            setter = setters.get(setterName);
-
-            if (setter == null && !setterName.endsWith("s")) // no exact match => try plural
-            {
-                setter = setters.get(setterName + "s");
-                // but only for maps
-                if (setter != null && ! (setter.getParameterTypes()[0].isAssignableFrom(Map.class)))
-                {
-                    setter = null;
-                }
+                setAttribute(target, plan, attributeMap.keyAt(i), attributeMap.valueAt(i), ignoredAttributes);
             }
-
-            // it seems silly to warn if it's a user event -- maybe it was intentional
-            if (setter == null && !(target instanceof UserEvent))
+        }
+        else
+        {
+            for (Map.Entry<String, Object> entry : attributes.entrySet())
             {
-                logger.warn("Unable to set property '" + entry.getKey() + "' to '" + entry.getValue() + "' on "
-                        + target.getClass().getName() + ": no setter. Please report at https://github.com/asterisk-java/asterisk-java/issues");
+                setAttribute(target, plan, entry.getKey(), entry.getValue(), ignoredAttributes);
             }
+        }
+    }
 
-            if (setter == null)
-            {
-                continue;
-            }
+    /**
+     * Sets a copy of the attributes of a frame on the target when run. Used
+     * to defer binding until a property of an event is first accessed, the
+     * reader reuses the attribute map for the next frame.
+     */
+    protected final class DeferredBinding implements Runnable
+    {
+        private final Object target;
+        private final String[] names;
+        private final Object[] values;
+        private final Set<String> ignoredAttributes;
 
-            dataType = setter.getParameterTypes()[0];
+        DeferredBinding(Object target, Map<String, Object> attributes, Set<String> ignoredAttributes)
+        {
+            this.target = target;
+            this.names = new String[attributes.size()];
+            this.values = new Object[attributes.size()];
+            this.ignoredAttributes = ignoredAttributes;
 
-            if (dataType == Boolean.class)
+            if (attributes instanceof AttributeMap)
             {
-                value = AstUtil.isTrue(entry.getValue());
-            }
-            else if (dataType.isAssignableFrom(String.class))
-            {
-                value = entry.getValue();
-                if (AstUtil.isNull(value))
+                final AttributeMap attributeMap = (AttributeMap) attributes;
+                for (int i = 0; i < names.length; i++)
                 {
-                    value = null;
-                }
-            }
-            else if (dataType.isAssignableFrom(Map.class))
-            {
-                if (entry.getValue() instanceof List)
-                {
-                    List<String> list = (List<String>) entry.getValue();
-                    value = buildMap(list.toArray(new String[list.size()]));
-                }
-                else if (entry.getValue() instanceof String)
-                {
-                    value = buildMap((String) entry.getValue());
-                }
-                else
-                {
-                    value = null;
+                    names[i] = attributeMap.keyAt(i);
+                    values[i] = attributeMap.valueAt(i);
                 }
             }
             else
             {
-                try
+                int i = 0;
+                for (Map.Entry<String, Object> entry : attributes.entrySet())
                 {
-                    Constructor<?> constructor = dataType.getConstructor(new Class[]{String.class});
-                    value = constructor.newInstance(entry.getValue());
-                }
-                catch (Exception e)
-                {
-                    logger.error("Unable to convert value '" + entry.getValue() + "' of property '" + entry.getKey() + "' on "
-                            + target.getClass().getName() + " to required type " + dataType, e);
-                    continue;
+                    names[i] = entry.getKey();
+                    values[i] = entry.getValue();
+                    i++;
                 }
             }
+        }
 
-            try
-            {
-                setter.invoke(target, value);
-            }
-            catch (Exception e)
+        public void run()
+        {
+            final BindingPlan plan = BindingPlan.forClass(target.getClass());
+            for (int i = 0; i < names.length; i++)
             {
-                logger.error("Unable to set property '" + entry.getKey() + "' to '" + entry.getValue() + "' on "
-                        + target.getClass().getName(), e);
+                setAttribute(target, plan, names[i], values[i], ignoredAttributes);
             }
         }
     }
 
-    private Map<String, String> buildMap(String... lines)
+    private void setAttribute(Object target, BindingPlan plan, String name, Object rawValue,
+            Set<String> ignoredAttributes)
     {
-        if (lines == null)
+        final BindingPlan.Binding binding;
+        final Object value;
+
+        if (ignoredAttributes != null && ignoredAttributes.contains(name))
         {
-            return null;
+            return;
         }
 
-        final Map<String, String> map = new LinkedHashMap<String, String>();
-        for (String line : lines)
+        binding = plan.getBinding(name);
+        if (binding == null)
         {
-            final int index = line.indexOf('=');
-            if (index > 0)
-            {
-                final String key = line.substring(0, index);
-                final String value = line.substring(index + 1, line.length());
-                map.put(key, value);
-            }
-            else
+            // it seems silly to warn if it's a user event -- maybe it was intentional
+            if (!(target instanceof UserEvent))
             {
-                logger.warn("Malformed line '" + line + "' for a map property");
+                logger.warn("Unable to set property '" + name + "' to '" + rawValue + "' on "
+                        + target.getClass().getName() + ": no setter. Please report at https://github.com/asterisk-java/asterisk-java/issues");
             }
+            return;
+        }
+
+        try
+        {
+            value = lazyProperties ? binding.convertLazily(rawValue) : binding.convert(rawValue);
+        }
+        catch (Exception e)
+        {
+            logger.error("Unable to convert value '" + rawValue + "' of property '" + name + "' on "
+                    + target.getClass().getName() + " to required type " + binding.getDataType(), e);
+            return;
+        }
+
+        try
+        {
+            binding.set(target, value);
+        }
+        catch (Exception e)
+        {
+            logger.error("Unable to set property '" + name + "' to '" + rawValue + "' on "
+                    + target.getClass().getName(), e);
         }
-        return map;
     }
 }
@@ -28,9 +28,15 @@ import org.asteriskjava.util.ReflectionUtil;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Default implementation of the ActionBuilder interface.
+ * Default implementation of the ActionBuilder interface.<p>
+ * The properties to send are determined once per action class and cached
+ * together with their names on the wire, so building an action requires no
+ * further reflective lookups apart from calling the getters. Actions are
+ * built into a buffer that is reused by the calling thread.
  *
  * @author srt
  * @version $Id$
@@ -40,23 +46,52 @@ class ActionBuilderImpl implements ActionBuilder
     private static final String LINE_SEPARATOR = "\r\n";
     private static final String ATTRIBUTES_PROPERTY_NAME = "attributes";
 
+    /**
+     * When using the Reflection API to get all of the getters for building
+     * actions to send, we ignore some of the getters.
+     */
+    private static final Set<String> IGNORED_PROPERTIES = new HashSet<String>(Arrays.asList("class", "action",
+            "actionid", ATTRIBUTES_PROPERTY_NAME));
+
+    /**
+     * Buffers grown beyond this size by a large action are not reused.
+     */
+    private static final int MAX_REUSED_BUFFER_SIZE = 8192;
+
+    private static final ConcurrentMap<Class<?>, SerializationPlan> plans = new ConcurrentHashMap<Class<?>, SerializationPlan>();
+
+    private static final ThreadLocal<StringBuilder> buffers = new ThreadLocal<StringBuilder>()
+    {
+        @Override
+        protected StringBuilder initialValue()
+        {
+            return new StringBuilder(256);
+        }
+    };
+
     /**
      * Instance logger.
      */
     private final Log logger = LogFactory.getLog(getClass());
-    private AsteriskVersion targetVersion;
+
+    /**
+     * <code>true</code> to send each entry of a map property on a line of its
+     * own as supported since Asterisk 1.2, <code>false</code> to join them on
+     * a single line.
+     */
+    private volatile boolean mapEntryPerLine;
 
     /**
      * Creates a new ActionBuilder for Asterisk 1.0.
      */
     ActionBuilderImpl()
     {
-        this.targetVersion = AsteriskVersion.ASTERISK_1_0;
+        setTargetVersion(AsteriskVersion.ASTERISK_1_0);
     }
 
     public void setTargetVersion(AsteriskVersion targetVersion)
     {
-        this.targetVersion = targetVersion;
+        this.mapEntryPerLine = targetVersion.isAtLeast(AsteriskVersion.ASTERISK_1_2);
     }
 
     public String buildAction(final ManagerAction action)
@@ -67,8 +102,10 @@ class ActionBuilderImpl implements ActionBuilder
     @SuppressWarnings("unchecked")
     public String buildAction(final ManagerAction action, final String internalActionId)
     {
-        StringBuffer sb = new StringBuffer();
+        final StringBuilder sb = buffers.get();
+        final SerializationPlan plan = getPlan(action.getClass());
 
+        sb.setLength(0);
         sb.append("action: ");
         sb.append(action.getAction());
         sb.append(LINE_SEPARATOR);
@@ -85,79 +122,71 @@ class ActionBuilderImpl implements ActionBuilder
             sb.append(LINE_SEPARATOR);
         }
 
-        /*
-         * When using the Reflection API to get all of the getters for building
-         * actions to send, we ignore some of the getters
-         */
-        Set<String> ignore = new HashSet<String>();
-        ignore.add("class");
-        ignore.add("action");
-        ignore.add("actionid");
-        ignore.add(ATTRIBUTES_PROPERTY_NAME);
-
         // if this is a user event action, we need to grab the internal event,
         // otherwise do below as normal
         if (action instanceof UserEventAction)
         {
             UserEvent userEvent = ((UserEventAction) action).getUserEvent();
-            appendUserEvent(sb, userEvent);
+            SerializationPlan userEventPlan = getPlan(userEvent.getClass());
 
-            // eventually we may want to add more Map keys for events to ignore
-            // when appending
-            appendGetters(sb, userEvent, ignore);
+            appendString(sb, "UserEvent", userEventPlan.userEventType);
+            appendProperties(sb, userEvent, userEventPlan);
         }
         else
         {
-            appendGetters(sb, action, ignore);
+            appendProperties(sb, action, plan);
         }
 
         // actions that have the special getAttributes method will
         // have their Map appended without a singular key or separator
-        Map<String, Method> getters = ReflectionUtil.getGetters(action.getClass());
-        
-        if(getters.containsKey(ATTRIBUTES_PROPERTY_NAME))
+        if (plan.attributesGetter != null)
         {
-            Method getter = getters.get(ATTRIBUTES_PROPERTY_NAME);
             Object value = null;
             try
             {
-                value = getter.invoke(action);
+                value = plan.attributesGetter.invoke(action);
             }
             catch (Exception ex)
             {
                 logger.error("Unable to retrieve property '" + ATTRIBUTES_PROPERTY_NAME + "' of " + action.getClass(), ex);
             }
-            
-            if(value instanceof Map)
+
+            if (value instanceof Map)
             {
-                Map<Object,Object> attributes = (Map<Object, Object>)value;
+                Map<Object, Object> attributes = (Map<Object, Object>) value;
                 for (Map.Entry<Object, Object> entry : attributes.entrySet())
                 {
                     appendString(sb, entry.getKey() == null ? "null" : entry.getKey().toString(),
                             entry.getValue() == null ? "null" : entry.getValue().toString());
-                }   
+                }
             }
         }
-        
-        sb.append(LINE_SEPARATOR);
-        return sb.toString();
-    }
 
-    private void appendMap(StringBuffer sb, String key, Map<String, String> values)
-    {
-        String singularKey;
+        sb.append(LINE_SEPARATOR);
 
-        // strip plural s (i.e. use "variable: " instead of "variables: "
-        if (key.endsWith("s"))
+        final String actionString = sb.toString();
+        if (sb.capacity() > MAX_REUSED_BUFFER_SIZE)
         {
-            singularKey = key.substring(0, key.length() - 1);
+            buffers.remove();
         }
-        else
+        return actionString;
+    }
+
+    private SerializationPlan getPlan(Class<?> clazz)
+    {
+        SerializationPlan plan = plans.get(clazz);
+        if (plan == null)
         {
-            singularKey = key;
+            // computing a plan twice is harmless, both are equal
+            plan = new SerializationPlan(clazz, this);
+            plans.put(clazz, plan);
         }
+        return plan;
+    }
 
-        if (targetVersion.isAtLeast(AsteriskVersion.ASTERISK_1_2))
+    private void appendMap(StringBuilder sb, String singularKey, Map<String, String> values)
+    {
+        if (mapEntryPerLine)
         {
             appendMap12(sb, singularKey, values);
         }
@@ -167,7 +196,7 @@ class ActionBuilderImpl implements ActionBuilder
         }
     }
 
-    private void appendMap10(StringBuffer sb, String singularKey, Map<String, String> values)
+    private void appendMap10(StringBuilder sb, String singularKey, Map<String, String> values)
     {
         Iterator<Map.Entry<String, String>> entryIterator;
 
@@ -194,7 +223,7 @@ class ActionBuilderImpl implements ActionBuilder
         sb.append(LINE_SEPARATOR);
     }
 
-    private void appendMap12(StringBuffer sb, String singularKey, Map<String, String> values)
+    private void appendMap12(StringBuilder sb, String singularKey, Map<String, String> values)
     {
         for (Map.Entry<String, String> entry : values.entrySet())
         {
@@ -211,7 +240,7 @@ class ActionBuilderImpl implements ActionBuilder
         }
     }
 
-    private void appendString(StringBuffer sb, String key, String value)
+    private void appendString(StringBuilder sb, String key, String value)
     {
         sb.append(key);
         sb.append(": ");
@@ -219,43 +248,20 @@ class ActionBuilderImpl implements ActionBuilder
         sb.append(LINE_SEPARATOR);
     }
 
-    private void appendUserEvent(StringBuffer sb, UserEvent event)
-    {
-        Class<?> clazz = event.getClass();
-
-        String className = clazz.getName();
-        String eventType = className.substring(className.lastIndexOf('.') + 1).toLowerCase(Locale.ENGLISH);
-
-        if (eventType.endsWith("event"))
-        {
-            eventType = eventType.substring(0, eventType.length() - "event".length());
-        }
-
-        appendString(sb, "UserEvent", eventType);
-    }
-
     @SuppressWarnings("unchecked")
-    private void appendGetters(StringBuffer sb, Object action, Set<String> membersToIgnore)
+    private void appendProperties(StringBuilder sb, Object action, SerializationPlan plan)
     {
-        Map<String, Method> getters = ReflectionUtil.getGetters(action.getClass());
-        for (Map.Entry<String, Method> entry : getters.entrySet())
+        for (Property property : plan.properties)
         {
-            final String name = entry.getKey();
-            final Method getter = entry.getValue();
             final Object value;
 
-            if (membersToIgnore.contains(name))
-            {
-                continue;
-            }
-
             try
             {
-                value = getter.invoke(action);
+                value = property.getter.invoke(action);
             }
             catch (Exception ex)
             {
-                logger.error("Unable to retrieve property '" + name + "' of " + action.getClass(), ex);
+                logger.error("Unable to retrieve property '" + property.name + "' of " + action.getClass(), ex);
                 continue;
             }
 
@@ -264,18 +270,17 @@ class ActionBuilderImpl implements ActionBuilder
                 continue;
             }
 
-            final String mappedName = mapToAsterisk(getter);
             if (value instanceof Map)
             {
-                appendMap(sb, mappedName, (Map<String, String>) value);
+                appendMap(sb, property.singularMappedName, (Map<String, String>) value);
             }
             else if (value instanceof String)
             {
-                appendString(sb, mappedName, (String) value);
+                appendString(sb, property.mappedName, (String) value);
             }
             else
             {
-                appendString(sb, mappedName, value.toString());
+                appendString(sb, property.mappedName, value.toString());
             }
         }
     }
@@ -378,4 +383,68 @@ class ActionBuilderImpl implements ActionBuilder
         char first = s.charAt(0);
         return Character.toLowerCase(first) + s.substring(1);
     }
+
+    /**
+     * The properties of an action or user event class to send, in the order
+     * they are sent.
+     */
+    private static final class SerializationPlan
+    {
+        private final Property[] properties;
+        private final Method attributesGetter;
+        private final String userEventType;
+
+        private SerializationPlan(Class<?> clazz, ActionBuilderImpl builder)
+        {
+            final Map<String, Method> getters = ReflectionUtil.getGetters(clazz);
+            final List<Property> propertyList = new ArrayList<Property>(getters.size());
+
+            for (Map.Entry<String, Method> entry : getters.entrySet())
+            {
+                if (!IGNORED_PROPERTIES.contains(entry.getKey()))
+                {
+                    propertyList.add(new Property(entry.getKey(), entry.getValue(), builder.mapToAsterisk(entry.getValue())));
+                }
+            }
+
+            this.properties = propertyList.toArray(new Property[propertyList.size()]);
+            this.attributesGetter = getters.get(ATTRIBUTES_PROPERTY_NAME);
+            this.userEventType = UserEvent.class.isAssignableFrom(clazz) ? determineUserEventType(clazz) : null;
+        }
+
+        private String determineUserEventType(Class<?> clazz)
+        {
+            String className = clazz.getName();
+            String eventType = className.substring(className.lastIndexOf('.') + 1).toLowerCase(Locale.ENGLISH);
+
+            if (eventType.endsWith("event"))
+            {
+                eventType = eventType.substring(0, eventType.length() - "event".length());
+            }
+            return eventType;
+        }
+    }
+
+    private static final class Property
+    {
+        private final String name;
+        private final Method getter;
+        private final String mappedName;
+
+        /**
+         * The mapped name without plural s used for map properties (i.e.
+         * "variable: " instead of "variables: ").
+         */
+        private final String singularMappedName;
+
+        private Property(String name, Method getter, String mappedName)
+        {
+            this.name = name;
+            this.getter = getter;
+            this.mappedName = mappedName;
+            this.singularMappedName = mappedName.endsWith("s")
+                    ? mappedName.substring(0, mappedName.length() - 1)
+                    : mappedName;
+        }
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate at which actions are sent.<p>
+ * Permits are refilled continuously at the configured rate, up to one second
+ * worth of permits, so short bursts are sent without delay. When no permit is
+ * available the sending thread waits, threads are served in the order they
+ * asked for a permit.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+class ActionRateLimiter
+{
+    private final double permitsPerNano;
+    private final double maxPermits;
+
+    /* guarded by this */
+    private double storedPermits;
+    private long lastRefill;
+
+    /**
+     * Creates a new rate limiter.
+     *
+     * @param actionsPerSecond the number of actions per second.
+     * @throws IllegalArgumentException if actionsPerSecond is not positive.
+     */
+    ActionRateLimiter(double actionsPerSecond)
+    {
+        if (!(actionsPerSecond > 0))
+        {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+
+        this.permitsPerNano = actionsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.maxPermits = Math.max(1, actionsPerSecond);
+        this.storedPermits = maxPermits;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Waits until an action may be sent.
+     *
+     * @throws InterruptedIOException if interrupted while waiting.
+     */
+    void acquire() throws InterruptedIOException
+    {
+        final long waitNanos = reserve(System.nanoTime());
+
+        if (waitNanos <= 0)
+        {
+            return;
+        }
+
+        try
+        {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send action");
+        }
+    }
+
+    /**
+     * Takes a permit, going into debt if none is available.
+     *
+     * @param now the current time in nanoseconds.
+     * @return the time in nanoseconds to wait until the permit is available.
+     */
+    synchronized long reserve(long now)
+    {
+        if (now > lastRefill)
+        {
+            storedPermits = Math.min(maxPermits, storedPermits + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+        }
+
+        storedPermits -= 1;
+        if (storedPermits >= 0)
+        {
+            return 0;
+        }
+        return (long) Math.ceil(-storedPermits / permitsPerNano);
+    }
+}
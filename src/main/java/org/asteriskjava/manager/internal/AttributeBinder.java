@@ -0,0 +1,132 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.asteriskjava.util.Log;
+import org.asteriskjava.util.LogFactory;
+
+/**
+ * Sets the properties of an event or response class without reflection.<p>
+ * Binders for the event and response classes of Asterisk-Java are generated
+ * at build time by the
+ * {@link org.asteriskjava.manager.internal.apt.AttributeBinderProcessor}.
+ * Classes without a generated binder (like user events registered at
+ * runtime) are bound reflectively.
+ *
+ * @author srt
+ * @version $Id$
+ * @see BindingPlan
+ * @since 2.0.0
+ */
+abstract class AttributeBinder
+{
+    /**
+     * Name of the class generated by the annotation processor.
+     */
+    static final String GENERATED_BINDERS_CLASS = "org.asteriskjava.manager.internal.GeneratedAttributeBinders";
+
+    private static final Log logger = LogFactory.getLog(AttributeBinder.class);
+    private static final Map<Class<?>, AttributeBinder> binders = loadGeneratedBinders();
+
+    private final String[] methodNames;
+    private final Class<?>[] parameterTypes;
+
+    /**
+     * Creates a new binder.
+     *
+     * @param methodNames    the names of the setters.
+     * @param parameterTypes the parameter types of the setters.
+     */
+    protected AttributeBinder(String[] methodNames, Class<?>[] parameterTypes)
+    {
+        this.methodNames = methodNames;
+        this.parameterTypes = parameterTypes;
+    }
+
+    /**
+     * Returns the generated binder for the given class.
+     *
+     * @param clazz the event or response class.
+     * @return the binder or <code>null</code> if there is no generated binder
+     *         for exactly that class.
+     */
+    static AttributeBinder forClass(Class<?> clazz)
+    {
+        return binders.get(clazz);
+    }
+
+    /**
+     * Returns the index of the given setter.
+     *
+     * @param setter the setter as found by reflection.
+     * @return the index to pass to {@link #set(Object, int, Object)} or -1 if
+     *         this binder does not handle the setter.
+     */
+    int indexOf(Method setter)
+    {
+        for (int i = 0; i < methodNames.length; i++)
+        {
+            if (methodNames[i].equals(setter.getName()) && parameterTypes[i] == setter.getParameterTypes()[0])
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Calls the setter with the given index.
+     *
+     * @param target the object to set the property on.
+     * @param index  the index of the setter as returned by
+     *            {@link #indexOf(Method)}.
+     * @param value  the value already converted to the property's type.
+     */
+    abstract void set(Object target, int index, Object value);
+
+    private static Map<Class<?>, AttributeBinder> loadGeneratedBinders()
+    {
+        final Map<Class<?>, AttributeBinder> generatedBinders = new HashMap<Class<?>, AttributeBinder>();
+        try
+        {
+            final Registry registry = (Registry) Class.forName(GENERATED_BINDERS_CLASS).newInstance();
+            registry.registerBinders(generatedBinders);
+        }
+        catch (ClassNotFoundException e)
+        {
+            logger.debug("No generated attribute binders available, using reflection");
+        }
+        catch (Exception e)
+        {
+            logger.warn("Unable to load generated attribute binders, using reflection", e);
+        }
+        return Collections.unmodifiableMap(generatedBinders);
+    }
+
+    /**
+     * Implemented by the generated class to register its binders.
+     */
+    interface Registry
+    {
+        void registerBinders(Map<Class<?>, AttributeBinder> binders);
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact map holding the attributes of the frame currently being read.<p>
+ * The ManagerReader reuses one instance for all frames of a connection, so
+ * the map is optimized for filling it with a few dozen attributes, reading
+ * them once and clearing it again: entries are kept in insertion order in
+ * plain arrays and located through a small open addressing index. Clearing
+ * the map keeps the allocated arrays.<p>
+ * Keys are expected to be the canonical instances from the
+ * {@link AttributeNameTable}, so most lookups succeed on an identity check.
+ * Instances are not thread safe.
+ *
+ * @author srt
+ * @version $Id$
+ */
+class AttributeMap extends AbstractMap<String, Object>
+{
+    private static final int INITIAL_CAPACITY = 32;
+
+    private String[] keys;
+    private Object[] values;
+    private int size;
+
+    /**
+     * Open addressing index: position of the entry in keys/values plus one,
+     * zero marks an empty slot.
+     */
+    private int[] index;
+
+    AttributeMap()
+    {
+        this.keys = new String[INITIAL_CAPACITY];
+        this.values = new Object[INITIAL_CAPACITY];
+        this.index = new int[INITIAL_CAPACITY * 2];
+    }
+
+    /**
+     * Adds an attribute. If there already is a value for the given name the
+     * values are collected in a List.
+     *
+     * @param name  the name of the attribute.
+     * @param value the value of the attribute.
+     */
+    @SuppressWarnings("unchecked")
+    void add(String name, String value)
+    {
+        final int position = find(name);
+        if (position < 0)
+        {
+            append(name, value);
+            return;
+        }
+
+        // if we already have a value for that key, convert the value to a list and add
+        // the new value to that list.
+        final Object currentValue = values[position];
+        if (currentValue instanceof List)
+        {
+            ((List<String>) currentValue).add(value);
+            return;
+        }
+        final List<String> list = new ArrayList<String>();
+        list.add(currentValue.toString());
+        list.add(value);
+        values[position] = list;
+    }
+
+    /**
+     * Returns the name of the attribute at the given position.
+     *
+     * @param position the position in insertion order.
+     * @return the name of the attribute.
+     */
+    String keyAt(int position)
+    {
+        return keys[position];
+    }
+
+    /**
+     * Returns the value of the attribute at the given position.
+     *
+     * @param position the position in insertion order.
+     * @return the value of the attribute.
+     */
+    Object valueAt(int position)
+    {
+        return values[position];
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return key instanceof String && find((String) key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key)
+    {
+        if (!(key instanceof String))
+        {
+            return null;
+        }
+        final int position = find((String) key);
+        return position < 0 ? null : values[position];
+    }
+
+    @Override
+    public Object put(String key, Object value)
+    {
+        final int position = find(key);
+        if (position < 0)
+        {
+            append(key, value);
+            return null;
+        }
+        final Object oldValue = values[position];
+        values[position] = value;
+        return oldValue;
+    }
+
+    @Override
+    public Object remove(Object key)
+    {
+        if (!(key instanceof String))
+        {
+            return null;
+        }
+        final int position = find((String) key);
+        if (position < 0)
+        {
+            return null;
+        }
+
+        final Object oldValue = values[position];
+        System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+        System.arraycopy(values, position + 1, values, position, size - position - 1);
+        size--;
+        keys[size] = null;
+        values[size] = null;
+        reindex();
+        return oldValue;
+    }
+
+    @Override
+    public void clear()
+    {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        Arrays.fill(index, 0);
+        size = 0;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet()
+    {
+        return new AbstractSet<Map.Entry<String, Object>>()
+        {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator()
+            {
+                return new Iterator<Map.Entry<String, Object>>()
+                {
+                    private int next = 0;
+
+                    public boolean hasNext()
+                    {
+                        return next < size;
+                    }
+
+                    public Map.Entry<String, Object> next()
+                    {
+                        if (next >= size)
+                        {
+                            throw new NoSuchElementException();
+                        }
+                        final Map.Entry<String, Object> entry = new SimpleImmutableEntry<String, Object>(keys[next],
+                                values[next]);
+                        next++;
+                        return entry;
+                    }
+
+                    public void remove()
+                    {
+                        if (next == 0)
+                        {
+                            throw new IllegalStateException();
+                        }
+                        next--;
+                        AttributeMap.this.remove(keys[next]);
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return size;
+            }
+        };
+    }
+
+    private int find(String key)
+    {
+        final int mask = index.length - 1;
+        int slot = spread(key.hashCode()) & mask;
+        int position;
+        while ((position = index[slot]) != 0)
+        {
+            final String k = keys[position - 1];
+            if (k == key || k.equals(key))
+            {
+                return position - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void append(String key, Object value)
+    {
+        if (size == keys.length)
+        {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+            index = new int[keys.length * 2];
+            reindex();
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        insertIndex(size - 1);
+    }
+
+    private void reindex()
+    {
+        Arrays.fill(index, 0);
+        for (int i = 0; i < size; i++)
+        {
+            insertIndex(i);
+        }
+    }
+
+    private void insertIndex(int position)
+    {
+        final int mask = index.length - 1;
+        int slot = spread(keys[position].hashCode()) & mask;
+        while (index[slot] != 0)
+        {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = position + 1;
+    }
+
+    private static int spread(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import java.util.Collection;
+
+/**
+ * Table of canonical (lower case) attribute names.<p>
+ * The same few hundred attribute names are received over and over again. The
+ * table maps the raw bytes of an attribute name to a shared String instance
+ * so known names are resolved without creating a new String. It is
+ * pre-populated with the properties of all registered event classes and
+ * learns names it has not seen before up to a fixed limit.<p>
+ * Lookups are lock free, additions copy the table. This is cheap as
+ * additions become very rare once the table has warmed up.
+ *
+ * @author srt
+ * @version $Id$
+ */
+final class AttributeNameTable
+{
+    /**
+     * Maximum number of names in the table. Names beyond this limit are still
+     * decoded but not cached so that unusual attribute names (for example
+     * those containing variable names) cannot grow the table without bound.
+     */
+    private static final int MAX_SIZE = 4096;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final AttributeNameTable INSTANCE = new AttributeNameTable();
+
+    private volatile String[] table = new String[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Set once the table has reached {@link #MAX_SIZE}, so unknown names no
+     * longer contend for the lock of the table just to be rejected.
+     */
+    private volatile boolean full;
+
+    private AttributeNameTable()
+    {
+        addAll(new String[]{"event", "response", "actionid", "message", "privilege", "userevent", "eventlist",
+                "listitems", "proxyresponse", ManagerReader.COMMAND_RESULT_RESPONSE_KEY});
+    }
+
+    /**
+     * Returns the table shared by all connections.
+     *
+     * @return the shared table.
+     */
+    static AttributeNameTable getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the canonical lower case name for the given ASCII bytes.
+     *
+     * @param bytes the bytes containing the name.
+     * @param start index of the first byte of the name.
+     * @param end   index after the last byte of the name.
+     * @return the canonical name or <code>null</code> if the name contains
+     *         non ASCII characters.
+     */
+    String get(byte[] bytes, int start, int end)
+    {
+        int hash = 0;
+        for (int i = start; i < end; i++)
+        {
+            final byte b = bytes[i];
+            if (b < 0)
+            {
+                return null;
+            }
+            hash = 31 * hash + toLowerCase(b);
+        }
+
+        final String[] t = table;
+        final int mask = t.length - 1;
+        int index = spread(hash) & mask;
+        String name;
+        while ((name = t[index]) != null)
+        {
+            if (name.hashCode() == hash && matches(name, bytes, start, end))
+            {
+                return name;
+            }
+            index = (index + 1) & mask;
+        }
+
+        final char[] chars = new char[end - start];
+        for (int i = start; i < end; i++)
+        {
+            chars[i - start] = (char) toLowerCase(bytes[i]);
+        }
+        final String newName = new String(chars);
+        return full ? newName : add(newName);
+    }
+
+    /**
+     * Adds the given lower case names to the table.
+     *
+     * @param names the names to add.
+     */
+    void addAll(Collection<String> names)
+    {
+        addAll(names.toArray(new String[names.size()]));
+    }
+
+    private synchronized void addAll(String[] names)
+    {
+        String[] t = table.clone();
+        for (String name : names)
+        {
+            if (size >= MAX_SIZE)
+            {
+                break;
+            }
+            if ((size + 1) * 2 > t.length)
+            {
+                t = rehash(t, t.length * 2);
+            }
+            if (insert(t, name))
+            {
+                size++;
+            }
+        }
+        table = t;
+        full = size >= MAX_SIZE;
+    }
+
+    private synchronized String add(String name)
+    {
+        // may have been added by a concurrent lookup
+        final String existing = find(table, name);
+        if (existing != null || size >= MAX_SIZE)
+        {
+            return existing == null ? name : existing;
+        }
+
+        final String[] t;
+        if ((size + 1) * 2 > table.length)
+        {
+            t = rehash(table, table.length * 2);
+        }
+        else
+        {
+            t = table.clone();
+        }
+        insert(t, name);
+        size++;
+        table = t;
+        if (size >= MAX_SIZE)
+        {
+            full = true;
+        }
+        return name;
+    }
+
+    private static String find(String[] t, String name)
+    {
+        final int mask = t.length - 1;
+        final int hash = name.hashCode();
+        int index = spread(hash) & mask;
+        String s;
+        while ((s = t[index]) != null)
+        {
+            if (s.hashCode() == hash && s.equals(name))
+            {
+                return s;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Inserts the name into the given table unless it is already present.
+     *
+     * @return <code>true</code> if the name has been inserted.
+     */
+    private static boolean insert(String[] t, String name)
+    {
+        final int mask = t.length - 1;
+        final int hash = name.hashCode();
+        int index = spread(hash) & mask;
+        String s;
+        while ((s = t[index]) != null)
+        {
+            if (s.hashCode() == hash && s.equals(name))
+            {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        t[index] = name;
+        return true;
+    }
+
+    private static String[] rehash(String[] t, int capacity)
+    {
+        final String[] newTable = new String[capacity];
+        final int mask = capacity - 1;
+        for (String name : t)
+        {
+            if (name == null)
+            {
+                continue;
+            }
+            int index = spread(name.hashCode()) & mask;
+            while (newTable[index] != null)
+            {
+                index = (index + 1) & mask;
+            }
+            newTable[index] = name;
+        }
+        return newTable;
+    }
+
+    private static boolean matches(String name, byte[] bytes, int start, int end)
+    {
+        if (name.length() != end - start)
+        {
+            return false;
+        }
+        for (int i = start; i < end; i++)
+        {
+            if (name.charAt(i - start) != toLowerCase(bytes[i]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toLowerCase(byte b)
+    {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+    }
+
+    private static int spread(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,445 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.asteriskjava.util.AstUtil;
+import org.asteriskjava.util.Log;
+import org.asteriskjava.util.LogFactory;
+import org.asteriskjava.util.ReflectionUtil;
+
+/**
+ * Describes how the attributes received from Asterisk are bound to the
+ * properties of an event or response class.<p>
+ * A plan is computed once per class and cached. It maps attribute names to
+ * the corresponding setter and a converter for the setter's parameter type,
+ * so binding a received frame requires no further reflective lookups. The
+ * mapping of an attribute name that does not directly match a property (for
+ * example because it contains illegal characters or is the singular form of
+ * a map property) is resolved on first use and cached as well.<p>
+ * Setters are called through the generated {@link AttributeBinder} of the
+ * class if there is one, otherwise reflectively.
+ *
+ * @author srt
+ * @version $Id$
+ * @see AbstractBuilder
+ */
+final class BindingPlan
+{
+    private static final Log logger = LogFactory.getLog(BindingPlan.class);
+
+    /**
+     * Maximum number of attribute names cached per class in addition to the
+     * property names. Limits the cache if Asterisk sends attribute names that
+     * contain variable parts.
+     */
+    private static final int MAX_RESOLVED_NAMES = 256;
+
+    private static final ConcurrentMap<Class<?>, BindingPlan> plans = new ConcurrentHashMap<Class<?>, BindingPlan>();
+
+    /**
+     * Marks attribute names that have no corresponding property.
+     */
+    private static final Binding NO_BINDING = new Binding(null, null, null, null, -1);
+
+    private final AttributeBinder binder;
+    private final Map<String, Method> setters;
+    private final ConcurrentMap<String, Binding> bindings;
+
+    private BindingPlan(Class<?> clazz)
+    {
+        this.binder = AttributeBinder.forClass(clazz);
+        this.setters = Collections.unmodifiableMap(ReflectionUtil.getSetters(clazz));
+        this.bindings = new ConcurrentHashMap<String, Binding>();
+
+        for (Map.Entry<String, Method> entry : setters.entrySet())
+        {
+            bindings.put(entry.getKey(), createBinding(entry.getValue()));
+        }
+    }
+
+    /**
+     * Returns the binding plan for the given class, creating it if necessary.
+     *
+     * @param clazz the event or response class.
+     * @return the binding plan.
+     */
+    static BindingPlan forClass(Class<?> clazz)
+    {
+        BindingPlan plan = plans.get(clazz);
+        if (plan == null)
+        {
+            plan = new BindingPlan(clazz);
+            final BindingPlan existingPlan = plans.putIfAbsent(clazz, plan);
+            if (existingPlan != null)
+            {
+                plan = existingPlan;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Returns the (lower case) names of the properties of the class.
+     *
+     * @return the names of the properties.
+     */
+    Set<String> getPropertyNames()
+    {
+        return setters.keySet();
+    }
+
+    /**
+     * Returns the binding for the given attribute.
+     *
+     * @param attributeName the lower case name of the attribute as received
+     *            from Asterisk.
+     * @return the binding or <code>null</code> if the class has no
+     *         corresponding property.
+     */
+    Binding getBinding(String attributeName)
+    {
+        Binding binding = bindings.get(attributeName);
+        if (binding == null)
+        {
+            binding = resolve(attributeName);
+            if (bindings.size() < setters.size() + MAX_RESOLVED_NAMES)
+            {
+                bindings.putIfAbsent(attributeName, binding);
+            }
+        }
+        return binding == NO_BINDING ? null : binding;
+    }
+
+    private Binding resolve(String attributeName)
+    {
+        String setterName;
+        Method setter;
+
+        setterName = ReflectionUtil.stripIllegalCharacters(attributeName);
+
+        /*
+         * The source property needs special handling as it is already
+         * defined in java.util.EventObject (the base class of
+         * ManagerEvent), so we have to translate it.
+         */
+        if ("source".equals(setterName))
+        {
+            setterName = "src";
+        }
+        /*
+         * The class property needs to be renamed. It is used in MusicOnHoldEvent.
+         */
+        else if ("class".equals(setterName))
+        {
+            setterName = "clazz";
+        }
+
+        setter = setters.get(setterName);
+
+        if (setter == null && !setterName.endsWith("s")) // no exact match => try plural
+        {
+            setter = setters.get(setterName + "s");
+            // but only for maps
+            if (setter != null && !(setter.getParameterTypes()[0].isAssignableFrom(Map.class)))
+            {
+                setter = null;
+            }
+        }
+
+        return setter == null ? NO_BINDING : createBinding(setter);
+    }
+
+    private Binding createBinding(Method setter)
+    {
+        final Class<?> dataType = setter.getParameterTypes()[0];
+        final Converter converter;
+
+        if (dataType == Boolean.class)
+        {
+            converter = BOOLEAN_CONVERTER;
+        }
+        else if (dataType.isAssignableFrom(String.class))
+        {
+            converter = STRING_CONVERTER;
+        }
+        else if (dataType.isAssignableFrom(Map.class))
+        {
+            converter = MAP_CONVERTER;
+        }
+        else if (dataType == Integer.class)
+        {
+            converter = INTEGER_CONVERTER;
+        }
+        else if (dataType == Long.class)
+        {
+            converter = LONG_CONVERTER;
+        }
+        else if (dataType == Double.class)
+        {
+            converter = DOUBLE_CONVERTER;
+        }
+        else
+        {
+            converter = new ConstructorConverter(dataType);
+        }
+
+        if (binder != null)
+        {
+            final int index = binder.indexOf(setter);
+            if (index >= 0)
+            {
+                return new Binding(null, dataType, converter, binder, index);
+            }
+        }
+        return new Binding(setter, dataType, converter, null, -1);
+    }
+
+    /**
+     * Binds a single attribute to a property.
+     */
+    static final class Binding
+    {
+        private final Method setter;
+        private final Class<?> dataType;
+        private final Converter converter;
+        private final AttributeBinder binder;
+        private final int index;
+
+        private Binding(Method setter, Class<?> dataType, Converter converter, AttributeBinder binder, int index)
+        {
+            this.setter = setter;
+            this.dataType = dataType;
+            this.converter = converter;
+            this.binder = binder;
+            this.index = index;
+        }
+
+        /**
+         * Returns the type of the property.
+         *
+         * @return the type of the property.
+         */
+        Class<?> getDataType()
+        {
+            return dataType;
+        }
+
+        /**
+         * Returns whether the property is set through a generated binder.
+         *
+         * @return <code>true</code> if the property is set without reflection.
+         */
+        boolean isGenerated()
+        {
+            return binder != null;
+        }
+
+        /**
+         * Converts the received value to the type of the property.
+         *
+         * @param value the value received, a String or a List of Strings.
+         * @return the converted value.
+         * @throws Exception if the value cannot be converted.
+         */
+        Object convert(Object value) throws Exception
+        {
+            return converter.convert(value);
+        }
+
+        /**
+         * Converts the received value to the type of the property like
+         * {@link #convert(Object)} but defers parsing the lines of map
+         * properties until the map is first accessed. All other values are
+         * converted immediately.
+         *
+         * @param value the value received, a String or a List of Strings.
+         * @return the converted value.
+         * @throws Exception if the value cannot be converted.
+         */
+        Object convertLazily(Object value) throws Exception
+        {
+            if (converter == MAP_CONVERTER && (value instanceof String || value instanceof List))
+            {
+                return new LazyMap(value);
+            }
+            return converter.convert(value);
+        }
+
+        /**
+         * Sets the property on the given target.
+         *
+         * @param target the target object.
+         * @param value  the converted value.
+         * @throws Exception if the setter fails.
+         */
+        void set(Object target, Object value) throws Exception
+        {
+            if (binder != null)
+            {
+                binder.set(target, index, value);
+            }
+            else
+            {
+                setter.invoke(target, value);
+            }
+        }
+    }
+
+    private interface Converter
+    {
+        Object convert(Object value) throws Exception;
+    }
+
+    private static final Converter BOOLEAN_CONVERTER = new Converter()
+    {
+        public Object convert(Object value)
+        {
+            return AstUtil.isTrue(value);
+        }
+    };
+
+    private static final Converter STRING_CONVERTER = new Converter()
+    {
+        public Object convert(Object value)
+        {
+            return AstUtil.isNull(value) ? null : value;
+        }
+    };
+
+    private static final Converter INTEGER_CONVERTER = new Converter()
+    {
+        public Object convert(Object value)
+        {
+            return Integer.valueOf((String) value);
+        }
+    };
+
+    private static final Converter LONG_CONVERTER = new Converter()
+    {
+        public Object convert(Object value)
+        {
+            return Long.valueOf((String) value);
+        }
+    };
+
+    private static final Converter DOUBLE_CONVERTER = new Converter()
+    {
+        public Object convert(Object value)
+        {
+            return Double.valueOf((String) value);
+        }
+    };
+
+    private static final Converter MAP_CONVERTER = new Converter()
+    {
+        public Object convert(Object value)
+        {
+            return toMap(value);
+        }
+    };
+
+    /**
+     * Converts values using the String constructor of the property's type.
+     */
+    private static final class ConstructorConverter implements Converter
+    {
+        private final Class<?> dataType;
+        private final Constructor<?> constructor;
+
+        ConstructorConverter(Class<?> dataType)
+        {
+            Constructor<?> c;
+            try
+            {
+                c = dataType.getConstructor(String.class);
+            }
+            catch (NoSuchMethodException e)
+            {
+                c = null;
+            }
+            this.dataType = dataType;
+            this.constructor = c;
+        }
+
+        public Object convert(Object value) throws Exception
+        {
+            if (constructor == null)
+            {
+                throw new NoSuchMethodException(dataType.getName() + ".<init>(java.lang.String)");
+            }
+            return constructor.newInstance(value);
+        }
+    }
+
+    /**
+     * Builds the value of a map property.
+     *
+     * @param value the value received, a String or a List of Strings in the
+     *            form "key=value".
+     * @return the map or <code>null</code> if value is neither a String nor a
+     *         List.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, String> toMap(Object value)
+    {
+        if (value instanceof List)
+        {
+            List<String> list = (List<String>) value;
+            return buildMap(list.toArray(new String[list.size()]));
+        }
+        else if (value instanceof String)
+        {
+            return buildMap((String) value);
+        }
+        return null;
+    }
+
+    private static Map<String, String> buildMap(String... lines)
+    {
+        if (lines == null)
+        {
+            return null;
+        }
+
+        final Map<String, String> map = new LinkedHashMap<String, String>();
+        for (String line : lines)
+        {
+            final int index = line.indexOf('=');
+            if (index > 0)
+            {
+                final String key = line.substring(0, index);
+                final String value = line.substring(index + 1, line.length());
+                map.put(key, value);
+            }
+            else
+            {
+                logger.warn("Malformed line '" + line + "' for a map property");
+            }
+        }
+        return map;
+    }
+}
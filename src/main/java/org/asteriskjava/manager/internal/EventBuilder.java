@@ -55,4 +55,29 @@ interface EventBuilder
      *         event class was registered for the event type.
      */
     ManagerEvent buildEvent(Object source, Map<String, Object> attributes);
+
+    /**
+     * Returns the class registered for the given event type.
+     *
+     * @param eventType the lower case event type, for user events "userevent"
+     *            followed by the lower case name of the user event.
+     * @return the event class or <code>null</code> if no class is registered
+     *         for the event type.
+     * @since 2.0.0
+     */
+    Class<? extends ManagerEvent> getEventClass(String eventType);
+
+    /**
+     * Set to <code>true</code> to defer binding the attributes of events that
+     * support it (see {@link ManagerEvent#supportsDeferredBinding()}) until
+     * one of their properties is first accessed, and to defer parsing the
+     * "key=value" lines of map properties (like the channel variables) of all
+     * other events until the map is first accessed.
+     *
+     * @param lazyProperties <code>true</code> to decode properties on first
+     *            access, <code>false</code> to decode them when the event is
+     *            built.
+     * @since 2.0.0
+     */
+    void setLazyProperties(boolean lazyProperties);
 }
@@ -276,9 +276,24 @@ class EventBuilderImpl extends AbstractBuilder implements EventBuilder
 
         registeredEventClasses.put(eventType.toLowerCase(Locale.US), clazz);
 
+        // compute the binding plan up front rather than when the first event is received
+        // and make the property names known to the reader as attribute names usually match them
+        AttributeNameTable.getInstance().addAll(BindingPlan.forClass(clazz).getPropertyNames());
+
         logger.debug("Registered event type '" + eventType + "' (" + clazz + ")");
     }
 
+    @SuppressWarnings("unchecked")
+    public Class<? extends ManagerEvent> getEventClass(String eventType)
+    {
+        return (Class<? extends ManagerEvent>) registeredEventClasses.get(eventType);
+    }
+
+    public void setLazyProperties(boolean lazyProperties)
+    {
+        this.lazyProperties = lazyProperties;
+    }
+
     @SuppressWarnings("unchecked")
 	public ManagerEvent buildEvent(Object source, Map<String, Object> attributes)
     {
@@ -411,6 +426,10 @@ class EventBuilderImpl extends AbstractBuilder implements EventBuilder
             }
             peersEvent.setActionId((peersEvent.getChildEvents().get(0).getActionId()));
         } 
+        else if (lazyProperties && event.supportsDeferredBinding())
+        {
+            event.deferBinding(new DeferredBinding(event, attributes, ignoredAttributes));
+        }
 		else 
 		{
             setAttributes(event, attributes, ignoredAttributes);
@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.asteriskjava.manager.event.ManagerEvent;
+
+/**
+ * Decides based on the "Event" attribute of a received frame whether the
+ * event is of interest before it is built.<p>
+ * Events that are a response to an action (those carrying an action id) and
+ * events of unknown types always pass. The decision is cached per event type.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+class EventClassFilter
+{
+    /**
+     * Maximum number of cached decisions, limits the cache for user events
+     * with many different names.
+     */
+    private static final int MAX_CACHED_DECISIONS = 1024;
+
+    private final Set<Class<? extends ManagerEvent>> subscribedClasses;
+    private final EventBuilder eventBuilder;
+    private final ConcurrentMap<String, Boolean> decisions;
+
+    /**
+     * Creates a new filter.
+     *
+     * @param subscribedClasses the event classes to accept including their
+     *            subclasses.
+     * @param eventBuilder      the event builder used to look up the class of
+     *            an event type.
+     */
+    EventClassFilter(Set<Class<? extends ManagerEvent>> subscribedClasses, EventBuilder eventBuilder)
+    {
+        this.subscribedClasses = new HashSet<Class<? extends ManagerEvent>>(subscribedClasses);
+        this.eventBuilder = eventBuilder;
+        this.decisions = new ConcurrentHashMap<String, Boolean>();
+    }
+
+    /**
+     * Checks whether the event described by the given attributes should be
+     * built.
+     *
+     * @param attributes the attributes of the received frame.
+     * @return <code>true</code> to build the event, <code>false</code> to
+     *         skip it.
+     */
+    boolean accept(Map<String, Object> attributes)
+    {
+        final Object event = attributes.get("event");
+
+        // lists of events (like PeerEntry) and responses to actions always pass
+        if (!(event instanceof String) || attributes.containsKey("actionid"))
+        {
+            return true;
+        }
+
+        String eventType = ((String) event).toLowerCase(Locale.US);
+        if ("userevent".equals(eventType))
+        {
+            final Object userEventType = attributes.get("userevent");
+            if (!(userEventType instanceof String))
+            {
+                return true;
+            }
+            eventType = eventType + ((String) userEventType).toLowerCase(Locale.US);
+        }
+
+        Boolean decision = decisions.get(eventType);
+        if (decision == null)
+        {
+            decision = isSubscribed(eventBuilder.getEventClass(eventType));
+            if (decisions.size() < MAX_CACHED_DECISIONS)
+            {
+                decisions.put(eventType, decision);
+            }
+        }
+        return decision;
+    }
+
+    private boolean isSubscribed(Class<? extends ManagerEvent> eventClass)
+    {
+        // let the builder report unknown event types
+        if (eventClass == null)
+        {
+            return true;
+        }
+
+        for (Class<? extends ManagerEvent> subscribedClass : subscribedClasses)
+        {
+            if (subscribedClass.isAssignableFrom(eventClass))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
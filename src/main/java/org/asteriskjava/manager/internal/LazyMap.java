@@ -0,0 +1,135 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map property (like the channel variables of an event) that keeps the raw
+ * "key=value" lines received and only parses them on first access.<p>
+ * Behaves exactly like the LinkedHashMap built otherwise: entries are kept in
+ * the order received, equals, hashCode and toString follow the Map contract
+ * and it is serialized as a LinkedHashMap.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+final class LazyMap extends AbstractMap<String, String> implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The raw value: a String or a List of Strings. Cleared once parsed.
+     */
+    private transient Object lines;
+    private transient volatile Map<String, String> map;
+
+    /**
+     * Creates a new map for the given raw value.
+     *
+     * @param lines a String or a List of Strings in the form "key=value".
+     */
+    LazyMap(Object lines)
+    {
+        this.lines = lines;
+    }
+
+    /**
+     * Returns whether the lines have already been parsed.
+     *
+     * @return <code>true</code> if the lines have been parsed.
+     */
+    boolean isParsed()
+    {
+        return map != null;
+    }
+
+    private Map<String, String> map()
+    {
+        Map<String, String> m = map;
+        if (m == null)
+        {
+            synchronized (this)
+            {
+                m = map;
+                if (m == null)
+                {
+                    m = BindingPlan.toMap(lines);
+                    if (m == null)
+                    {
+                        m = new LinkedHashMap<String, String>();
+                    }
+                    map = m;
+                    lines = null;
+                }
+            }
+        }
+        return m;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet()
+    {
+        return map().entrySet();
+    }
+
+    @Override
+    public int size()
+    {
+        return map().size();
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return map().containsKey(key);
+    }
+
+    @Override
+    public String get(Object key)
+    {
+        return map().get(key);
+    }
+
+    @Override
+    public String put(String key, String value)
+    {
+        return map().put(key, value);
+    }
+
+    @Override
+    public String remove(Object key)
+    {
+        return map().remove(key);
+    }
+
+    @Override
+    public void clear()
+    {
+        map().clear();
+    }
+
+    private Object writeReplace()
+    {
+        return new LinkedHashMap<String, String>(map());
+    }
+}
@@ -24,7 +24,6 @@ import static org.asteriskjava.manager.ManagerConnectionState.INITIAL;
 import static org.asteriskjava.manager.ManagerConnectionState.RECONNECTING;
 
 import java.io.IOException;
-import java.io.Serializable;
 import java.net.Socket;
 import java.net.InetAddress;
 import java.nio.charset.Charset;
@@ -32,9 +31,21 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -44,9 +55,11 @@ import org.asteriskjava.manager.*;
 import org.asteriskjava.manager.action.ChallengeAction;
 import org.asteriskjava.manager.action.CommandAction;
 import org.asteriskjava.manager.action.EventGeneratingAction;
+import org.asteriskjava.manager.action.FilterAction;
 import org.asteriskjava.manager.action.LoginAction;
 import org.asteriskjava.manager.action.LogoffAction;
 import org.asteriskjava.manager.action.ManagerAction;
+import org.asteriskjava.manager.action.PingAction;
 import org.asteriskjava.manager.event.ConnectEvent;
 import org.asteriskjava.manager.event.DialBeginEvent;
 import org.asteriskjava.manager.event.DialEvent;
@@ -58,10 +71,13 @@ import org.asteriskjava.manager.response.ChallengeResponse;
 import org.asteriskjava.manager.response.CommandResponse;
 import org.asteriskjava.manager.response.ManagerError;
 import org.asteriskjava.manager.response.ManagerResponse;
+import org.asteriskjava.util.AsteriskRuntime;
 import org.asteriskjava.util.DateUtil;
+import org.asteriskjava.util.HashedWheelTimer;
 import org.asteriskjava.util.Log;
 import org.asteriskjava.util.LogFactory;
 import org.asteriskjava.util.SocketConnectionFacade;
+import org.asteriskjava.util.internal.RawSocketConnectionFacadeImpl;
 import org.asteriskjava.util.internal.SocketConnectionFacadeImpl;
 import org.asteriskjava.manager.action.UserEventAction;
 
@@ -80,6 +96,13 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
     private static final int DEFAULT_PORT = 5038;
     private static final int RECONNECTION_VERSION_INTERVAL = 500;
     private static final int MAX_VERSION_ATTEMPTS = 4;
+    /**
+     * Expires the timeouts of actions sent with sendActionAsync, shared by all
+     * connections.
+     */
+    private static final HashedWheelTimer responseTimeoutTimer = new HashedWheelTimer(
+            "Asterisk-Java ResponseTimeout", 50, TimeUnit.MILLISECONDS, 512);
+
     private static final Pattern SHOW_VERSION_PATTERN = Pattern.compile("^(core )?show version.*");
 
     private static final Pattern VERSION_PATTERN_1_6 = Pattern.compile("^\\s*Asterisk ((SVN-branch|GIT)-)?1\\.6[-. ].*");
@@ -169,6 +192,60 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
      */
     private boolean keepAliveAfterAuthenticationFailure = true;
 
+    /**
+     * <code>true</code> to decode the data received from Asterisk at the byte
+     * level, <code>false</code> to read it line by line.
+     */
+    private boolean frameDecoderEnabled = false;
+
+    /**
+     * <code>true</code> to decode properties of events on first access.
+     */
+    private boolean lazyProperties = false;
+
+    /**
+     * Delivers events to the registered event listeners on a separate thread
+     * if asynchronous event delivery is enabled, <code>null</code> to deliver
+     * them on the reader thread.
+     */
+    private volatile ManagerEventListenerProxy eventDeliveryStage;
+
+    /**
+     * The priorities of the action classes sent so far and those set with
+     * {@link #setActionPriority(Class, ActionPriority)}.
+     */
+    private final ConcurrentMap<Class<? extends ManagerAction>, ActionPriority> actionPriorities;
+
+    /**
+     * The rate limits per action priority, applied to the writer when it is
+     * created. Guarded by this.
+     */
+    private final Map<ActionPriority, Double> actionRateLimits;
+
+    /**
+     * The runtime whose threads are used for asynchronous event delivery,
+     * reconnects and pings or <code>null</code> to use threads of this
+     * connection.
+     */
+    private volatile AsteriskRuntime runtime;
+
+    /**
+     * The interval in milliseconds at which a PingAction is sent, 0 to not
+     * send pings. Guarded by this.
+     */
+    private long pingInterval = 0;
+
+    /**
+     * The scheduled pings while logged in. Guarded by this.
+     */
+    private ScheduledFuture<?> pingFuture;
+
+    /**
+     * The reactor that reads the socket or <code>null</code> to read it with
+     * a reader thread of this connection.
+     */
+    private volatile ManagerReactorImpl reactor;
+
     /**
      * The socket to use for TCP/IP communication with Asterisk.
      */
@@ -209,7 +286,7 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
      * Key is the internalActionId of the Action sent and value the
      * corresponding ResponseListener.
      */
-    private final Map<String, SendActionCallback> responseListeners;
+    private final ConcurrentMap<String, SendActionCallback> responseListeners;
 
     /**
      * Contains the event handlers that handle ResponseEvents for the
@@ -218,13 +295,30 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
      * Key is the internalActionId of the Action sent and value the
      * corresponding EventHandler.
      */
-    private final Map<String, ManagerEventListener> responseEventListeners;
+    private final ConcurrentMap<String, ManagerEventListener> responseEventListeners;
 
     /**
      * Contains the event handlers that users registered.
      */
     private final List<ManagerEventListener> eventListeners;
 
+    /**
+     * Contains the event classes the {@link FilterableManagerEventListener}s
+     * among the eventListeners subscribed to. Guarded by eventListeners.
+     */
+    private final Map<ManagerEventListener, Set<Class<? extends ManagerEvent>>> eventListenerSubscriptions;
+
+    /**
+     * Maps listeners added with a number of lanes to the dispatcher that is
+     * registered in their place. Guarded by eventListeners.
+     */
+    private final Map<ManagerEventListener, PartitionedEventDispatcher> partitionedEventListeners;
+
+    /**
+     * Contains the event filters to send to Asterisk after login.
+     */
+    private final List<String> eventFilters;
+
     protected ManagerConnectionState state = INITIAL;
 
     private String eventMask;
@@ -235,9 +329,14 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
     public ManagerConnectionImpl()
     {
         this.id = idCounter.getAndIncrement();
-        this.responseListeners = new HashMap<String, SendActionCallback>();
-        this.responseEventListeners = new HashMap<String, ManagerEventListener>();
+        this.responseListeners = new ConcurrentHashMap<String, SendActionCallback>();
+        this.responseEventListeners = new ConcurrentHashMap<String, ManagerEventListener>();
         this.eventListeners = new ArrayList<ManagerEventListener>();
+        this.eventListenerSubscriptions = new HashMap<ManagerEventListener, Set<Class<? extends ManagerEvent>>>();
+        this.partitionedEventListeners = new HashMap<ManagerEventListener, PartitionedEventDispatcher>();
+        this.eventFilters = new CopyOnWriteArrayList<String>();
+        this.actionPriorities = new ConcurrentHashMap<Class<? extends ManagerAction>, ActionPriority>();
+        this.actionRateLimits = new EnumMap<ActionPriority, Double>(ActionPriority.class);
         this.protocolIdentifier = new ProtocolIdentifierWrapper();
     }
 
@@ -369,6 +468,247 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
         this.keepAliveAfterAuthenticationFailure = keepAliveAfterAuthenticationFailure;
     }
 
+    /**
+     * Set to <code>true</code> to decode events and responses directly from
+     * the bytes received instead of reading them line by line. This avoids
+     * creating a String for each line received and reduces the load on the
+     * reader thread. <br>
+     * Takes effect on the next (re-)connect. Default is <code>false</code>.
+     * 
+     * @param frameDecoderEnabled <code>true</code> to use the byte level frame
+     *            decoder, <code>false</code> to read line by line.
+     * @since 2.0.0
+     */
+    public void setFrameDecoderEnabled(boolean frameDecoderEnabled)
+    {
+        this.frameDecoderEnabled = frameDecoderEnabled;
+    }
+
+    /**
+     * Set to <code>true</code> to decode properties of events only when they
+     * are first accessed, so the reader does less work per event. <br>
+     * Events that support it (VarSetEvent, NewExtenEvent and
+     * RtcpReceivedEvent, see {@link ManagerEvent#supportsDeferredBinding()})
+     * keep the attributes received and bind all of their properties on the
+     * first call to one of their getters. For other events only map
+     * properties (like the channel variables of AgentCalledEvent or
+     * StatusEvent) are parsed on first access. <br>
+     * Takes effect on the next (re-)connect. Default is <code>false</code>.
+     *
+     * @param lazyProperties <code>true</code> to decode properties on first
+     *            access, <code>false</code> to decode them when the event is
+     *            built.
+     * @since 2.0.0
+     */
+    public void setLazyProperties(boolean lazyProperties)
+    {
+        this.lazyProperties = lazyProperties;
+    }
+
+    /**
+     * Set to <code>true</code> to deliver events to the registered event
+     * listeners on a separate thread instead of the reader thread. Responses
+     * to actions and the events that belong to them are still handled on the
+     * reader thread, so a slow event listener no longer delays them and
+     * causes actions to time out. Event listeners are still called one after
+     * the other in the order the events were received.<p>
+     * Events are queued without a limit, the reader never waits for the
+     * listeners. A listener may therefore send an action and wait for its
+     * response however far behind it is.<br>
+     * Connections read by a reactor always deliver events asynchronously,
+     * see {@link #setReactor(ManagerReactorImpl)}.<br>
+     * Default is <code>false</code>.
+     *
+     * @param asyncEventDelivery <code>true</code> to deliver events on a
+     *            separate thread, <code>false</code> to deliver them on the
+     *            reader thread.
+     * @since 2.0.0
+     */
+    public synchronized void setAsyncEventDelivery(boolean asyncEventDelivery)
+    {
+        if (asyncEventDelivery)
+        {
+            startEventDeliveryStage();
+        }
+        else if (!asyncEventDelivery && eventDeliveryStage != null && !(socket instanceof ReactorSocketConnectionFacade))
+        {
+            eventDeliveryStage.shutdown();
+            eventDeliveryStage = null;
+        }
+    }
+
+    /**
+     * Starts delivering events asynchronously unless already done. The stage
+     * is unbounded so the reader (or the selector thread of a reactor) never
+     * waits for the listeners, a listener waiting for a response would
+     * otherwise wait for the reader it blocks.
+     */
+    private synchronized void startEventDeliveryStage()
+    {
+        if (eventDeliveryStage != null)
+        {
+            return;
+        }
+
+        eventDeliveryStage = new ManagerEventListenerProxy(new ManagerEventListener()
+        {
+            public void onManagerEvent(ManagerEvent event)
+            {
+                deliverEvent(event);
+            }
+        }, ManagerEventListenerProxy.UNBOUNDED, EventOverflowPolicy.BLOCK, getDispatchExecutor());
+    }
+
+    /**
+     * Sets the runtime whose threads are shared with other connections. The
+     * connection then uses the dispatch threads of the runtime for
+     * asynchronous event delivery and event listeners added with a number of
+     * lanes, its scheduler for pings and to time reconnects and its reconnect
+     * executor for the reconnect attempts, instead of threads of its own.<p>
+     * Set the runtime before enabling asynchronous event delivery or adding
+     * event listeners. Default is <code>null</code>.
+     *
+     * @param runtime the runtime to use or <code>null</code> to use threads
+     *            of this connection.
+     * @since 2.0.0
+     */
+    public void setRuntime(AsteriskRuntime runtime)
+    {
+        this.runtime = runtime;
+    }
+
+    /**
+     * Sets the interval at which a PingAction is sent while logged in, so the
+     * connection is not closed when there is no other traffic. The pings are
+     * sent by the scheduler of the runtime, or the default runtime if none
+     * has been set, instead of a {@link PingThread} per connection.<br>
+     * Takes effect on the next login. Default is 0, i.e. no pings are sent.
+     *
+     * @param pingInterval the interval in milliseconds, 0 to not send pings.
+     * @since 2.0.0
+     */
+    public synchronized void setPingInterval(long pingInterval)
+    {
+        this.pingInterval = pingInterval;
+    }
+
+    private Executor getDispatchExecutor()
+    {
+        final AsteriskRuntime r = runtime;
+        return r == null ? null : r.getDispatchExecutor();
+    }
+
+    private synchronized void startPinging()
+    {
+        if (pingInterval <= 0 || pingFuture != null)
+        {
+            return;
+        }
+
+        final AsteriskRuntime r = runtime == null ? AsteriskRuntime.getDefault() : runtime;
+        pingFuture = r.getScheduler().scheduleWithFixedDelay(new Runnable()
+        {
+            public void run()
+            {
+                if (state != CONNECTED)
+                {
+                    return;
+                }
+                try
+                {
+                    sendActionAsync(new PingAction(), defaultResponseTimeout);
+                }
+                catch (Exception e)
+                {
+                    logger.warn("Unable to send ping: " + e.getMessage());
+                }
+            }
+        }, pingInterval, pingInterval, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void stopPinging()
+    {
+        if (pingFuture != null)
+        {
+            pingFuture.cancel(false);
+            pingFuture = null;
+        }
+    }
+
+    /**
+     * Sets the reactor that reads from Asterisk and schedules reconnects in
+     * place of the reader and reconnect threads of this connection. The
+     * socket is then read by a selector thread shared with other connections.
+     * Events are always delivered asynchronously with an unbounded queue, so
+     * a slow event listener does not stall the other connections.<p>
+     * SSL connections are always read by a reader thread.<br>
+     * Takes effect on the next (re-)connect. Default is <code>null</code>.
+     *
+     * @param reactor the reactor to use or <code>null</code> to use a reader
+     *            thread.
+     * @since 2.0.0
+     */
+    public synchronized void setReactor(ManagerReactorImpl reactor)
+    {
+        this.reactor = reactor;
+    }
+
+    /**
+     * Sets the priority of the given action class, overriding the priority set
+     * by its {@link Priority} annotation. Actions of higher priority that are
+     * waiting to be written are sent before those of lower priority, e.g. a
+     * HangupAction is not held up by a burst of StatusActions.<p>
+     * By default call control actions like HangupAction and RedirectAction
+     * are {@link ActionPriority#URGENT}, status and list actions like
+     * StatusAction, QueueStatusAction and CommandAction are
+     * {@link ActionPriority#BULK}.
+     *
+     * @param actionClass the action class.
+     * @param priority    the priority of actions of that class.
+     * @since 2.0.0
+     */
+    public void setActionPriority(Class<? extends ManagerAction> actionClass, ActionPriority priority)
+    {
+        actionPriorities.put(actionClass, priority);
+    }
+
+    /**
+     * Limits the rate at which actions of the given priority are sent. When
+     * the limit is reached the thread sending the action waits until it may
+     * be sent, so a reporting job sending many bulk actions is slowed down
+     * rather than flooding Asterisk.<br>
+     * Default is no limit.
+     *
+     * @param priority         the priority to limit.
+     * @param actionsPerSecond the maximum number of actions per second, 0 to
+     *            remove the limit.
+     * @since 2.0.0
+     */
+    public synchronized void setActionRateLimit(ActionPriority priority, double actionsPerSecond)
+    {
+        actionRateLimits.put(priority, actionsPerSecond);
+        if (writer != null)
+        {
+            writer.setRateLimit(priority, actionsPerSecond);
+        }
+    }
+
+    ActionPriority getActionPriority(Class<? extends ManagerAction> actionClass)
+    {
+        ActionPriority priority = actionPriorities.get(actionClass);
+        if (priority == null)
+        {
+            final Priority annotation = actionClass.getAnnotation(Priority.class);
+            priority = annotation == null ? ActionPriority.NORMAL : annotation.value();
+            final ActionPriority existing = actionPriorities.putIfAbsent(actionClass, priority);
+            if (existing != null)
+            {
+                priority = existing;
+            }
+        }
+        return priority;
+    }
+
     /* Implementation of ManagerConnection interface */
 
     public String getUsername()
@@ -610,11 +950,14 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
         version = determineVersion();
 
         state = CONNECTED;
+        startPinging();
 
         writer.setTargetVersion(version);
 
         logger.info("Determined Asterisk version: " + version);
 
+        sendEventFilters();
+
         // generate pseudo event indicating a successful login
         ConnectEvent connectEvent = new ConnectEvent(this);
         connectEvent.setProtocolIdentifier(getProtocolIdentifier());
@@ -764,11 +1107,17 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
             logger.debug("Creating reader for " + hostname + ":" + port);
             reader = createReader(this, this);
         }
+        reader.setLazyProperties(lazyProperties);
+        updateSubscribedEventClasses();
 
         if (writer == null)
         {
             logger.debug("Creating writer");
             writer = createWriter();
+            for (Map.Entry<ActionPriority, Double> rateLimit : actionRateLimits.entrySet())
+            {
+                writer.setRateLimit(rateLimit.getKey(), rateLimit.getValue());
+            }
         }
 
         logger.debug("Creating socket");
@@ -777,7 +1126,14 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
         logger.debug("Passing socket to reader");
         reader.setSocket(socket);
 
-        if (readerThread == null || !readerThread.isAlive() || reader.isDead())
+        if (socket instanceof ReactorSocketConnectionFacade)
+        {
+            // don't let event listeners stall the other connections of the selector thread
+            startEventDeliveryStage();
+            logger.debug("Registering socket with reactor");
+            reactor.register((ReactorSocketConnectionFacade) socket, (ManagerReaderImpl) reader);
+        }
+        else if (readerThread == null || !readerThread.isAlive() || reader.isDead())
         {
             logger.debug("Creating and starting reader thread");
             readerThread = new Thread(reader);
@@ -793,6 +1149,14 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
 
 	protected SocketConnectionFacade createSocket() throws IOException
 	{
+		if (reactor != null && !ssl)
+		{
+			return reactor.connect(hostname, port, socketTimeout, socketReadTimeout, encoding);
+		}
+		if (frameDecoderEnabled)
+		{
+			return new RawSocketConnectionFacadeImpl(hostname, port, ssl, socketTimeout, socketReadTimeout, encoding);
+		}
 		return new SocketConnectionFacadeImpl(hostname, port, ssl, socketTimeout, socketReadTimeout, encoding);
 	}
 
@@ -805,6 +1169,7 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
         }
 
         state = DISCONNECTING;
+        stopPinging();
 
         if (socket != null)
         {
@@ -854,53 +1219,61 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
     public ManagerResponse sendAction(ManagerAction action, long timeout) throws IOException, TimeoutException,
             IllegalArgumentException, IllegalStateException
     {
-        ResponseHandlerResult result;
-        SendActionCallback callbackHandler;
+        final String internalActionId = createInternalActionId();
+        final ManagerResponseFutureImpl future = new ManagerResponseFutureImpl(internalActionId, responseListeners);
 
-        result = new ResponseHandlerResult();
-        callbackHandler = new DefaultSendActionCallback(result);
+        sendAction(action, internalActionId, future);
 
-        synchronized (result)
+        // definitely return null for the response of user events
+        if (action instanceof UserEventAction)
         {
-            sendAction(action, callbackHandler);
-
-            // definitely return null for the response of user events
-            if (action instanceof UserEventAction)
-            {
-                return null;
-            }
-
-            // only wait if we did not yet receive the response.
-            // Responses may be returned really fast.
-            if (result.getResponse() == null)
-            {
-                try
-                {
-                    result.wait(timeout);
-                }
-                catch (InterruptedException ex)
-                {
-                    logger.warn("Interrupted while waiting for result");
-                    Thread.currentThread().interrupt();
-                }
-            }
+            future.cancel(false);
+            return null;
         }
 
-        // still no response?
-        if (result.getResponse() == null)
+        try
+        {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException ex)
+        {
+            logger.warn("Interrupted while waiting for result");
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException ex)
         {
-            throw new TimeoutException("Timeout waiting for response to " + action.getAction()
-                    + (action.getActionId() == null ? "" : " (actionId: " + action.getActionId() + ")"));
+            // no timeout has been scheduled so this does not happen
+        }
+        catch (java.util.concurrent.TimeoutException ex)
+        {
+            // handled below
         }
 
-        return result.getResponse();
+        // still no response, stop waiting for it
+        future.cancel(false);
+        throw new TimeoutException(createTimeoutMessage(action));
     }
 
     public void sendAction(ManagerAction action, SendActionCallback callback) throws IOException, IllegalArgumentException,
             IllegalStateException
     {
-        final String internalActionId;
+        sendAction(action, createInternalActionId(), callback);
+    }
+
+    public ManagerResponseFuture sendActionAsync(ManagerAction action, long timeout) throws IOException,
+            IllegalArgumentException, IllegalStateException
+    {
+        final String internalActionId = createInternalActionId();
+        final ManagerResponseFutureImpl future = new ManagerResponseFutureImpl(internalActionId, responseListeners);
 
+        sendAction(action, internalActionId, future);
+        future.scheduleTimeout(responseTimeoutTimer, timeout, createTimeoutMessage(action));
+        return future;
+    }
+
+    private void sendAction(ManagerAction action, String internalActionId, SendActionCallback callback)
+            throws IOException, IllegalArgumentException, IllegalStateException
+    {
         if (action == null)
         {
             throw new IllegalArgumentException("Unable to send action: action is null.");
@@ -928,16 +1301,11 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
             throw new IllegalStateException("Unable to send " + action.getAction() + " action: socket not connected.");
         }
 
-        internalActionId = createInternalActionId();
-
         // if the callbackHandler is null the user is obviously not interested
         // in the response, thats fine.
         if (callback != null)
         {
-            synchronized (this.responseListeners)
-            {
-                this.responseListeners.put(internalActionId, callback);
-            }
+            this.responseListeners.put(internalActionId, callback);
         }
 
         Class< ? extends ManagerResponse> responseClass = getExpectedResponseClass(action.getClass());
@@ -946,7 +1314,21 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
             reader.expectResponseClass(internalActionId, responseClass);
         }
 
-        writer.sendAction(action, internalActionId);
+        try
+        {
+            writer.sendAction(action, internalActionId, getActionPriority(action.getClass()));
+        }
+        catch (IOException e)
+        {
+            this.responseListeners.remove(internalActionId);
+            throw e;
+        }
+    }
+
+    private String createTimeoutMessage(ManagerAction action)
+    {
+        return "Timeout waiting for response to " + action.getAction()
+                + (action.getActionId() == null ? "" : " (actionId: " + action.getActionId() + ")");
     }
 
     boolean isShowVersionCommandAction(ManagerAction action)
@@ -982,8 +1364,7 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
     public ResponseEvents sendEventGeneratingAction(EventGeneratingAction action, long timeout) throws IOException,
             EventTimeoutException, IllegalArgumentException, IllegalStateException
     {
-        final ResponseEventsImpl responseEvents;
-        final ResponseEventHandler responseEventHandler;
+        final ResponseEventsFutureImpl future;
         final String internalActionId;
 
         if (action == null)
@@ -1008,70 +1389,49 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
                     + "CONNECTED but connection is in state " + state);
         }
 
-        responseEvents = new ResponseEventsImpl();
-        responseEventHandler = new ResponseEventHandler(responseEvents, action.getActionCompleteEventClass());
-
         internalActionId = createInternalActionId();
+        future = new ResponseEventsFutureImpl(internalActionId, action.getActionCompleteEventClass(),
+                responseListeners, responseEventListeners);
 
+        future.register();
         try
         {
-            // register response handler...
-            synchronized (this.responseListeners)
-            {
-                this.responseListeners.put(internalActionId, responseEventHandler);
-            }
-
-            // ...and event handler.
-            synchronized (this.responseEventListeners)
-            {
-                this.responseEventListeners.put(internalActionId, responseEventHandler);
-            }
-
-            synchronized (responseEvents)
-            {
-                writer.sendAction(action, internalActionId);
-                // only wait if response has not yet arrived.
-                if ((responseEvents.getResponse() == null || !responseEvents.isComplete()))
-                {
-                    try
-                    {
-                        responseEvents.wait(timeout);
-                    }
-                    catch (InterruptedException e)
-                    {
-                        logger.warn("Interrupted while waiting for response events.");
-                        Thread.currentThread().interrupt();
-                    }
-                }
-            }
-
-            // still no response or not all events received and timed out?
-            if ((responseEvents.getResponse() == null || !responseEvents.isComplete()))
-            {
-                throw new EventTimeoutException("Timeout waiting for response or response events to " + action.getAction()
-                        + (action.getActionId() == null ? "" : " (actionId: " + action.getActionId() + ")"), responseEvents);
-            }
-
+            sendAction(action, internalActionId, future);
         }
-        finally
+        catch (IOException e)
         {
-            // remove the event handler
-            synchronized (this.responseEventListeners)
-            {
-                this.responseEventListeners.remove(internalActionId);
-            }
-
-            // Note: The response handler should have already been removed
-            // when the response was received, however we remove it here
-            // just in case it was never received.
-            synchronized (this.responseListeners)
-            {
-                this.responseListeners.remove(internalActionId);
-            }
+            future.cancel(false);
+            throw e;
+        }
+        catch (RuntimeException e)
+        {
+            future.cancel(false);
+            throw e;
+        }
 
+        try
+        {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException ex)
+        {
+            logger.warn("Interrupted while waiting for response events.");
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException ex)
+        {
+            // the future only completes with a result so this does not happen
+        }
+        catch (java.util.concurrent.TimeoutException ex)
+        {
+            // handled below
         }
 
-        return responseEvents;
+        // still no response or not all events received, stop waiting for them
+        future.cancel(false);
+        throw new EventTimeoutException("Timeout waiting for response or response events to " + action.getAction()
+                + (action.getActionId() == null ? "" : " (actionId: " + action.getActionId() + ")"),
+                future.getPartialResult());
     }
 
     /**
@@ -1100,22 +1460,169 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
         synchronized (this.eventListeners)
         {
             // only add it if its not already there
-            if (!this.eventListeners.contains(listener))
+            if (!this.eventListeners.contains(listener) && !this.partitionedEventListeners.containsKey(listener))
+            {
+                registerEventListener(listener, listener);
+            }
+        }
+    }
+
+    public void addEventListener(final ManagerEventListener listener, int lanes, EventKeyExtractor keyExtractor)
+    {
+        synchronized (this.eventListeners)
+        {
+            if (!this.eventListeners.contains(listener) && !this.partitionedEventListeners.containsKey(listener))
             {
-                this.eventListeners.add(listener);
+                final PartitionedEventDispatcher dispatcher;
+
+                dispatcher = new PartitionedEventDispatcher(listener, lanes, keyExtractor, getDispatchExecutor());
+                this.partitionedEventListeners.put(listener, dispatcher);
+                registerEventListener(dispatcher, listener);
             }
         }
     }
 
+    /**
+     * Adds a listener to the list of listeners notified about events.
+     *
+     * @param registeredListener the listener to notify, either the listener
+     *            itself or the dispatcher delivering the events to it.
+     * @param listener           the listener added by the user.
+     */
+    private void registerEventListener(ManagerEventListener registeredListener, ManagerEventListener listener)
+    {
+        this.eventListeners.add(registeredListener);
+        if (listener instanceof FilterableManagerEventListener)
+        {
+            final Set<Class<? extends ManagerEvent>> subscribedEvents;
+
+            subscribedEvents = ((FilterableManagerEventListener) listener).getSubscribedEvents();
+            if (subscribedEvents != null)
+            {
+                this.eventListenerSubscriptions.put(registeredListener,
+                        new HashSet<Class<? extends ManagerEvent>>(subscribedEvents));
+            }
+        }
+        updateSubscribedEventClasses();
+    }
+
     public void removeEventListener(final ManagerEventListener listener)
     {
         synchronized (this.eventListeners)
         {
-            if (this.eventListeners.contains(listener))
+            final PartitionedEventDispatcher dispatcher = this.partitionedEventListeners.remove(listener);
+            final ManagerEventListener registeredListener = dispatcher == null ? listener : dispatcher;
+
+            if (this.eventListeners.contains(registeredListener))
+            {
+                this.eventListeners.remove(registeredListener);
+                this.eventListenerSubscriptions.remove(registeredListener);
+                updateSubscribedEventClasses();
+            }
+            if (dispatcher != null)
+            {
+                dispatcher.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Tells the reader which events to build based on the subscriptions of
+     * the registered event listeners.
+     */
+    private void updateSubscribedEventClasses()
+    {
+        synchronized (eventListeners)
+        {
+            if (reader != null)
+            {
+                reader.setSubscribedEventClasses(getSubscribedEventClasses());
+            }
+        }
+    }
+
+    /**
+     * Returns the event classes any of the registered event listeners is
+     * interested in.
+     *
+     * @return the subscribed event classes or <code>null</code> if there is
+     *         a listener for all events.
+     */
+    private Set<Class<? extends ManagerEvent>> getSubscribedEventClasses()
+    {
+        final Set<Class<? extends ManagerEvent>> eventClasses = new HashSet<Class<? extends ManagerEvent>>();
+        boolean dialEventSubscribed = false;
+
+        for (ManagerEventListener listener : eventListeners)
+        {
+            final Set<Class<? extends ManagerEvent>> subscribedEvents = eventListenerSubscriptions.get(listener);
+            if (subscribedEvents == null)
+            {
+                return null;
+            }
+            eventClasses.addAll(subscribedEvents);
+        }
+
+        // DialEvents are derived from DialBeginEvents, see dispatchLegacyEventIfNeeded()
+        for (Class<? extends ManagerEvent> eventClass : eventClasses)
+        {
+            if (eventClass.isAssignableFrom(DialEvent.class))
             {
-                this.eventListeners.remove(listener);
+                dialEventSubscribed = true;
             }
         }
+        if (dialEventSubscribed)
+        {
+            eventClasses.add(DialBeginEvent.class);
+        }
+        return eventClasses;
+    }
+
+    public void addEventFilter(String filter)
+    {
+        eventFilters.add(filter);
+        if (state == CONNECTED)
+        {
+            sendEventFilter(filter);
+        }
+    }
+
+    /**
+     * Sends the event filters added by the user to Asterisk.
+     */
+    private void sendEventFilters()
+    {
+        for (String filter : eventFilters)
+        {
+            sendEventFilter(filter);
+        }
+    }
+
+    private void sendEventFilter(final String filter)
+    {
+        if (version != null && !version.isAtLeast(AsteriskVersion.ASTERISK_13))
+        {
+            logger.warn("Event filter '" + filter + "' is not supported by " + version + ", ignoring it");
+            return;
+        }
+
+        try
+        {
+            sendAction(new FilterAction(filter), new SendActionCallback()
+            {
+                public void onResponse(ManagerResponse response)
+                {
+                    if (response instanceof ManagerError)
+                    {
+                        logger.warn("Unable to add event filter '" + filter + "': " + response.getMessage());
+                    }
+                }
+            });
+        }
+        catch (Exception e)
+        {
+            logger.warn("Unable to add event filter '" + filter + "'", e);
+        }
     }
 
     public String getProtocolIdentifier()
@@ -1165,19 +1672,12 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
 
         if (internalActionId != null)
         {
-            synchronized (this.responseListeners)
+            listener = responseListeners.remove(internalActionId);
+            if (listener == null)
             {
-                listener = responseListeners.get(internalActionId);
-                if (listener != null)
-                {
-                    this.responseListeners.remove(internalActionId);
-                }
-                else
-                {
-                    // when using the async sendAction it's ok not to register a
-                    // callback so if we don't find a response handler thats ok
-                    logger.debug("No response listener registered for " + "internalActionId '" + internalActionId + "'");
-                }
+                // when using the async sendAction it's ok not to register a
+                // callback so if we don't find a response handler thats ok
+                logger.debug("No response listener registered for " + "internalActionId '" + internalActionId + "'");
             }
         }
         else
@@ -1216,7 +1716,11 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
             return;
         }
         dispatchLegacyEventIfNeeded(event);
-        logger.debug("Dispatching event:\n" + event.toString());
+        if (logger.isDebugEnabled())
+        {
+            // toString() binds deferred properties, only call it when needed
+            logger.debug("Dispatching event:\n" + event.toString());
+        }
 
         // Some events need special treatment besides forwarding them to the
         // registered eventListeners (clients)
@@ -1232,22 +1736,16 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
             internalActionId = responseEvent.getInternalActionId();
             if (internalActionId != null)
             {
-                synchronized (responseEventListeners)
+                final ManagerEventListener listener = responseEventListeners.get(internalActionId);
+                if (listener != null)
                 {
-                    ManagerEventListener listener;
-
-                    listener = responseEventListeners.get(internalActionId);
-                    if (listener != null)
+                    try
                     {
-                        try
-                        {
-                            listener.onManagerEvent(event);
-                        }
-                        catch (Exception e)
-                        {
-                            logger.warn("Unexpected exception in response event listener " + listener.getClass().getName(),
-                                    e);
-                        }
+                        listener.onManagerEvent(event);
+                    }
+                    catch (Exception e)
+                    {
+                        logger.warn("Unexpected exception in response event listener " + listener.getClass().getName(), e);
                     }
                 }
             }
@@ -1274,17 +1772,28 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
                 // After sending the DisconnectThread that thread will die
                 // anyway.
                 cleanup();
-                Thread reconnectThread = new Thread(new Runnable()
+                if (reactor != null)
+                {
+                    scheduleReconnect(reactor.getScheduler(), reactor.getReconnectExecutor(), 0);
+                }
+                else if (runtime != null)
+                {
+                    scheduleReconnect(runtime.getScheduler(), runtime.getReconnectExecutor(), 0);
+                }
+                else
                 {
-                    public void run()
+                    Thread reconnectThread = new Thread(new Runnable()
                     {
-                        reconnect();
-                    }
-                });
-                reconnectThread.setName("Asterisk-Java ManagerConnection-" + id + "-Reconnect-"
-                        + reconnectThreadCounter.getAndIncrement());
-                reconnectThread.setDaemon(true);
-                reconnectThread.start();
+                        public void run()
+                        {
+                            reconnect();
+                        }
+                    });
+                    reconnectThread.setName("Asterisk-Java ManagerConnection-" + id + "-Reconnect-"
+                            + reconnectThreadCounter.getAndIncrement());
+                    reconnectThread.setDaemon(true);
+                    reconnectThread.start();
+                }
                 // now the DisconnectEvent is dispatched to registered
                 // eventListeners
                 // (clients) and after that the ManagerReaderThread is gone.
@@ -1327,16 +1836,36 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
     }
 
     /**
-     * Notifies all {@link ManagerEventListener}s registered by users.
+     * Notifies all {@link ManagerEventListener}s registered by users, either
+     * directly or through the event delivery stage.
      * 
      * @param event the event to propagate
      */
     private void fireEvent(ManagerEvent event)
+    {
+        final ManagerEventListenerProxy stage = eventDeliveryStage;
+        if (stage != null)
+        {
+            stage.onManagerEvent(event);
+        }
+        else
+        {
+            deliverEvent(event);
+        }
+    }
+
+    private void deliverEvent(ManagerEvent event)
     {
         synchronized (eventListeners)
         {
             for (ManagerEventListener listener : eventListeners)
             {
+                final Set<Class<? extends ManagerEvent>> subscribedEvents = eventListenerSubscriptions.get(listener);
+                if (subscribedEvents != null && !isSubscribed(subscribedEvents, event))
+                {
+                    continue;
+                }
+
                 try
                 {
                     listener.onManagerEvent(event);
@@ -1349,6 +1878,18 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
         }
     }
 
+    private static boolean isSubscribed(Set<Class<? extends ManagerEvent>> subscribedEvents, ManagerEvent event)
+    {
+        for (Class<? extends ManagerEvent> subscribedEvent : subscribedEvents)
+        {
+            if (subscribedEvent.isInstance(event))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * This method is called when a {@link ProtocolIdentifierReceivedEvent} is
      * received from the reader. Having received a correct protocol identifier
@@ -1405,63 +1946,122 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
         {
             try
             {
-                if (numTries < 10)
-                {
-                    // try to reconnect quite fast for the firt 10 times
-                    // this succeeds if the server has just been restarted
-                    Thread.sleep(RECONNECTION_INTERVAL_1);
-                }
-                else
-                {
-                    // slow down after 10 unsuccessful attempts asuming a
-                    // shutdown of the server
-                    Thread.sleep(RECONNECTION_INTERVAL_2);
-                }
+                Thread.sleep(getReconnectionInterval(numTries));
             }
             catch (InterruptedException e)
             {
                 Thread.currentThread().interrupt();
             }
 
-            try
+            if (tryReconnect())
             {
-                connect();
+                break;
+            }
+            numTries++;
+        }
+    }
 
-                try
+    /**
+     * Like {@link #reconnect()} but does not block a thread between attempts.
+     * The scheduler only times the attempts, they run on the given executor
+     * as they block while connecting and logging in.
+     */
+    private void scheduleReconnect(final ScheduledExecutorService scheduler, final Executor attemptExecutor,
+            final int numTries)
+    {
+        final Runnable attempt = new Runnable()
+        {
+            public void run()
+            {
+                if (state == RECONNECTING && !tryReconnect() && state == RECONNECTING)
                 {
-                    doLogin(defaultResponseTimeout, eventMask);
-                    logger.info("Successfully reconnected.");
-                    // everything is ok again, so we leave
-                    // when successful doLogin set the state to CONNECTED so no
-                    // need to adjust it
-                    break;
+                    scheduleReconnect(scheduler, attemptExecutor, numTries + 1);
                 }
-                catch (AuthenticationFailedException e1)
+            }
+        };
+
+        try
+        {
+            scheduler.schedule(new Runnable()
+            {
+                public void run()
                 {
-                    if (keepAliveAfterAuthenticationFailure)
+                    try
                     {
-                        logger.error("Unable to log in after reconnect: " + e1.getMessage());
+                        attemptExecutor.execute(attempt);
                     }
-                    else
+                    catch (RejectedExecutionException e)
                     {
-                        logger.error("Unable to log in after reconnect: " + e1.getMessage() + ". Giving up.");
-                        state = DISCONNECTED;
+                        logger.warn("Unable to reconnect, executor has been shut down");
                     }
                 }
-                catch (TimeoutException e1)
+            }, getReconnectionInterval(numTries), TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException e)
+        {
+            logger.warn("Unable to schedule reconnect, scheduler has been shut down");
+        }
+    }
+
+    private long getReconnectionInterval(int numTries)
+    {
+        if (numTries < 10)
+        {
+            // try to reconnect quite fast for the firt 10 times
+            // this succeeds if the server has just been restarted
+            return RECONNECTION_INTERVAL_1;
+        }
+
+        // slow down after 10 unsuccessful attempts asuming a
+        // shutdown of the server
+        return RECONNECTION_INTERVAL_2;
+    }
+
+    /**
+     * Makes a single attempt to reconnect and log in.
+     *
+     * @return <code>true</code> if reconnected, <code>false</code> otherwise.
+     */
+    private boolean tryReconnect()
+    {
+        try
+        {
+            connect();
+
+            try
+            {
+                doLogin(defaultResponseTimeout, eventMask);
+                logger.info("Successfully reconnected.");
+                // everything is ok again, so we leave
+                // when successful doLogin set the state to CONNECTED so no
+                // need to adjust it
+                return true;
+            }
+            catch (AuthenticationFailedException e1)
+            {
+                if (keepAliveAfterAuthenticationFailure)
+                {
+                    logger.error("Unable to log in after reconnect: " + e1.getMessage());
+                }
+                else
                 {
-                    // shouldn't happen - but happens!
-                    logger.error("TimeoutException while trying to log in " + "after reconnect.");
+                    logger.error("Unable to log in after reconnect: " + e1.getMessage() + ". Giving up.");
+                    state = DISCONNECTED;
                 }
             }
-            catch (IOException e)
+            catch (TimeoutException e1)
             {
-                // server seems to be still down, just continue to attempt
-                // reconnection
-                logger.warn("Exception while trying to reconnect: " + e.getMessage());
+                // shouldn't happen - but happens!
+                logger.error("TimeoutException while trying to log in " + "after reconnect.");
             }
-            numTries++;
         }
+        catch (IOException e)
+        {
+            // server seems to be still down, just continue to attempt
+            // reconnection
+            logger.warn("Exception while trying to reconnect: " + e.getMessage());
+        }
+        return false;
     }
 
     private void cleanup()
@@ -1486,134 +2086,6 @@ public class ManagerConnectionImpl implements ManagerConnection, Dispatcher
 
     /* Helper classes */
 
-    /**
-     * A simple data object to store a ManagerResult.
-     */
-    private static class ResponseHandlerResult implements Serializable
-    {
-        /**
-         * Serializable version identifier.
-         */
-        private static final long serialVersionUID = 7831097958568769220L;
-        private ManagerResponse response;
-
-        public ResponseHandlerResult()
-        {
-        }
-
-        public ManagerResponse getResponse()
-        {
-            return this.response;
-        }
-
-        public void setResponse(ManagerResponse response)
-        {
-            this.response = response;
-        }
-    }
-
-    /**
-     * A simple response handler that stores the received response in a
-     * ResponseHandlerResult for further processing.
-     */
-    private static class DefaultSendActionCallback implements SendActionCallback, Serializable
-    {
-        /**
-         * Serializable version identifier.
-         */
-        private static final long serialVersionUID = 2926598671855316803L;
-        private final ResponseHandlerResult result;
-
-        /**
-         * Creates a new instance.
-         * 
-         * @param result the result to store the response in
-         */
-        public DefaultSendActionCallback(ResponseHandlerResult result)
-        {
-            this.result = result;
-        }
-
-        public void onResponse(ManagerResponse response)
-        {
-            synchronized (result)
-            {
-                result.setResponse(response);
-                result.notifyAll();
-            }
-        }
-    }
-
-    /**
-     * A combinded event and response handler that adds received events and the
-     * response to a ResponseEvents object.
-     */
-    private static class ResponseEventHandler implements ManagerEventListener, SendActionCallback
-    {
-        private final ResponseEventsImpl events;
-        private final Class< ? > actionCompleteEventClass;
-
-        /**
-         * Creates a new instance.
-         * 
-         * @param events the ResponseEventsImpl to store the events in
-         * @param actionCompleteEventClass the type of event that indicates that
-         *            all events have been received
-         */
-        public ResponseEventHandler(ResponseEventsImpl events, Class< ? > actionCompleteEventClass)
-        {
-            this.events = events;
-            this.actionCompleteEventClass = actionCompleteEventClass;
-        }
-
-        public void onManagerEvent(ManagerEvent event)
-        {
-            synchronized (events)
-            {
-                // should always be a ResponseEvent, anyway...
-                if (event instanceof ResponseEvent)
-                {
-                    ResponseEvent responseEvent;
-
-                    responseEvent = (ResponseEvent) event;
-                    events.addEvent(responseEvent);
-                }
-
-                // finished?
-                if (actionCompleteEventClass.isAssignableFrom(event.getClass()))
-                {
-                    events.setComplete(true);
-                    // notify if action complete event and response have been
-                    // received
-                    if (events.getResponse() != null)
-                    {
-                        events.notifyAll();
-                    }
-                }
-            }
-        }
-
-        public void onResponse(ManagerResponse response)
-        {
-            synchronized (events)
-            {
-                events.setRepsonse(response);
-                if (response instanceof ManagerError)
-                {
-                    events.setComplete(true);
-                }
-
-                // finished?
-                // notify if action complete event and response have been
-                // received
-                if (events.isComplete())
-                {
-                    events.notifyAll();
-                }
-            }
-        }
-    }
-
     private static class ProtocolIdentifierWrapper
     {
         String value;
@@ -0,0 +1,290 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Decodes the bytes received from the Asterisk server into frames.<p>
+ * Lines (delimited by CRNL) and attributes (delimited by ": ") are located at
+ * the byte level, so no String is created for a line as a whole. Only the
+ * attribute values are decoded, attribute names are converted to lower case
+ * and resolved through the {@link AttributeNameTable}.<p>
+ * Received bytes are accumulated in a receive buffer that grows on demand, so
+ * lines and frames may be split across any number of reads.<p>
+ * Instances are not thread safe, use one decoder per connection.
+ *
+ * @author srt
+ * @version $Id$
+ * @see ManagerFrameHandler
+ */
+class ManagerFrameDecoder
+{
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final byte CR = '\r';
+    private static final byte NL = '\n';
+    private static final byte[] END_COMMAND = "--END COMMAND--".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FROM = "From ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TO = "To ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] PROTOCOL_IDENTIFIER_PREFIXES;
+
+    static
+    {
+        PROTOCOL_IDENTIFIER_PREFIXES = new byte[ManagerReaderImpl.PROTOCOL_IDENTIFIER_PREFIXES.length][];
+        for (int i = 0; i < PROTOCOL_IDENTIFIER_PREFIXES.length; i++)
+        {
+            PROTOCOL_IDENTIFIER_PREFIXES[i] = ManagerReaderImpl.PROTOCOL_IDENTIFIER_PREFIXES[i]
+                    .getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final Charset encoding;
+    private final AttributeNameTable attributeNames;
+    private ByteBuffer buffer;
+
+    /**
+     * Position in the receive buffer up to which the pending partial line has
+     * already been scanned for CRNL.
+     */
+    private int scanPosition;
+
+    /**
+     * <code>true</code> while decoding a "Response: Follows" frame that carries
+     * the output of a CommandAction.
+     */
+    private boolean commandResponse;
+
+    /**
+     * Creates a new decoder for the given encoding.
+     *
+     * @param encoding the encoding used by the Asterisk server.
+     */
+    ManagerFrameDecoder(Charset encoding)
+    {
+        this.encoding = encoding;
+        this.attributeNames = AttributeNameTable.getInstance();
+        this.buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Returns the receive buffer to read new data into. The buffer is in write
+     * mode and has at least one byte remaining, it is grown if a single line
+     * does not fit.
+     *
+     * @return the receive buffer.
+     */
+    ByteBuffer getReceiveBuffer()
+    {
+        if (!buffer.hasRemaining())
+        {
+            final ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+        return buffer;
+    }
+
+    /**
+     * Copies the remaining bytes of the given buffer into the receive buffer
+     * and decodes all complete lines.
+     *
+     * @param src     the bytes received.
+     * @param handler the handler to pass the decoded frame parts to.
+     */
+    void decode(ByteBuffer src, ManagerFrameHandler handler)
+    {
+        while (src.hasRemaining())
+        {
+            final ByteBuffer dst = getReceiveBuffer();
+            final int length = Math.min(dst.remaining(), src.remaining());
+            final int oldLimit = src.limit();
+
+            src.limit(src.position() + length);
+            dst.put(src);
+            src.limit(oldLimit);
+            decode(handler);
+        }
+    }
+
+    /**
+     * Decodes all complete lines that have been read into the receive buffer
+     * and passes the result to the given handler. An incomplete last line
+     * remains in the buffer until more data has been received.
+     *
+     * @param handler the handler to pass the decoded frame parts to.
+     */
+    void decode(ManagerFrameHandler handler)
+    {
+        final byte[] array = buffer.array();
+        final int end = buffer.position();
+        int lineStart = 0;
+
+        for (int i = scanPosition; i + 1 < end; i++)
+        {
+            if (array[i] == CR && array[i + 1] == NL)
+            {
+                decodeLine(array, lineStart, i, handler);
+                i++;
+                lineStart = i + 1;
+            }
+        }
+
+        buffer.flip();
+        buffer.position(lineStart);
+        buffer.compact();
+
+        // the last byte may be the CR of a CRNL that is split across reads
+        scanPosition = Math.max(0, buffer.position() - 1);
+    }
+
+    private void decodeLine(byte[] array, int start, int end, ManagerFrameHandler handler)
+    {
+        if (start == end)
+        {
+            commandResponse = false;
+            handler.frameCompleted();
+            return;
+        }
+
+        if (isProtocolIdentifier(array, start, end))
+        {
+            handler.protocolIdentifierReceived(new String(array, start, end - start, encoding));
+            return;
+        }
+
+        /* Special handling for "Response: Follows" (CommandResponse)
+         * As we are using "\r\n" as the delimiter for line this also handles multiline
+         * results as long as they only contain "\n".
+         */
+        if (commandResponse && endsWith(array, start, end, END_COMMAND))
+        {
+            handler.attributeReceived(ManagerReader.COMMAND_RESULT_RESPONSE_KEY,
+                    new String(array, start, end - start, encoding));
+            return;
+        }
+
+        final int delimiterIndex;
+        final int delimiterLength;
+
+        // workaround for Asterisk bug 13319, see AJ-77
+        if (startsWith(array, start, end, FROM) || startsWith(array, start, end, TO))
+        {
+            delimiterIndex = indexOf(array, start, end, (byte) ' ', (byte) 0);
+            delimiterLength = 1;
+        }
+        else
+        {
+            delimiterIndex = indexOf(array, start, end, (byte) ':', (byte) ' ');
+            delimiterLength = 2;
+        }
+
+        if (delimiterIndex > start && end > delimiterIndex + delimiterLength)
+        {
+            final String name = decodeName(array, start, delimiterIndex);
+            final String value = new String(array, delimiterIndex + delimiterLength,
+                    end - delimiterIndex - delimiterLength, encoding);
+
+            if ("response".equals(name) && "Follows".equals(value))
+            {
+                commandResponse = true;
+            }
+            handler.attributeReceived(name, value);
+        }
+    }
+
+    /**
+     * Decodes an attribute name and converts it to lower case. Known names are
+     * resolved to their canonical instance without creating a new String.
+     */
+    private String decodeName(byte[] array, int start, int end)
+    {
+        final String name = attributeNames.get(array, start, end);
+        if (name == null)
+        {
+            // not plain ASCII
+            return new String(array, start, end - start, encoding).toLowerCase(Locale.ENGLISH);
+        }
+        return name;
+    }
+
+    private static boolean isProtocolIdentifier(byte[] array, int start, int end)
+    {
+        for (byte[] prefix : PROTOCOL_IDENTIFIER_PREFIXES)
+        {
+            if (startsWith(array, start, end, prefix))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the index of the first occurrence of b1 (followed by b2 unless
+     * b2 is zero) or -1 if there is none.
+     */
+    private static int indexOf(byte[] array, int start, int end, byte b1, byte b2)
+    {
+        final int last = b2 == 0 ? end : end - 1;
+        for (int i = start; i < last; i++)
+        {
+            if (array[i] == b1 && (b2 == 0 || array[i + 1] == b2))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(byte[] array, int start, int end, byte[] prefix)
+    {
+        if (end - start < prefix.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++)
+        {
+            if (array[start + i] != prefix[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean endsWith(byte[] array, int start, int end, byte[] suffix)
+    {
+        if (end - start < suffix.length)
+        {
+            return false;
+        }
+        final int offset = end - suffix.length;
+        for (int i = 0; i < suffix.length; i++)
+        {
+            if (array[offset + i] != suffix[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+/**
+ * Receives the parts of the frames (events and responses) decoded from the
+ * data sent by the Asterisk server.<p>
+ * Do not use this interface in your code, it is intended to be used only by
+ * the ManagerReader.
+ *
+ * @author srt
+ * @version $Id$
+ * @see ManagerFrameDecoder
+ */
+interface ManagerFrameHandler
+{
+    /**
+     * Called when the protocol identifier (for example "Asterisk Call
+     * Manager/1.1") has been received.
+     *
+     * @param protocolIdentifier the protocol identifier.
+     */
+    void protocolIdentifierReceived(String protocolIdentifier);
+
+    /**
+     * Called for each attribute of the current frame.
+     *
+     * @param name  the name of the attribute in lower case.
+     * @param value the value of the attribute.
+     */
+    void attributeReceived(String name, String value);
+
+    /**
+     * Called when the empty line that terminates the current frame has been
+     * received.
+     */
+    void frameCompleted();
+}
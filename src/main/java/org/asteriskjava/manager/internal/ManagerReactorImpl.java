@@ -0,0 +1,428 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.asteriskjava.util.DaemonThreadFactory;
+import org.asteriskjava.util.Log;
+import org.asteriskjava.util.LogFactory;
+
+/**
+ * Reads the connections of many ManagerConnections with a small number of
+ * threads.<p>
+ * Each selector thread multiplexes the sockets assigned to it, decodes the
+ * received data with a {@link ManagerFrameDecoder} and passes the frames to
+ * the {@link ManagerReaderImpl} of the connection. Responses are dispatched on
+ * the selector thread, events are handed to the asynchronous event delivery
+ * of the connection so a slow listener does not stall the other connections
+ * of the selector thread.<p>
+ * Reconnects are timed by a shared scheduler. The attempts themselves block
+ * while connecting and logging in, they run on a pool that grows with the
+ * number of concurrent attempts so lost connections are retried
+ * independently. Connecting times out after {@link #DEFAULT_CONNECT_TIMEOUT}
+ * unless a socket timeout is set.<p>
+ * Actions are still written by the sending thread.<p>
+ * Do not use this class in your code, use
+ * {@link org.asteriskjava.manager.ManagerReactor} instead.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+public class ManagerReactorImpl
+{
+    /**
+     * Maximum time in milliseconds a selector thread waits before checking
+     * for read timeouts.
+     */
+    private static final long SELECT_TIMEOUT = 1000L;
+
+    /**
+     * Connect timeout in milliseconds used if the connection has no socket
+     * timeout, so a reconnect attempt to an unreachable server does not take
+     * as long as the connect timeout of the operating system.
+     */
+    static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+
+    private final Log logger = LogFactory.getLog(getClass());
+    private final SelectorLoop[] loops;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final ScheduledExecutorService scheduler;
+    private final ThreadPoolExecutor reconnectExecutor;
+
+    /**
+     * Creates a new reactor and starts its selector threads.
+     *
+     * @param selectorThreads the number of selector threads.
+     * @throws IllegalArgumentException if selectorThreads is not positive.
+     * @throws IllegalStateException if a selector cannot be opened.
+     */
+    public ManagerReactorImpl(int selectorThreads)
+    {
+        if (selectorThreads < 1)
+        {
+            throw new IllegalArgumentException("Number of selector threads must be positive");
+        }
+
+        this.loops = new SelectorLoop[selectorThreads];
+        for (int i = 0; i < selectorThreads; i++)
+        {
+            try
+            {
+                loops[i] = new SelectorLoop(Selector.open());
+            }
+            catch (IOException e)
+            {
+                shutdown();
+                throw new IllegalStateException("Unable to open selector", e);
+            }
+
+            final Thread thread = new Thread(loops[i]);
+            thread.setName("Asterisk-Java ManagerReactor-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        this.scheduler = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory());
+        this.reconnectExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new DaemonThreadFactory());
+    }
+
+    /**
+     * Opens a new connection to be registered with this reactor.
+     *
+     * @param host        the foreign host to connect to.
+     * @param port        the foreign port to connect to.
+     * @param timeout     the connect timeout in milliseconds, 0 for
+     *            {@link #DEFAULT_CONNECT_TIMEOUT}.
+     * @param readTimeout the time in milliseconds after which the connection
+     *            is closed if nothing has been received, 0 for no timeout.
+     * @param encoding    the encoding used by the Asterisk server.
+     * @return the connection.
+     * @throws IOException if the connection cannot be established.
+     */
+    ReactorSocketConnectionFacade connect(String host, int port, int timeout, int readTimeout, Charset encoding)
+            throws IOException
+    {
+        return new ReactorSocketConnectionFacade(host, port, timeout > 0 ? timeout : DEFAULT_CONNECT_TIMEOUT,
+                readTimeout, encoding);
+    }
+
+    /**
+     * Starts reading the given connection and passing the received frames to
+     * the given reader. When the connection is closed the reader dispatches a
+     * DisconnectEvent.
+     *
+     * @param socket the connection to read.
+     * @param reader the reader to pass the frames to.
+     */
+    void register(ReactorSocketConnectionFacade socket, ManagerReaderImpl reader)
+    {
+        final SelectorLoop loop = loops[(nextLoop.getAndIncrement() & Integer.MAX_VALUE) % loops.length];
+        final Session session = new Session(loop, socket, reader);
+
+        socket.setSession(session);
+        loop.register(session);
+    }
+
+    /**
+     * Returns the scheduler that times reconnect attempts, its tasks must not
+     * block.
+     *
+     * @return the scheduler.
+     */
+    ScheduledExecutorService getScheduler()
+    {
+        return scheduler;
+    }
+
+    /**
+     * Returns the executor that runs reconnect attempts, its tasks may block.
+     *
+     * @return the executor.
+     */
+    Executor getReconnectExecutor()
+    {
+        return reconnectExecutor;
+    }
+
+    /**
+     * Closes all connections and stops the selector threads. Connections are
+     * no longer reconnected.
+     */
+    public void shutdown()
+    {
+        for (SelectorLoop loop : loops)
+        {
+            if (loop != null)
+            {
+                loop.shutdown();
+            }
+        }
+        if (scheduler != null)
+        {
+            scheduler.shutdownNow();
+        }
+        if (reconnectExecutor != null)
+        {
+            reconnectExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * A selector and the thread that runs it.
+     */
+    private final class SelectorLoop implements Runnable
+    {
+        private final Selector selector;
+        private final Queue<Session> registrations = new ConcurrentLinkedQueue<Session>();
+        private final Queue<Session> closedSessions = new ConcurrentLinkedQueue<Session>();
+        private volatile boolean running = true;
+
+        private SelectorLoop(Selector selector)
+        {
+            this.selector = selector;
+        }
+
+        void register(Session session)
+        {
+            registrations.add(session);
+            selector.wakeup();
+        }
+
+        void closed(Session session)
+        {
+            closedSessions.add(session);
+            selector.wakeup();
+        }
+
+        void shutdown()
+        {
+            running = false;
+            selector.wakeup();
+        }
+
+        public void run()
+        {
+            try
+            {
+                while (running)
+                {
+                    selector.select(SELECT_TIMEOUT);
+                    processRegistrations();
+                    processSelectedKeys();
+                    processClosedSessions();
+                    checkReadTimeouts();
+                }
+            }
+            catch (IOException e)
+            {
+                logger.error("Selector failed, closing its connections", e);
+            }
+            finally
+            {
+                closeAll();
+            }
+        }
+
+        private void processRegistrations()
+        {
+            Session session;
+            while ((session = registrations.poll()) != null)
+            {
+                try
+                {
+                    session.key = session.socket.getChannel().register(selector, SelectionKey.OP_READ, session);
+                }
+                catch (ClosedChannelException e)
+                {
+                    session.terminate(e);
+                }
+            }
+        }
+
+        private void processSelectedKeys()
+        {
+            final Iterator<SelectionKey> keyIterator = selector.selectedKeys().iterator();
+            while (keyIterator.hasNext())
+            {
+                final SelectionKey key = keyIterator.next();
+                keyIterator.remove();
+                if (key.isValid() && key.isReadable())
+                {
+                    ((Session) key.attachment()).read();
+                }
+            }
+        }
+
+        private void processClosedSessions()
+        {
+            Session session;
+            while ((session = closedSessions.poll()) != null)
+            {
+                session.terminate(null);
+            }
+        }
+
+        private void checkReadTimeouts()
+        {
+            final long now = System.currentTimeMillis();
+            for (SelectionKey key : selector.keys().toArray(new SelectionKey[0]))
+            {
+                final Session session = (Session) key.attachment();
+                final int readTimeout = session.socket.getReadTimeout();
+                if (readTimeout > 0 && now - session.lastReadTime > readTimeout)
+                {
+                    session.terminate(new SocketTimeoutException("Read timed out"));
+                }
+            }
+        }
+
+        private void closeAll()
+        {
+            processRegistrations();
+            for (SelectionKey key : selector.keys().toArray(new SelectionKey[0]))
+            {
+                ((Session) key.attachment()).terminate(new IOException("Reactor has been shut down"));
+            }
+            processClosedSessions();
+            try
+            {
+                selector.close();
+            }
+            catch (IOException e)
+            {
+                logger.warn("Unable to close selector: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A connection registered with a selector. Only accessed by the selector
+     * thread except for {@link #closed()}.
+     */
+    final class Session
+    {
+        private final SelectorLoop loop;
+        private final ReactorSocketConnectionFacade socket;
+        private final ManagerReaderImpl reader;
+        private final ManagerFrameDecoder decoder;
+        private final ManagerFrameHandler frameHandler;
+        private final AtomicBoolean terminated = new AtomicBoolean();
+        private SelectionKey key;
+        private long lastReadTime;
+
+        private Session(SelectorLoop loop, ReactorSocketConnectionFacade socket, ManagerReaderImpl reader)
+        {
+            this.loop = loop;
+            this.socket = socket;
+            this.reader = reader;
+            this.decoder = new ManagerFrameDecoder(socket.getEncoding());
+            this.frameHandler = reader.attach();
+            this.lastReadTime = System.currentTimeMillis();
+        }
+
+        /**
+         * Called when the connection has been closed by the client.
+         */
+        void closed()
+        {
+            loop.closed(this);
+        }
+
+        private void read()
+        {
+            final int bytesRead;
+
+            try
+            {
+                bytesRead = socket.getChannel().read(decoder.getReceiveBuffer());
+            }
+            catch (IOException e)
+            {
+                logger.info("Terminating connection: " + e.getMessage());
+                terminate(e);
+                return;
+            }
+
+            if (bytesRead < 0)
+            {
+                logger.debug("Reached end of stream, terminating connection.");
+                terminate(null);
+                return;
+            }
+
+            lastReadTime = System.currentTimeMillis();
+            try
+            {
+                decoder.decode(frameHandler);
+            }
+            catch (RuntimeException e)
+            {
+                // must not stop the selector thread serving other connections
+                logger.error("Unexpected exception while handling received data", e);
+            }
+        }
+
+        private void terminate(IOException cause)
+        {
+            if (!terminated.compareAndSet(false, true))
+            {
+                return;
+            }
+
+            if (key != null)
+            {
+                key.cancel();
+            }
+            try
+            {
+                socket.getChannel().close();
+            }
+            catch (IOException e)
+            {
+                logger.warn("Unable to close socket: " + e.getMessage());
+            }
+
+            try
+            {
+                reader.detach(cause);
+            }
+            catch (RuntimeException e)
+            {
+                logger.error("Unexpected exception while handling disconnect", e);
+            }
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.asteriskjava.manager.internal;
 
 import java.io.IOException;
+import java.util.Set;
 
 import org.asteriskjava.manager.event.ManagerEvent;
 import org.asteriskjava.manager.response.ManagerResponse;
@@ -58,6 +59,28 @@ public interface ManagerReader extends Runnable
 
     void expectResponseClass(String internalActionId, Class<? extends ManagerResponse> responseClass);
 
+    /**
+     * Set to <code>true</code> to decode properties of events only when they
+     * are first accessed.
+     *
+     * @param lazyProperties <code>true</code> to decode properties on first
+     *            access.
+     * @see EventBuilder#setLazyProperties(boolean)
+     * @since 2.0.0
+     */
+    void setLazyProperties(boolean lazyProperties);
+
+    /**
+     * Sets the event classes to build. Events of other classes are skipped
+     * without building them, except for events that are sent in response to
+     * an action.
+     *
+     * @param eventClasses the event classes to build including their
+     *            subclasses or <code>null</code> to build all events.
+     * @since 2.0.0
+     */
+    void setSubscribedEventClasses(Set<Class<? extends ManagerEvent>> eventClasses);
+
     /**
      * Terminates this reader.
      */
@@ -23,6 +23,7 @@ import org.asteriskjava.manager.response.ManagerResponse;
 import org.asteriskjava.util.DateUtil;
 import org.asteriskjava.util.Log;
 import org.asteriskjava.util.LogFactory;
+import org.asteriskjava.util.RawSocketConnectionFacade;
 import org.asteriskjava.util.SocketConnectionFacade;
 
 import java.io.IOException;
@@ -38,6 +39,13 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class ManagerReaderImpl implements ManagerReader
 {
+    /**
+     * Prefixes of the protocol identifiers sent by Asterisk and compatible servers when a
+     * client connects.
+     */
+    static final String[] PROTOCOL_IDENTIFIER_PREFIXES = {"Asterisk Call Manager/", "Asterisk Call Manager Proxy/",
+            "Asterisk Manager Proxy/", "OpenPBX Call Manager/", "CallWeaver Call Manager/"};
+
     /**
      * Instance logger.
      */
@@ -72,6 +80,17 @@ public class ManagerReaderImpl implements ManagerReader
      */
     private SocketConnectionFacade socket;
 
+    /**
+     * The event classes to build or <code>null</code> to build all events.
+     */
+    private Set<Class<? extends ManagerEvent>> subscribedEventClasses;
+
+    /**
+     * Skips events nobody has subscribed to or <code>null</code> to build all
+     * events.
+     */
+    private volatile EventClassFilter eventClassFilter;
+
     /**
      * If set to <code>true</code>, terminates and closes the reader.
      */
@@ -116,6 +135,20 @@ public class ManagerReaderImpl implements ManagerReader
     public void registerEventClass(Class<? extends ManagerEvent> eventClass)
     {
         eventBuilder.registerEventClass(eventClass);
+
+        // decisions cached by the filter may be outdated
+        setSubscribedEventClasses(subscribedEventClasses);
+    }
+
+    public synchronized void setSubscribedEventClasses(Set<Class<? extends ManagerEvent>> eventClasses)
+    {
+        this.subscribedEventClasses = eventClasses;
+        this.eventClassFilter = eventClasses == null ? null : new EventClassFilter(eventClasses, eventBuilder);
+    }
+
+    public void setLazyProperties(boolean lazyProperties)
+    {
+        eventBuilder.setLazyProperties(lazyProperties);
     }
 
     public void expectResponseClass(String internalActionId, Class<? extends ManagerResponse> responseClass)
@@ -124,182 +157,175 @@ public class ManagerReaderImpl implements ManagerReader
     }
 
     /**
-     * Reads line by line from the asterisk server, sets the protocol identifier (using a
+     * Reads from the asterisk server, sets the protocol identifier (using a
      * generated {@link org.asteriskjava.manager.event.ProtocolIdentifierReceivedEvent}) as soon as it is
-     * received and dispatches the received events and responses via the associated dispatcher.
+     * received and dispatches the received events and responses via the associated dispatcher.<p>
+     * If the socket is a {@link RawSocketConnectionFacade} the received bytes are decoded by a
+     * {@link ManagerFrameDecoder}, otherwise the socket is read line by line.
      *
      * @see org.asteriskjava.manager.internal.Dispatcher#dispatchEvent(ManagerEvent)
      * @see org.asteriskjava.manager.internal.Dispatcher#dispatchResponse(ManagerResponse)
      */
     public void run()
     {
-        final Map<String, Object> buffer = new HashMap<String, Object>();
-        String line;
+        final FrameHandler frameHandler;
+        IOException cause = null;
 
         if (socket == null)
         {
             throw new IllegalStateException("Unable to run: socket is null.");
         }
 
-        this.die = false;
-        this.dead = false;
-
+        frameHandler = attach();
         try
         {
-            // main loop
-            while (!this.die && (line = socket.readLine()) != null)
+            if (socket instanceof RawSocketConnectionFacade)
             {
-                // maybe we will find a better way to identify the protocol identifier but for now
-                // this works quite well.
-                if (line.startsWith("Asterisk Call Manager/") ||
-                        line.startsWith("Asterisk Call Manager Proxy/") ||
-                        line.startsWith("Asterisk Manager Proxy/") ||
-                        line.startsWith("OpenPBX Call Manager/") ||
-                        line.startsWith("CallWeaver Call Manager/"))
-                {
-                    ProtocolIdentifierReceivedEvent protocolIdentifierReceivedEvent;
-                    protocolIdentifierReceivedEvent = new ProtocolIdentifierReceivedEvent(source);
-                    protocolIdentifierReceivedEvent.setProtocolIdentifier(line);
-                    protocolIdentifierReceivedEvent.setDateReceived(DateUtil.getDate());
-                    dispatcher.dispatchEvent(protocolIdentifierReceivedEvent);
-                    continue;
-                }
-
-                /* Special handling for "Response: Follows" (CommandResponse)
-                 * As we are using "\r\n" as the delimiter for line this also handles multiline
-                 * results as long as they only contain "\n".
-                 */
-                if ("Follows".equals(buffer.get("response")) && line.endsWith("--END COMMAND--"))
-                {
-                    buffer.put(COMMAND_RESULT_RESPONSE_KEY, line);
-                    continue;
-                }
-
-                if (line.length() > 0)
-                {
-                    int delimiterIndex;
-                    int delimiterLength;
-
-                    // begin of workaround for Astersik bug 13319
-                    // see AJ-77
-                    // Use this workaround only when line starts from "From " and "To "
-                    int isFromAtStart, isToAtStart;
-                    isFromAtStart = line.indexOf("From ");
-                    isToAtStart = line.indexOf("To ");
-                    if (isFromAtStart == 0 || isToAtStart == 0)
-                    {
-                        delimiterIndex = line.indexOf(" ");
-                        delimiterLength = 1;
-                    }
-                    else
-                    {
-                        delimiterIndex = line.indexOf(": ");
-                        delimiterLength = 2;
-                    }
-                    // end of workaround for Astersik bug 13319
-
-                    if (delimiterIndex > 0 && line.length() > delimiterIndex + delimiterLength)
-                    {
-                        String name;
-                        String value;
-
-                        name = line.substring(0, delimiterIndex).toLowerCase(Locale.ENGLISH);
-                        value = line.substring(delimiterIndex + delimiterLength);
-
-                        addToBuffer(buffer, name, value);
-                        // TODO tracing
-                        //logger.debug("Got name [" + name + "], value: [" + value + "]");
-                    }
-                }
-
-
-                // an empty line indicates a normal response's or event's end so we build
-                // the corresponding value object and dispatch it through the ManagerConnection.
-                if (line.length() == 0)
-                {
-                    if (buffer.containsKey("event"))
-                    {
-                        // TODO tracing
-                        //logger.debug("attempting to build event: " + buffer.get("event"));
-                        ManagerEvent event = buildEvent(source, buffer);
-                        if (event != null)
-                        {
-                            dispatcher.dispatchEvent(event);
-                        }
-                        else
-                        {
-                            logger.debug("buildEvent returned null");
-                        }
-                    }
-                    else if (buffer.containsKey("response"))
-                    {
-                        ManagerResponse response = buildResponse(buffer);
-                        // TODO tracing
-                        //logger.debug("attempting to build response");
-                        if (response != null)
-                        {
-                            dispatcher.dispatchResponse(response);
-                        }
-                    }
-                    else
-                    {
-                        if (buffer.size() > 0)
-                        {
-                            logger.debug("Buffer contains neither response nor event");
-                        }
-                    }
-
-                    buffer.clear();
-                }
+                readFrames((RawSocketConnectionFacade) socket, frameHandler);
+            }
+            else
+            {
+                readLines(frameHandler);
             }
-            this.dead = true;
             logger.debug("Reached end of stream, terminating reader.");
         }
         catch (IOException e)
         {
-            this.terminationException = e;
-            this.dead = true;
+            cause = e;
             logger.info("Terminating reader thread: " + e.getMessage());
         }
         finally
         {
-            this.dead = true;
             // cleans resources and reconnects if needed
-            DisconnectEvent disconnectEvent = new DisconnectEvent(source);
-            disconnectEvent.setDateReceived(DateUtil.getDate());
-            dispatcher.dispatchEvent(disconnectEvent);
+            detach(cause);
+        }
+    }
+
+    /**
+     * Prepares the reader to receive frames. Called by {@link #run()} or by
+     * the {@link ManagerReactorImpl} that reads the socket in place of a
+     * reader thread.
+     *
+     * @return the handler to pass the decoded frames to.
+     */
+    FrameHandler attach()
+    {
+        this.die = false;
+        this.dead = false;
+        return new FrameHandler();
+    }
+
+    /**
+     * Marks the reader as dead after the connection has been closed and
+     * dispatches a DisconnectEvent.
+     *
+     * @param cause the exception that terminated the connection or
+     *            <code>null</code> if the end of stream has been reached.
+     */
+    void detach(IOException cause)
+    {
+        if (cause != null)
+        {
+            this.terminationException = cause;
         }
+        this.dead = true;
+
+        DisconnectEvent disconnectEvent = new DisconnectEvent(source);
+        disconnectEvent.setDateReceived(DateUtil.getDate());
+        dispatcher.dispatchEvent(disconnectEvent);
     }
 
-    @SuppressWarnings("unchecked")
-    private void addToBuffer(Map<String, Object> buffer, String name, String value)
+    private void readFrames(RawSocketConnectionFacade rawSocket, FrameHandler frameHandler) throws IOException
     {
-        // if we already have a value for that key, convert the value to a list and add
-        // the new value to that list.
-        if (buffer.containsKey(name))
+        final ManagerFrameDecoder decoder = new ManagerFrameDecoder(rawSocket.getEncoding());
+
+        while (!this.die && rawSocket.read(decoder.getReceiveBuffer()) >= 0)
         {
-            Object currentValue = buffer.get(name);
-            if (currentValue instanceof List)
+            decoder.decode(frameHandler);
+        }
+    }
+
+    private void readLines(FrameHandler frameHandler) throws IOException
+    {
+        String line;
+
+        // main loop
+        while (!this.die && (line = socket.readLine()) != null)
+        {
+            // maybe we will find a better way to identify the protocol identifier but for now
+            // this works quite well.
+            if (isProtocolIdentifier(line))
             {
-                ((List<String>) currentValue).add(value);
-                return;
+                frameHandler.protocolIdentifierReceived(line);
+                continue;
             }
-            List<String> list = new ArrayList<String>();
-            if (currentValue instanceof String)
+
+            /* Special handling for "Response: Follows" (CommandResponse)
+             * As we are using "\r\n" as the delimiter for line this also handles multiline
+             * results as long as they only contain "\n".
+             */
+            if (frameHandler.isCommandResponse() && line.endsWith("--END COMMAND--"))
             {
-                list.add((String) currentValue);
+                frameHandler.attributeReceived(COMMAND_RESULT_RESPONSE_KEY, line);
+                continue;
             }
-            else
+
+            if (line.length() > 0)
+            {
+                int delimiterIndex;
+                int delimiterLength;
+
+                // begin of workaround for Astersik bug 13319
+                // see AJ-77
+                // Use this workaround only when line starts from "From " and "To "
+                int isFromAtStart, isToAtStart;
+                isFromAtStart = line.indexOf("From ");
+                isToAtStart = line.indexOf("To ");
+                if (isFromAtStart == 0 || isToAtStart == 0)
+                {
+                    delimiterIndex = line.indexOf(" ");
+                    delimiterLength = 1;
+                }
+                else
+                {
+                    delimiterIndex = line.indexOf(": ");
+                    delimiterLength = 2;
+                }
+                // end of workaround for Astersik bug 13319
+
+                if (delimiterIndex > 0 && line.length() > delimiterIndex + delimiterLength)
+                {
+                    String name;
+                    String value;
+
+                    name = line.substring(0, delimiterIndex).toLowerCase(Locale.ENGLISH);
+                    value = line.substring(delimiterIndex + delimiterLength);
+
+                    frameHandler.attributeReceived(name, value);
+                    // TODO tracing
+                    //logger.debug("Got name [" + name + "], value: [" + value + "]");
+                }
+            }
+
+            // an empty line indicates a normal response's or event's end so we build
+            // the corresponding value object and dispatch it through the ManagerConnection.
+            if (line.length() == 0)
             {
-                list.add(currentValue.toString());
+                frameHandler.frameCompleted();
             }
-            list.add(value);
-            buffer.put(name, list);
         }
-        else
+    }
+
+    private static boolean isProtocolIdentifier(String line)
+    {
+        for (String prefix : PROTOCOL_IDENTIFIER_PREFIXES)
         {
-            buffer.put(name, value);
+            if (line.startsWith(prefix))
+            {
+                return true;
+            }
         }
+        return false;
     }
 
     public void die()
@@ -354,4 +380,76 @@ public class ManagerReaderImpl implements ManagerReader
 
         return event;
     }
+
+    /**
+     * Collects the attributes of the current frame and builds and dispatches
+     * the corresponding event or response when the frame is complete.
+     */
+    class FrameHandler implements ManagerFrameHandler
+    {
+        private final AttributeMap buffer = new AttributeMap();
+
+        boolean isCommandResponse()
+        {
+            return "Follows".equals(buffer.get("response"));
+        }
+
+        public void protocolIdentifierReceived(String protocolIdentifier)
+        {
+            ProtocolIdentifierReceivedEvent protocolIdentifierReceivedEvent;
+            protocolIdentifierReceivedEvent = new ProtocolIdentifierReceivedEvent(source);
+            protocolIdentifierReceivedEvent.setProtocolIdentifier(protocolIdentifier);
+            protocolIdentifierReceivedEvent.setDateReceived(DateUtil.getDate());
+            dispatcher.dispatchEvent(protocolIdentifierReceivedEvent);
+        }
+
+        public void attributeReceived(String name, String value)
+        {
+            buffer.add(name, value);
+        }
+
+        public void frameCompleted()
+        {
+            if (buffer.containsKey("event"))
+            {
+                final EventClassFilter filter = eventClassFilter;
+                if (filter != null && !filter.accept(buffer))
+                {
+                    buffer.clear();
+                    return;
+                }
+
+                // TODO tracing
+                //logger.debug("attempting to build event: " + buffer.get("event"));
+                ManagerEvent event = buildEvent(source, buffer);
+                if (event != null)
+                {
+                    dispatcher.dispatchEvent(event);
+                }
+                else
+                {
+                    logger.debug("buildEvent returned null");
+                }
+            }
+            else if (buffer.containsKey("response"))
+            {
+                ManagerResponse response = buildResponse(buffer);
+                // TODO tracing
+                //logger.debug("attempting to build response");
+                if (response != null)
+                {
+                    dispatcher.dispatchResponse(response);
+                }
+            }
+            else
+            {
+                if (buffer.size() > 0)
+                {
+                    logger.debug("Buffer contains neither response nor event");
+                }
+            }
+
+            buffer.clear();
+        }
+    }
 }
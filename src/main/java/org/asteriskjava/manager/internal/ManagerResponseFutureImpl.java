@@ -0,0 +1,205 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.asteriskjava.manager.ManagerResponseFuture;
+import org.asteriskjava.manager.SendActionCallback;
+import org.asteriskjava.manager.TimeoutException;
+import org.asteriskjava.manager.response.ManagerResponse;
+import org.asteriskjava.util.HashedWheelTimer;
+import org.asteriskjava.util.Log;
+import org.asteriskjava.util.LogFactory;
+
+/**
+ * Default implementation of ManagerResponseFuture.<p>
+ * The future is registered as response listener under the internal action
+ * id of its action and removes itself from the correlation table when it is
+ * done, no matter if the response has been received, the timeout expired or
+ * it has been cancelled.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+class ManagerResponseFutureImpl implements ManagerResponseFuture, SendActionCallback
+{
+    private final Log logger = LogFactory.getLog(getClass());
+    private final String internalActionId;
+    private final ConcurrentMap<String, SendActionCallback> responseListeners;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    /**
+     * The response, a TimeoutException or a CancellationException once done.
+     */
+    private final AtomicReference<Object> result = new AtomicReference<Object>();
+
+    /* guarded by this */
+    private List<Runnable> listeners;
+    private boolean listenersRun;
+
+    private volatile HashedWheelTimer.Timeout timeout;
+
+    ManagerResponseFutureImpl(String internalActionId, ConcurrentMap<String, SendActionCallback> responseListeners)
+    {
+        this.internalActionId = internalActionId;
+        this.responseListeners = responseListeners;
+    }
+
+    /**
+     * Fails the future with a TimeoutException when the given timeout expires.
+     *
+     * @param timer   the timer to use.
+     * @param timeout the timeout in milliseconds.
+     * @param message the message of the TimeoutException.
+     */
+    void scheduleTimeout(HashedWheelTimer timer, long timeout, final String message)
+    {
+        this.timeout = timer.newTimeout(new Runnable()
+        {
+            public void run()
+            {
+                complete(new TimeoutException(message));
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+
+        // the response may have been received before the timeout was set
+        if (isDone())
+        {
+            this.timeout.cancel();
+        }
+    }
+
+    public void onResponse(ManagerResponse response)
+    {
+        complete(response);
+    }
+
+    public boolean cancel(boolean mayInterruptIfRunning)
+    {
+        return complete(new CancellationException("Waiting for the response has been cancelled"));
+    }
+
+    public boolean isCancelled()
+    {
+        return result.get() instanceof CancellationException;
+    }
+
+    public boolean isDone()
+    {
+        return result.get() != null;
+    }
+
+    public ManagerResponse get() throws InterruptedException, ExecutionException
+    {
+        done.await();
+        return report();
+    }
+
+    public ManagerResponse get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+            java.util.concurrent.TimeoutException
+    {
+        if (!done.await(timeout, unit))
+        {
+            throw new java.util.concurrent.TimeoutException("Timeout waiting for response");
+        }
+        return report();
+    }
+
+    public void addListener(Runnable listener)
+    {
+        synchronized (this)
+        {
+            if (!listenersRun)
+            {
+                if (listeners == null)
+                {
+                    listeners = new ArrayList<Runnable>(1);
+                }
+                listeners.add(listener);
+                return;
+            }
+        }
+        runListener(listener);
+    }
+
+    private ManagerResponse report() throws ExecutionException
+    {
+        final Object r = result.get();
+        if (r instanceof ManagerResponse)
+        {
+            return (ManagerResponse) r;
+        }
+        if (r instanceof CancellationException)
+        {
+            throw (CancellationException) r;
+        }
+        throw new ExecutionException((Throwable) r);
+    }
+
+    private boolean complete(Object value)
+    {
+        if (!result.compareAndSet(null, value))
+        {
+            return false;
+        }
+
+        responseListeners.remove(internalActionId, this);
+        final HashedWheelTimer.Timeout t = timeout;
+        if (t != null)
+        {
+            t.cancel();
+        }
+        done.countDown();
+
+        final List<Runnable> listenersToRun;
+        synchronized (this)
+        {
+            listenersRun = true;
+            listenersToRun = listeners;
+            listeners = null;
+        }
+        if (listenersToRun != null)
+        {
+            for (Runnable listener : listenersToRun)
+            {
+                runListener(listener);
+            }
+        }
+        return true;
+    }
+
+    private void runListener(Runnable listener)
+    {
+        try
+        {
+            listener.run();
+        }
+        catch (RuntimeException e)
+        {
+            logger.warn("Unexpected exception in response future listener " + listener.getClass().getName(), e);
+        }
+    }
+}
@@ -19,6 +19,7 @@ package org.asteriskjava.manager.internal;
 import java.io.IOException;
 
 import org.asteriskjava.AsteriskVersion;
+import org.asteriskjava.manager.ActionPriority;
 import org.asteriskjava.manager.action.ManagerAction;
 import org.asteriskjava.util.SocketConnectionFacade;
 
@@ -58,4 +59,26 @@ public interface ManagerWriter
      * @throws IOException if there is a problem sending the action.
      */
     void sendAction(final ManagerAction action, String internalActionId) throws IOException;
+
+    /**
+     * Sends the given action to the asterisk server. Actions with higher
+     * priority that are waiting to be written are sent first.
+     * 
+     * @param action the action to send to the asterisk server.
+     * @param internalActionId the internal action id to add.
+     * @param priority the priority of the action.
+     * @throws IOException if there is a problem sending the action.
+     * @since 2.0.0
+     */
+    void sendAction(final ManagerAction action, String internalActionId, ActionPriority priority) throws IOException;
+
+    /**
+     * Limits the rate at which actions of the given priority are sent.
+     * 
+     * @param priority the priority to limit.
+     * @param actionsPerSecond the maximum number of actions per second, 0 to
+     *            remove the limit.
+     * @since 2.0.0
+     */
+    void setRateLimit(ActionPriority priority, double actionsPerSecond);
 }
@@ -17,14 +17,28 @@
 package org.asteriskjava.manager.internal;
 
 import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.asteriskjava.AsteriskVersion;
+import org.asteriskjava.manager.ActionPriority;
 import org.asteriskjava.manager.action.ManagerAction;
 import org.asteriskjava.util.SocketConnectionFacade;
 
 
 /**
- * Default implementation of ManagerWriter interface.
+ * Default implementation of ManagerWriter interface.<p>
+ * Actions are built by the sending thread and put into a queue. The thread
+ * that holds the write lock writes all queued actions and flushes the socket
+ * once, so actions sent concurrently while a flush is in progress are written
+ * as one batch with a single flush instead of one flush per action.
+ * sendAction still returns only after the action has been written.<p>
+ * There is a queue per {@link ActionPriority}. Queued actions of higher
+ * priority are written before those of lower priority, so an urgent action
+ * does not wait for bulk actions sent before it. The rate at which actions of
+ * a priority are sent can be limited, the sending thread waits for a permit
+ * before its action is queued.
  * 
  * @author srt
  * @version $Id$
@@ -42,14 +56,39 @@ public class ManagerWriterImpl implements ManagerWriter
      */
     private final ActionBuilder actionBuilder;
 
-    private SocketConnectionFacade socket;
+    /**
+     * Actions built but not yet written, indexed by the ordinal of their
+     * priority.
+     */
+    private final Queue<PendingAction>[] pendingActions;
+
+    /**
+     * Rate limiters indexed by the ordinal of the priority they limit,
+     * replaced on update.
+     */
+    private volatile ActionRateLimiter[] rateLimiters;
+
+    /**
+     * Held while writing a batch, guards socket updates.
+     */
+    private final ReentrantLock writeLock;
+
+    private volatile SocketConnectionFacade socket;
 
     /**
      * Creates a new ManagerWriter.
      */
+    @SuppressWarnings("unchecked")
     public ManagerWriterImpl()
     {
         this.actionBuilder = new ActionBuilderImpl();
+        this.pendingActions = new Queue[ActionPriority.values().length];
+        for (int i = 0; i < pendingActions.length; i++)
+        {
+            pendingActions[i] = new ConcurrentLinkedQueue<PendingAction>();
+        }
+        this.rateLimiters = new ActionRateLimiter[pendingActions.length];
+        this.writeLock = new ReentrantLock();
     }
 
     public void setTargetVersion(AsteriskVersion version)
@@ -57,26 +96,155 @@ public class ManagerWriterImpl implements ManagerWriter
         actionBuilder.setTargetVersion(version);
     }
 
-    public synchronized void setSocket(final SocketConnectionFacade socket)
+    public void setSocket(final SocketConnectionFacade socket)
     {
-        this.socket = socket;
+        writeLock.lock();
+        try
+        {
+            this.socket = socket;
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
     }
 
-    public synchronized void sendAction(final ManagerAction action, final String internalActionId) throws IOException
+    public synchronized void setRateLimit(ActionPriority priority, double actionsPerSecond)
     {
-        final String actionString;
+        final ActionRateLimiter[] newRateLimiters = rateLimiters.clone();
+        newRateLimiters[priority.ordinal()] = actionsPerSecond > 0 ? new ActionRateLimiter(actionsPerSecond) : null;
+        rateLimiters = newRateLimiters;
+    }
+
+    public void sendAction(final ManagerAction action, final String internalActionId) throws IOException
+    {
+        sendAction(action, internalActionId, ActionPriority.NORMAL);
+    }
+
+    public void sendAction(final ManagerAction action, final String internalActionId, ActionPriority priority)
+            throws IOException
+    {
+        final PendingAction pendingAction;
+        final ActionRateLimiter rateLimiter;
 
         if (socket == null)
         {
             throw new IllegalStateException("Unable to send action: socket is null");
         }
 
-        actionString = actionBuilder.buildAction(action, internalActionId);
+        rateLimiter = rateLimiters[priority.ordinal()];
+        if (rateLimiter != null)
+        {
+            rateLimiter.acquire();
+        }
+
+        pendingAction = new PendingAction(actionBuilder.buildAction(action, internalActionId));
+        pendingActions[priority.ordinal()].add(pendingAction);
+
+        writeLock.lock();
+        try
+        {
+            // another thread may have written our action while we waited
+            if (!pendingAction.done)
+            {
+                writePendingActions();
+            }
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
 
-        socket.write(actionString);
-        socket.flush();
+        if (pendingAction.failure instanceof IOException)
+        {
+            throw (IOException) pendingAction.failure;
+        }
+        if (pendingAction.failure != null)
+        {
+            throw (RuntimeException) pendingAction.failure;
+        }
 
         // TODO tracing
         //logger.debug("Sent " + action.getAction() + " action with actionId '" + action.getActionId() + "':\n" + actionString);
     }
+
+    /**
+     * Writes all queued actions, highest priority first, and flushes the
+     * socket once. Must be called with the write lock held.
+     */
+    private void writePendingActions()
+    {
+        final PendingAction first = pollPendingAction();
+        PendingAction last = first;
+        Exception failure = null;
+
+        if (first == null)
+        {
+            return;
+        }
+
+        // link the batch so we can mark all its actions when done
+        try
+        {
+            if (socket == null)
+            {
+                throw new IllegalStateException("Unable to send action: socket is null");
+            }
+
+            socket.write(first.actionString);
+            PendingAction next;
+            // actions of higher priority queued meanwhile overtake the rest of the batch
+            while ((next = pollPendingAction()) != null)
+            {
+                last.nextInBatch = next;
+                last = next;
+                socket.write(next.actionString);
+            }
+            socket.flush();
+        }
+        catch (IOException e)
+        {
+            failure = e;
+        }
+        catch (RuntimeException e)
+        {
+            failure = e;
+        }
+
+        for (PendingAction pendingAction = first; pendingAction != null; pendingAction = pendingAction.nextInBatch)
+        {
+            pendingAction.failure = failure;
+            pendingAction.done = true;
+        }
+    }
+
+    private PendingAction pollPendingAction()
+    {
+        for (Queue<PendingAction> queue : pendingActions)
+        {
+            final PendingAction pendingAction = queue.poll();
+            if (pendingAction != null)
+            {
+                return pendingAction;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * An action that has been built but not yet written. Its fields are
+     * written and read with the write lock held.
+     */
+    private static final class PendingAction
+    {
+        private final String actionString;
+        private PendingAction nextInBatch;
+        private boolean done;
+        private Exception failure;
+
+        PendingAction(String actionString)
+        {
+            this.actionString = actionString;
+        }
+    }
 }
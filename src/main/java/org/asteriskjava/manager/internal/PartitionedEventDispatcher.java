@@ -0,0 +1,111 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import java.util.concurrent.Executor;
+
+import org.asteriskjava.manager.EventKeyExtractor;
+import org.asteriskjava.manager.EventOverflowPolicy;
+import org.asteriskjava.manager.ManagerEventListener;
+import org.asteriskjava.manager.ManagerEventListenerProxy;
+import org.asteriskjava.manager.event.ManagerEvent;
+
+/**
+ * Delivers events to a listener on several threads (lanes) while keeping the
+ * order of events with the same key.<p>
+ * Events are assigned to a lane by the hash code of their key, events without
+ * a key are delivered on a separate global lane. Each lane is a
+ * {@link ManagerEventListenerProxy} with an unbounded queue that never blocks
+ * the thread delivering to it. A bounded queue would block the reader when
+ * full, and a listener waiting for the response to an action it has sent
+ * would then wait for a response the reader cannot deliver. Lanes on an
+ * executor would also tie up a thread the lanes themselves may need.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+class PartitionedEventDispatcher implements ManagerEventListener
+{
+    private final ManagerEventListener target;
+    private final EventKeyExtractor keyExtractor;
+    private final ManagerEventListenerProxy[] lanes;
+    private final ManagerEventListenerProxy globalLane;
+    private final Executor executor;
+
+    /**
+     * Creates a new dispatcher.
+     *
+     * @param target       the listener to deliver the events to.
+     * @param laneCount    the number of lanes for events with a key.
+     * @param keyExtractor determines the key of an event, <code>null</code>
+     *            to use the linked id or unique id.
+     * @param executor     the executor to run the lanes, <code>null</code> to
+     *            run each lane on a thread of its own.
+     * @throws IllegalArgumentException if laneCount is not positive.
+     */
+    PartitionedEventDispatcher(ManagerEventListener target, int laneCount, EventKeyExtractor keyExtractor,
+            Executor executor)
+    {
+        if (laneCount < 1)
+        {
+            throw new IllegalArgumentException("Number of lanes must be positive");
+        }
+
+        this.target = target;
+        this.executor = executor;
+        this.keyExtractor = keyExtractor == null ? new UniqueIdKeyExtractor() : keyExtractor;
+        this.lanes = new ManagerEventListenerProxy[laneCount];
+        for (int i = 0; i < laneCount; i++)
+        {
+            lanes[i] = createLane();
+        }
+        this.globalLane = createLane();
+    }
+
+    private ManagerEventListenerProxy createLane()
+    {
+        return new ManagerEventListenerProxy(target, ManagerEventListenerProxy.UNBOUNDED, EventOverflowPolicy.BLOCK,
+                executor);
+    }
+
+    public void onManagerEvent(ManagerEvent event)
+    {
+        getLane(keyExtractor.getKey(event)).onManagerEvent(event);
+    }
+
+    ManagerEventListenerProxy getLane(Object key)
+    {
+        if (key == null)
+        {
+            return globalLane;
+        }
+        return lanes[(key.hashCode() & Integer.MAX_VALUE) % lanes.length];
+    }
+
+    /**
+     * Stops all lanes after the events already queued have been delivered.
+     */
+    void shutdown()
+    {
+        for (ManagerEventListenerProxy lane : lanes)
+        {
+            lane.shutdown();
+        }
+        globalLane.shutdown();
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+
+import org.asteriskjava.util.SocketConnectionFacade;
+
+/**
+ * A connection to the Manager API that is read by a {@link ManagerReactorImpl}
+ * instead of a reader thread.<p>
+ * The channel is non-blocking. Data written is buffered until
+ * {@link #flush()} is called, which waits until all of it has been sent.
+ * {@link #readLine()} is not supported, received data is decoded by the
+ * reactor.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+class ReactorSocketConnectionFacade implements SocketConnectionFacade
+{
+    private static final int OUTPUT_BUFFER_SIZE = 4096;
+
+    /**
+     * Maximum time to wait for the channel to become writable.
+     */
+    private static final long WRITE_TIMEOUT = 30000L;
+
+    private final SocketChannel channel;
+    private final Charset encoding;
+    private final int readTimeout;
+
+    /**
+     * The session of the reactor reading this connection, set on
+     * registration.
+     */
+    private volatile ManagerReactorImpl.Session session;
+
+    /* guarded by the writer */
+    private ByteBuffer outputBuffer;
+
+    private volatile Selector writeSelector;
+
+    /**
+     * Opens a new connection. The calling thread waits until the connection
+     * has been established.
+     *
+     * @param host        the foreign host to connect to.
+     * @param port        the foreign port to connect to.
+     * @param timeout     the connect timeout in milliseconds, 0 for the
+     *            default.
+     * @param readTimeout the time in milliseconds after which the connection
+     *            is closed if nothing has been received, 0 for no timeout.
+     * @param encoding    the encoding used by the Asterisk server.
+     * @throws IOException if the connection cannot be established.
+     */
+    ReactorSocketConnectionFacade(String host, int port, int timeout, int readTimeout, Charset encoding)
+            throws IOException
+    {
+        this.channel = SocketChannel.open();
+        try
+        {
+            channel.socket().connect(new InetSocketAddress(host, port), timeout);
+            channel.configureBlocking(false);
+        }
+        catch (IOException e)
+        {
+            channel.close();
+            throw e;
+        }
+
+        this.encoding = encoding;
+        this.readTimeout = readTimeout;
+        this.outputBuffer = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+    }
+
+    SocketChannel getChannel()
+    {
+        return channel;
+    }
+
+    Charset getEncoding()
+    {
+        return encoding;
+    }
+
+    int getReadTimeout()
+    {
+        return readTimeout;
+    }
+
+    void setSession(ManagerReactorImpl.Session session)
+    {
+        this.session = session;
+    }
+
+    public String readLine() throws IOException
+    {
+        throw new UnsupportedOperationException("Data is read by the reactor");
+    }
+
+    public void write(String s) throws IOException
+    {
+        final byte[] bytes = s.getBytes(encoding);
+
+        if (outputBuffer.remaining() < bytes.length)
+        {
+            final ByteBuffer grown = ByteBuffer.allocate(
+                    Math.max(outputBuffer.capacity() * 2, outputBuffer.position() + bytes.length));
+            outputBuffer.flip();
+            grown.put(outputBuffer);
+            outputBuffer = grown;
+        }
+        outputBuffer.put(bytes);
+    }
+
+    public void flush() throws IOException
+    {
+        outputBuffer.flip();
+        try
+        {
+            while (outputBuffer.hasRemaining())
+            {
+                if (channel.write(outputBuffer) == 0)
+                {
+                    awaitWritable();
+                }
+            }
+        }
+        finally
+        {
+            outputBuffer.compact();
+        }
+
+        // don't keep a buffer grown by a large action
+        if (outputBuffer.capacity() > OUTPUT_BUFFER_SIZE && outputBuffer.position() == 0)
+        {
+            outputBuffer = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Waits until the socket send buffer has room again. A non-blocking
+     * channel may be registered with several selectors, so the writing thread
+     * uses a selector of its own and the reactor is not involved.
+     */
+    private void awaitWritable() throws IOException
+    {
+        Selector selector = writeSelector;
+        if (selector == null)
+        {
+            selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_WRITE);
+            writeSelector = selector;
+        }
+
+        try
+        {
+            if (selector.select(WRITE_TIMEOUT) == 0)
+            {
+                if (!channel.isOpen())
+                {
+                    throw new IOException("Connection closed");
+                }
+                throw new SocketTimeoutException("Timeout waiting for the connection to become writable");
+            }
+            selector.selectedKeys().clear();
+        }
+        catch (ClosedSelectorException e)
+        {
+            throw new IOException("Connection closed");
+        }
+    }
+
+    public void close() throws IOException
+    {
+        try
+        {
+            channel.close();
+            final Selector selector = writeSelector;
+            if (selector != null)
+            {
+                selector.close();
+            }
+        }
+        finally
+        {
+            final ManagerReactorImpl.Session s = session;
+            if (s != null)
+            {
+                s.closed();
+            }
+        }
+    }
+
+    public boolean isConnected()
+    {
+        return channel.isConnected();
+    }
+
+    public InetAddress getLocalAddress()
+    {
+        return channel.socket().getLocalAddress();
+    }
+
+    public int getLocalPort()
+    {
+        return channel.socket().getLocalPort();
+    }
+
+    public InetAddress getRemoteAddress()
+    {
+        return channel.socket().getInetAddress();
+    }
+
+    public int getRemotePort()
+    {
+        return channel.socket().getPort();
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.asteriskjava.manager.ManagerEventListener;
+import org.asteriskjava.manager.ResponseEvents;
+import org.asteriskjava.manager.SendActionCallback;
+import org.asteriskjava.manager.event.ManagerEvent;
+import org.asteriskjava.manager.event.ResponseEvent;
+import org.asteriskjava.manager.response.ManagerError;
+import org.asteriskjava.manager.response.ManagerResponse;
+
+/**
+ * The pending response and response events of an event generating action.<p>
+ * The future is registered as response listener and as response event
+ * listener under the internal action id of its action. It completes when both
+ * the response and the action complete event have been received, or when the
+ * response is an error. It removes itself from the correlation tables when it
+ * is done, no matter if it completed or has been cancelled.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+class ResponseEventsFutureImpl implements Future<ResponseEvents>, SendActionCallback, ManagerEventListener
+{
+    private final String internalActionId;
+    private final Class<?> actionCompleteEventClass;
+    private final ConcurrentMap<String, SendActionCallback> responseListeners;
+    private final ConcurrentMap<String, ManagerEventListener> responseEventListeners;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    /**
+     * The response and the events received so far. Guarded by itself.
+     */
+    private final ResponseEventsImpl responseEvents = new ResponseEventsImpl();
+
+    /**
+     * The ResponseEvents once complete or a CancellationException.
+     */
+    private final AtomicReference<Object> result = new AtomicReference<Object>();
+
+    ResponseEventsFutureImpl(String internalActionId, Class<?> actionCompleteEventClass,
+            ConcurrentMap<String, SendActionCallback> responseListeners,
+            ConcurrentMap<String, ManagerEventListener> responseEventListeners)
+    {
+        this.internalActionId = internalActionId;
+        this.actionCompleteEventClass = actionCompleteEventClass;
+        this.responseListeners = responseListeners;
+        this.responseEventListeners = responseEventListeners;
+    }
+
+    /**
+     * Registers this future for the events of its action. The response
+     * listener is registered when the action is sent.
+     */
+    void register()
+    {
+        responseEventListeners.put(internalActionId, this);
+    }
+
+    public void onManagerEvent(ManagerEvent event)
+    {
+        final boolean complete;
+
+        synchronized (responseEvents)
+        {
+            // should always be a ResponseEvent, anyway...
+            if (event instanceof ResponseEvent)
+            {
+                responseEvents.addEvent((ResponseEvent) event);
+            }
+            if (actionCompleteEventClass.isAssignableFrom(event.getClass()))
+            {
+                responseEvents.setComplete(true);
+            }
+            complete = responseEvents.isComplete() && responseEvents.getResponse() != null;
+        }
+
+        if (complete)
+        {
+            complete(responseEvents);
+        }
+    }
+
+    public void onResponse(ManagerResponse response)
+    {
+        final boolean complete;
+
+        synchronized (responseEvents)
+        {
+            responseEvents.setRepsonse(response);
+            if (response instanceof ManagerError)
+            {
+                responseEvents.setComplete(true);
+            }
+            complete = responseEvents.isComplete();
+        }
+
+        if (complete)
+        {
+            complete(responseEvents);
+        }
+    }
+
+    public boolean cancel(boolean mayInterruptIfRunning)
+    {
+        return complete(new CancellationException("Waiting for the response events has been cancelled"));
+    }
+
+    public boolean isCancelled()
+    {
+        return result.get() instanceof CancellationException;
+    }
+
+    public boolean isDone()
+    {
+        return result.get() != null;
+    }
+
+    public ResponseEvents get() throws InterruptedException, ExecutionException
+    {
+        done.await();
+        return report();
+    }
+
+    public ResponseEvents get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+            java.util.concurrent.TimeoutException
+    {
+        if (!done.await(timeout, unit))
+        {
+            throw new java.util.concurrent.TimeoutException("Timeout waiting for response events");
+        }
+        return report();
+    }
+
+    /**
+     * Returns the response and the events received so far, used as partial
+     * result when waiting timed out.
+     *
+     * @return the response and the events received so far.
+     */
+    ResponseEvents getPartialResult()
+    {
+        return responseEvents;
+    }
+
+    private ResponseEvents report()
+    {
+        final Object r = result.get();
+        if (r instanceof CancellationException)
+        {
+            throw (CancellationException) r;
+        }
+        return (ResponseEvents) r;
+    }
+
+    private boolean complete(Object value)
+    {
+        if (!result.compareAndSet(null, value))
+        {
+            return false;
+        }
+
+        responseListeners.remove(internalActionId, this);
+        responseEventListeners.remove(internalActionId, this);
+        done.countDown();
+        return true;
+    }
+}
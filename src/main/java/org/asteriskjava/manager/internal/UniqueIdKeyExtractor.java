@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.asteriskjava.manager.EventKeyExtractor;
+import org.asteriskjava.manager.event.AbstractChannelEvent;
+import org.asteriskjava.manager.event.ManagerEvent;
+import org.asteriskjava.manager.event.StatusEvent;
+import org.asteriskjava.util.Log;
+import org.asteriskjava.util.LogFactory;
+
+/**
+ * Returns the linked id of the call an event belongs to, falling back to the
+ * unique id of the channel for events without linked id.<p>
+ * All channels of a call share the linked id, so the events of both legs of
+ * a call (like the source and destination of a Dial or the two halves of a
+ * Local channel) are delivered in order relative to each other. Asterisk
+ * sends the linked id with channel related events since version 12, with
+ * older versions ordering only holds per channel. Asterisk versions that
+ * change the linked id when channels are bridged move the later events of a
+ * channel to another lane, they are not ordered relative to the events
+ * received before.<p>
+ * The linked id and the unique id of channel events and StatusEvents, the
+ * bulk of the events received, are read through their typed getters. For
+ * other events the unique id getters are looked up once per event class and
+ * invoked by reflection, the different spellings used by the event classes
+ * (like getUniqueId and getUniqueid) are all supported.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+class UniqueIdKeyExtractor implements EventKeyExtractor
+{
+    private static final String[] KEY_PROPERTIES = {"uniqueid", "uniqueid1"};
+    private static final ConcurrentMap<Class<?>, Method[]> getters = new ConcurrentHashMap<Class<?>, Method[]>();
+
+    private final Log logger = LogFactory.getLog(getClass());
+
+    public Object getKey(ManagerEvent event)
+    {
+        final String linkedId = event.getLinkedId();
+        if (linkedId != null)
+        {
+            return linkedId;
+        }
+
+        final String uniqueId;
+        if (event instanceof AbstractChannelEvent)
+        {
+            uniqueId = ((AbstractChannelEvent) event).getUniqueId();
+        }
+        else if (event instanceof StatusEvent)
+        {
+            uniqueId = ((StatusEvent) event).getUniqueId();
+        }
+        else
+        {
+            uniqueId = null;
+        }
+        if (uniqueId != null)
+        {
+            return uniqueId;
+        }
+
+        for (Method getter : getGetters(event.getClass()))
+        {
+            try
+            {
+                final Object key = getter.invoke(event);
+                if (key != null)
+                {
+                    return key;
+                }
+            }
+            catch (Exception e)
+            {
+                logger.warn("Unable to get unique id of " + event.getClass().getName(), e);
+            }
+        }
+        return null;
+    }
+
+    private static Method[] getGetters(Class<?> eventClass)
+    {
+        Method[] eventClassGetters = getters.get(eventClass);
+        if (eventClassGetters == null)
+        {
+            // some events have two getters with different case, like getUniqueId and getUniqueid
+            final List<Method> keyGetters = new ArrayList<Method>();
+            for (String property : KEY_PROPERTIES)
+            {
+                for (Method method : eventClass.getMethods())
+                {
+                    if (method.getParameterTypes().length == 0
+                            && method.getName().toLowerCase(Locale.ENGLISH).equals("get" + property))
+                    {
+                        keyGetters.add(method);
+                    }
+                }
+            }
+            eventClassGetters = keyGetters.toArray(new Method[keyGetters.size()]);
+            getters.put(eventClass, eventClassGetters);
+        }
+        return eventClassGetters;
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal.apt;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates the attribute binders for the event and response classes.<p>
+ * For each public concrete subclass of ManagerEvent and ManagerResponse in
+ * the compilation a binder is generated that calls the setters directly. All
+ * binders are registered by a single generated class in
+ * <code>org.asteriskjava.manager.internal</code>. The setters considered match
+ * those found by {@link org.asteriskjava.util.ReflectionUtil#getSetters(Class)}.<p>
+ * The processor is only used when building Asterisk-Java itself and must be
+ * enabled explicitly (see pom.xml and build.gradle).
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+@SupportedAnnotationTypes("*")
+public class AttributeBinderProcessor extends AbstractProcessor
+{
+    private static final String GENERATED_PACKAGE = "org.asteriskjava.manager.internal";
+    private static final String GENERATED_CLASS = "GeneratedAttributeBinders";
+
+    /**
+     * Candidates for the annotation marking generated code: Java 8 and
+     * earlier only have the first one, Java 11 and later only the second.
+     */
+    private static final String[] GENERATED_ANNOTATIONS = {"javax.annotation.Generated",
+            "javax.annotation.processing.Generated"};
+    private static final String[] BASE_CLASSES = {"org.asteriskjava.manager.event.ManagerEvent",
+            "org.asteriskjava.manager.response.ManagerResponse"};
+    private static final String[] PACKAGES = {"org.asteriskjava.manager.event",
+            "org.asteriskjava.manager.response"};
+
+    private final Map<String, TypeElement> targets = new TreeMap<String, TypeElement>();
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+    {
+        if (generated || roundEnv.processingOver())
+        {
+            return false;
+        }
+
+        final List<TypeMirror> baseTypes = new ArrayList<TypeMirror>();
+        for (String baseClass : BASE_CLASSES)
+        {
+            final TypeElement baseElement = processingEnv.getElementUtils().getTypeElement(baseClass);
+            if (baseElement != null)
+            {
+                baseTypes.add(processingEnv.getTypeUtils().erasure(baseElement.asType()));
+            }
+        }
+        if (baseTypes.isEmpty())
+        {
+            return false;
+        }
+
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements()))
+        {
+            collect(type, baseTypes);
+        }
+
+        // include classes that are not recompiled so the registry is complete after a partial build
+        for (String packageName : PACKAGES)
+        {
+            final PackageElement packageElement = processingEnv.getElementUtils().getPackageElement(packageName);
+            if (packageElement != null)
+            {
+                for (TypeElement type : ElementFilter.typesIn(packageElement.getEnclosedElements()))
+                {
+                    collect(type, baseTypes);
+                }
+            }
+        }
+
+        if (!targets.isEmpty())
+        {
+            generate();
+            generated = true;
+        }
+        return false;
+    }
+
+    private void collect(TypeElement type, List<TypeMirror> baseTypes)
+    {
+        // the generated code must be able to access the class and its nested classes
+        if (!type.getModifiers().contains(Modifier.PUBLIC))
+        {
+            return;
+        }
+
+        if (type.getKind() == ElementKind.CLASS && !type.getModifiers().contains(Modifier.ABSTRACT)
+                && (!type.getNestingKind().isNested() || type.getModifiers().contains(Modifier.STATIC)))
+        {
+            final TypeMirror erasure = processingEnv.getTypeUtils().erasure(type.asType());
+            for (TypeMirror baseType : baseTypes)
+            {
+                if (processingEnv.getTypeUtils().isSubtype(erasure, baseType))
+                {
+                    targets.put(type.getQualifiedName().toString(), type);
+                    break;
+                }
+            }
+        }
+
+        for (TypeElement nestedType : ElementFilter.typesIn(type.getEnclosedElements()))
+        {
+            collect(nestedType, baseTypes);
+        }
+    }
+
+    private void generate()
+    {
+        final PrintWriter out;
+        try
+        {
+            final JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                    GENERATED_PACKAGE + "." + GENERATED_CLASS);
+            out = new PrintWriter(file.openWriter());
+        }
+        catch (IOException e)
+        {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to create " + GENERATED_CLASS + ": " + e.getMessage());
+            return;
+        }
+
+        try
+        {
+            out.println("package " + GENERATED_PACKAGE + ";");
+            out.println();
+            out.println("import java.util.Map;");
+            out.println();
+            out.println("/**");
+            out.println(" * Attribute binders for the event and response classes of Asterisk-Java.<p>");
+            out.println(" * Generated by " + getClass().getName() + ", do not edit.");
+            out.println(" */");
+            final String generatedAnnotation = getGeneratedAnnotation();
+            if (generatedAnnotation != null)
+            {
+                out.println("@" + generatedAnnotation + "(\"" + getClass().getName() + "\")");
+            }
+            out.println("@SuppressWarnings(\"unchecked\")");
+            out.println("final class " + GENERATED_CLASS + " implements AttributeBinder.Registry");
+            out.println("{");
+            out.println("    public void registerBinders(Map<Class<?>, AttributeBinder> binders)");
+            out.println("    {");
+            int i = 0;
+            for (TypeElement type : targets.values())
+            {
+                out.println("        binders.put(" + type.getQualifiedName() + ".class, new Binder" + i + "());");
+                i++;
+            }
+            out.println("    }");
+
+            i = 0;
+            for (TypeElement type : targets.values())
+            {
+                generateBinder(out, "Binder" + i, type);
+                i++;
+            }
+            out.println("}");
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Returns the name of the annotation for generated code available on
+     * the compiling JDK.
+     *
+     * @return the qualified name of the annotation or <code>null</code> if
+     *         none is available.
+     */
+    private String getGeneratedAnnotation()
+    {
+        for (String annotation : GENERATED_ANNOTATIONS)
+        {
+            if (processingEnv.getElementUtils().getTypeElement(annotation) != null)
+            {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private void generateBinder(PrintWriter out, String binderName, TypeElement type)
+    {
+        final List<Setter> setters = getSetters(type);
+        final String targetName = type.getQualifiedName().toString();
+
+        out.println();
+        out.println("    private static final class " + binderName + " extends AttributeBinder");
+        out.println("    {");
+        out.println("        " + binderName + "()");
+        out.println("        {");
+        out.print("            super(new String[]{");
+        for (int i = 0; i < setters.size(); i++)
+        {
+            out.print((i == 0 ? "" : ", ") + "\"" + setters.get(i).methodName + "\"");
+        }
+        out.println("},");
+        out.print("                    new Class<?>[]{");
+        for (int i = 0; i < setters.size(); i++)
+        {
+            out.print((i == 0 ? "" : ", ") + setters.get(i).typeName + ".class");
+        }
+        out.println("});");
+        out.println("        }");
+        out.println();
+        out.println("        @Override");
+        out.println("        void set(Object target, int index, Object value)");
+        out.println("        {");
+        out.println("            final " + targetName + " t = (" + targetName + ") target;");
+        out.println("            switch (index)");
+        out.println("            {");
+        for (int i = 0; i < setters.size(); i++)
+        {
+            final Setter setter = setters.get(i);
+            out.println("                case " + i + ":");
+            out.println("                    t." + setter.methodName + "((" + setter.castTypeName + ") value);");
+            out.println("                    break;");
+        }
+        out.println("                default:");
+        out.println("                    throw new IllegalArgumentException(\"Invalid setter index \" + index);");
+        out.println("            }");
+        out.println("        }");
+        out.println("    }");
+    }
+
+    private List<Setter> getSetters(TypeElement type)
+    {
+        final Types typeUtils = processingEnv.getTypeUtils();
+        final List<Setter> setters = new ArrayList<Setter>();
+
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type)))
+        {
+            final String methodName = method.getSimpleName().toString();
+            if (!methodName.startsWith("set") || method.getParameters().size() != 1
+                    || !method.getModifiers().contains(Modifier.PUBLIC)
+                    || method.getModifiers().contains(Modifier.STATIC))
+            {
+                continue;
+            }
+
+            final TypeMirror parameterType = typeUtils.erasure(method.getParameters().get(0).asType());
+            final String castTypeName;
+            if (parameterType.getKind().isPrimitive())
+            {
+                castTypeName = typeUtils.boxedClass((PrimitiveType) parameterType).getQualifiedName().toString();
+            }
+            else if (parameterType.getKind() == TypeKind.DECLARED || parameterType.getKind() == TypeKind.ARRAY)
+            {
+                castTypeName = parameterType.toString();
+            }
+            else
+            {
+                // left to reflection
+                continue;
+            }
+
+            setters.add(new Setter(methodName, parameterType.toString(), castTypeName));
+        }
+
+        Collections.sort(setters);
+        return setters;
+    }
+
+    private static final class Setter implements Comparable<Setter>
+    {
+        final String methodName;
+        final String typeName;
+        final String castTypeName;
+
+        Setter(String methodName, String typeName, String castTypeName)
+        {
+            this.methodName = methodName;
+            this.typeName = typeName;
+            this.castTypeName = castTypeName;
+        }
+
+        public int compareTo(Setter o)
+        {
+            final int result = methodName.compareTo(o.methodName);
+            return result != 0 ? result : typeName.compareTo(o.typeName);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Threads shared by many connections, servers and queues.<p>
+ * By default ManagerConnections, AsteriskServers and their queues create
+ * threads of their own for scheduled tasks, timers and asynchronous event
+ * delivery. When connecting to many Asterisk servers from one JVM the number
+ * of threads grows with the number of servers and queues. Instances
+ * configured to use a runtime share its threads instead, their number only
+ * depends on the number of processors.<p>
+ * A runtime provides
+ * <ul>
+ * <li>a scheduler for periodic and delayed tasks like pings and timing
+ * reconnects, tasks must not block,</li>
+ * <li>a {@link HashedWheelTimer} for timeouts that are usually cancelled
+ * before they expire,</li>
+ * <li>a pool of threads to deliver events to listeners, tasks must not wait
+ * for other tasks of the pool,</li>
+ * <li>a pool of threads that grows on demand for reconnect attempts, which
+ * block while connecting and logging in.</li>
+ * </ul>
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+public class AsteriskRuntime
+{
+    private static AsteriskRuntime defaultRuntime;
+
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final HashedWheelTimer timer;
+    private final ThreadPoolExecutor dispatchExecutor;
+    private final ThreadPoolExecutor reconnectExecutor;
+
+    /**
+     * Returns the runtime shared by all instances that use the default
+     * runtime. It is created on first use and never shut down.
+     *
+     * @return the default runtime.
+     */
+    public static synchronized AsteriskRuntime getDefault()
+    {
+        if (defaultRuntime == null)
+        {
+            defaultRuntime = new AsteriskRuntime();
+        }
+        return defaultRuntime;
+    }
+
+    /**
+     * Creates a new runtime with one scheduler and one dispatch thread per
+     * available processor.
+     */
+    public AsteriskRuntime()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new runtime. Threads are started on demand.
+     *
+     * @param threads the number of scheduler threads and the number of
+     *            dispatch threads.
+     * @throws IllegalArgumentException if threads is not positive.
+     */
+    public AsteriskRuntime(int threads)
+    {
+        if (threads < 1)
+        {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+
+        this.scheduler = new ScheduledThreadPoolExecutor(threads, new DaemonThreadFactory());
+        this.timer = new HashedWheelTimer("Asterisk-Java Runtime-Timer", 100, TimeUnit.MILLISECONDS, 512);
+        this.dispatchExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory());
+        this.dispatchExecutor.allowCoreThreadTimeOut(true);
+        this.reconnectExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new DaemonThreadFactory());
+    }
+
+    /**
+     * Returns the scheduler for periodic and delayed tasks, its tasks must not
+     * block.
+     *
+     * @return the scheduler.
+     */
+    public ScheduledExecutorService getScheduler()
+    {
+        return scheduler;
+    }
+
+    /**
+     * Returns the timer for timeouts, it has a precision of 100 milliseconds.
+     *
+     * @return the timer.
+     */
+    public HashedWheelTimer getTimer()
+    {
+        return timer;
+    }
+
+    /**
+     * Returns the pool of threads that deliver events to listeners.
+     *
+     * @return the pool of threads that deliver events to listeners.
+     */
+    public ExecutorService getDispatchExecutor()
+    {
+        return dispatchExecutor;
+    }
+
+    /**
+     * Returns the pool of threads that run reconnect attempts. It starts a
+     * new thread whenever all of its threads are busy.
+     *
+     * @return the pool of threads that run reconnect attempts.
+     */
+    public ExecutorService getReconnectExecutor()
+    {
+        return reconnectExecutor;
+    }
+
+    /**
+     * Stops all threads of this runtime. Tasks that have not yet been run are
+     * discarded.
+     */
+    public void shutdown()
+    {
+        scheduler.shutdownNow();
+        timer.stop();
+        dispatchExecutor.shutdownNow();
+        reconnectExecutor.shutdownNow();
+    }
+}
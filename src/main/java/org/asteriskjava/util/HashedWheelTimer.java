@@ -0,0 +1,383 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A timer optimized for a large number of timeouts that are usually
+ * cancelled before they expire, like the timeouts of actions waiting for
+ * their response.<p>
+ * Timeouts are kept in a wheel of buckets, one bucket per tick. Adding and
+ * cancelling a timeout is O(1) and does not take a lock, a single daemon
+ * thread advances the wheel once per tick and runs the expired tasks. Timeouts
+ * expire with a precision of one tick.<p>
+ * The tasks are run on the timer thread, they must be short and must not
+ * block.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+public class HashedWheelTimer
+{
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+    private final Log logger = LogFactory.getLog(getClass());
+    private final String name;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<Timeout>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<Timeout>();
+
+    private volatile long startTime;
+    private volatile boolean stopped;
+    private Thread worker;
+
+    /**
+     * Creates a new timer. The timer thread is started when the first timeout
+     * is added.
+     *
+     * @param name          the name of the timer thread.
+     * @param tickDuration  the duration of a tick, i.e. the precision of the
+     *            timeouts.
+     * @param unit          the unit of tickDuration.
+     * @param ticksPerWheel the number of buckets, rounded up to a power of two.
+     */
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel)
+    {
+        if (tickDuration <= 0)
+        {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > 1 << 30)
+        {
+            throw new IllegalArgumentException("Ticks per wheel must be between 1 and 2^30");
+        }
+
+        int size = 1;
+        while (size < ticksPerWheel)
+        {
+            size <<= 1;
+        }
+
+        this.name = name;
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++)
+        {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Schedules the given task to run once after the given delay.
+     *
+     * @param task  the task to run.
+     * @param delay the delay.
+     * @param unit  the unit of delay.
+     * @return the handle to cancel the task.
+     * @throws IllegalStateException if the timer has been stopped.
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit)
+    {
+        if (task == null)
+        {
+            throw new IllegalArgumentException("Task must not be null");
+        }
+        startIfNeeded();
+
+        final Timeout timeout = new Timeout(this, task, System.nanoTime() + unit.toNanos(delay) - startTime);
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the timer thread. Pending timeouts never expire.
+     */
+    public synchronized void stop()
+    {
+        stopped = true;
+        if (worker != null)
+        {
+            worker.interrupt();
+        }
+    }
+
+    private synchronized void startIfNeeded()
+    {
+        if (stopped)
+        {
+            throw new IllegalStateException("Timer has been stopped");
+        }
+        if (worker == null)
+        {
+            startTime = System.nanoTime();
+            worker = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    runWorker();
+                }
+            });
+            worker.setName(name);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private void runWorker()
+    {
+        long tick = 0;
+
+        while (!stopped)
+        {
+            final long deadline = waitForNextTick(tick);
+            if (deadline < 0)
+            {
+                break;
+            }
+
+            removeCancelledTimeouts();
+            transferPendingTimeouts(tick);
+            wheel[(int) (tick & mask)].expireTimeouts(deadline);
+            tick++;
+        }
+    }
+
+    /**
+     * Sleeps until the end of the given tick.
+     *
+     * @return the current time relative to the start time or -1 if the timer
+     *         has been stopped.
+     */
+    private long waitForNextTick(long tick)
+    {
+        final long deadline = tickNanos * (tick + 1);
+
+        while (true)
+        {
+            final long currentTime = System.nanoTime() - startTime;
+            final long sleepMillis = TimeUnit.NANOSECONDS.toMillis(deadline - currentTime + 999999);
+
+            if (sleepMillis <= 0)
+            {
+                return currentTime;
+            }
+
+            try
+            {
+                Thread.sleep(sleepMillis);
+            }
+            catch (InterruptedException e)
+            {
+                if (stopped)
+                {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void transferPendingTimeouts(long tick)
+    {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++)
+        {
+            final Timeout timeout = pendingTimeouts.poll();
+            if (timeout == null)
+            {
+                break;
+            }
+            if (timeout.isCancelled())
+            {
+                continue;
+            }
+
+            final long expirationTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (expirationTick - tick) / wheel.length;
+
+            // timeouts already due expire in the current tick
+            wheel[(int) (Math.max(expirationTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelledTimeouts()
+    {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null)
+        {
+            if (timeout.bucket != null)
+            {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * A task scheduled with a {@link HashedWheelTimer}.
+     */
+    public static final class Timeout
+    {
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private final HashedWheelTimer timer;
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+        private final long deadline;
+        private volatile Runnable task;
+
+        /* only accessed by the timer thread */
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout prev;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, long deadline)
+        {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task if it has not yet been run.
+         *
+         * @return <code>true</code> if the task has been cancelled,
+         *         <code>false</code> if it has already been run or cancelled.
+         */
+        public boolean cancel()
+        {
+            if (!state.compareAndSet(ST_INIT, ST_CANCELLED))
+            {
+                return false;
+            }
+            task = null;
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled()
+        {
+            return state.get() == ST_CANCELLED;
+        }
+
+        public boolean isExpired()
+        {
+            return state.get() == ST_EXPIRED;
+        }
+
+        private void expire()
+        {
+            final Runnable t = task;
+            if (!state.compareAndSet(ST_INIT, ST_EXPIRED))
+            {
+                return;
+            }
+            task = null;
+
+            try
+            {
+                t.run();
+            }
+            catch (Throwable e)
+            {
+                timer.logger.warn("Exception thrown by timer task " + t.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts, only accessed by the timer thread.
+     */
+    private static final class Bucket
+    {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout)
+        {
+            timeout.bucket = this;
+            if (head == null)
+            {
+                head = timeout;
+                tail = timeout;
+            }
+            else
+            {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expireTimeouts(long deadline)
+        {
+            Timeout timeout = head;
+            while (timeout != null)
+            {
+                final Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline)
+                {
+                    remove(timeout);
+                    timeout.expire();
+                }
+                else if (timeout.isCancelled())
+                {
+                    remove(timeout);
+                }
+                else if (timeout.remainingRounds > 0)
+                {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout)
+        {
+            if (timeout.bucket != this)
+            {
+                return;
+            }
+            if (timeout.prev != null)
+            {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next != null)
+            {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head)
+            {
+                head = timeout.next;
+            }
+            if (timeout == tail)
+            {
+                tail = timeout.prev;
+            }
+            timeout.next = null;
+            timeout.prev = null;
+            timeout.bucket = null;
+        }
+    }
+}
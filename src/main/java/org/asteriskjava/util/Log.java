@@ -27,6 +27,16 @@ package org.asteriskjava.util;
 public interface Log
 {
     void debug(Object obj);
+
+    /**
+     * Returns whether debug messages are logged, so callers can skip building
+     * expensive messages that would be discarded.
+     *
+     * @return <code>true</code> if debug messages are logged.
+     * @since 2.0.0
+     */
+    boolean isDebugEnabled();
+
     void info(Object obj);
     void warn(Object obj);
     void warn(Object obj, Throwable exception);
@@ -0,0 +1,58 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A SocketConnectionFacade that additionally exposes the raw bytes received
+ * from the socket connection.<p>
+ * This allows protocol specific decoders to split the received data into
+ * lines and fields at the byte level instead of creating a String for each
+ * line via {@link #readLine()}.
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+public interface RawSocketConnectionFacade extends SocketConnectionFacade
+{
+    /**
+     * Reads a sequence of bytes from the socket connection into the given
+     * buffer. The current thread is blocked until at least one byte is
+     * available, the end of the stream is reached or an IOException
+     * encounters.<p>
+     * Bytes are transferred starting at the buffer's current position, the
+     * position is advanced by the number of bytes read.
+     *
+     * @param buffer the buffer to transfer the received bytes into, must have
+     *            at least one byte remaining.
+     * @return the number of bytes read or -1 if the end of the stream has been
+     *         reached.
+     * @throws IOException if the connection has been closed.
+     */
+    int read(ByteBuffer buffer) throws IOException;
+
+    /**
+     * Returns the encoding used for transmission of strings.
+     *
+     * @return the encoding used for transmission of strings.
+     */
+    Charset getEncoding();
+}
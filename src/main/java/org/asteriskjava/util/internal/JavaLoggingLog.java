@@ -48,6 +48,11 @@ public class JavaLoggingLog implements Log
         log = Logger.getLogger(clazz.getName());
     }
 
+    public boolean isDebugEnabled()
+    {
+        return log.isLoggable(Level.FINE);
+    }
+
     public void debug(Object obj)
     {
         StackTraceElement ste = getInvokerSTE();
@@ -40,6 +40,11 @@ public class NullLog implements Log
     {
     }
 
+    public boolean isDebugEnabled()
+    {
+        return false;
+    }
+
     public void info(Object obj)
     {
     }
@@ -0,0 +1,253 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.util.internal;
+
+import org.asteriskjava.util.RawSocketConnectionFacade;
+
+import javax.net.SocketFactory;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Implementation of the RawSocketConnectionFacade interface for use with the
+ * Manager API.<p>
+ * Bytes are read directly from the socket's input stream without any
+ * intermediate character decoding. {@link #readLine()} is still supported and
+ * splits the received bytes at CRNL ("\r\n").
+ *
+ * @author srt
+ * @version $Id$
+ * @since 2.0.0
+ */
+public class RawSocketConnectionFacadeImpl implements RawSocketConnectionFacade
+{
+    private static final int LINE_BUFFER_SIZE = 8192;
+
+    private final Socket socket;
+    private final InputStream inputStream;
+    private final Writer writer;
+    private final Charset encoding;
+    private Trace trace;
+
+    /**
+     * Bytes read by {@link #readLine()} that have not yet been consumed. Lazily
+     * allocated as most users will only call {@link #read(ByteBuffer)}.
+     */
+    private ByteBuffer lineBuffer;
+
+    /**
+     * Creates a new instance that uses UTF-8 as encoding.
+     *
+     * @param host        the foreign host to connect to.
+     * @param port        the foreign port to connect to.
+     * @param ssl         <code>true</code> to use SSL, <code>false</code> otherwise.
+     * @param timeout     0 incidcates default
+     * @param readTimeout see {@link Socket#setSoTimeout(int)}
+     * @throws IOException if the connection cannot be established.
+     */
+    public RawSocketConnectionFacadeImpl(String host, int port, boolean ssl, int timeout, int readTimeout) throws IOException
+    {
+        this(host, port, ssl, timeout, readTimeout, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a new instance that uses the given encoding.
+     *
+     * @param host        the foreign host to connect to.
+     * @param port        the foreign port to connect to.
+     * @param ssl         <code>true</code> to use SSL, <code>false</code> otherwise.
+     * @param timeout     0 incidcates default
+     * @param readTimeout see {@link Socket#setSoTimeout(int)}
+     * @param encoding    the encoding used for transmission of strings (all connections should use the same encoding)
+     * @throws IOException if the connection cannot be established.
+     */
+    public RawSocketConnectionFacadeImpl(String host, int port, boolean ssl, int timeout, int readTimeout, Charset encoding) throws IOException
+    {
+        if (ssl)
+        {
+            socket = SSLSocketFactory.getDefault().createSocket();
+        }
+        else
+        {
+            socket = SocketFactory.getDefault().createSocket();
+        }
+        socket.setSoTimeout(readTimeout);
+        socket.connect(new InetSocketAddress(host, port), timeout);
+
+        this.encoding = encoding;
+        this.inputStream = socket.getInputStream();
+        this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), encoding));
+        if (System.getProperty(Trace.TRACE_PROPERTY, "false").equalsIgnoreCase("true"))
+        {
+            trace = new FileTrace(socket);
+        }
+    }
+
+    public int read(ByteBuffer buffer) throws IOException
+    {
+        final int bytesRead;
+
+        // hand out bytes already buffered by readLine() first
+        if (lineBuffer != null && lineBuffer.position() > 0)
+        {
+            lineBuffer.flip();
+            bytesRead = Math.min(lineBuffer.remaining(), buffer.remaining());
+            for (int i = 0; i < bytesRead; i++)
+            {
+                buffer.put(lineBuffer.get());
+            }
+            lineBuffer.compact();
+            return bytesRead;
+        }
+
+        if (buffer.hasArray())
+        {
+            bytesRead = inputStream.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            if (bytesRead > 0)
+            {
+                if (trace != null)
+                {
+                    trace.received(new String(buffer.array(), buffer.arrayOffset() + buffer.position(), bytesRead, encoding));
+                }
+                buffer.position(buffer.position() + bytesRead);
+            }
+        }
+        else
+        {
+            final byte[] bytes = new byte[buffer.remaining()];
+            bytesRead = inputStream.read(bytes);
+            if (bytesRead > 0)
+            {
+                if (trace != null)
+                {
+                    trace.received(new String(bytes, 0, bytesRead, encoding));
+                }
+                buffer.put(bytes, 0, bytesRead);
+            }
+        }
+        return bytesRead;
+    }
+
+    public Charset getEncoding()
+    {
+        return encoding;
+    }
+
+    public String readLine() throws IOException
+    {
+        if (lineBuffer == null)
+        {
+            lineBuffer = ByteBuffer.allocate(LINE_BUFFER_SIZE);
+        }
+
+        int scanned = 0;
+        while (true)
+        {
+            final byte[] array = lineBuffer.array();
+            for (int i = scanned; i + 1 < lineBuffer.position(); i++)
+            {
+                if (array[i] == '\r' && array[i + 1] == '\n')
+                {
+                    final String line = new String(array, 0, i, encoding);
+                    lineBuffer.flip();
+                    lineBuffer.position(i + 2);
+                    lineBuffer.compact();
+                    return line;
+                }
+            }
+            scanned = Math.max(0, lineBuffer.position() - 1);
+
+            if (!lineBuffer.hasRemaining())
+            {
+                final ByteBuffer grown = ByteBuffer.allocate(lineBuffer.capacity() * 2);
+                lineBuffer.flip();
+                grown.put(lineBuffer);
+                lineBuffer = grown;
+            }
+
+            final int bytesRead = inputStream.read(lineBuffer.array(), lineBuffer.position(), lineBuffer.remaining());
+            if (bytesRead < 0)
+            {
+                throw new IOException("No more lines available");
+            }
+            if (trace != null)
+            {
+                trace.received(new String(lineBuffer.array(), lineBuffer.position(), bytesRead, encoding));
+            }
+            lineBuffer.position(lineBuffer.position() + bytesRead);
+        }
+    }
+
+    public void write(String s) throws IOException
+    {
+        writer.write(s);
+        if (trace != null)
+        {
+            trace.sent(s);
+        }
+    }
+
+    public void flush() throws IOException
+    {
+        writer.flush();
+    }
+
+    public void close() throws IOException
+    {
+        socket.close();
+        // close the trace only if it was activated (the object is not null)
+        if (trace != null)
+        {
+            trace.close();
+        }
+    }
+
+    public boolean isConnected()
+    {
+        return socket.isConnected();
+    }
+
+    public InetAddress getLocalAddress()
+    {
+        return socket.getLocalAddress();
+    }
+
+    public int getLocalPort()
+    {
+        return socket.getLocalPort();
+    }
+
+    public InetAddress getRemoteAddress()
+    {
+        return socket.getInetAddress();
+    }
+
+    public int getRemotePort()
+    {
+        return socket.getPort();
+    }
+}
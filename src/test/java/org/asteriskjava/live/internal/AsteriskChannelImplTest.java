@@ -1,17 +1,35 @@
 package org.asteriskjava.live.internal;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Date;
 
+import org.asteriskjava.live.ChannelHistory;
 import org.asteriskjava.live.ChannelState;
+import org.asteriskjava.live.Extension;
+import org.asteriskjava.live.HistoryPolicy;
 import org.asteriskjava.util.DateUtil;
 import org.junit.Before;
 import org.junit.Test;
 
 public class AsteriskChannelImplTest
 {
+    /**
+     * A channel that has just been created and changed its state must not
+     * allocate more than this number of bytes. The channel and its state
+     * history take about 250 bytes on a 64 bit JVM with compressed oops, the
+     * eagerly allocated collections used to double that.
+     */
+    private static final long MAX_BYTES_PER_CHANNEL = 400;
+
     private AsteriskChannelImpl channel;
     private int numberOfChanges;
 
@@ -42,4 +60,69 @@ public class AsteriskChannelImplTest
         channel.stateChanged(DateUtil.getDate(), ChannelState.DIALING);
         assertEquals("wrong number of propagated changes", 1, numberOfChanges);
     }
+
+    @Test
+    public void testHistoryPolicies()
+    {
+        AsteriskServerImpl server = new AsteriskServerImpl();
+        server.setChannelHistoryPolicy(ChannelHistory.EXTENSION, HistoryPolicy.lastEntries(2));
+        server.setChannelHistoryPolicy(ChannelHistory.STATE, HistoryPolicy.DISABLED);
+        AsteriskChannelImpl channel = new AsteriskChannelImpl(server, "SIP/1234", "0123456789.124", DateUtil.getDate());
+
+        channel.stateChanged(DateUtil.getDate(), ChannelState.RINGING);
+        channel.stateChanged(DateUtil.getDate(), ChannelState.UP);
+        for (int i = 1; i <= 5; i++)
+        {
+            channel.extensionVisited(DateUtil.getDate(), new Extension("default", "100", i));
+        }
+
+        assertTrue(channel.wasInState(ChannelState.RINGING));
+        assertFalse(channel.wasInState(ChannelState.BUSY));
+        assertEquals(2, channel.getExtensionHistory().size());
+        assertEquals(Integer.valueOf(4), channel.getExtensionHistory().get(0).getExtension().getPriority());
+        assertEquals(Integer.valueOf(1), channel.getFirstExtension().getPriority());
+        assertEquals(Integer.valueOf(5), channel.getCurrentExtension().getPriority());
+    }
+
+    @Test
+    public void testFootprint() throws Exception
+    {
+        // the allocation counters are specific to HotSpot, don't depend on them at compile time
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        final Class<?> allocationsClass;
+        try
+        {
+            allocationsClass = Class.forName("com.sun.management.ThreadMXBean");
+        }
+        catch (ClassNotFoundException e)
+        {
+            assumeTrue(false);
+            return;
+        }
+        assumeTrue(allocationsClass.isInstance(threadMXBean));
+        assumeTrue((Boolean) allocationsClass.getMethod("isThreadAllocatedMemorySupported").invoke(threadMXBean)
+                && (Boolean) allocationsClass.getMethod("isThreadAllocatedMemoryEnabled").invoke(threadMXBean));
+        final Method getThreadAllocatedBytes = allocationsClass.getMethod("getThreadAllocatedBytes", long.class);
+
+        final AsteriskServerImpl server = new AsteriskServerImpl();
+        final Date date = DateUtil.getDate();
+        final AsteriskChannelImpl[] channels = new AsteriskChannelImpl[10000];
+        final long threadId = Thread.currentThread().getId();
+        long bytesPerChannel = Long.MAX_VALUE;
+
+        // the first round warms up the JIT, use the best round
+        for (int round = 0; round < 3; round++)
+        {
+            final long before = (Long) getThreadAllocatedBytes.invoke(threadMXBean, threadId);
+            for (int i = 0; i < channels.length; i++)
+            {
+                channels[i] = new AsteriskChannelImpl(server, "SIP/1234", "0123456789.123", date);
+                channels[i].stateChanged(date, ChannelState.RING);
+            }
+            final long after = (Long) getThreadAllocatedBytes.invoke(threadMXBean, threadId);
+            bytesPerChannel = Math.min(bytesPerChannel, (after - before) / channels.length);
+        }
+
+        assertTrue("channel allocates " + bytesPerChannel + " bytes", bytesPerChannel <= MAX_BYTES_PER_CHANNEL);
+    }
 }
@@ -0,0 +1,105 @@
+package org.asteriskjava.live.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.asteriskjava.live.AsteriskQueueEntry;
+import org.asteriskjava.live.AsteriskQueueListener;
+import org.asteriskjava.live.AsteriskQueueMember;
+import org.asteriskjava.util.AsteriskRuntime;
+import org.asteriskjava.util.DateUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsteriskQueueImplTest
+{
+    private AsteriskRuntime runtime;
+    private AsteriskServerImpl server;
+    private AsteriskQueueImpl queue;
+    private List<String> exceeded;
+    private CountDownLatch exceededLatch;
+    private volatile String listenerThreadName;
+
+    @Before
+    public void setUp()
+    {
+        runtime = new AsteriskRuntime(1);
+        server = new AsteriskServerImpl();
+        server.setRuntime(runtime);
+        queue = new AsteriskQueueImpl(server, "test", 25, "RoundRobin", 1, 5, 0, 0, 1, 1, 1, 1.0);
+        exceeded = Collections.synchronizedList(new ArrayList<String>());
+        exceededLatch = new CountDownLatch(1);
+        queue.addAsteriskQueueListener(new AsteriskQueueListener()
+        {
+            public void onNewEntry(AsteriskQueueEntry entry)
+            {
+            }
+
+            public void onEntryLeave(AsteriskQueueEntry entry)
+            {
+            }
+
+            public void onMemberStateChange(AsteriskQueueMember member)
+            {
+            }
+
+            public void onEntryServiceLevelExceeded(AsteriskQueueEntry entry)
+            {
+                exceeded.add(entry.getChannelName());
+                listenerThreadName = Thread.currentThread().getName();
+                exceededLatch.countDown();
+            }
+
+            public void onMemberAdded(AsteriskQueueMember member)
+            {
+            }
+
+            public void onMemberRemoved(AsteriskQueueMember member)
+            {
+            }
+        });
+    }
+
+    @After
+    public void tearDown()
+    {
+        runtime.shutdown();
+    }
+
+    @Test
+    public void testServiceLevelExceededOnlyForWaitingEntries() throws Exception
+    {
+        queue.createNewEntry(channel("SIP/1", "1.1"), 1, DateUtil.getDate());
+        queue.createNewEntry(channel("SIP/2", "1.2"), 2, DateUtil.getDate());
+
+        final AsteriskQueueEntryImpl left = queue.getEntry("SIP/1");
+        queue.removeEntry(left, DateUtil.getDate());
+
+        assertTrue(exceededLatch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(300);
+        assertEquals("[SIP/2]", exceeded.toString());
+    }
+
+    @Test
+    public void testServiceLevelExceededNotDeliveredOnTimerThread() throws Exception
+    {
+        queue.createNewEntry(channel("SIP/1", "1.1"), 1, DateUtil.getDate());
+
+        assertTrue(exceededLatch.await(5, TimeUnit.SECONDS));
+        assertFalse("Listener must not run on the timer thread",
+                "Asterisk-Java Runtime-Timer".equals(listenerThreadName));
+    }
+
+    private AsteriskChannelImpl channel(String name, String id)
+    {
+        return new AsteriskChannelImpl(server, name, id, DateUtil.getDate());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.live.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.asteriskjava.manager.ManagerEventListener;
+import org.asteriskjava.manager.event.ConnectEvent;
+import org.asteriskjava.manager.event.DisconnectEvent;
+import org.asteriskjava.manager.event.ManagerEvent;
+import org.asteriskjava.manager.event.VarSetEvent;
+import org.asteriskjava.util.AsteriskRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsteriskServerImplTest
+{
+    private AsteriskRuntime runtime;
+    private AsteriskServerImpl server;
+
+    @Before
+    public void setUp()
+    {
+        runtime = new AsteriskRuntime(1);
+        server = new AsteriskServerImpl();
+        server.setRuntime(runtime);
+    }
+
+    @After
+    public void tearDown()
+    {
+        runtime.shutdown();
+    }
+
+    @Test
+    public void testReinitializingDoesNotBlockDispatchThread() throws Exception
+    {
+        final List<String> handled = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch releaseConnect = new CountDownLatch(1);
+        final CountDownLatch allHandled = new CountDownLatch(3);
+        final String[] connectThreadName = new String[1];
+
+        server.addChainListener(new ManagerEventListener()
+        {
+            public void onManagerEvent(ManagerEvent event)
+            {
+                if (event instanceof ConnectEvent)
+                {
+                    connectThreadName[0] = Thread.currentThread().getName();
+                    try
+                    {
+                        releaseConnect.await(5, TimeUnit.SECONDS);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                handled.add(event.getClass().getSimpleName());
+                allHandled.countDown();
+            }
+        });
+
+        server.onManagerEvent(new ConnectEvent(this));
+        server.onManagerEvent(new VarSetEvent(this));
+        server.onManagerEvent(new DisconnectEvent(this));
+        releaseConnect.countDown();
+
+        assertTrue(allHandled.await(5, TimeUnit.SECONDS));
+        assertFalse("ConnectEvent must not be handled on the dispatch thread",
+                Thread.currentThread().getName().equals(connectThreadName[0]));
+        assertEquals("[ConnectEvent, VarSetEvent, DisconnectEvent]", handled.toString());
+    }
+}
@@ -0,0 +1,244 @@
+package org.asteriskjava.live.internal;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.asteriskjava.live.AsteriskChannel;
+import org.asteriskjava.live.ChannelState;
+import org.asteriskjava.live.OriginateCallback;
+import org.asteriskjava.manager.action.OriginateAction;
+import org.asteriskjava.manager.event.HangupEvent;
+import org.asteriskjava.manager.event.NewCallerIdEvent;
+import org.asteriskjava.manager.event.NewChannelEvent;
+import org.asteriskjava.manager.event.RenameEvent;
+import org.asteriskjava.manager.event.VarSetEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChannelManagerTest
+{
+    private AsteriskServerImpl server;
+    private ChannelManager channelManager;
+    private long now;
+
+    @Before
+    public void setUp()
+    {
+        server = new AsteriskServerImpl();
+        channelManager = new ChannelManager(server);
+        now = System.currentTimeMillis();
+    }
+
+    @Test
+    public void testGetChannelImplByNameAfterRename()
+    {
+        newChannel("1.1", "SIP/1-0001");
+        rename("1.1", "SIP/1-0001<MASQ>");
+
+        assertNull(channelManager.getChannelImplByName("SIP/1-0001"));
+        assertEquals("1.1", channelManager.getChannelImplByName("SIP/1-0001<MASQ>").getId());
+        assertEquals("1.1", channelManager.getChannelImplByNameAndActive("SIP/1-0001<MASQ>").getId());
+    }
+
+    @Test
+    public void testGetChannelImplByNameReturnsNewestChannel()
+    {
+        newChannel("1.1", "SIP/1-0001");
+        hangup("1.1");
+        newChannel("1.2", "SIP/1-0001");
+
+        assertEquals("1.2", channelManager.getChannelImplByName("SIP/1-0001").getId());
+        assertEquals("1.2", channelManager.getChannelImplByNameAndActive("SIP/1-0001").getId());
+
+        hangup("1.2");
+        assertEquals("1.2", channelManager.getChannelImplByName("SIP/1-0001").getId());
+        assertNull(channelManager.getChannelImplByNameAndActive("SIP/1-0001"));
+    }
+
+    @Test
+    public void testGetOtherSideOfLocalChannel()
+    {
+        newChannel("1.1", "Local/100@default-00000001;1");
+        newChannel("1.2", "Local/100@default-00000001;2");
+        newChannel("1.3", "Local/200@default-00000002;1");
+
+        assertSame(channelManager.getChannelImplById("1.2"),
+                channelManager.getOtherSideOfLocalChannel(channelManager.getChannelImplById("1.1")));
+        assertSame(channelManager.getChannelImplById("1.1"),
+                channelManager.getOtherSideOfLocalChannel(channelManager.getChannelImplById("1.2")));
+        assertNull(channelManager.getOtherSideOfLocalChannel(channelManager.getChannelImplById("1.3")));
+    }
+
+    @Test
+    public void testHungupChannelsAreRetained()
+    {
+        newChannel("1.1", "SIP/1-0001");
+        newChannel("1.2", "SIP/2-0002");
+        hangup("1.1");
+        hangup("1.1");
+
+        assertEquals(1, channelManager.getHungupChannelCount());
+        assertEquals("1.1", channelManager.getChannelImplById("1.1").getId());
+    }
+
+    @Test
+    public void testHungupChannelsAreRemovedAfterRemovalThreshold()
+    {
+        channelManager.setRemovalThreshold(0);
+        newChannel("1.1", "SIP/1-0001");
+        newChannel("1.2", "SIP/2-0002");
+        hangup("1.1");
+
+        assertEquals(0, channelManager.getHungupChannelCount());
+        assertNull(channelManager.getChannelImplById("1.1"));
+        assertNull(channelManager.getChannelImplByName("SIP/1-0001"));
+        assertEquals("1.2", channelManager.getChannelImplById("1.2").getId());
+    }
+
+    @Test
+    public void testGetChannelsReturnsSnapshotOfActiveChannels()
+    {
+        newChannel("1.1", "SIP/1-0001");
+        newChannel("1.2", "SIP/2-0002");
+
+        final Collection<AsteriskChannel> channels = channelManager.getChannels();
+        assertSame(channels, channelManager.getChannels());
+        assertEquals(2, channels.size());
+
+        hangup("1.1");
+        newChannel("1.3", "SIP/3-0003");
+
+        final List<String> ids = new ArrayList<String>();
+        for (AsteriskChannel channel : channelManager.getChannels())
+        {
+            ids.add(channel.getId());
+        }
+        assertEquals("[1.2, 1.3]", ids.toString());
+        assertEquals(2, channels.size());
+    }
+
+    @Test
+    public void testOriginateCallbackIsNotifiedOnTraceIdVarSet()
+    {
+        final OriginateCallback callback = createMock(OriginateCallback.class);
+        callback.onDialing(anyObject(AsteriskChannel.class));
+        replay(callback);
+        server.addOriginateCallbackData("AJ_ORIGINATE_1",
+                new OriginateCallbackData(new OriginateAction(), new Date(), callback));
+
+        newChannel("1.1", "Local/100@default-00000001;1");
+        newChannel("1.2", "Local/100@default-00000001;2");
+        varSet("1.2", "__AJ_TRACE_ID", "AJ_ORIGINATE_1");
+        varSet("1.1", "__AJ_TRACE_ID", "AJ_ORIGINATE_1");
+
+        verify(callback);
+        assertSame(channelManager.getChannelImplById("1.1"),
+                server.getOriginateCallbackDataByTraceId("AJ_ORIGINATE_1").getChannel());
+        assertEquals("AJ_ORIGINATE_1", channelManager.getChannelImplById("1.2").getTraceId());
+    }
+
+    @Test
+    public void testTraceIdFromChanVariables()
+    {
+        final NewChannelEvent event = new NewChannelEvent(this);
+        event.setUniqueId("1.1");
+        event.setChannel("SIP/1-0001");
+        event.setChannelState(0);
+        event.setDateReceived(new Date(now++));
+        event.setChanVariables(Collections.singletonMap("AJ_TRACE_ID", "AJ_ORIGINATE_2"));
+        channelManager.handleNewChannelEvent(event);
+
+        assertEquals("AJ_ORIGINATE_2", channelManager.getChannelImplById("1.1").getTraceId());
+    }
+
+    @Test
+    public void testOnlyTrackedVariablesAreStored()
+    {
+        channelManager.setVariableFilter(new ChannelVariableFilter(Arrays.asList("CUSTOMER_ID", "CALL_*")));
+        newChannel("1.1", "Local/100@default-00000001;1");
+        varSet("1.1", "CUSTOMER_ID", "42");
+        varSet("1.1", "__CALL_REASON", "support");
+        varSet("1.1", "BRIDGEPEER", "SIP/2-0002");
+        varSet("1.1", "DIALSTATUS", "ANSWER");
+        varSet("1.1", "__AJ_TRACE_ID", "AJ_ORIGINATE_3");
+
+        final Map<String, String> variables = channelManager.getChannelImplById("1.1").getVariables();
+        assertEquals(2, variables.size());
+        assertEquals("42", variables.get("CUSTOMER_ID"));
+        assertEquals("support", variables.get("__CALL_REASON"));
+        assertEquals("AJ_ORIGINATE_3", channelManager.getChannelImplById("1.1").getTraceId());
+    }
+
+    @Test
+    public void testNewChannelEventWithoutStateForChannelOfNewCallerIdEvent()
+    {
+        final NewCallerIdEvent callerIdEvent = new NewCallerIdEvent(this);
+        callerIdEvent.setUniqueId("1.1");
+        callerIdEvent.setChannel("SIP/1-0001");
+        callerIdEvent.setCallerIdNum("100");
+        callerIdEvent.setDateReceived(new Date(now++));
+        channelManager.handleNewCallerIdEvent(callerIdEvent);
+
+        final NewChannelEvent event = new NewChannelEvent(this);
+        event.setUniqueId("1.1");
+        event.setChannel("SIP/1-0001");
+        event.setDateReceived(new Date(now++));
+        channelManager.handleNewChannelEvent(event);
+
+        final AsteriskChannelImpl channel = channelManager.getChannelImplById("1.1");
+        assertNull(channel.getState());
+        assertFalse(channel.wasInState(null));
+        assertFalse(channel.wasInState(ChannelState.BUSY));
+    }
+
+    private void newChannel(String uniqueId, String name)
+    {
+        final NewChannelEvent event = new NewChannelEvent(this);
+        event.setUniqueId(uniqueId);
+        event.setChannel(name);
+        event.setChannelState(0);
+        event.setDateReceived(new Date(now++));
+        channelManager.handleNewChannelEvent(event);
+    }
+
+    private void varSet(String uniqueId, String variable, String value)
+    {
+        final VarSetEvent event = new VarSetEvent(this);
+        event.setUniqueId(uniqueId);
+        event.setVariable(variable);
+        event.setValue(value);
+        event.setDateReceived(new Date(now++));
+        channelManager.handleVarSetEvent(event);
+    }
+
+    private void rename(String uniqueId, String newName)
+    {
+        final RenameEvent event = new RenameEvent(this);
+        event.setUniqueId(uniqueId);
+        event.setNewname(newName);
+        event.setDateReceived(new Date(now++));
+        channelManager.handleRenameEvent(event);
+    }
+
+    private void hangup(String uniqueId)
+    {
+        final HangupEvent event = new HangupEvent(this);
+        event.setUniqueId(uniqueId);
+        event.setDateReceived(new Date(now++));
+        channelManager.handleHangupEvent(event);
+    }
+}
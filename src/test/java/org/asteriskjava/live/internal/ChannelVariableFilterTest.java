@@ -0,0 +1,43 @@
+package org.asteriskjava.live.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class ChannelVariableFilterTest
+{
+    @Test
+    public void testIsTracked()
+    {
+        final ChannelVariableFilter filter = new ChannelVariableFilter(Arrays.asList("customer_id", "_CALL_*"));
+
+        assertTrue(filter.isTracked("CUSTOMER_ID"));
+        assertTrue(filter.isTracked("__CUSTOMER_ID"));
+        assertTrue(filter.isTracked("CALL_"));
+        assertTrue(filter.isTracked("_call_reason"));
+        assertFalse(filter.isTracked("CUSTOMER_IDS"));
+        assertFalse(filter.isTracked("CALL"));
+        assertFalse(filter.isTracked("DIALSTATUS"));
+        assertFalse(filter.isTracked(null));
+    }
+
+    @Test
+    public void testStatusVariablesIncludeTraceId()
+    {
+        assertEquals("[CUSTOMER_ID, AJ_TRACE_ID]",
+                new ChannelVariableFilter(Arrays.asList("CUSTOMER_ID", "CALL_*")).getStatusVariables().toString());
+        assertEquals("[AJ_TRACE_ID]",
+                new ChannelVariableFilter(Collections.singletonList("AJ_*")).getStatusVariables().toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyNameIsRejected()
+    {
+        new ChannelVariableFilter(Arrays.asList("CUSTOMER_ID", "__"));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.live.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.asteriskjava.manager.event.DialBeginEvent;
+import org.asteriskjava.manager.event.DialEvent;
+import org.asteriskjava.manager.event.ManagerEvent;
+import org.asteriskjava.manager.event.NewChannelEvent;
+import org.asteriskjava.manager.event.VarSetEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventRouterTest
+{
+    private EventRouter router;
+    private List<ManagerEvent> handled;
+
+    @Before
+    public void setUp()
+    {
+        router = new EventRouter();
+        handled = new ArrayList<ManagerEvent>();
+        router.addRoute("Test", DialEvent.class, new EventRouter.EventHandler<DialEvent>()
+        {
+            public void handle(DialEvent event)
+            {
+                handled.add(event);
+            }
+        });
+    }
+
+    @Test
+    public void testRouteToSuperclass()
+    {
+        final DialBeginEvent event = new DialBeginEvent(this);
+
+        assertTrue(router.route(event));
+        assertTrue(router.route(new DialEvent(this)));
+        assertEquals(2, handled.size());
+        assertEquals(event, handled.get(0));
+    }
+
+    @Test
+    public void testNoRoute()
+    {
+        assertFalse(router.route(new VarSetEvent(this)));
+        assertTrue(handled.isEmpty());
+    }
+
+    @Test
+    public void testRouteAddedAfterResolving()
+    {
+        assertFalse(router.route(new NewChannelEvent(this)));
+        router.addRoute("Test", NewChannelEvent.class, new EventRouter.EventHandler<NewChannelEvent>()
+        {
+            public void handle(NewChannelEvent event)
+            {
+                handled.add(event);
+            }
+        });
+
+        assertTrue(router.route(new NewChannelEvent(this)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateRoute()
+    {
+        router.addRoute("Other", DialEvent.class, new EventRouter.EventHandler<DialEvent>()
+        {
+            public void handle(DialEvent event)
+            {
+            }
+        });
+    }
+
+    @Test
+    public void testStatistics()
+    {
+        router.route(new DialEvent(this));
+        router.route(new DialBeginEvent(this));
+        router.route(new VarSetEvent(this));
+
+        final List<EventRouteStatistics> statistics = router.getStatistics();
+        assertEquals(1, statistics.size());
+        assertEquals("Test", statistics.get(0).getTarget());
+        assertEquals(DialEvent.class, statistics.get(0).getEventClass());
+        assertEquals(2, statistics.get(0).getCount());
+    }
+
+    @Test
+    public void testAsteriskServerRoutes()
+    {
+        final List<String> targets = new ArrayList<String>();
+        for (EventRouteStatistics statistics : new AsteriskServerImpl().getEventRouteStatistics())
+        {
+            if (!targets.contains(statistics.getTarget()))
+            {
+                targets.add(statistics.getTarget());
+            }
+        }
+
+        assertEquals("[AsteriskServer, ChannelManager, QueueManager, MeetMeManager, AgentManager]",
+                targets.toString());
+    }
+}
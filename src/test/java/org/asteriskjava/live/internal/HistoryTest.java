@@ -0,0 +1,54 @@
+package org.asteriskjava.live.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import org.asteriskjava.live.HistoryPolicy;
+import org.junit.Test;
+
+public class HistoryTest
+{
+    @Test
+    public void testFull()
+    {
+        final History<Integer> history = new History<Integer>(HistoryPolicy.FULL);
+        for (int i = 0; i < 100; i++)
+        {
+            history.add(i);
+        }
+
+        assertEquals(100, history.size());
+        assertEquals(Integer.valueOf(0), history.get(0));
+        assertEquals(Integer.valueOf(99), history.getLast());
+    }
+
+    @Test
+    public void testLastEntries()
+    {
+        final History<Integer> history = new History<Integer>(HistoryPolicy.lastEntries(5));
+        for (int i = 0; i < 3; i++)
+        {
+            history.add(i);
+        }
+        assertEquals("[0, 1, 2]", history.toList().toString());
+
+        for (int i = 3; i < 12; i++)
+        {
+            history.add(i);
+        }
+        assertEquals("[7, 8, 9, 10, 11]", history.toList().toString());
+        assertEquals(Integer.valueOf(11), history.getLast());
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        final History<Integer> history = new History<Integer>(HistoryPolicy.DISABLED);
+        history.add(1);
+
+        assertFalse(history.isEnabled());
+        assertEquals(0, history.size());
+        assertNull(history.getLast());
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager;
+
+import java.util.concurrent.TimeUnit;
+
+import org.asteriskjava.manager.event.*;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the dispatch table of {@link AbstractManagerEventListener} with
+ * the instanceof chain it replaced.<p>
+ * Run with <code>main()</code> from the test classpath, this is not run as
+ * part of the build.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AbstractManagerEventListenerBenchmark
+{
+    private ManagerEvent[] events;
+    private ManagerEventListener dispatchTableListener;
+    private ManagerEventListener instanceofChainListener;
+
+    @Setup
+    public void setUp()
+    {
+        // events from the start, the middle and the end of the chain and one without handler
+        events = new ManagerEvent[]{new AgentCallbackLoginEvent(this), new NewChannelEvent(this),
+                new HangupEvent(this), new CoreShowChannelsCompleteEvent(this), new VarSetEvent(this)};
+        dispatchTableListener = new AbstractManagerEventListener()
+        {
+        };
+        instanceofChainListener = new InstanceofChainListener();
+    }
+
+    @Benchmark
+    public void dispatchTable()
+    {
+        for (ManagerEvent event : events)
+        {
+            dispatchTableListener.onManagerEvent(event);
+        }
+    }
+
+    @Benchmark
+    public void instanceofChain()
+    {
+        for (ManagerEvent event : events)
+        {
+            instanceofChainListener.onManagerEvent(event);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(AbstractManagerEventListenerBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+
+    /**
+     * The instanceof chain AbstractManagerEventListener used before.
+     */
+    static class InstanceofChainListener extends AbstractManagerEventListener
+    {
+        @Override
+        public void onManagerEvent(ManagerEvent event)
+        {
+            if (event instanceof AgentCallbackLoginEvent)
+            {
+                handleEvent((AgentCallbackLoginEvent) event);
+            }
+            else if (event instanceof AgentCallbackLogoffEvent)
+            {
+                handleEvent((AgentCallbackLogoffEvent) event);
+            }
+            else if (event instanceof AgentCalledEvent)
+            {
+                handleEvent((AgentCalledEvent) event);
+            }
+            else if (event instanceof AgentLoginEvent)
+            {
+                handleEvent((AgentLoginEvent) event);
+            }
+            else if (event instanceof AgentLogoffEvent)
+            {
+                handleEvent((AgentLogoffEvent) event);
+            }
+            else if (event instanceof AlarmClearEvent)
+            {
+                handleEvent((AlarmClearEvent) event);
+            }
+            else if (event instanceof AlarmEvent)
+            {
+                handleEvent((AlarmEvent) event);
+            }
+            else if (event instanceof CdrEvent)
+            {
+                handleEvent((CdrEvent) event);
+            }
+            else if (event instanceof ConnectEvent)
+            {
+                handleEvent((ConnectEvent) event);
+            }
+             else if (event instanceof DAHDIChannelEvent)
+            {
+                handleEvent((DAHDIChannelEvent) event);
+            }
+            else if (event instanceof SoftHangupRequestEvent)
+            {
+                handleEvent((SoftHangupRequestEvent) event);
+            }
+            else if (event instanceof DialEvent)
+            {
+                handleEvent((DialEvent) event);
+            }
+            else if (event instanceof HangupRequestEvent)
+            {
+                handleEvent((HangupRequestEvent) event);
+            }
+            else if (event instanceof DisconnectEvent)
+            {
+                handleEvent((DisconnectEvent) event);
+            }
+            else if (event instanceof DndStateEvent)
+            {
+                handleEvent((DndStateEvent) event);
+            }
+            else if (event instanceof ExtensionStatusEvent)
+            {
+                handleEvent((ExtensionStatusEvent) event);
+            }
+            else if (event instanceof HoldedCallEvent)
+            {
+                handleEvent((HoldedCallEvent) event);
+            }
+            else if (event instanceof HoldEvent)
+            {
+                handleEvent((HoldEvent) event);
+            }
+            else if (event instanceof LogChannelEvent)
+            {
+                handleEvent((LogChannelEvent) event);
+            }
+            else if (event instanceof MessageWaitingEvent)
+            {
+                handleEvent((MessageWaitingEvent) event);
+            }
+            else if (event instanceof NewExtenEvent)
+            {
+                handleEvent((NewExtenEvent) event);
+            }
+            else if (event instanceof PeerStatusEvent)
+            {
+                handleEvent((PeerStatusEvent) event);
+            }
+            else if (event instanceof ProtocolIdentifierReceivedEvent)
+            {
+                handleEvent((ProtocolIdentifierReceivedEvent) event);
+            }
+            else if (event instanceof JoinEvent)
+            {
+                handleEvent((JoinEvent) event);
+            }
+            else if (event instanceof LeaveEvent)
+            {
+                handleEvent((LeaveEvent) event);
+            }
+            else if (event instanceof QueueEvent)
+            {
+                handleEvent((QueueEvent) event);
+            }
+            else if (event instanceof RegistrationsCompleteEvent)
+            {
+                handleEvent((RegistrationsCompleteEvent) event);
+            }
+            else if (event instanceof RegistryEntryEvent)
+            {
+                handleEvent((RegistryEntryEvent) event);
+            }
+            else if (event instanceof RegistryEvent)
+            {
+                handleEvent((RegistryEvent) event);
+            }
+            else if (event instanceof ReloadEvent)
+            {
+                handleEvent((ReloadEvent) event);
+            }
+            else if (event instanceof RenameEvent)
+            {
+                handleEvent((RenameEvent) event);
+            }
+            else if (event instanceof ShutdownEvent)
+            {
+                handleEvent((ShutdownEvent) event);
+            }
+            else if (event instanceof UserEvent)
+            {
+                handleEvent((UserEvent) event);
+            }
+            else if (event instanceof AgentCompleteEvent)
+            {
+                handleEvent((AgentCompleteEvent) event);
+            }
+            else if (event instanceof AgentConnectEvent)
+            {
+                handleEvent((AgentConnectEvent) event);
+            }
+            else if (event instanceof AgentDumpEvent)
+            {
+                handleEvent((AgentDumpEvent) event);
+            }
+            else if (event instanceof FaxReceivedEvent)
+            {
+                handleEvent((FaxReceivedEvent) event);
+            }
+            else if (event instanceof NewCallerIdEvent)
+            {
+                handleEvent((NewCallerIdEvent) event);
+            }
+            else if (event instanceof HangupEvent)
+            {
+                handleEvent((HangupEvent) event);
+            }
+            else if (event instanceof NewChannelEvent)
+            {
+                handleEvent((NewChannelEvent) event);
+            }
+            else if (event instanceof NewStateEvent)
+            {
+                handleEvent((NewStateEvent) event);
+            }
+            else if (event instanceof MeetMeJoinEvent)
+            {
+                handleEvent((MeetMeJoinEvent) event);
+            }
+            else if (event instanceof DongleNewSMSBase64Event)
+            {
+                handleEvent((DongleNewSMSBase64Event) event);
+            }
+             else if (event instanceof DongleCENDEvent)
+            {
+                handleEvent((DongleCENDEvent) event);
+            }
+              else if (event instanceof DongleCallStateChangeEvent)
+            {
+                handleEvent((DongleCallStateChangeEvent) event);
+            }
+               else if (event instanceof DongleNewSMSEvent)
+            {
+                handleEvent((DongleNewSMSEvent) event);
+            }
+                else if (event instanceof DongleNewCMGREvent)
+            {
+                handleEvent((DongleNewCMGREvent) event);
+            }
+            else if (event instanceof DongleStatusEvent)
+            {
+                handleEvent((DongleStatusEvent) event);
+            }
+            else if (event instanceof DongleDeviceEntryEvent)
+            {
+                handleEvent((DongleDeviceEntryEvent) event);
+            }
+            else if (event instanceof MeetMeLeaveEvent)
+            {
+                handleEvent((MeetMeLeaveEvent) event);
+            }
+            else if (event instanceof MeetMeMuteEvent)
+            {
+                handleEvent((MeetMeMuteEvent) event);
+            }
+            else if (event instanceof MeetMeTalkingEvent)
+            {
+                handleEvent((MeetMeTalkingEvent) event);
+            }
+            else if (event instanceof ParkedCallGiveUpEvent)
+            {
+                handleEvent((ParkedCallGiveUpEvent) event);
+            }
+            else if (event instanceof ParkedCallTimeOutEvent)
+            {
+                handleEvent((ParkedCallTimeOutEvent) event);
+            }
+            else if (event instanceof UnparkedCallEvent)
+            {
+                handleEvent((UnparkedCallEvent) event);
+            }
+            else if (event instanceof QueueMemberAddedEvent)
+            {
+                handleEvent((QueueMemberAddedEvent) event);
+            }
+            else if (event instanceof QueueMemberPausedEvent)
+            {
+                handleEvent((QueueMemberPausedEvent) event);
+            }
+            else if (event instanceof QueueMemberRemovedEvent)
+            {
+                handleEvent((QueueMemberRemovedEvent) event);
+            }
+            else if (event instanceof AgentsCompleteEvent)
+            {
+                handleEvent((AgentsCompleteEvent) event);
+            }
+            else if (event instanceof AgentsEvent)
+            {
+                handleEvent((AgentsEvent) event);
+            }
+            else if (event instanceof DbGetResponseEvent)
+            {
+                handleEvent((DbGetResponseEvent) event);
+            }
+            else if (event instanceof BridgeEvent)
+            {
+                handleEvent((BridgeEvent) event);
+            }
+            else if (event instanceof OriginateResponseEvent)
+            {
+                handleEvent((OriginateResponseEvent) event);
+            }
+            else if (event instanceof ParkedCallEvent)
+            {
+                handleEvent((ParkedCallEvent) event);
+            }
+            else if (event instanceof ParkedCallsCompleteEvent)
+            {
+                handleEvent((ParkedCallsCompleteEvent) event);
+            }
+            else if (event instanceof PeerEntryEvent)
+            {
+                handleEvent((PeerEntryEvent) event);
+            }
+            else if (event instanceof PeerlistCompleteEvent)
+            {
+                handleEvent((PeerlistCompleteEvent) event);
+            }
+            else if (event instanceof QueueEntryEvent)
+            {
+                handleEvent((QueueEntryEvent) event);
+            }
+            else if (event instanceof QueueMemberEvent)
+            {
+                handleEvent((QueueMemberEvent) event);
+            }
+            else if (event instanceof QueueMemberStatusEvent)
+            {
+                handleEvent((QueueMemberStatusEvent) event);
+            }
+            else if (event instanceof QueueParamsEvent)
+            {
+                handleEvent((QueueParamsEvent) event);
+            }
+            else if (event instanceof QueueStatusCompleteEvent)
+            {
+                handleEvent((QueueStatusCompleteEvent) event);
+            }
+            else if (event instanceof StatusCompleteEvent)
+            {
+                handleEvent((StatusCompleteEvent) event);
+            }
+            else if (event instanceof StatusEvent)
+            {
+                handleEvent((StatusEvent) event);
+            }
+            else if (event instanceof ZapShowChannelsCompleteEvent)
+            {
+                handleEvent((ZapShowChannelsCompleteEvent) event);
+            }
+            else if (event instanceof DahdiShowChannelsCompleteEvent)
+            {
+                handleEvent((DahdiShowChannelsCompleteEvent) event);
+            }
+            else if (event instanceof ZapShowChannelsEvent)
+            {
+                handleEvent((ZapShowChannelsEvent) event);
+            }
+            else if (event instanceof DahdiShowChannelsEvent)
+            {
+                handleEvent((DahdiShowChannelsEvent) event);
+            }
+            else if (event instanceof CoreShowChannelEvent)
+            {
+                handleEvent((CoreShowChannelEvent) event);
+            }
+            else if (event instanceof CoreShowChannelsCompleteEvent)
+            {
+                handleEvent((CoreShowChannelsCompleteEvent) event);
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import org.asteriskjava.manager.event.JoinEvent;
 import org.asteriskjava.manager.event.LeaveEvent;
 import org.junit.Test;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class AbstractManagerEventListenerTest {
@@ -32,6 +33,28 @@ public class AbstractManagerEventListenerTest {
         assertTrue(listener.leaveEventHandled);
     }
 
+    @Test
+    public void shouldHandleSubclassOfHandledEvent() {
+        //given
+        EventListener listener = new EventListener();
+
+        //when
+        listener.onManagerEvent(new CustomJoinEvent(this));
+        listener.onManagerEvent(new CustomJoinEvent(this));
+
+        //then
+        assertTrue(listener.joinEventHandled);
+        assertFalse(listener.leaveEventHandled);
+    }
+
+    private static class CustomJoinEvent extends JoinEvent {
+        private static final long serialVersionUID = 1L;
+
+        CustomJoinEvent(Object source) {
+            super(source);
+        }
+    }
+
     private static class EventListener extends AbstractManagerEventListener {
         public boolean joinEventHandled;
         public boolean leaveEventHandled;
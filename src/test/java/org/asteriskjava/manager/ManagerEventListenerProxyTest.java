@@ -0,0 +1,289 @@
+package org.asteriskjava.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.asteriskjava.manager.event.ConnectEvent;
+import org.asteriskjava.manager.event.ManagerEvent;
+import org.asteriskjava.manager.event.NewStateEvent;
+import org.asteriskjava.manager.event.StatusEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ManagerEventListenerProxyTest
+{
+    private BlockingListener listener;
+
+    @Before
+    public void setUp()
+    {
+        listener = new BlockingListener();
+    }
+
+    @Test
+    public void testDropNewest() throws Exception
+    {
+        ManagerEventListenerProxy proxy = new ManagerEventListenerProxy(listener, 2, EventOverflowPolicy.DROP_NEWEST);
+
+        fill(proxy, 4);
+
+        assertEquals(2, proxy.getQueueDepth());
+        assertEquals(1, proxy.getDroppedCount());
+        assertEquals("[0, 1, 2]", listener.release(3).toString());
+    }
+
+    @Test
+    public void testDropOldest() throws Exception
+    {
+        ManagerEventListenerProxy proxy = new ManagerEventListenerProxy(listener, 2, EventOverflowPolicy.DROP_OLDEST);
+
+        fill(proxy, 4);
+
+        assertEquals(2, proxy.getQueueDepth());
+        assertEquals(1, proxy.getDroppedCount());
+        assertEquals("[0, 2, 3]", listener.release(3).toString());
+    }
+
+    @Test
+    public void testCoalesce() throws Exception
+    {
+        ManagerEventListenerProxy proxy = new ManagerEventListenerProxy(listener, 2, new EventKeyExtractor()
+        {
+            public Object getKey(ManagerEvent event)
+            {
+                return ((NewStateEvent) event).getChannel();
+            }
+        });
+
+        proxy.onManagerEvent(event(0, "SIP/1"));
+        listener.awaitFirstEvent();
+        proxy.onManagerEvent(event(1, "SIP/2"));
+        proxy.onManagerEvent(event(2, "SIP/3"));
+        proxy.onManagerEvent(event(3, "SIP/2"));
+
+        assertEquals(2, proxy.getQueueDepth());
+        assertEquals(1, proxy.getCoalescedCount());
+        assertEquals(0, proxy.getDroppedCount());
+        assertEquals("[0, 3, 2]", listener.release(3).toString());
+    }
+
+    @Test
+    public void testBlock() throws Exception
+    {
+        final ManagerEventListenerProxy proxy = new ManagerEventListenerProxy(listener, 1, EventOverflowPolicy.BLOCK);
+        final CountDownLatch delivered = new CountDownLatch(1);
+        fill(proxy, 2);
+
+        final Thread reader = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                proxy.onManagerEvent(event(2, "SIP/1"));
+                delivered.countDown();
+            }
+        };
+        reader.start();
+
+        assertTrue(proxy.getLag(TimeUnit.NANOSECONDS) > 0);
+        assertEquals(1, delivered.getCount());
+        assertEquals("[0, 1, 2]", listener.release(3).toString());
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(0, proxy.getDroppedCount());
+    }
+
+    @Test
+    public void testShutdown() throws Exception
+    {
+        ManagerEventListenerProxy proxy = new ManagerEventListenerProxy(listener);
+
+        fill(proxy, 2);
+        proxy.shutdown();
+        proxy.onManagerEvent(event(2, "SIP/1"));
+
+        assertEquals(1, proxy.getDroppedCount());
+        assertEquals("[0, 1]", listener.release(2).toString());
+    }
+
+    @Test
+    public void testSharedExecutorKeepsOrderPerProxy() throws Exception
+    {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final int count = 1000;
+        final CountDownLatch delivered = new CountDownLatch(2 * count);
+        final List<List<Integer>> received = new ArrayList<List<Integer>>();
+        final List<ManagerEventListenerProxy> proxies = new ArrayList<ManagerEventListenerProxy>();
+
+        try
+        {
+            for (int p = 0; p < 2; p++)
+            {
+                final List<Integer> sequences = Collections.synchronizedList(new ArrayList<Integer>());
+                received.add(sequences);
+                proxies.add(new ManagerEventListenerProxy(new ManagerEventListener()
+                {
+                    public void onManagerEvent(ManagerEvent event)
+                    {
+                        sequences.add(event.getSequenceNumber());
+                        delivered.countDown();
+                    }
+                }, 10, EventOverflowPolicy.BLOCK, executor));
+            }
+
+            for (int i = 0; i < count; i++)
+            {
+                proxies.get(0).onManagerEvent(event(i, "SIP/1"));
+                proxies.get(1).onManagerEvent(event(i, "SIP/2"));
+            }
+
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            for (List<Integer> sequences : received)
+            {
+                for (int i = 0; i < count; i++)
+                {
+                    assertEquals(Integer.valueOf(i), sequences.get(i));
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Like AsteriskServerImpl after a reconnect: the listener waits for the
+     * response to a StatusAction while the reader delivers the StatusEvents
+     * to the same proxy, more than a bounded queue holds.
+     */
+    @Test
+    public void testDefaultProxyDoesNotBlockReaderDuringBootstrap() throws Exception
+    {
+        final int statusEvents = ManagerEventListenerProxy.DEFAULT_CAPACITY + 1000;
+        final CountDownLatch statusComplete = new CountDownLatch(1);
+        final CountDownLatch delivered = new CountDownLatch(statusEvents + 1);
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<Integer>());
+        final boolean[] bootstrapped = new boolean[1];
+
+        final ManagerEventListenerProxy proxy = new ManagerEventListenerProxy(new ManagerEventListener()
+        {
+            public void onManagerEvent(ManagerEvent event)
+            {
+                if (event instanceof ConnectEvent)
+                {
+                    try
+                    {
+                        bootstrapped[0] = statusComplete.await(10, TimeUnit.SECONDS);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                else
+                {
+                    received.add(event.getSequenceNumber());
+                }
+                delivered.countDown();
+            }
+        });
+        assertEquals(ManagerEventListenerProxy.UNBOUNDED, proxy.getCapacity());
+
+        final Thread reader = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                proxy.onManagerEvent(new ConnectEvent(this));
+                for (int i = 0; i < statusEvents; i++)
+                {
+                    final StatusEvent event = new StatusEvent(this);
+                    event.setSequenceNumber(i);
+                    proxy.onManagerEvent(event);
+                }
+                statusComplete.countDown();
+            }
+        });
+        reader.start();
+        reader.join(10000);
+
+        assertFalse("reader is blocked", reader.isAlive());
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        assertTrue(bootstrapped[0]);
+        assertEquals(statusEvents, received.size());
+        assertEquals(Integer.valueOf(statusEvents - 1), received.get(statusEvents - 1));
+        assertEquals(0, proxy.getDroppedCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCoalesceWithoutKeyExtractor()
+    {
+        new ManagerEventListenerProxy(listener, 10, EventOverflowPolicy.COALESCE);
+    }
+
+    /**
+     * Sends the given number of events and waits until the first one is
+     * being processed, so all others remain queued.
+     */
+    private void fill(ManagerEventListenerProxy proxy, int count) throws InterruptedException
+    {
+        proxy.onManagerEvent(event(0, "SIP/1"));
+        listener.awaitFirstEvent();
+        for (int i = 1; i < count; i++)
+        {
+            proxy.onManagerEvent(event(i, "SIP/1"));
+        }
+    }
+
+    private NewStateEvent event(int sequence, String channel)
+    {
+        final NewStateEvent event = new NewStateEvent(this);
+        event.setSequenceNumber(sequence);
+        event.setChannel(channel);
+        return event;
+    }
+
+    private static class BlockingListener implements ManagerEventListener
+    {
+        private final CountDownLatch firstEvent = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final List<Integer> received = Collections.synchronizedList(new ArrayList<Integer>());
+        private volatile CountDownLatch expected;
+
+        public void onManagerEvent(ManagerEvent event)
+        {
+            received.add(event.getSequenceNumber());
+            firstEvent.countDown();
+            try
+            {
+                released.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            expected.countDown();
+        }
+
+        void awaitFirstEvent() throws InterruptedException
+        {
+            assertTrue(firstEvent.await(5, TimeUnit.SECONDS));
+        }
+
+        List<Integer> release(int count) throws InterruptedException
+        {
+            expected = new CountDownLatch(count);
+            released.countDown();
+            assertTrue(expected.await(5, TimeUnit.SECONDS));
+            return received;
+        }
+    }
+}
@@ -80,6 +80,22 @@ public class ActionBuilderImplTest
         assertEquals("Incorrect length", 42, actual.length());
     }
 
+    @Test
+    public void testBuildActionAfterLargerAction()
+    {
+        MyAction largeAction;
+        MyAction smallAction;
+
+        largeAction = new MyAction();
+        largeAction.setFirstProperty("a value that is longer than the small action");
+        actionBuilder.buildAction(largeAction);
+
+        smallAction = new MyAction();
+        smallAction.setFirstProperty("first value");
+
+        assertEquals("action: My\r\nfirstproperty: first value\r\n\r\n", actionBuilder.buildAction(smallAction));
+    }
+
     @Test
     public void testBuildEventGeneratingAction()
     {
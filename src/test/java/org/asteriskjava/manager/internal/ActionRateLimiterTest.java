@@ -0,0 +1,66 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ActionRateLimiterTest
+{
+    @Test
+    public void testBurstUpToRateThenWait()
+    {
+        final ActionRateLimiter rateLimiter = new ActionRateLimiter(10);
+        final long now = System.nanoTime();
+
+        for (int i = 0; i < 10; i++)
+        {
+            assertEquals("Permit " + i + " must be available", 0, rateLimiter.reserve(now));
+        }
+
+        final long wait = rateLimiter.reserve(now);
+        assertTrue("Must wait about 100ms but was " + wait, wait > TimeUnit.MILLISECONDS.toNanos(90)
+                && wait <= TimeUnit.MILLISECONDS.toNanos(100));
+
+        // the next caller waits behind the previous one
+        final long secondWait = rateLimiter.reserve(now);
+        assertTrue("Must wait about 200ms but was " + secondWait, secondWait > wait);
+    }
+
+    @Test
+    public void testRefill()
+    {
+        final ActionRateLimiter rateLimiter = new ActionRateLimiter(10);
+        final long now = System.nanoTime();
+
+        for (int i = 0; i < 10; i++)
+        {
+            rateLimiter.reserve(now);
+        }
+        assertEquals(0, rateLimiter.reserve(now + TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRateMustBePositive()
+    {
+        new ActionRateLimiter(0);
+    }
+}
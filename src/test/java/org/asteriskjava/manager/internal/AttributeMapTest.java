@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AttributeMapTest
+{
+    private AttributeMap map;
+
+    @Before
+    public void setUp()
+    {
+        map = new AttributeMap();
+    }
+
+    @Test
+    public void testAddCollectsRepeatedAttributesInList()
+    {
+        map.add("event", "AgentCalled");
+        map.add("variable", "var1=val1");
+        map.add("variable", "var2=val2");
+        map.add("variable", "var3=val3");
+
+        assertEquals(2, map.size());
+        assertEquals("AgentCalled", map.get("event"));
+        assertEquals(Arrays.asList("var1=val1", "var2=val2", "var3=val3"), map.get("variable"));
+    }
+
+    @Test
+    public void testClearAndReuse()
+    {
+        map.add("event", "Newchannel");
+        map.add("channel", "SIP/1-0001");
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get("event"));
+        assertFalse(map.containsKey("channel"));
+
+        map.add("response", "Success");
+        assertEquals(1, map.size());
+        assertEquals("Success", map.get("response"));
+    }
+
+    @Test
+    public void testGrowAndKeepInsertionOrder()
+    {
+        final List<String> expectedKeys = new ArrayList<String>();
+        for (int i = 0; i < 100; i++)
+        {
+            map.add("key" + i, "value" + i);
+            expectedKeys.add("key" + i);
+        }
+
+        assertEquals(100, map.size());
+        assertEquals(expectedKeys, new ArrayList<String>(map.keySet()));
+        for (int i = 0; i < 100; i++)
+        {
+            assertEquals("value" + i, map.get("key" + i));
+            assertEquals("key" + i, map.keyAt(i));
+        }
+    }
+
+    @Test
+    public void testPutAndRemove()
+    {
+        map.add("a", "1");
+        map.add("b", "2");
+        map.add("c", "3");
+
+        assertEquals("2", map.put("b", "4"));
+        assertEquals("4", map.remove("b"));
+        assertFalse(map.containsKey("b"));
+        assertEquals("1", map.get("a"));
+        assertEquals("3", map.get("c"));
+
+        final Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put("a", "1");
+        expected.put("c", "3");
+        assertEquals(expected, map);
+        assertEquals(expected, new HashMap<String, Object>(map));
+    }
+
+    @Test
+    public void testAttributeNameTableReturnsCanonicalInstance()
+    {
+        final byte[] bytes = "CallerIDNum".getBytes(StandardCharsets.US_ASCII);
+        final String name = AttributeNameTable.getInstance().get(bytes, 0, bytes.length);
+
+        assertEquals("calleridnum", name);
+        assertSame(name, AttributeNameTable.getInstance().get(bytes, 0, bytes.length));
+        assertNull(AttributeNameTable.getInstance().get(new byte[]{'a', (byte) 0xc3, (byte) 0xbc}, 0, 3));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.asteriskjava.manager.event.AgentCalledEvent;
+import org.asteriskjava.manager.event.CdrEvent;
+import org.asteriskjava.manager.event.MusicOnHoldEvent;
+import org.asteriskjava.manager.event.QueueMemberEvent;
+import org.asteriskjava.manager.event.UserEvent;
+import org.junit.Test;
+
+public class BindingPlanTest
+{
+    @Test
+    public void testPlanIsCachedPerClass()
+    {
+        final BindingPlan plan = BindingPlan.forClass(QueueMemberEvent.class);
+
+        assertSame(plan, BindingPlan.forClass(QueueMemberEvent.class));
+        assertTrue(plan.getPropertyNames().contains("penalty"));
+        assertSame(plan.getBinding("penalty"), plan.getBinding("penalty"));
+        assertNull(plan.getBinding("nosuchattribute"));
+    }
+
+    @Test
+    public void testConverters() throws Exception
+    {
+        final BindingPlan plan = BindingPlan.forClass(QueueMemberEvent.class);
+
+        assertEquals(Integer.valueOf(3), plan.getBinding("penalty").convert("3"));
+        assertEquals(Long.valueOf(1234567890123L), plan.getBinding("lastcall").convert("1234567890123"));
+        assertEquals(Boolean.TRUE, plan.getBinding("paused").convert("1"));
+        assertNull(plan.getBinding("location").convert("<unknown>"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testConvertInvalidNumber() throws Exception
+    {
+        BindingPlan.forClass(QueueMemberEvent.class).getBinding("penalty").convert("abc");
+    }
+
+    @Test
+    public void testRenamedProperties()
+    {
+        assertNotNull(BindingPlan.forClass(CdrEvent.class).getBinding("source"));
+        assertNotNull(BindingPlan.forClass(MusicOnHoldEvent.class).getBinding("class"));
+    }
+
+    @Test
+    public void testSingularNameOfMapProperty() throws Exception
+    {
+        final BindingPlan.Binding binding = BindingPlan.forClass(AgentCalledEvent.class).getBinding("variable");
+        final Map<String, String> expected = new LinkedHashMap<String, String>();
+        expected.put("var1", "val1");
+        expected.put("var2", "val2");
+
+        assertNotNull(binding);
+        assertEquals(expected, binding.convert(Arrays.asList("var1=val1", "var2=val2")));
+    }
+
+    @Test
+    public void testSetAttributesFromAttributeMap()
+    {
+        final AttributeMap attributes = new AttributeMap();
+        final QueueMemberEvent event = new QueueMemberEvent(this);
+        attributes.add("event", "QueueMember");
+        attributes.add("penalty", "2");
+        attributes.add("callstaken", "not a number");
+        attributes.add("paused", "0");
+
+        new EventBuilderImpl().setAttributes(event, attributes, null);
+
+        assertEquals(Integer.valueOf(2), event.getPenalty());
+        assertNull(event.getCallsTaken());
+        assertEquals(Boolean.FALSE, event.getPaused());
+    }
+
+    @Test
+    public void testGeneratedBinderIsUsedForBuiltInClasses()
+    {
+        final BindingPlan.Binding binding = BindingPlan.forClass(QueueMemberEvent.class).getBinding("penalty");
+
+        assertNotNull(AttributeBinder.forClass(QueueMemberEvent.class));
+        assertTrue(binding.isGenerated());
+    }
+
+    @Test
+    public void testReflectionIsUsedForUserClasses()
+    {
+        final AttributeMap attributes = new AttributeMap();
+        final CustomUserEvent event = new CustomUserEvent(this);
+        attributes.add("userevent", "Custom");
+        attributes.add("counter", "42");
+
+        new EventBuilderImpl().setAttributes(event, attributes, null);
+
+        assertNull(AttributeBinder.forClass(CustomUserEvent.class));
+        assertFalse(BindingPlan.forClass(CustomUserEvent.class).getBinding("counter").isGenerated());
+        assertEquals(Integer.valueOf(42), event.getCounter());
+    }
+
+    public static class CustomUserEvent extends UserEvent
+    {
+        private static final long serialVersionUID = 1L;
+        private Integer counter;
+
+        public CustomUserEvent(Object source)
+        {
+            super(source);
+        }
+
+        public Integer getCounter()
+        {
+            return counter;
+        }
+
+        public void setCounter(Integer counter)
+        {
+            this.counter = counter;
+        }
+    }
+}
@@ -17,18 +17,23 @@
 package org.asteriskjava.manager.internal;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.asteriskjava.manager.event.AbstractChannelEvent;
 import org.asteriskjava.manager.event.AgentCalledEvent;
 import org.asteriskjava.manager.event.CdrEvent;
+import org.asteriskjava.manager.event.CelEvent;
 import org.asteriskjava.manager.event.HangupEvent;
 import org.asteriskjava.manager.event.LogChannelEvent;
 import org.asteriskjava.manager.event.ManagerEvent;
@@ -44,6 +49,7 @@ import org.asteriskjava.manager.event.ShutdownEvent;
 import org.asteriskjava.manager.event.StatusCompleteEvent;
 import org.asteriskjava.manager.event.T38FaxStatusEvent;
 import org.asteriskjava.manager.event.TransferEvent;
+import org.asteriskjava.manager.event.VarSetEvent;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -504,6 +510,101 @@ public class EventBuilderImplTest
         assertEquals("Invalid size of variables property", 1, event.getVariables().size());
     }
 
+    @Test
+    public void testBuildEventWithLazyMapProperty()
+    {
+        AgentCalledEvent event;
+        AgentCalledEvent eagerEvent;
+        Map<String, String> expected = new LinkedHashMap<String, String>();
+
+        properties.put("event", "AgentCalled");
+        properties.put("variable", Arrays.asList("var1=val1", "var2=val2"));
+        eagerEvent = (AgentCalledEvent) eventBuilder.buildEvent(this, properties);
+        eventBuilder.setLazyProperties(true);
+        event = (AgentCalledEvent) eventBuilder.buildEvent(this, properties);
+
+        assertNotNull(event);
+        assertTrue("Map property must not be parsed before access", event.getVariables() instanceof LazyMap);
+        assertFalse("Map property must not be parsed before access", ((LazyMap) event.getVariables()).isParsed());
+
+        expected.put("var1", "val1");
+        expected.put("var2", "val2");
+        assertEquals("Property variables is not set correctly", expected, event.getVariables());
+        assertEquals("Invalid order of variables", Arrays.asList("var1", "var2"),
+                new ArrayList<String>(event.getVariables().keySet()));
+        assertEquals("Lazy and eager map must be equal", eagerEvent.getVariables().hashCode(),
+                event.getVariables().hashCode());
+        assertEquals("Lazy and eager map must be equal", eagerEvent.getVariables().toString(),
+                event.getVariables().toString());
+    }
+
+    @Test
+    public void testBuildEventWithDeferredBinding() throws Exception
+    {
+        final AttributeMap attributes = new AttributeMap();
+        attributes.add("event", "VarSet");
+        attributes.add("privilege", "dialplan,all");
+        attributes.add("timestamp", "1159310429.569108");
+        attributes.add("channel", "SIP/1234-00000001");
+        attributes.add("uniqueid", "1159310429.1");
+        attributes.add("variable", "RTPAUDIOQOS");
+        attributes.add("value", "ssrc=123;themssrc=456");
+
+        final VarSetEvent eagerEvent = (VarSetEvent) eventBuilder.buildEvent(this, attributes);
+        eventBuilder.setLazyProperties(true);
+        final VarSetEvent event = (VarSetEvent) eventBuilder.buildEvent(this, attributes);
+        // the reader reuses the map for the next frame
+        attributes.clear();
+
+        final Field variable = VarSetEvent.class.getDeclaredField("variable");
+        variable.setAccessible(true);
+        assertNull("Properties must not be bound before access", variable.get(event));
+
+        assertEquals("SIP/1234-00000001", event.getChannel());
+        assertEquals("1159310429.1", event.getUniqueId());
+        assertEquals("RTPAUDIOQOS", event.getVariable());
+        assertEquals("ssrc=123;themssrc=456", event.getValue());
+        assertEquals("dialplan,all", event.getPrivilege());
+        assertEquals(Double.valueOf(1159310429.569108), event.getTimestamp());
+        assertEquals("Lazy and eager event must be equal", withoutHashcode(eagerEvent), withoutHashcode(event));
+    }
+
+    @Test
+    public void testSetterOverridesDeferredAttribute()
+    {
+        properties.put("event", "NewExten");
+        properties.put("extension", "1234");
+        properties.put("application", "Dial");
+        eventBuilder.setLazyProperties(true);
+        final NewExtenEvent event = (NewExtenEvent) eventBuilder.buildEvent(this, properties);
+
+        event.setApplication("Hangup");
+        assertEquals("Hangup", event.getApplication());
+        assertEquals("1234", event.getExtension());
+    }
+
+    private static String withoutHashcode(ManagerEvent event)
+    {
+        return event.toString().replaceAll("systemHashcode=\\d+", "");
+    }
+
+    @Test
+    public void testBuildEventWithLinkedId()
+    {
+        properties.put("event", "Newchannel");
+        properties.put("uniqueid", "1234567890.2");
+        properties.put("linkedid", "1234567890.1");
+        final NewChannelEvent newChannelEvent = (NewChannelEvent) eventBuilder.buildEvent(this, properties);
+        assertEquals("1234567890.1", newChannelEvent.getLinkedId());
+
+        properties.clear();
+        properties.put("event", "CEL");
+        properties.put("linkedid", "1234567890.1");
+        final CelEvent celEvent = (CelEvent) eventBuilder.buildEvent(this, properties);
+        assertEquals("1234567890.1", celEvent.getLinkedID());
+        assertEquals("1234567890.1", celEvent.getLinkedId());
+    }
+
     @Test
     public void testBuildEventWithSpace()
     {
@@ -0,0 +1,86 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.asteriskjava.manager.event.AbstractChannelEvent;
+import org.asteriskjava.manager.event.ManagerEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventClassFilterTest
+{
+    private EventClassFilter filter;
+    private Map<String, Object> attributes;
+
+    @Before
+    public void setUp()
+    {
+        final Set<Class<? extends ManagerEvent>> subscribedClasses = new HashSet<Class<? extends ManagerEvent>>();
+        subscribedClasses.add(AbstractChannelEvent.class);
+
+        filter = new EventClassFilter(subscribedClasses, new EventBuilderImpl());
+        attributes = new HashMap<String, Object>();
+    }
+
+    @Test
+    public void testAcceptSubclassOfSubscribedClass()
+    {
+        attributes.put("event", "Newchannel");
+        assertTrue(filter.accept(attributes));
+
+        attributes.put("event", "Hangup");
+        assertTrue(filter.accept(attributes));
+    }
+
+    @Test
+    public void testSkipEventNotSubscribed()
+    {
+        attributes.put("event", "VarSet");
+        assertFalse(filter.accept(attributes));
+        // cached decision
+        assertFalse(filter.accept(attributes));
+    }
+
+    @Test
+    public void testAcceptResponseEvents()
+    {
+        attributes.put("event", "QueueParams");
+        assertFalse(filter.accept(attributes));
+
+        attributes.put("actionid", "123_456#abc");
+        assertTrue(filter.accept(attributes));
+    }
+
+    @Test
+    public void testAcceptUnknownEvents()
+    {
+        attributes.put("event", "NoSuchEvent");
+        assertTrue(filter.accept(attributes));
+
+        attributes.put("event", "UserEvent");
+        attributes.put("userevent", "NoSuchUserEvent");
+        assertTrue(filter.accept(attributes));
+    }
+}
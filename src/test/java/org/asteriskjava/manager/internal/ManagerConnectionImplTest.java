@@ -22,25 +22,41 @@ import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.asteriskjava.AsteriskVersion;
+import org.asteriskjava.manager.ActionPriority;
 import org.asteriskjava.manager.AuthenticationFailedException;
+import org.asteriskjava.manager.EventTimeoutException;
+import org.asteriskjava.manager.FilterableManagerEventListener;
 import org.asteriskjava.manager.ManagerConnectionState;
 import org.asteriskjava.manager.ManagerEventListener;
+import org.asteriskjava.manager.ManagerEventListenerProxy;
+import org.asteriskjava.manager.ManagerResponseFuture;
 import org.asteriskjava.manager.TimeoutException;
 import org.asteriskjava.manager.action.CommandAction;
+import org.asteriskjava.manager.action.HangupAction;
 import org.asteriskjava.manager.action.PingAction;
 import org.asteriskjava.manager.action.StatusAction;
 import org.asteriskjava.manager.event.ConnectEvent;
 import org.asteriskjava.manager.event.DisconnectEvent;
+import org.asteriskjava.manager.event.HangupEvent;
 import org.asteriskjava.manager.event.ManagerEvent;
 import org.asteriskjava.manager.event.NewChannelEvent;
+import org.asteriskjava.manager.event.NewStateEvent;
 import org.asteriskjava.manager.response.ManagerResponse;
 import org.asteriskjava.util.SocketConnectionFacade;
 import org.junit.Before;
@@ -434,6 +450,86 @@ public class ManagerConnectionImplTest
         assertEquals("other actions not sent 1 time", 1, mockWriter.otherActionsSent);
     }
 
+    @Test
+    public void testSendActionAsync() throws Exception
+    {
+        final StatusAction statusAction = new StatusAction();
+        final CountDownLatch listenerRun = new CountDownLatch(1);
+        statusAction.setActionId("123");
+
+        // fake connect
+        mc.connect();
+        mc.setState(ManagerConnectionState.CONNECTED);
+        final ManagerResponseFuture future = mc.sendActionAsync(statusAction, 1000);
+        future.addListener(new Runnable()
+        {
+            public void run()
+            {
+                listenerRun.countDown();
+            }
+        });
+
+        assertEquals("incorrect actionId in response", "123", future.get(1, TimeUnit.SECONDS).getActionId());
+        assertTrue("listener not run", listenerRun.await(1, TimeUnit.SECONDS));
+        assertFalse("future must not be cancelled", future.isCancelled());
+    }
+
+    @Test
+    public void testSendActionAsyncTimeout() throws Exception
+    {
+        final StatusAction statusAction = new StatusAction();
+
+        // fake connect
+        mc.connect();
+        mc.setState(ManagerConnectionState.CONNECTED);
+
+        // provoke timeout
+        mockWriter.setSendResponse(false);
+        final ManagerResponseFuture future = mc.sendActionAsync(statusAction, 100);
+        try
+        {
+            future.get(5, TimeUnit.SECONDS);
+            fail("No ExecutionException thrown");
+        }
+        catch (ExecutionException e)
+        {
+            assertTrue("cause must be a TimeoutException", e.getCause() instanceof TimeoutException);
+        }
+        assertTrue("future must be done", future.isDone());
+    }
+
+    @Test
+    public void testSendEventGeneratingActionTimeout() throws Exception
+    {
+        // fake connect
+        mc.connect();
+        mc.setState(ManagerConnectionState.CONNECTED);
+
+        // provoke timeout
+        mockWriter.setSendResponse(false);
+        try
+        {
+            mc.sendEventGeneratingAction(new StatusAction(), 100);
+            fail("No EventTimeoutException thrown");
+        }
+        catch (EventTimeoutException e)
+        {
+            assertNotNull("partial result must be set", e.getPartialResult());
+            assertNull(e.getPartialResult().getResponse());
+        }
+    }
+
+    @Test
+    public void testGetActionPriority()
+    {
+        assertEquals(ActionPriority.URGENT, mc.getActionPriority(HangupAction.class));
+        assertEquals(ActionPriority.BULK, mc.getActionPriority(StatusAction.class));
+        assertEquals(ActionPriority.NORMAL, mc.getActionPriority(PingAction.class));
+
+        mc.setActionPriority(StatusAction.class, ActionPriority.NORMAL);
+        assertEquals(ActionPriority.NORMAL, mc.getActionPriority(StatusAction.class));
+    }
+
     @Test
     public void testDispatchResponseUnexpectedResponse()
     {
@@ -611,6 +707,151 @@ public class ManagerConnectionImplTest
         verify(list);
     }
 
+    @Test
+    public void testDispatchEventToFilterableEventListener()
+    {
+        final List<ManagerEvent> receivedEvents = new ArrayList<ManagerEvent>();
+        final ManagerEvent newChannelEvent = new NewChannelEvent(this);
+
+        mc.addEventListener(new FilterableManagerEventListener()
+        {
+            public Set<Class<? extends ManagerEvent>> getSubscribedEvents()
+            {
+                return Collections.<Class<? extends ManagerEvent>>singleton(NewChannelEvent.class);
+            }
+
+            public void onManagerEvent(ManagerEvent event)
+            {
+                receivedEvents.add(event);
+            }
+        });
+
+        mc.dispatchEvent(new HangupEvent(this));
+        mc.dispatchEvent(newChannelEvent);
+
+        assertEquals("listener must only receive subscribed events", Arrays.asList(newChannelEvent), receivedEvents);
+    }
+
+    @Test
+    public void testDispatchEventToPartitionedEventListener() throws Exception
+    {
+        final List<String> receivedEvents = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch allReceived = new CountDownLatch(100);
+        final ManagerEventListener listener = new ManagerEventListener()
+        {
+            public void onManagerEvent(ManagerEvent event)
+            {
+                receivedEvents.add(((NewStateEvent) event).getUniqueId() + ":" + event.getSequenceNumber());
+                allReceived.countDown();
+            }
+        };
+
+        mc.addEventListener(listener, 4, null);
+        for (int i = 0; i < 100; i++)
+        {
+            final NewStateEvent event = new NewStateEvent(this);
+            event.setUniqueId("1234567890." + (i % 10));
+            event.setSequenceNumber(i);
+            mc.dispatchEvent(event);
+        }
+
+        assertTrue("listener must receive all events", allReceived.await(5, TimeUnit.SECONDS));
+        for (int uniqueId = 0; uniqueId < 10; uniqueId++)
+        {
+            int lastSequenceNumber = -1;
+            for (String receivedEvent : new ArrayList<String>(receivedEvents))
+            {
+                if (receivedEvent.startsWith("1234567890." + uniqueId + ":"))
+                {
+                    final int sequenceNumber = Integer.parseInt(receivedEvent.substring(receivedEvent.indexOf(':') + 1));
+                    assertTrue("events of a channel must be received in order", sequenceNumber > lastSequenceNumber);
+                    lastSequenceNumber = sequenceNumber;
+                }
+            }
+        }
+
+        mc.removeEventListener(listener);
+        mc.dispatchEvent(new NewStateEvent(this));
+        Thread.sleep(50);
+        assertEquals("removed listener must not receive events", 100, receivedEvents.size());
+    }
+
+    @Test
+    public void testAsyncEventDeliveryDoesNotBlockReader() throws Exception
+    {
+        final CountDownLatch listenerReleased = new CountDownLatch(1);
+        final CountDownLatch allReceived = new CountDownLatch(2);
+        final MockedManagerEventListener listener = new MockedManagerEventListener()
+        {
+            @Override
+            public void onManagerEvent(ManagerEvent event)
+            {
+                try
+                {
+                    listenerReleased.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                super.onManagerEvent(event);
+                allReceived.countDown();
+            }
+        };
+
+        mc.setAsyncEventDelivery(true);
+        mc.addEventListener(listener);
+        mc.dispatchEvent(new NewChannelEvent(this));
+        mc.dispatchEvent(new HangupEvent(this));
+
+        assertTrue("events must not be delivered yet", listener.eventsHandled.isEmpty());
+        listenerReleased.countDown();
+        assertTrue("listener must receive all events", allReceived.await(5, TimeUnit.SECONDS));
+        assertTrue("wrong order", listener.eventsHandled.get(0) instanceof NewChannelEvent);
+        assertTrue("wrong order", listener.eventsHandled.get(1) instanceof HangupEvent);
+    }
+
+    @Test
+    public void testAsyncEventDeliveryNeverBlocksReaderWhenListenerFallsBehind() throws Exception
+    {
+        final int events = ManagerEventListenerProxy.DEFAULT_CAPACITY + 100;
+        final CountDownLatch listenerReleased = new CountDownLatch(1);
+        final CountDownLatch allReceived = new CountDownLatch(events);
+        mc.setAsyncEventDelivery(true);
+        mc.addEventListener(new ManagerEventListener()
+        {
+            public void onManagerEvent(ManagerEvent event)
+            {
+                try
+                {
+                    listenerReleased.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                allReceived.countDown();
+            }
+        });
+
+        final Thread reader = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                for (int i = 0; i < events; i++)
+                {
+                    mc.dispatchEvent(new NewChannelEvent(this));
+                }
+            }
+        });
+        reader.start();
+        reader.join(10000);
+
+        assertFalse("reader must not wait for the listener", reader.isAlive());
+        listenerReleased.countDown();
+        assertTrue("listener must receive all events", allReceived.await(10, TimeUnit.SECONDS));
+    }
+
     @Test
     public void testIsShowVersionCommandAction()
     {
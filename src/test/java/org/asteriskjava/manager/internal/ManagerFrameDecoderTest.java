@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ManagerFrameDecoderTest
+{
+    private ManagerFrameDecoder decoder;
+    private RecordingFrameHandler handler;
+
+    @Before
+    public void setUp()
+    {
+        decoder = new ManagerFrameDecoder(StandardCharsets.UTF_8);
+        handler = new RecordingFrameHandler();
+    }
+
+    @Test
+    public void testDecodeProtocolIdentifierAndEvent()
+    {
+        decode("Asterisk Call Manager/1.1\r\nEvent: Newchannel\r\nChannel: SIP/1-0001\r\nUniqueid: 123.4\r\n\r\n");
+
+        assertEquals(Arrays.asList("protocolIdentifier=Asterisk Call Manager/1.1", "event=Newchannel",
+                "channel=SIP/1-0001", "uniqueid=123.4", "complete"), handler.received);
+    }
+
+    @Test
+    public void testDecodeSplitAcrossReads()
+    {
+        final String frame = "Event: Newstate\r\nChannelStateDesc: Ringing\r\n\r\n";
+
+        // feed one byte at a time to split lines and CRNL at every possible position
+        for (int i = 0; i < frame.length(); i++)
+        {
+            decode(frame.substring(i, i + 1));
+        }
+
+        assertEquals(Arrays.asList("event=Newstate", "channelstatedesc=Ringing", "complete"), handler.received);
+    }
+
+    @Test
+    public void testDecodeLineLongerThanBuffer()
+    {
+        final StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 20000; i++)
+        {
+            value.append((char) ('a' + i % 26));
+        }
+
+        decode("Event: UserEvent\r\nData: " + value + "\r\n\r\n");
+
+        assertEquals(Arrays.asList("event=UserEvent", "data=" + value, "complete"), handler.received);
+    }
+
+    @Test
+    public void testDecodeCommandResponse()
+    {
+        decode("Response: Follows\r\nPrivilege: Command\r\nFoo: bar\nLine2\n--END COMMAND--\r\n\r\n");
+
+        assertEquals(Arrays.asList("response=Follows", "privilege=Command",
+                ManagerReader.COMMAND_RESULT_RESPONSE_KEY + "=Foo: bar\nLine2\n--END COMMAND--", "complete"),
+                handler.received);
+    }
+
+    @Test
+    public void testDecodeWorkaroundForAsteriskBug13319()
+    {
+        decode("Event: RTCPReceived\r\nFrom 192.168.0.1:1234\r\nHighestSequence: 999\r\n\r\n");
+
+        assertEquals(Arrays.asList("event=RTCPReceived", "from=192.168.0.1:1234", "highestsequence=999", "complete"),
+                handler.received);
+    }
+
+    @Test
+    public void testDecodeSkipsEmptyValuesAndMalformedLines()
+    {
+        decode("Event: VarSet\r\nValue: \r\ngarbage\r\nVariable: x\r\n\r\n");
+
+        assertEquals(Arrays.asList("event=VarSet", "variable=x", "complete"), handler.received);
+    }
+
+    @Test
+    public void testDecodeNonAsciiValue()
+    {
+        decode("Event: Newchannel\r\nCallerIDName: Jürgen\r\n\r\n");
+
+        assertEquals(Arrays.asList("event=Newchannel", "calleridname=Jürgen", "complete"), handler.received);
+    }
+
+    private void decode(String s)
+    {
+        decoder.decode(ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8)), handler);
+    }
+
+    private static class RecordingFrameHandler implements ManagerFrameHandler
+    {
+        final List<String> received = new ArrayList<String>();
+
+        public void protocolIdentifierReceived(String protocolIdentifier)
+        {
+            received.add("protocolIdentifier=" + protocolIdentifier);
+        }
+
+        public void attributeReceived(String name, String value)
+        {
+            received.add(name + "=" + value);
+        }
+
+        public void frameCompleted()
+        {
+            received.add("complete");
+        }
+    }
+}
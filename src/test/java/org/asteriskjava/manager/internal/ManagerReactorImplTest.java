@@ -0,0 +1,173 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.asteriskjava.manager.event.DisconnectEvent;
+import org.asteriskjava.manager.event.ManagerEvent;
+import org.asteriskjava.manager.event.NewChannelEvent;
+import org.asteriskjava.manager.event.ProtocolIdentifierReceivedEvent;
+import org.asteriskjava.manager.response.ManagerResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ManagerReactorImplTest
+{
+    private ManagerReactorImpl reactor;
+    private ServerSocket serverSocket;
+    private BlockingQueue<ManagerEvent> events;
+    private ManagerReaderImpl reader;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        reactor = new ManagerReactorImpl(1);
+        serverSocket = new ServerSocket(0);
+        events = new LinkedBlockingQueue<ManagerEvent>();
+        reader = new ManagerReaderImpl(new Dispatcher()
+        {
+            public void dispatchResponse(ManagerResponse response)
+            {
+            }
+
+            public void dispatchEvent(ManagerEvent event)
+            {
+                events.add(event);
+            }
+        }, this);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        reactor.shutdown();
+        serverSocket.close();
+    }
+
+    @Test
+    public void testReadAndWrite() throws Exception
+    {
+        final ReactorSocketConnectionFacade socket = reactor.connect("localhost", serverSocket.getLocalPort(), 0, 0,
+                StandardCharsets.UTF_8);
+        final Socket server = serverSocket.accept();
+        final OutputStream serverOut = server.getOutputStream();
+
+        reader.setSocket(socket);
+        reactor.register(socket, reader);
+
+        serverOut.write("Asterisk Call Manager/1.1\r\nEvent: Newchannel\r\nChannel: SIP/1\r\n\r\n"
+                .getBytes(StandardCharsets.UTF_8));
+        serverOut.flush();
+
+        assertTrue(nextEvent() instanceof ProtocolIdentifierReceivedEvent);
+        final ManagerEvent event = nextEvent();
+        assertTrue(event instanceof NewChannelEvent);
+        assertEquals("SIP/1", ((NewChannelEvent) event).getChannel());
+
+        socket.write("action: Ping\r\n\r\n");
+        socket.flush();
+        final BufferedReader serverIn = new BufferedReader(new InputStreamReader(server.getInputStream(),
+                StandardCharsets.UTF_8));
+        assertEquals("action: Ping", serverIn.readLine());
+
+        server.close();
+        assertTrue(nextEvent() instanceof DisconnectEvent);
+        assertTrue("Reader must be dead", reader.isDead());
+    }
+
+    @Test
+    public void testCloseDispatchesDisconnectEvent() throws Exception
+    {
+        final ReactorSocketConnectionFacade socket = reactor.connect("localhost", serverSocket.getLocalPort(), 0, 0,
+                StandardCharsets.UTF_8);
+        final Socket server = serverSocket.accept();
+
+        reader.setSocket(socket);
+        reactor.register(socket, reader);
+        socket.close();
+
+        assertTrue(nextEvent() instanceof DisconnectEvent);
+        assertEquals("Only one DisconnectEvent expected", null, events.poll(100, TimeUnit.MILLISECONDS));
+        server.close();
+    }
+
+    @Test
+    public void testReadTimeout() throws Exception
+    {
+        final ReactorSocketConnectionFacade socket = reactor.connect("localhost", serverSocket.getLocalPort(), 0, 100,
+                StandardCharsets.UTF_8);
+        final Socket server = serverSocket.accept();
+
+        reader.setSocket(socket);
+        reactor.register(socket, reader);
+
+        assertTrue(nextEvent() instanceof DisconnectEvent);
+        assertTrue("Connection must be closed", !socket.getChannel().isOpen());
+        server.close();
+    }
+
+    @Test
+    public void testReconnectAttemptsDoNotWaitForEachOther() throws Exception
+    {
+        final int attempts = 5;
+        final CountDownLatch started = new CountDownLatch(attempts);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        for (int i = 0; i < attempts; i++)
+        {
+            reactor.getReconnectExecutor().execute(new Runnable()
+            {
+                public void run()
+                {
+                    started.countDown();
+                    try
+                    {
+                        release.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+
+        assertTrue("Blocked attempts must not delay the others", started.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    private ManagerEvent nextEvent() throws InterruptedException
+    {
+        final ManagerEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertTrue("No event received", event != null);
+        return event;
+    }
+}
@@ -25,6 +25,10 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -38,6 +42,7 @@ import org.asteriskjava.manager.event.StatusCompleteEvent;
 import org.asteriskjava.manager.response.CommandResponse;
 import org.asteriskjava.manager.response.ManagerResponse;
 import org.asteriskjava.util.DateUtil;
+import org.asteriskjava.util.RawSocketConnectionFacade;
 import org.asteriskjava.util.SocketConnectionFacade;
 import org.junit.After;
 import org.junit.Before;
@@ -369,6 +374,107 @@ public class ManagerReaderImplTest
                         .getClass());
     }
 
+    @Test
+    public void testRunReceivingEventAndResponseWithFrameDecoder() throws Exception
+    {
+        managerReader.setSocket(new RawSocketConnectionFacadeStub("Asterisk Call Manager/1.1\r\n"
+                + "Event: AgentCalled\r\nVariable: var1=val1\r\nVariable: var2=val2\r\n\r\n"
+                + "Response: Success\r\nMessage: Authentication accepted\r\n\r\n"));
+        managerReader.run();
+
+        assertEquals("not exactly three events dispatched", 3,
+                dispatcher.dispatchedEvents.size());
+
+        assertEquals("first event must be a ProtocolIdentifierReceivedEvent",
+                ProtocolIdentifierReceivedEvent.class, dispatcher.dispatchedEvents.get(0).getClass());
+
+        AgentCalledEvent event = (AgentCalledEvent) dispatcher.dispatchedEvents.get(1);
+        assertEquals("Property variables[var1] is not set correctly", "val1", event.getVariables().get("var1"));
+        assertEquals("Property variables[var2] is not set correctly", "val2", event.getVariables().get("var2"));
+
+        assertEquals("third event must be a DisconnectEvent",
+                DisconnectEvent.class, dispatcher.dispatchedEvents.get(2).getClass());
+
+        assertEquals("not exactly one response dispatched", 1,
+                dispatcher.dispatchedResponses.size());
+
+        assertEquals("ManagerResponse contains incorrect message",
+                "Authentication accepted",
+                dispatcher.dispatchedResponses.get(0).getMessage());
+    }
+
+    private static class RawSocketConnectionFacadeStub implements RawSocketConnectionFacade
+    {
+        private final ByteBuffer data;
+
+        RawSocketConnectionFacadeStub(String data)
+        {
+            this.data = ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public int read(ByteBuffer buffer)
+        {
+            if (!data.hasRemaining())
+            {
+                return -1;
+            }
+            // deliver in small chunks to exercise partial lines
+            final int length = Math.min(Math.min(7, data.remaining()), buffer.remaining());
+            for (int i = 0; i < length; i++)
+            {
+                buffer.put(data.get());
+            }
+            return length;
+        }
+
+        public Charset getEncoding()
+        {
+            return StandardCharsets.UTF_8;
+        }
+
+        public String readLine()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        public void write(String s)
+        {
+        }
+
+        public void flush()
+        {
+        }
+
+        public void close()
+        {
+        }
+
+        public boolean isConnected()
+        {
+            return true;
+        }
+
+        public InetAddress getLocalAddress()
+        {
+            return null;
+        }
+
+        public int getLocalPort()
+        {
+            return 0;
+        }
+
+        public InetAddress getRemoteAddress()
+        {
+            return null;
+        }
+
+        public int getRemotePort()
+        {
+            return 0;
+        }
+    }
+
     private class MockedDispatcher implements Dispatcher
     {
         List<ManagerEvent> dispatchedEvents;
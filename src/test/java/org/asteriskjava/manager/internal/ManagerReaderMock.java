@@ -17,6 +17,7 @@
 package org.asteriskjava.manager.internal;
 
 import java.io.IOException;
+import java.util.Set;
 
 import org.asteriskjava.manager.internal.ManagerReader;
 import org.asteriskjava.manager.response.ManagerResponse;
@@ -49,6 +50,14 @@ public class ManagerReaderMock implements ManagerReader
         
     }
 
+    public void setLazyProperties(boolean lazyProperties)
+    {
+    }
+
+    public void setSubscribedEventClasses(Set<Class<? extends ManagerEvent>> eventClasses)
+    {
+    }
+
     public void die()
     {
         dieCalls++;
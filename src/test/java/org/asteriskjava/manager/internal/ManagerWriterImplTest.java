@@ -16,14 +16,27 @@
  */
 package org.asteriskjava.manager.internal;
 
+import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createStrictMock;
+import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.asteriskjava.manager.ActionPriority;
+import org.asteriskjava.manager.action.HangupAction;
+import org.asteriskjava.manager.action.ManagerAction;
 import org.asteriskjava.manager.action.StatusAction;
 import org.asteriskjava.util.SocketConnectionFacade;
+import org.easymock.IAnswer;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -65,4 +78,133 @@ public class ManagerWriterImplTest
         managerWriter.sendAction(new StatusAction(), null);
         verify(socketConnectionFacade);
     }
+
+    @Test
+    public void testConcurrentSendActionsAreFlushedTogether() throws Exception
+    {
+        final SocketConnectionFacade socketConnectionFacade;
+        final CountDownLatch flushing = new CountDownLatch(1);
+        final CountDownLatch releaseFlush = new CountDownLatch(1);
+        final AtomicInteger failures = new AtomicInteger();
+        final Thread[] senders = new Thread[3];
+
+        socketConnectionFacade = createMock(SocketConnectionFacade.class);
+        socketConnectionFacade.write((String) anyObject());
+        expectLastCall().times(3);
+        socketConnectionFacade.flush();
+        expectLastCall().andAnswer(new IAnswer<Object>()
+        {
+            public Object answer() throws Throwable
+            {
+                flushing.countDown();
+                releaseFlush.await();
+                return null;
+            }
+        });
+        // the two actions queued during the first flush share one flush
+        socketConnectionFacade.flush();
+        replay(socketConnectionFacade);
+
+        managerWriter.setSocket(socketConnectionFacade);
+        for (int i = 0; i < senders.length; i++)
+        {
+            senders[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        managerWriter.sendAction(new StatusAction(), null);
+                    }
+                    catch (Exception e)
+                    {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        senders[0].start();
+        assertTrue("First action not flushed", flushing.await(5, TimeUnit.SECONDS));
+        senders[1].start();
+        senders[2].start();
+        waitUntilWaiting(senders[1]);
+        waitUntilWaiting(senders[2]);
+        releaseFlush.countDown();
+
+        for (Thread sender : senders)
+        {
+            sender.join(5000);
+        }
+        assertEquals("Failed sends", 0, failures.get());
+        verify(socketConnectionFacade);
+    }
+
+    @Test
+    public void testUrgentActionOvertakesQueuedBulkAction() throws Exception
+    {
+        final SocketConnectionFacade socketConnectionFacade;
+        final CountDownLatch flushing = new CountDownLatch(1);
+        final CountDownLatch releaseFlush = new CountDownLatch(1);
+
+        socketConnectionFacade = createStrictMock(SocketConnectionFacade.class);
+        socketConnectionFacade.write("action: Status\r\n\r\n");
+        socketConnectionFacade.flush();
+        expectLastCall().andAnswer(new IAnswer<Object>()
+        {
+            public Object answer() throws Throwable
+            {
+                flushing.countDown();
+                releaseFlush.await();
+                return null;
+            }
+        });
+        socketConnectionFacade.write("action: Hangup\r\nchannel: SIP/1-0001\r\n\r\n");
+        socketConnectionFacade.write("action: Status\r\n\r\n");
+        socketConnectionFacade.flush();
+        replay(socketConnectionFacade);
+
+        managerWriter.setSocket(socketConnectionFacade);
+        final Thread first = sendInBackground(new StatusAction(), ActionPriority.NORMAL);
+        assertTrue("First action not flushed", flushing.await(5, TimeUnit.SECONDS));
+        final Thread bulk = sendInBackground(new StatusAction(), ActionPriority.BULK);
+        waitUntilWaiting(bulk);
+        final Thread urgent = sendInBackground(new HangupAction("SIP/1-0001"), ActionPriority.URGENT);
+        waitUntilWaiting(urgent);
+        releaseFlush.countDown();
+
+        first.join(5000);
+        bulk.join(5000);
+        urgent.join(5000);
+        verify(socketConnectionFacade);
+    }
+
+    private Thread sendInBackground(final ManagerAction action, final ActionPriority priority)
+    {
+        final Thread sender = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    managerWriter.sendAction(action, null, priority);
+                }
+                catch (IOException e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        sender.start();
+        return sender;
+    }
+
+    private static void waitUntilWaiting(Thread thread) throws InterruptedException
+    {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(1);
+        }
+    }
 }
@@ -19,6 +19,7 @@ package org.asteriskjava.manager.internal;
 import java.io.IOException;
 
 import org.asteriskjava.AsteriskVersion;
+import org.asteriskjava.manager.ActionPriority;
 import org.asteriskjava.manager.action.ChallengeAction;
 import org.asteriskjava.manager.action.LoginAction;
 import org.asteriskjava.manager.action.LogoffAction;
@@ -108,6 +109,15 @@ public class ManagerWriterMock implements ManagerWriter
         }
     }
 
+    public void setRateLimit(ActionPriority priority, double actionsPerSecond)
+    {
+    }
+
+    public void sendAction(ManagerAction action, String internalActionId, ActionPriority priority) throws IOException
+    {
+        sendAction(action, internalActionId);
+    }
+
     public void sendAction(ManagerAction action, String internalActionId) throws IOException
     {
         if (action instanceof ChallengeAction)
@@ -0,0 +1,69 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.asteriskjava.manager.ManagerEventListener;
+import org.asteriskjava.manager.ManagerEventListenerProxy;
+import org.asteriskjava.manager.event.ManagerEvent;
+import org.junit.Test;
+
+public class PartitionedEventDispatcherTest
+{
+    private final ManagerEventListener target = new ManagerEventListener()
+    {
+        public void onManagerEvent(ManagerEvent event)
+        {
+        }
+    };
+
+    @Test
+    public void testLanesOnOwnThreadsNeverBlock()
+    {
+        final PartitionedEventDispatcher dispatcher = new PartitionedEventDispatcher(target, 2, null, null);
+        try
+        {
+            assertEquals(ManagerEventListenerProxy.UNBOUNDED, dispatcher.getLane("key").getCapacity());
+            assertEquals(ManagerEventListenerProxy.UNBOUNDED, dispatcher.getLane(null).getCapacity());
+        }
+        finally
+        {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testLanesOnSharedExecutorNeverBlock()
+    {
+        final ExecutorService executor = Executors.newFixedThreadPool(1);
+        final PartitionedEventDispatcher dispatcher = new PartitionedEventDispatcher(target, 2, null, executor);
+        try
+        {
+            assertEquals(ManagerEventListenerProxy.UNBOUNDED, dispatcher.getLane("key").getCapacity());
+            assertEquals(ManagerEventListenerProxy.UNBOUNDED, dispatcher.getLane(null).getCapacity());
+        }
+        finally
+        {
+            dispatcher.shutdown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.asteriskjava.manager.ManagerEventListener;
+import org.asteriskjava.manager.ResponseEvents;
+import org.asteriskjava.manager.SendActionCallback;
+import org.asteriskjava.manager.event.StatusCompleteEvent;
+import org.asteriskjava.manager.event.StatusEvent;
+import org.asteriskjava.manager.response.ManagerError;
+import org.asteriskjava.manager.response.ManagerResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResponseEventsFutureImplTest
+{
+    private static final String INTERNAL_ACTION_ID = "123_0";
+
+    private ConcurrentMap<String, SendActionCallback> responseListeners;
+    private ConcurrentMap<String, ManagerEventListener> responseEventListeners;
+    private ResponseEventsFutureImpl future;
+
+    @Before
+    public void setUp()
+    {
+        responseListeners = new ConcurrentHashMap<String, SendActionCallback>();
+        responseEventListeners = new ConcurrentHashMap<String, ManagerEventListener>();
+        future = new ResponseEventsFutureImpl(INTERNAL_ACTION_ID, StatusCompleteEvent.class, responseListeners,
+                responseEventListeners);
+        future.register();
+        responseListeners.put(INTERNAL_ACTION_ID, future);
+    }
+
+    @Test
+    public void testCompletesWithResponseAndCompleteEvent() throws Exception
+    {
+        final ManagerResponse response = new ManagerResponse();
+
+        future.onManagerEvent(new StatusEvent(this));
+        future.onManagerEvent(new StatusCompleteEvent(this));
+        assertFalse("must wait for the response", future.isDone());
+
+        future.onResponse(response);
+        final ResponseEvents responseEvents = future.get(1, TimeUnit.SECONDS);
+
+        assertSame(response, responseEvents.getResponse());
+        assertEquals(2, responseEvents.getEvents().size());
+        assertCorrelationTablesEmpty();
+    }
+
+    @Test
+    public void testCompletesWithErrorResponse() throws Exception
+    {
+        future.onResponse(new ManagerError());
+
+        assertTrue(future.isDone());
+        assertTrue(future.get().getResponse() instanceof ManagerError);
+        assertCorrelationTablesEmpty();
+    }
+
+    @Test
+    public void testCancel()
+    {
+        future.onResponse(new ManagerResponse());
+        future.onManagerEvent(new StatusEvent(this));
+
+        assertTrue(future.cancel(false));
+        assertTrue(future.isCancelled());
+        assertEquals(1, future.getPartialResult().getEvents().size());
+        assertCorrelationTablesEmpty();
+    }
+
+    private void assertCorrelationTablesEmpty()
+    {
+        assertTrue(responseListeners.isEmpty());
+        assertTrue(responseEventListeners.isEmpty());
+    }
+}
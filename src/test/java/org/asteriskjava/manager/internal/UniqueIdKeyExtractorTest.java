@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.manager.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.asteriskjava.manager.event.BridgeEvent;
+import org.asteriskjava.manager.event.CelEvent;
+import org.asteriskjava.manager.event.HangupRequestEvent;
+import org.asteriskjava.manager.event.NewChannelEvent;
+import org.asteriskjava.manager.event.PeerStatusEvent;
+import org.asteriskjava.manager.event.StatusEvent;
+import org.asteriskjava.manager.event.VarSetEvent;
+import org.junit.Test;
+
+public class UniqueIdKeyExtractorTest
+{
+    private final UniqueIdKeyExtractor keyExtractor = new UniqueIdKeyExtractor();
+
+    @Test
+    public void testUniqueId()
+    {
+        final NewChannelEvent newChannelEvent = new NewChannelEvent(this);
+        final HangupRequestEvent hangupRequestEvent = new HangupRequestEvent(this);
+        newChannelEvent.setUniqueId("1234567890.1");
+        hangupRequestEvent.setUniqueid("1234567890.2");
+
+        assertEquals("1234567890.1", keyExtractor.getKey(newChannelEvent));
+        assertEquals("1234567890.2", keyExtractor.getKey(hangupRequestEvent));
+    }
+
+    @Test
+    public void testStatusEvent()
+    {
+        final StatusEvent event = new StatusEvent(this);
+        event.setUniqueId("1234567890.4");
+
+        assertEquals("1234567890.4", keyExtractor.getKey(event));
+    }
+
+    @Test
+    public void testFirstChannelOfBridge()
+    {
+        final BridgeEvent event = new BridgeEvent(this);
+        event.setUniqueId1("1234567890.1");
+        event.setUniqueId2("1234567890.2");
+
+        assertEquals("1234567890.1", keyExtractor.getKey(event));
+    }
+
+    @Test
+    public void testLinkedIdIfUniqueIdIsMissing()
+    {
+        final CelEvent event = new CelEvent(this);
+        event.setLinkedID("1234567890.3");
+
+        assertEquals("1234567890.3", keyExtractor.getKey(event));
+    }
+
+    @Test
+    public void testLegsOfCallShareLinkedId()
+    {
+        final NewChannelEvent source = new NewChannelEvent(this);
+        final NewChannelEvent destination = new NewChannelEvent(this);
+        final VarSetEvent varSet = new VarSetEvent(this);
+        source.setUniqueId("1234567890.1");
+        source.setLinkedId("1234567890.1");
+        destination.setUniqueId("1234567890.2");
+        destination.setLinkedId("1234567890.1");
+        varSet.setUniqueId("1234567890.2");
+        varSet.setLinkedId("1234567890.1");
+
+        assertEquals("1234567890.1", keyExtractor.getKey(source));
+        assertEquals("1234567890.1", keyExtractor.getKey(destination));
+        assertEquals("1234567890.1", keyExtractor.getKey(varSet));
+    }
+
+    @Test
+    public void testEventWithoutUniqueId()
+    {
+        assertNull(keyExtractor.getKey(new PeerStatusEvent(this)));
+        assertNull(keyExtractor.getKey(new CelEvent(this)));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2004-2006 Stefan Reuter
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.asteriskjava.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HashedWheelTimerTest
+{
+    private HashedWheelTimer timer;
+
+    @Before
+    public void setUp()
+    {
+        // a small wheel so timeouts need several rounds
+        timer = new HashedWheelTimer("Test", 10, TimeUnit.MILLISECONDS, 4);
+    }
+
+    @After
+    public void tearDown()
+    {
+        timer.stop();
+    }
+
+    @Test
+    public void testExpire() throws Exception
+    {
+        final CountDownLatch expired = new CountDownLatch(1);
+        final long start = System.nanoTime();
+
+        final HashedWheelTimer.Timeout timeout = timer.newTimeout(new Runnable()
+        {
+            public void run()
+            {
+                expired.countDown();
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+
+        assertTrue("timeout did not expire", expired.await(5, TimeUnit.SECONDS));
+        assertTrue("timeout expired too early", System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(timeout.isExpired());
+        assertFalse("expired timeout must not be cancelled", timeout.cancel());
+    }
+
+    @Test
+    public void testCancel() throws Exception
+    {
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch later = new CountDownLatch(1);
+
+        final HashedWheelTimer.Timeout timeout = timer.newTimeout(new Runnable()
+        {
+            public void run()
+            {
+                runs.incrementAndGet();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+        timer.newTimeout(new Runnable()
+        {
+            public void run()
+            {
+                later.countDown();
+            }
+        }, 150, TimeUnit.MILLISECONDS);
+
+        assertTrue(timeout.cancel());
+        assertTrue(later.await(5, TimeUnit.SECONDS));
+        assertEquals("cancelled task must not run", 0, runs.get());
+        assertTrue(timeout.isCancelled());
+    }
+
+    @Test
+    public void testManyTimeouts() throws Exception
+    {
+        final CountDownLatch expired = new CountDownLatch(1000);
+
+        for (int i = 0; i < 1000; i++)
+        {
+            timer.newTimeout(new Runnable()
+            {
+                public void run()
+                {
+                    expired.countDown();
+                }
+            }, i % 100, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue("not all timeouts expired", expired.await(5, TimeUnit.SECONDS));
+    }
+}